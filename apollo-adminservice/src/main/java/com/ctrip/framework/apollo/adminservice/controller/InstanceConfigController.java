@@ -18,7 +18,6 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -101,6 +100,46 @@ public class InstanceConfigController {
                                               @RequestParam("clusterName") String clusterName,
                                               @RequestParam("namespaceName") String namespaceName,
                                               @RequestParam("releaseIds") String releaseIds) {
+    Set<String> releaseKeys = findReleaseKeys(releaseIds);
+
+    List<InstanceConfig> instanceConfigs = instanceService
+        .findInstanceConfigsByNamespaceWithReleaseKeysNotIn(appId, clusterName, namespaceName,
+            releaseKeys);
+
+    return transformInstanceConfigsWithReleases(instanceConfigs);
+  }
+
+  /**
+   * Paged version of {@link #getByReleasesNotIn}, the total is taken from the instance release counts so no full
+   * load or count query is needed
+   */
+  @GetMapping("/by-namespace-and-releases-not-in/page")
+  public PageDTO<InstanceDTO> getByReleasesNotIn(@RequestParam("appId") String appId,
+                                                 @RequestParam("clusterName") String clusterName,
+                                                 @RequestParam("namespaceName") String namespaceName,
+                                                 @RequestParam("releaseIds") String releaseIds,
+                                                 Pageable pageable) {
+    Set<String> releaseKeys = findReleaseKeys(releaseIds);
+
+    List<InstanceConfig> instanceConfigs = instanceService
+        .findInstanceConfigsByNamespaceWithReleaseKeysNotIn(appId, clusterName, namespaceName,
+            releaseKeys, pageable);
+
+    Map<String, Long> counts = instanceService.countActiveInstancesByNamespaceGroupByReleaseKey(appId,
+        clusterName, namespaceName);
+    long total = 0;
+    for (Map.Entry<String, Long> entry : counts.entrySet()) {
+      if (!releaseKeys.contains(entry.getKey())) {
+        total += entry.getValue();
+      }
+    }
+    //the counts are hourly buckets, so make sure the total covers what is already loaded
+    total = Math.max(total, pageable.getOffset() + instanceConfigs.size());
+
+    return new PageDTO<>(transformInstanceConfigsWithReleases(instanceConfigs), pageable, total);
+  }
+
+  private Set<String> findReleaseKeys(String releaseIds) {
     Set<Long> releaseIdSet = RELEASES_SPLITTER.splitToList(releaseIds).stream().map(Long::parseLong)
         .collect(Collectors.toSet());
 
@@ -110,13 +149,10 @@ public class InstanceConfigController {
       throw new NotFoundException(String.format("releases not found for %s", releaseIds));
     }
 
-    Set<String> releaseKeys = releases.stream().map(Release::getReleaseKey).collect(Collectors
-        .toSet());
-
-    List<InstanceConfig> instanceConfigs = instanceService
-        .findInstanceConfigsByNamespaceWithReleaseKeysNotIn(appId, clusterName, namespaceName,
-            releaseKeys);
+    return releases.stream().map(Release::getReleaseKey).collect(Collectors.toSet());
+  }
 
+  private List<InstanceDTO> transformInstanceConfigsWithReleases(List<InstanceConfig> instanceConfigs) {
     Multimap<Long, InstanceConfig> instanceConfigMap = HashMultimap.create();
     Set<String> otherReleaseKeys = Sets.newHashSet();
 
@@ -182,8 +218,6 @@ public class InstanceConfigController {
   public long getInstancesCountByNamespace(@RequestParam("appId") String appId,
                                           @RequestParam("clusterName") String clusterName,
                                           @RequestParam("namespaceName") String namespaceName) {
-    Page<Instance> instances = instanceService.findInstancesByNamespace(appId, clusterName,
-        namespaceName, PageRequest.of(0, 1));
-    return instances.getTotalElements();
+    return instanceService.countActiveInstancesByNamespace(appId, clusterName, namespaceName);
   }
 }
@@ -1,8 +1,14 @@
 package com.ctrip.framework.apollo.adminservice.controller;
 
 import com.ctrip.framework.apollo.biz.entity.Namespace;
+import com.ctrip.framework.apollo.biz.service.CommitService;
+import com.ctrip.framework.apollo.biz.service.ItemService;
 import com.ctrip.framework.apollo.biz.service.NamespaceService;
+import com.ctrip.framework.apollo.biz.service.ReleaseService;
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
 import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
+import com.ctrip.framework.apollo.common.dto.NamespaceDetailDTO;
+import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.common.exception.BadRequestException;
 import com.ctrip.framework.apollo.common.exception.NotFoundException;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
@@ -15,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -22,9 +29,19 @@ import java.util.Map;
 public class NamespaceController {
 
   private final NamespaceService namespaceService;
-
-  public NamespaceController(final NamespaceService namespaceService) {
+  private final ItemService itemService;
+  private final ReleaseService releaseService;
+  private final CommitService commitService;
+
+  public NamespaceController(
+      final NamespaceService namespaceService,
+      final ItemService itemService,
+      final ReleaseService releaseService,
+      final CommitService commitService) {
     this.namespaceService = namespaceService;
+    this.itemService = itemService;
+    this.releaseService = releaseService;
+    this.commitService = commitService;
   }
 
   @PostMapping("/apps/{appId}/clusters/{clusterName}/namespaces")
@@ -62,6 +79,26 @@ public class NamespaceController {
     return BeanUtils.batchTransform(NamespaceDTO.class, groups);
   }
 
+  /**
+   * Load all the namespaces of the cluster together with their items, deleted items and latest releases
+   */
+  @GetMapping("/apps/{appId}/clusters/{clusterName}/namespace-details")
+  public List<NamespaceDetailDTO> findDetails(@PathVariable("appId") String appId,
+                                              @PathVariable("clusterName") String clusterName) {
+    List<Namespace> namespaces = namespaceService.findNamespaces(appId, clusterName);
+    List<NamespaceDetailDTO> details = new ArrayList<>(namespaces.size());
+    for (Namespace namespace : namespaces) {
+      NamespaceDetailDTO detail = new NamespaceDetailDTO();
+      detail.setBaseInfo(BeanUtils.transform(NamespaceDTO.class, namespace));
+      detail.setItems(BeanUtils.batchTransform(ItemDTO.class, itemService.findItemsWithOrdered(namespace.getId())));
+      detail.setDeletedItems(BeanUtils.batchTransform(ItemDTO.class,
+          commitService.findDeletedItems(appId, clusterName, namespace.getNamespaceName())));
+      detail.setLatestRelease(BeanUtils.transform(ReleaseDTO.class, releaseService.findLatestActiveRelease(namespace)));
+      details.add(detail);
+    }
+    return details;
+  }
+
   @GetMapping("/namespaces/{namespaceId}")
   public NamespaceDTO get(@PathVariable("namespaceId") Long namespaceId) {
     Namespace namespace = namespaceService.findOne(namespaceId);
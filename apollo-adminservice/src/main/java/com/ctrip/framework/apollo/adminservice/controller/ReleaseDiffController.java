@@ -0,0 +1,37 @@
+package com.ctrip.framework.apollo.adminservice.controller;
+
+import com.ctrip.framework.apollo.biz.service.ReleaseDiffService;
+import com.ctrip.framework.apollo.common.dto.ReleaseDiffDTO;
+import com.google.common.base.Splitter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+public class ReleaseDiffController {
+
+  private static final Splitter RELEASES_SPLITTER = Splitter.on(",").trimResults();
+
+  private final ReleaseDiffService releaseDiffService;
+
+  public ReleaseDiffController(final ReleaseDiffService releaseDiffService) {
+    this.releaseDiffService = releaseDiffService;
+  }
+
+  /**
+   * The diffs between the releases paired by position, e.g. baseReleaseIds=1,2&toCompareReleaseIds=2,3 compares
+   * release 1 with 2 and release 2 with 3. Release id 0 stands for no release.
+   */
+  @GetMapping("/release-diffs")
+  public List<ReleaseDiffDTO> findReleaseDiffs(@RequestParam("baseReleaseIds") String baseReleaseIds,
+      @RequestParam("toCompareReleaseIds") String toCompareReleaseIds) {
+    return releaseDiffService.compare(parseReleaseIds(baseReleaseIds), parseReleaseIds(toCompareReleaseIds));
+  }
+
+  private List<Long> parseReleaseIds(String releaseIds) {
+    return RELEASES_SPLITTER.splitToList(releaseIds).stream().map(Long::parseLong).collect(Collectors.toList());
+  }
+}
@@ -10,6 +10,7 @@ import com.ctrip.framework.apollo.common.dto.PageDTO;
 import com.ctrip.framework.apollo.common.exception.NotFoundException;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
@@ -21,14 +22,12 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -219,6 +218,57 @@ public class InstanceConfigControllerTest {
         .getReleaseDeliveryTime());
   }
 
+  @Test
+  public void testGetByReleasesNotInWithPage() throws Exception {
+    String someConfigAppId = "someConfigAppId";
+    String someConfigClusterName = "someConfigClusterName";
+    String someConfigNamespaceName = "someConfigNamespaceName";
+    long someReleaseId = 1;
+    String someReleaseKey = "someReleaseKey";
+    String someInstanceConfigReleaseKey = "someInstanceConfigReleaseKey";
+    String anotherInstanceConfigReleaseKey = "anotherInstanceConfigReleaseKey";
+    long someInstanceId = 1;
+    Date someReleaseDeliveryTime = new Date();
+
+    Release someRelease = mock(Release.class);
+    when(someRelease.getReleaseKey()).thenReturn(someReleaseKey);
+    when(releaseService.findByReleaseIds(Sets.newHashSet(someReleaseId)))
+        .thenReturn(Lists.newArrayList(someRelease));
+
+    InstanceConfig someInstanceConfig = assembleInstanceConfig(someInstanceId, someConfigAppId,
+        someConfigNamespaceName, someInstanceConfigReleaseKey, someReleaseDeliveryTime);
+    when(instanceService.findInstanceConfigsByNamespaceWithReleaseKeysNotIn(someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName, Sets.newHashSet(someReleaseKey), pageable))
+        .thenReturn(Lists.newArrayList(someInstanceConfig));
+
+    Map<String, Long> counts = Maps.newHashMap();
+    counts.put(someReleaseKey, 10L);
+    counts.put(someInstanceConfigReleaseKey, 3L);
+    counts.put(anotherInstanceConfigReleaseKey, 2L);
+    when(instanceService.countActiveInstancesByNamespaceGroupByReleaseKey(someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName)).thenReturn(counts);
+
+    Instance someInstance = assembleInstance(someInstanceId, someConfigAppId, someConfigClusterName,
+        someConfigNamespaceName, "someIp");
+    when(instanceService.findInstancesByIds(Sets.newHashSet(someInstanceId)))
+        .thenReturn(Lists.newArrayList(someInstance));
+
+    Release someInstanceConfigRelease = new Release();
+    someInstanceConfigRelease.setReleaseKey(someInstanceConfigReleaseKey);
+    when(releaseService.findByReleaseKeys(Sets.newHashSet(someInstanceConfigReleaseKey)))
+        .thenReturn(Lists.newArrayList(someInstanceConfigRelease));
+
+    PageDTO<InstanceDTO> result = instanceConfigController.getByReleasesNotIn(someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName, String.valueOf(someReleaseId), pageable);
+
+    assertEquals(5, result.getTotal());
+    assertEquals(1, result.getContent().size());
+    InstanceDTO someInstanceDto = result.getContent().get(0);
+    verifyInstance(someInstance, someInstanceDto);
+    assertEquals(someInstanceConfigReleaseKey, someInstanceDto.getConfigs().get(0).getRelease().getReleaseKey());
+    assertEquals(someReleaseDeliveryTime, someInstanceDto.getConfigs().get(0).getReleaseDeliveryTime());
+  }
+
   @Test
   public void testGetInstancesByNamespace() throws Exception {
     String someAppId = "someAppId";
@@ -303,10 +353,8 @@ public class InstanceConfigControllerTest {
     String someClusterName = "someClusterName";
     String someNamespaceName = "someNamespaceName";
 
-    Page<Instance> instances = new PageImpl<>(Collections.emptyList(), pageable, 2);
-
-    when(instanceService.findInstancesByNamespace(eq(someAppId), eq(someClusterName),
-        eq(someNamespaceName), any(Pageable.class))).thenReturn(instances);
+    when(instanceService.countActiveInstancesByNamespace(someAppId, someClusterName, someNamespaceName))
+        .thenReturn(2L);
 
     long result = instanceConfigController.getInstancesCountByNamespace(someAppId,
         someClusterName, someNamespaceName);
@@ -1,9 +1,14 @@
 package com.ctrip.framework.apollo.adminservice.controller;
 
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
 import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
+import com.ctrip.framework.apollo.common.dto.NamespaceDetailDTO;
+import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.common.utils.InputValidator;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
 import org.springframework.web.client.HttpClientErrorException;
 import static org.hamcrest.Matchers.containsString;
 
@@ -28,4 +33,29 @@ public class NamespaceControllerTest extends AbstractControllerTest {
       Assert.assertThat(new String(e.getResponseBodyAsByteArray()), containsString(InputValidator.INVALID_CLUSTER_NAMESPACE_MESSAGE));
     }
   }
+
+  @Test
+  @Sql(scripts = "/controller/test-release.sql", executionPhase = ExecutionPhase.BEFORE_TEST_METHOD)
+  @Sql(scripts = "/controller/cleanup.sql", executionPhase = ExecutionPhase.AFTER_TEST_METHOD)
+  public void testFindDetails() {
+    NamespaceDetailDTO[] details = restTemplate.getForObject(
+        url("/apps/{appId}/clusters/{clusterName}/namespace-details"), NamespaceDetailDTO[].class,
+        "someAppId", "default");
+
+    Assert.assertEquals(1, details.length);
+    Assert.assertEquals("application", details[0].getBaseInfo().getNamespaceName());
+    Assert.assertEquals(3, details[0].getItems().size());
+    Assert.assertEquals("k1", details[0].getItems().get(0).getKey());
+
+    //the same as loading them one by one
+    ItemDTO[] deletedItems = restTemplate.getForObject(
+        url("/apps/{appId}/clusters/{clusterName}/namespaces/{namespaceName}/items/deleted"), ItemDTO[].class,
+        "someAppId", "default", "application");
+    ReleaseDTO latestRelease = restTemplate.getForObject(
+        url("/apps/{appId}/clusters/{clusterName}/namespaces/{namespaceName}/releases/latest"), ReleaseDTO.class,
+        "someAppId", "default", "application");
+    Assert.assertEquals(deletedItems.length, details[0].getDeletedItems().size());
+    Assert.assertEquals(latestRelease == null ? null : latestRelease.getId(),
+        details[0].getLatestRelease() == null ? null : details[0].getLatestRelease().getId());
+  }
 }
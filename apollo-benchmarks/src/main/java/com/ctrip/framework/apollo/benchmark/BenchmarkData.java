@@ -0,0 +1,83 @@
+package com.ctrip.framework.apollo.benchmark;
+
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Generates configurations shaped like the real ones: dotted keys, half of them urls and half of them integers.
+ * The data is deterministic so the results of different runs are comparable.
+ */
+public final class BenchmarkData {
+
+  private static final Gson GSON = new Gson();
+
+  private BenchmarkData() {
+  }
+
+  public static String stringKey(int index) {
+    return "apollo.benchmark.service" + index + ".url";
+  }
+
+  public static String intKey(int index) {
+    return "apollo.benchmark.service" + index + ".timeout";
+  }
+
+  /**
+   * @param keys the number of keys, half of them with string values and half of them with int values
+   */
+  public static Map<String, String> configurations(int keys) {
+    return configurations(keys, 0);
+  }
+
+  /**
+   * @param version values of different versions differ, e.g. to generate releases to merge
+   */
+  public static Map<String, String> configurations(int keys, int version) {
+    Map<String, String> configurations = Maps.newLinkedHashMap();
+    for (int i = 0; i < keys / 2; i++) {
+      configurations.put(stringKey(i), "http://service" + i + ".apollo.benchmark:8080/api/v" + version);
+      configurations.put(intKey(i), String.valueOf(1000 + i + version));
+    }
+    return configurations;
+  }
+
+  public static Properties properties(int keys) {
+    Properties properties = new Properties();
+    properties.putAll(configurations(keys));
+    return properties;
+  }
+
+  public static String configurationsJson(int keys, int version) {
+    return GSON.toJson(configurations(keys, version));
+  }
+
+  /**
+   * The same keys as {@link #configurations(int)} in yaml, nested by the dots of the keys
+   */
+  public static String yaml(int keys) {
+    StringBuilder yaml = new StringBuilder("apollo:\n  benchmark:\n");
+    for (int i = 0; i < keys / 2; i++) {
+      yaml.append("    service").append(i).append(":\n");
+      yaml.append("      url: http://service").append(i).append(".apollo.benchmark:8080/api/v0\n");
+      yaml.append("      timeout: ").append(1000 + i).append('\n');
+    }
+    return yaml.toString();
+  }
+
+  /**
+   * The same keys as {@link #configurations(int)} in the properties text format of the portal, with the values of
+   * every 100th key changed
+   */
+  public static String propertiesText(int keys) {
+    StringBuilder text = new StringBuilder();
+    int index = 0;
+    for (Map.Entry<String, String> entry : configurations(keys).entrySet()) {
+      String value = index++ % 100 == 0 ? entry.getValue() + "-changed" : entry.getValue();
+      text.append(entry.getKey()).append(" = ").append(value).append('\n');
+    }
+    return text.toString();
+  }
+}
@@ -0,0 +1,113 @@
+package com.ctrip.framework.apollo.benchmark;
+
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH results in json format, e.g. the baseline of the last release and the results of the current
+ * build, and exits with 1 if any benchmark regresses more than the threshold, or with 2 if the baseline has no results
+ * to compare with.
+ *
+ * <pre>
+ * java -cp target/apollo-benchmarks.jar com.ctrip.framework.apollo.benchmark.BenchmarkResultsComparator \
+ *   baseline/baseline.json results.json [threshold percentage, 10 by default]
+ * </pre>
+ */
+public class BenchmarkResultsComparator {
+
+  private static final Gson GSON = new Gson();
+  private static final double DEFAULT_THRESHOLD_PERCENTAGE = 10;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: BenchmarkResultsComparator <baseline.json> <results.json> [threshold percentage]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENTAGE;
+
+    Map<String, Result> baseline = load(args[0]);
+    Map<String, Result> current = load(args[1]);
+
+    int regressions = 0;
+    System.out.println(String.format("%-100s %15s %15s %10s", "Benchmark", "Baseline", "Current", "Change"));
+    for (Map.Entry<String, Result> entry : current.entrySet()) {
+      Result result = entry.getValue();
+      Result baselineResult = baseline.get(entry.getKey());
+      if (baselineResult == null) {
+        System.out.println(String.format("%-100s %15s %15.3f %10s", entry.getKey(), "-", result.score(), "new"));
+        continue;
+      }
+
+      double change = (result.score() - baselineResult.score()) / baselineResult.score() * 100;
+      //throughput is better when higher, and the others, i.e. time, are better when lower
+      double improvement = result.isThroughput() ? change : -change;
+      boolean regressed = improvement < -threshold;
+      if (regressed) {
+        regressions++;
+      }
+      System.out.println(String.format("%-100s %15.3f %15.3f %+9.1f%%%s", entry.getKey(), baselineResult.score(),
+          result.score(), change, regressed ? " REGRESSED" : ""));
+    }
+
+    System.out.println(String.format("%d regression(s) beyond %.1f%%", regressions, threshold));
+    if (baseline.isEmpty()) {
+      //nothing is compared, so it must not pass as no regression
+      System.err.println("The baseline has no results, record it first, see apollo-benchmarks/README.md");
+      System.exit(2);
+    }
+    System.exit(regressions > 0 ? 1 : 0);
+  }
+
+  private static Map<String, Result> load(String file) throws IOException {
+    List<Result> results;
+    try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+      results = GSON.fromJson(reader, new TypeToken<List<Result>>() {
+      }.getType());
+    }
+
+    Map<String, Result> resultsByName = Maps.newTreeMap();
+    for (Result result : results) {
+      resultsByName.put(result.name(), result);
+    }
+    return resultsByName;
+  }
+
+  /**
+   * The fields used in the json results of JMH
+   */
+  private static class Result {
+    private String benchmark;
+    private String mode;
+    private TreeMap<String, String> params;
+    @SerializedName("primaryMetric")
+    private Metric metric;
+
+    private String name() {
+      String name = benchmark + " (" + mode + ")";
+      return params == null || params.isEmpty() ? name : name + " " + params;
+    }
+
+    private double score() {
+      return metric.score;
+    }
+
+    private boolean isThroughput() {
+      return "thrpt".equals(mode);
+    }
+  }
+
+  private static class Metric {
+    private double score;
+  }
+}
@@ -0,0 +1,101 @@
+package com.ctrip.framework.apollo.benchmark;
+
+import com.ctrip.framework.apollo.Config;
+import com.ctrip.framework.apollo.enums.ConfigSourceType;
+import com.ctrip.framework.apollo.internals.ConfigRepository;
+import com.ctrip.framework.apollo.internals.DefaultConfig;
+import com.ctrip.framework.apollo.internals.RepositoryChangeListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reads of the client, i.e. {@link DefaultConfig#getProperty(String, String)} and the typed getters of
+ * {@link com.ctrip.framework.apollo.internals.AbstractConfig}, which are called by the applications on every request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class DefaultConfigBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  private int keys;
+
+  private Config config;
+
+  @Setup
+  public void setUp() {
+    config = new DefaultConfig("application", new StaticConfigRepository(BenchmarkData.properties(keys)));
+  }
+
+  @Benchmark
+  public String getProperty() {
+    return config.getProperty(BenchmarkData.stringKey(randomIndex()), null);
+  }
+
+  @Benchmark
+  public String getMissingProperty() {
+    return config.getProperty("apollo.benchmark.missing", "default");
+  }
+
+  @Benchmark
+  public Integer getIntProperty() {
+    return config.getIntProperty(BenchmarkData.intKey(randomIndex()), 0);
+  }
+
+  @Benchmark
+  public String[] getArrayProperty() {
+    return config.getArrayProperty(BenchmarkData.stringKey(randomIndex()), "/", null);
+  }
+
+  private int randomIndex() {
+    return ThreadLocalRandom.current().nextInt(keys / 2);
+  }
+
+  private static class StaticConfigRepository implements ConfigRepository {
+    private final Properties properties;
+
+    private StaticConfigRepository(Properties properties) {
+      this.properties = properties;
+    }
+
+    @Override
+    public Properties getConfig() {
+      return properties;
+    }
+
+    @Override
+    public void setUpstreamRepository(ConfigRepository upstreamConfigRepository) {
+    }
+
+    @Override
+    public void addChangeListener(RepositoryChangeListener listener) {
+    }
+
+    @Override
+    public void removeChangeListener(RepositoryChangeListener listener) {
+    }
+
+    @Override
+    public ConfigSourceType getSourceType() {
+      return ConfigSourceType.REMOTE;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.ctrip.framework.apollo.benchmark;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.biz.entity.GrayReleaseRule;
+import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
+import com.ctrip.framework.apollo.biz.grayReleaseRule.GrayReleaseRulesHolder;
+import com.ctrip.framework.apollo.biz.message.Topics;
+import com.ctrip.framework.apollo.biz.repository.GrayReleaseRuleRepository;
+import com.ctrip.framework.apollo.common.constants.NamespaceBranchStatus;
+import com.ctrip.framework.apollo.common.dto.GrayReleaseRuleItemDTO;
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Matching the gray release rules, which the config service does for each config request of a namespace with gray
+ * releases.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class GrayReleaseRulesHolderBenchmark {
+
+  private static final Joiner KEY_JOINER = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR);
+  private static final String CLUSTER = ConfigConsts.CLUSTER_NAME_DEFAULT;
+  private static final String NAMESPACE = ConfigConsts.NAMESPACE_APPLICATION;
+  private static final int IPS_PER_RULE = 20;
+
+  /**
+   * The number of namespaces with gray release rules
+   */
+  @Param({"100", "10000"})
+  private int rules;
+
+  private GrayReleaseRulesHolder grayReleaseRulesHolder;
+
+  @Setup
+  public void setUp() {
+    Gson gson = new Gson();
+    GrayReleaseRuleRepository grayReleaseRuleRepository = mock(GrayReleaseRuleRepository.class,
+        withSettings().stubOnly());
+    when(grayReleaseRuleRepository.findByAppIdAndClusterNameAndNamespaceName(anyString(), anyString(), anyString()))
+        .thenAnswer(invocation -> {
+          String appId = invocation.getArgument(0);
+          int index = Integer.parseInt(appId.substring("app".length()));
+          GrayReleaseRule rule = new GrayReleaseRule();
+          rule.setId(index + 1);
+          rule.setAppId(appId);
+          rule.setClusterName(CLUSTER);
+          rule.setNamespaceName(NAMESPACE);
+          rule.setBranchName("branch" + index);
+          rule.setRules(gson.toJson(Collections.singletonList(
+              new GrayReleaseRuleItemDTO(appId, ips(index)))));
+          rule.setReleaseId((long) index + 1);
+          rule.setBranchStatus(NamespaceBranchStatus.ACTIVE);
+          return Collections.singletonList(rule);
+        });
+
+    grayReleaseRulesHolder = new GrayReleaseRulesHolder();
+    ReflectionTestUtils.setField(grayReleaseRulesHolder, "grayReleaseRuleRepository", grayReleaseRuleRepository);
+    ReflectionTestUtils.setField(grayReleaseRulesHolder, "bizConfig", mock(BizConfig.class));
+    //load the rules the same way as a gray release does
+    for (int i = 0; i < rules; i++) {
+      ReleaseMessage message = new ReleaseMessage(KEY_JOINER.join(appId(i), CLUSTER, NAMESPACE));
+      grayReleaseRulesHolder.handleMessage(message, Topics.APOLLO_RELEASE_TOPIC);
+    }
+  }
+
+  @Benchmark
+  public Long matchedClient() {
+    int index = ThreadLocalRandom.current().nextInt(rules);
+    return grayReleaseRulesHolder.findReleaseIdFromGrayReleaseRule(appId(index), ip(index, IPS_PER_RULE - 1),
+        appId(index), CLUSTER, NAMESPACE);
+  }
+
+  @Benchmark
+  public Long unmatchedClient() {
+    int index = ThreadLocalRandom.current().nextInt(rules);
+    return grayReleaseRulesHolder.findReleaseIdFromGrayReleaseRule(appId(index), "10.255.255.255",
+        appId(index), CLUSTER, NAMESPACE);
+  }
+
+  @Benchmark
+  public Long namespaceWithoutRules() {
+    return grayReleaseRulesHolder.findReleaseIdFromGrayReleaseRule("appWithoutRules", "10.255.255.255",
+        "appWithoutRules", CLUSTER, NAMESPACE);
+  }
+
+  private static String appId(int index) {
+    return "app" + index;
+  }
+
+  private static Set<String> ips(int index) {
+    Set<String> ips = Sets.newHashSetWithExpectedSize(IPS_PER_RULE);
+    for (int i = 0; i < IPS_PER_RULE; i++) {
+      ips.add(ip(index, i));
+    }
+    return ips;
+  }
+
+  private static String ip(int index, int offset) {
+    return "10." + (index >> 8 & 0xff) + "." + (index & 0xff) + "." + offset;
+  }
+}
@@ -0,0 +1,105 @@
+package com.ctrip.framework.apollo.benchmark;
+
+import com.ctrip.framework.apollo.benchmark.longpoll.EmbeddedConfigService;
+import com.ctrip.framework.apollo.biz.entity.Item;
+import com.ctrip.framework.apollo.biz.entity.Namespace;
+import com.ctrip.framework.apollo.biz.repository.NamespaceRepository;
+import com.ctrip.framework.apollo.biz.service.ItemService;
+import com.ctrip.framework.apollo.biz.service.ItemSetService;
+import com.ctrip.framework.apollo.common.dto.ItemChangeSets;
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving the items of a namespace in one change set, which the admin service does when the items are modified by
+ * text or imported: all the items are created, then updated, then deleted, on an in-memory H2 database.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemSetServiceBenchmark {
+
+  private static final String OPERATOR = "apollo-benchmark";
+
+  /**
+   * The number of items in each change set
+   */
+  @Param({"1000", "10000"})
+  private int items;
+
+  private EmbeddedConfigService configService;
+  private ItemSetService itemSetService;
+  private ItemService itemService;
+  private Namespace namespace;
+  private int version;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    configService = new EmbeddedConfigService(0, 100, 0);
+    itemSetService = configService.getBean(ItemSetService.class);
+    itemService = configService.getBean(ItemService.class);
+
+    Namespace newNamespace = new Namespace("benchmark-app", ConfigConsts.CLUSTER_NAME_DEFAULT,
+        ConfigConsts.NAMESPACE_APPLICATION);
+    newNamespace.setDataChangeCreatedBy(OPERATOR);
+    namespace = configService.getBean(NamespaceRepository.class).save(newNamespace);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    configService.close();
+  }
+
+  @Benchmark
+  public int createUpdateDeleteItems() {
+    version++;
+
+    ItemChangeSets createChangeSets = newChangeSets();
+    for (int i = 0; i < items; i++) {
+      ItemDTO item = new ItemDTO(BenchmarkData.stringKey(i), "value" + version, "", i + 1);
+      item.setNamespaceId(namespace.getId());
+      createChangeSets.addCreateItem(item);
+    }
+    itemSetService.updateSet(namespace, createChangeSets);
+
+    List<Item> createdItems = itemService.findItemsWithoutOrdered(namespace.getId());
+    ItemChangeSets updateChangeSets = newChangeSets();
+    ItemChangeSets deleteChangeSets = newChangeSets();
+    for (Item createdItem : createdItems) {
+      ItemDTO item = new ItemDTO(createdItem.getKey(), "updated" + version, "", createdItem.getLineNum());
+      item.setId(createdItem.getId());
+      item.setNamespaceId(namespace.getId());
+      updateChangeSets.addUpdateItem(item);
+      deleteChangeSets.addDeleteItem(item);
+    }
+    itemSetService.updateSet(namespace, updateChangeSets);
+    itemSetService.updateSet(namespace, deleteChangeSets);
+
+    return createdItems.size();
+  }
+
+  private ItemChangeSets newChangeSets() {
+    ItemChangeSets changeSets = new ItemChangeSets();
+    changeSets.setDataChangeLastModifiedBy(OPERATOR);
+    return changeSets;
+  }
+}
@@ -0,0 +1,123 @@
+package com.ctrip.framework.apollo.benchmark;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
+import com.ctrip.framework.apollo.biz.message.Topics;
+import com.ctrip.framework.apollo.biz.utils.EntityManagerUtil;
+import com.ctrip.framework.apollo.configservice.controller.NotificationControllerV2;
+import com.ctrip.framework.apollo.configservice.service.ReleaseMessageServiceWithCache;
+import com.ctrip.framework.apollo.configservice.util.NamespaceUtil;
+import com.ctrip.framework.apollo.configservice.util.WatchKeysUtil;
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.google.common.base.Joiner;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Notifying the long polling clients of a release message. Each client watches its own application namespace and a
+ * public namespace, so a release of the public namespace notifies all the clients, and a release of an application
+ * namespace notifies one client among all the registered ones.
+ *
+ * <p>A notified client is not notified again, so the clients are registered again before each invocation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationControllerV2Benchmark {
+
+  private static final Joiner KEY_JOINER = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR);
+  private static final String CLUSTER = ConfigConsts.CLUSTER_NAME_DEFAULT;
+  private static final String PUBLIC_APP_ID = "publicApp";
+  private static final String PUBLIC_NAMESPACE = "TEST1.public";
+  private static final String NOTIFICATIONS = "[{\"namespaceName\":\"application\",\"notificationId\":-1},"
+      + "{\"namespaceName\":\"" + PUBLIC_NAMESPACE + "\",\"notificationId\":-1}]";
+
+  @Param({"1000", "100000"})
+  private int clients;
+
+  private WatchKeysUtil watchKeysUtil;
+  private ReleaseMessageServiceWithCache releaseMessageService;
+  private EntityManagerUtil entityManagerUtil;
+  private NamespaceUtil namespaceUtil;
+  private BizConfig bizConfig;
+
+  private NotificationControllerV2 notificationController;
+
+  @Setup(Level.Trial)
+  public void setUpCollaborators() {
+    watchKeysUtil = mock(WatchKeysUtil.class, withSettings().stubOnly());
+    when(watchKeysUtil.assembleAllWatchKeys(anyString(), anyString(), any(Set.class), any()))
+        .thenAnswer(invocation -> {
+          String appId = invocation.getArgument(0);
+          Multimap<String, String> watchKeys = HashMultimap.create();
+          watchKeys.put(ConfigConsts.NAMESPACE_APPLICATION,
+              KEY_JOINER.join(appId, CLUSTER, ConfigConsts.NAMESPACE_APPLICATION));
+          watchKeys.put(PUBLIC_NAMESPACE, KEY_JOINER.join(appId, CLUSTER, PUBLIC_NAMESPACE));
+          watchKeys.put(PUBLIC_NAMESPACE, KEY_JOINER.join(PUBLIC_APP_ID, CLUSTER, PUBLIC_NAMESPACE));
+          return watchKeys;
+        });
+    releaseMessageService = mock(ReleaseMessageServiceWithCache.class, withSettings().stubOnly());
+    when(releaseMessageService.findLatestReleaseMessagesGroupByMessages(any())).thenReturn(Collections.emptyList());
+    entityManagerUtil = mock(EntityManagerUtil.class, withSettings().stubOnly());
+    namespaceUtil = mock(NamespaceUtil.class, withSettings().stubOnly());
+    when(namespaceUtil.filterNamespaceName(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(namespaceUtil.normalizeNamespace(anyString(), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+    bizConfig = mock(BizConfig.class, withSettings().stubOnly());
+    when(bizConfig.longPollingTimeoutInMilli()).thenReturn(TimeUnit.MINUTES.toMillis(1));
+    //notify in the calling thread, so the time measured is the time to notify all the clients
+    when(bizConfig.releaseMessageNotificationBatch()).thenReturn(Integer.MAX_VALUE);
+  }
+
+  @Setup(Level.Invocation)
+  public void registerClients() {
+    notificationController = new NotificationControllerV2(watchKeysUtil, releaseMessageService, entityManagerUtil,
+        namespaceUtil, new Gson(), bizConfig);
+    for (int i = 0; i < clients; i++) {
+      notificationController.pollNotification("app" + i, CLUSTER, NOTIFICATIONS, null, null);
+    }
+  }
+
+  @Benchmark
+  public void notifyPublicNamespace() {
+    notificationController.handleMessage(releaseMessage(PUBLIC_APP_ID, PUBLIC_NAMESPACE),
+        Topics.APOLLO_RELEASE_TOPIC);
+  }
+
+  @Benchmark
+  public void notifyApplicationNamespace() {
+    notificationController.handleMessage(releaseMessage("app0", ConfigConsts.NAMESPACE_APPLICATION),
+        Topics.APOLLO_RELEASE_TOPIC);
+  }
+
+  private ReleaseMessage releaseMessage(String appId, String namespace) {
+    ReleaseMessage message = new ReleaseMessage(KEY_JOINER.join(appId, CLUSTER, namespace));
+    message.setId(1);
+    return message;
+  }
+}
@@ -0,0 +1,61 @@
+package com.ctrip.framework.apollo.benchmark;
+
+import com.ctrip.framework.apollo.common.dto.ItemChangeSets;
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
+import com.ctrip.framework.apollo.portal.component.txtresolver.PropertyResolver;
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving the text edited in the portal into item changes, with 1% of the values changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertyResolverBenchmark {
+
+  private static final long NAMESPACE_ID = 1;
+
+  @Param({"1000", "10000"})
+  private int keys;
+
+  private PropertyResolver propertyResolver;
+  private String configText;
+  private List<ItemDTO> baseItems;
+
+  @Setup
+  public void setUp() {
+    propertyResolver = new PropertyResolver();
+    configText = BenchmarkData.propertiesText(keys);
+    baseItems = Lists.newArrayListWithCapacity(keys);
+    int lineNum = 1;
+    for (Map.Entry<String, String> entry : BenchmarkData.configurations(keys).entrySet()) {
+      ItemDTO item = new ItemDTO(entry.getKey(), entry.getValue(), "", lineNum++);
+      item.setId(lineNum);
+      item.setNamespaceId(NAMESPACE_ID);
+      baseItems.add(item);
+    }
+  }
+
+  @Benchmark
+  public ItemChangeSets resolve() {
+    return propertyResolver.resolve(NAMESPACE_ID, configText, baseItems);
+  }
+}
@@ -0,0 +1,46 @@
+package com.ctrip.framework.apollo.benchmark;
+
+import com.ctrip.framework.apollo.util.yaml.YamlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a yaml namespace, which the client does each time the namespace is loaded or changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class YamlParserBenchmark {
+
+  @Param({"1000", "10000"})
+  private int keys;
+
+  private YamlParser yamlParser;
+  private String yaml;
+
+  @Setup
+  public void setUp() {
+    yamlParser = new YamlParser();
+    yaml = BenchmarkData.yaml(keys);
+  }
+
+  @Benchmark
+  public Properties yamlToProperties() {
+    return yamlParser.yamlToProperties(yaml);
+  }
+}
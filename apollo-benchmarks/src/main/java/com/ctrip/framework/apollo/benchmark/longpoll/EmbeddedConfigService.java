@@ -0,0 +1,132 @@
+package com.ctrip.framework.apollo.benchmark.longpoll;
+
+import com.ctrip.framework.apollo.benchmark.BenchmarkData;
+import com.ctrip.framework.apollo.biz.entity.Release;
+import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
+import com.ctrip.framework.apollo.biz.repository.AppNamespaceRepository;
+import com.ctrip.framework.apollo.biz.repository.ReleaseMessageRepository;
+import com.ctrip.framework.apollo.biz.repository.ReleaseRepository;
+import com.ctrip.framework.apollo.common.entity.AppNamespace;
+import com.ctrip.framework.apollo.common.utils.UniqueKeyGenerator;
+import com.ctrip.framework.apollo.configservice.ConfigServiceApplication;
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Maps;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A config service started in process, on an in-memory H2 database with the schema created from the entities.
+ *
+ * <p>The settings of the config service can be set by system properties, e.g.
+ * {@code -Dapollo.message-scan.interval=100} or {@code -Dconfig-service.cache.enabled=true}.
+ */
+public class EmbeddedConfigService implements AutoCloseable {
+
+  static final String CLUSTER = ConfigConsts.CLUSTER_NAME_DEFAULT;
+  static final String NAMESPACE = ConfigConsts.NAMESPACE_APPLICATION;
+
+  private static final String OPERATOR = "apollo-simulator";
+  private static final Joiner MESSAGE_JOINER = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR);
+
+  private final ConfigurableApplicationContext context;
+  private final AppNamespaceRepository appNamespaceRepository;
+  private final ReleaseRepository releaseRepository;
+  private final ReleaseMessageRepository releaseMessageRepository;
+  private final int keys;
+  private final AtomicInteger version = new AtomicInteger();
+
+  public EmbeddedConfigService(int port, int maxConnections, int keys) {
+    //passed as the command line arguments, to override the properties of the config service
+    Map<String, Object> properties = Maps.newLinkedHashMap();
+    properties.put("server.port", port);
+    properties.put("server.tomcat.max-connections", maxConnections);
+    properties.put("spring.datasource.url",
+        "jdbc:h2:mem:apollo-simulator;mode=mysql;DB_CLOSE_ON_EXIT=FALSE;DB_CLOSE_DELAY=-1");
+    properties.put("spring.datasource.hikari.connectionInitSql", "SELECT 1");
+    properties.put("spring.jpa.hibernate.ddl-auto", "create");
+    properties.put("spring.jpa.hibernate.globally_quoted_identifiers", false);
+    properties.put("spring.jpa.properties.hibernate.globally_quoted_identifiers", false);
+    properties.put("spring.jmx.enabled", false);
+    //the meta service needs the eureka client, which neither registers nor fetches
+    properties.put("apollo.eureka.server.enabled", false);
+    properties.put("eureka.client.register-with-eureka", false);
+    properties.put("eureka.client.fetch-registry", false);
+    properties.put("apollo_profile", "simulator");
+    properties.put("logging.file", System.getProperty("java.io.tmpdir") + "/apollo-long-poll-simulator.log");
+
+    String[] args = properties.entrySet().stream().map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+        .toArray(String[]::new);
+    context = new SpringApplicationBuilder(ConfigServiceApplication.class).run(args);
+    appNamespaceRepository = context.getBean(AppNamespaceRepository.class);
+    releaseRepository = context.getBean(ReleaseRepository.class);
+    releaseMessageRepository = context.getBean(ReleaseMessageRepository.class);
+    this.keys = keys;
+  }
+
+  /**
+   * The beans of the config service, including the ones of apollo-biz, e.g. for the benchmarks of the services
+   */
+  public <T> T getBean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  int port() {
+    return ((WebServerApplicationContext) context).getWebServer().getPort();
+  }
+
+  static String appId(int appIndex) {
+    return "simulator-app-" + appIndex;
+  }
+
+  /**
+   * Create the application namespace of each app and its first release
+   */
+  void seed(int apps) {
+    for (int i = 0; i < apps; i++) {
+      AppNamespace appNamespace = new AppNamespace();
+      appNamespace.setAppId(appId(i));
+      appNamespace.setName(NAMESPACE);
+      appNamespace.setFormat(ConfigFileFormat.Properties.getValue());
+      appNamespace.setDataChangeCreatedBy(OPERATOR);
+      appNamespaceRepository.save(appNamespace);
+
+      releaseRepository.save(buildRelease(appId(i)));
+    }
+  }
+
+  /**
+   * Publish a new release of the app, the same way as the admin service does, i.e. save the release and then the
+   * release message
+   *
+   * @return the id of the release message, which is the notification id the clients receive
+   */
+  long publish(int appIndex) {
+    String appId = appId(appIndex);
+    releaseRepository.save(buildRelease(appId));
+    return releaseMessageRepository.save(new ReleaseMessage(MESSAGE_JOINER.join(appId, CLUSTER, NAMESPACE))).getId();
+  }
+
+  private Release buildRelease(String appId) {
+    Release release = new Release();
+    release.setReleaseKey(UniqueKeyGenerator.generate(appId, CLUSTER, NAMESPACE));
+    release.setName("simulator-release");
+    release.setComment("");
+    release.setAppId(appId);
+    release.setClusterName(CLUSTER);
+    release.setNamespaceName(NAMESPACE);
+    release.setConfigurations(BenchmarkData.configurationsJson(keys, version.incrementAndGet()));
+    release.setDataChangeCreatedBy(OPERATOR);
+    return release;
+  }
+
+  @Override
+  public void close() {
+    context.close();
+  }
+}
@@ -0,0 +1,235 @@
+package com.ctrip.framework.apollo.benchmark.longpoll;
+
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates a large number of clients long polling a config service started in process, to plan the capacity of the
+ * config services before a rollout. The clients are spread over the apps evenly, and after all the clients are
+ * started, the apps are released one by one at the given rate.
+ *
+ * <pre>
+ * java -Xmx4g -cp target/apollo-benchmarks.jar com.ctrip.framework.apollo.benchmark.longpoll.LongPollSimulator \
+ *   --clients=20000 --apps=100 --releases-per-second=2 --duration=300
+ * </pre>
+ *
+ * It reports the latency of delivering the notifications and of loading the config released, the rates of the
+ * requests, the reconnections and the errors, and the cpu and the gc of the server.
+ */
+public class LongPollSimulator {
+
+  private static final Map<String, String> DEFAULT_OPTIONS = Maps.newLinkedHashMap();
+
+  static {
+    DEFAULT_OPTIONS.put("clients", "10000");
+    DEFAULT_OPTIONS.put("apps", "100");
+    DEFAULT_OPTIONS.put("keys", "100");
+    DEFAULT_OPTIONS.put("releases-per-second", "1");
+    //in seconds, after all the clients are started
+    DEFAULT_OPTIONS.put("duration", "300");
+    DEFAULT_OPTIONS.put("ramp-up", "30");
+    DEFAULT_OPTIONS.put("report-interval", "10");
+    DEFAULT_OPTIONS.put("io-threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+    //0 for a random port
+    DEFAULT_OPTIONS.put("port", "0");
+  }
+
+  private static final String HOST = "127.0.0.1";
+  private static final int CONNECT_TIMEOUT_IN_MILLIS = 1000;
+  private static final int RAMP_UP_STEP_IN_MILLIS = 100;
+
+  private final int clients;
+  private final int apps;
+  private final double releasesPerSecond;
+  private final int durationInSeconds;
+  private final int rampUpInSeconds;
+  private final int reportIntervalInSeconds;
+  private final int ioThreads;
+
+  private final SimulatorMetrics metrics = new SimulatorMetrics();
+  private final ProcessMetrics processMetrics = new ProcessMetrics();
+  private final List<VirtualClient> virtualClients = Lists.newArrayList();
+
+  private LongPollSimulator(Map<String, String> options) {
+    clients = Integer.parseInt(options.get("clients"));
+    apps = Integer.parseInt(options.get("apps"));
+    releasesPerSecond = Double.parseDouble(options.get("releases-per-second"));
+    durationInSeconds = Integer.parseInt(options.get("duration"));
+    rampUpInSeconds = Integer.parseInt(options.get("ramp-up"));
+    reportIntervalInSeconds = Integer.parseInt(options.get("report-interval"));
+    ioThreads = Integer.parseInt(options.get("io-threads"));
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = Maps.newLinkedHashMap(DEFAULT_OPTIONS);
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      String name = separator > 2 && arg.startsWith("--") ? arg.substring(2, separator) : null;
+      if (name == null || !DEFAULT_OPTIONS.containsKey(name)) {
+        System.err.println("Unknown option: " + arg + ", the options and their defaults are: " + DEFAULT_OPTIONS);
+        System.exit(2);
+      }
+      options.put(name, arg.substring(separator + 1));
+    }
+    System.out.println("Simulating with " + options);
+
+    int clients = Integer.parseInt(options.get("clients"));
+    try (EmbeddedConfigService configService = new EmbeddedConfigService(Integer.parseInt(options.get("port")),
+        clients + 1000, Integer.parseInt(options.get("keys")))) {
+      new LongPollSimulator(options).run(configService);
+    }
+    System.exit(0);
+  }
+
+  private void run(EmbeddedConfigService configService) throws InterruptedException {
+    configService.seed(apps);
+    //let the config service cache the app namespaces created
+    TimeUnit.SECONDS.sleep(2);
+
+    EventLoopGroup group = new NioEventLoopGroup(ioThreads,
+        ApolloThreadFactory.create(ProcessMetrics.SIMULATOR_THREAD_NAME + "-Client", true));
+    ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2,
+        ApolloThreadFactory.create(ProcessMetrics.SIMULATOR_THREAD_NAME, true));
+    Bootstrap bootstrap = new Bootstrap().group(group).channel(NioSocketChannel.class)
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_IN_MILLIS)
+        .handler(VirtualClient.channelInitializer());
+
+    try {
+      long startTime = System.currentTimeMillis();
+      ScheduledFuture<?> reporter = scheduler.scheduleAtFixedRate(new Reporter(startTime), reportIntervalInSeconds,
+          reportIntervalInSeconds, TimeUnit.SECONDS);
+
+      rampUp(bootstrap, configService.port(), scheduler);
+      System.out.println(String.format("%d clients started in %ds", clients,
+          (System.currentTimeMillis() - startTime) / 1000));
+
+      ProcessMetrics.Sample from = processMetrics.sample();
+      long releasesFrom = metrics.releases.sum();
+      ScheduledFuture<?> releaser = startReleasing(configService, scheduler);
+      TimeUnit.SECONDS.sleep(durationInSeconds);
+      if (releaser != null) {
+        releaser.cancel(false);
+      }
+      reporter.cancel(false);
+
+      printSummary(from, processMetrics.sample(), metrics.releases.sum() - releasesFrom);
+    } finally {
+      virtualClients.forEach(VirtualClient::close);
+      scheduler.shutdownNow();
+      group.shutdownGracefully(0, 1, TimeUnit.SECONDS).awaitUninterruptibly();
+    }
+  }
+
+  /**
+   * Start the clients evenly in the ramp-up period, so they don't connect all at once
+   */
+  private void rampUp(Bootstrap bootstrap, int port, ScheduledExecutorService scheduler) throws InterruptedException {
+    int steps = Math.max(rampUpInSeconds * 1000 / RAMP_UP_STEP_IN_MILLIS, 1);
+    int clientsPerStep = (clients + steps - 1) / steps;
+    AtomicInteger started = new AtomicInteger();
+    CountDownLatch allStarted = new CountDownLatch(1);
+
+    ScheduledFuture<?> starter = scheduler.scheduleAtFixedRate(() -> {
+      for (int i = 0; i < clientsPerStep && started.get() < clients; i++) {
+        int index = started.getAndIncrement();
+        VirtualClient client = new VirtualClient(bootstrap, HOST, port, EmbeddedConfigService.appId(index % apps),
+            ip(index), metrics);
+        virtualClients.add(client);
+        client.start();
+      }
+      if (started.get() >= clients) {
+        allStarted.countDown();
+      }
+    }, 0, RAMP_UP_STEP_IN_MILLIS, TimeUnit.MILLISECONDS);
+
+    allStarted.await();
+    starter.cancel(false);
+  }
+
+  /**
+   * @return the task releasing the apps one by one, or null if the release rate is 0
+   */
+  private ScheduledFuture<?> startReleasing(EmbeddedConfigService configService, ScheduledExecutorService scheduler) {
+    if (releasesPerSecond <= 0) {
+      return null;
+    }
+    AtomicLong releaseCounter = new AtomicLong();
+    long periodInMicros = (long) (TimeUnit.SECONDS.toMicros(1) / releasesPerSecond);
+    return scheduler.scheduleAtFixedRate(() -> {
+      try {
+        long releaseMessageId = configService.publish((int) (releaseCounter.getAndIncrement() % apps));
+        metrics.releaseMessageSaved(releaseMessageId, System.currentTimeMillis());
+      } catch (Throwable ex) {
+        System.err.println("Release failed: " + ex);
+      }
+    }, 0, Math.max(periodInMicros, 1), TimeUnit.MICROSECONDS);
+  }
+
+  /**
+   * A distinct ip for each client, as the config service audits the instances by ip
+   */
+  private static String ip(int index) {
+    return String.format("10.%d.%d.%d", (index >> 16) & 0xff, (index >> 8) & 0xff, index & 0xff);
+  }
+
+  private void printSummary(ProcessMetrics.Sample from, ProcessMetrics.Sample to, long releases) {
+    System.out.println(String.format("Summary of %ds after the ramp-up, with %d clients of %d apps and %d releases",
+        durationInSeconds, clients, apps, releases));
+    System.out.println("notification latency: " + SimulatorMetrics.summary(metrics.notificationLatency));
+    System.out.println("config latency: " + SimulatorMetrics.summary(metrics.configLatency));
+    System.out.println(String.format("totals: connects=%d reconnects=%d polls=%d notifications=%d poll timeouts=%d "
+            + "configs=%d configs not modified=%d errors=%d", metrics.connects.sum(), metrics.reconnects.sum(),
+        metrics.polls.sum(), metrics.notifications.sum(), metrics.pollTimeouts.sum(), metrics.configFetches.sum(),
+        metrics.configNotModified.sum(), metrics.errors.sum()));
+    System.out.println(processMetrics.summary(from, to));
+  }
+
+  /**
+   * Prints the rates of each interval, and the latencies so far
+   */
+  private class Reporter implements Runnable {
+
+    private final long startTime;
+    private ProcessMetrics.Sample lastSample = processMetrics.sample();
+    private final long[] lastCounts = new long[7];
+
+    private Reporter(long startTime) {
+      this.startTime = startTime;
+    }
+
+    @Override
+    public void run() {
+      long[] counts = {metrics.polls.sum(), metrics.notifications.sum(), metrics.pollTimeouts.sum(),
+          metrics.configFetches.sum(), metrics.reconnects.sum(), metrics.errors.sum(), metrics.releases.sum()};
+      double[] rates = new double[counts.length];
+      for (int i = 0; i < counts.length; i++) {
+        rates[i] = (double) (counts[i] - lastCounts[i]) / reportIntervalInSeconds;
+        lastCounts[i] = counts[i];
+      }
+      ProcessMetrics.Sample sample = processMetrics.sample();
+
+      System.out.println(String.format("[%4ds] per second: polls=%.1f notifications=%.1f poll timeouts=%.1f "
+              + "configs=%.1f reconnects=%.1f errors=%.1f releases=%.1f | notification latency p50=%dms p99=%dms | %s",
+          (System.currentTimeMillis() - startTime) / 1000, rates[0], rates[1], rates[2], rates[3], rates[4], rates[5],
+          rates[6], metrics.notificationLatency.percentile(50), metrics.notificationLatency.percentile(99),
+          processMetrics.summary(lastSample, sample)));
+      lastSample = sample;
+    }
+  }
+}
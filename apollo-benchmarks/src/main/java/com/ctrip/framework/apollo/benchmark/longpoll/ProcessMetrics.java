@@ -0,0 +1,64 @@
+package com.ctrip.framework.apollo.benchmark.longpoll;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Samples the cpu and the gc of the process. The clients run in the same process as the config service, so the cpu of
+ * the threads of the simulator, i.e. the threads with {@link #SIMULATOR_THREAD_NAME} in their names, is excluded from
+ * the cpu of the server. The gc can not be split, so it includes the garbage of the clients.
+ */
+class ProcessMetrics {
+
+  static final String SIMULATOR_THREAD_NAME = "LongPollSimulator";
+
+  private final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final int processors = Runtime.getRuntime().availableProcessors();
+
+  Sample sample() {
+    Sample sample = new Sample();
+    sample.timeInNanos = System.nanoTime();
+    if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+      sample.processCpuInNanos = ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuTime();
+    }
+    if (threads.isThreadCpuTimeSupported()) {
+      for (ThreadInfo thread : threads.getThreadInfo(threads.getAllThreadIds())) {
+        if (thread != null && thread.getThreadName().contains(SIMULATOR_THREAD_NAME)) {
+          sample.simulatorCpuInNanos += Math.max(threads.getThreadCpuTime(thread.getThreadId()), 0);
+        }
+      }
+    }
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      sample.gcCount += Math.max(collector.getCollectionCount(), 0);
+      sample.gcTimeInMillis += Math.max(collector.getCollectionTime(), 0);
+    }
+    sample.heapUsedInBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    return sample;
+  }
+
+  /**
+   * @return the cpu usage of the server and of the clients between the samples, and the gc in between
+   */
+  String summary(Sample from, Sample to) {
+    double elapsed = Math.max(to.timeInNanos - from.timeInNanos, 1) * (double) processors;
+    //the cpu of the threads ended in between is lost, so the usage of the simulator might be a little lower
+    long simulatorCpu = to.simulatorCpuInNanos - from.simulatorCpuInNanos;
+    long serverCpu = to.processCpuInNanos - from.processCpuInNanos - simulatorCpu;
+    return String.format("server cpu=%.1f%% client cpu=%.1f%% (of %d cores) gc=%d (%dms) heap=%dMB",
+        Math.max(serverCpu, 0) * 100 / elapsed, simulatorCpu * 100 / elapsed, processors, to.gcCount - from.gcCount,
+        to.gcTimeInMillis - from.gcTimeInMillis, to.heapUsedInBytes / 1024 / 1024);
+  }
+
+  static class Sample {
+    private long timeInNanos;
+    private long processCpuInNanos;
+    private long simulatorCpuInNanos;
+    private long gcCount;
+    private long gcTimeInMillis;
+    private long heapUsedInBytes;
+  }
+}
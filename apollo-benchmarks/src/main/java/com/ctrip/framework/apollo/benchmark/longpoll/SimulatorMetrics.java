@@ -0,0 +1,53 @@
+package com.ctrip.framework.apollo.benchmark.longpoll;
+
+import com.ctrip.framework.apollo.core.utils.LogLinearHistogram;
+import com.google.common.collect.Maps;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What the virtual clients observe. The latencies are measured from the time a release message is saved, so they
+ * include the scan interval of the release messages and the batches of the notifications.
+ */
+class SimulatorMetrics {
+
+  //each power of 2 split into 32 buckets, so the percentiles are at most about 3% higher than the actual latencies
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final long MAX_LATENCY_IN_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  final LongAdder connects = new LongAdder();
+  final LongAdder reconnects = new LongAdder();
+  final LongAdder polls = new LongAdder();
+  final LongAdder notifications = new LongAdder();
+  final LongAdder pollTimeouts = new LongAdder();
+  final LongAdder configFetches = new LongAdder();
+  final LongAdder configNotModified = new LongAdder();
+  final LongAdder errors = new LongAdder();
+  final LongAdder releases = new LongAdder();
+
+  final LogLinearHistogram notificationLatency = new LogLinearHistogram(SUB_BUCKET_BITS, MAX_LATENCY_IN_MILLIS);
+  final LogLinearHistogram configLatency = new LogLinearHistogram(SUB_BUCKET_BITS, MAX_LATENCY_IN_MILLIS);
+
+  //release message id -> the time it's saved
+  private final ConcurrentMap<Long, Long> releaseTimes = Maps.newConcurrentMap();
+
+  void releaseMessageSaved(long releaseMessageId, long timeInMillis) {
+    releaseTimes.put(releaseMessageId, timeInMillis);
+    releases.increment();
+  }
+
+  /**
+   * @return the time the release message is saved, or null if it's not saved by the simulator
+   */
+  Long releaseTime(long releaseMessageId) {
+    return releaseTimes.get(releaseMessageId);
+  }
+
+  static String summary(LogLinearHistogram latency) {
+    return String.format("count=%d mean=%.1fms p50=%dms p90=%dms p99=%dms p99.9=%dms max=%dms", latency.count(),
+        latency.mean(), latency.percentile(50), latency.percentile(90), latency.percentile(99),
+        latency.percentile(99.9), latency.max());
+  }
+}
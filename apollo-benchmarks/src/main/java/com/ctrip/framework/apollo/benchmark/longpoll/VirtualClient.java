@@ -0,0 +1,277 @@
+package com.ctrip.framework.apollo.benchmark.longpoll;
+
+import com.ctrip.framework.apollo.core.dto.ApolloConfig;
+import com.ctrip.framework.apollo.core.dto.ApolloConfigNotification;
+import com.ctrip.framework.apollo.core.dto.ApolloNotificationMessages;
+import com.ctrip.framework.apollo.core.schedule.ExponentialSchedulePolicy;
+import com.ctrip.framework.apollo.core.schedule.SchedulePolicy;
+import com.google.common.escape.Escaper;
+import com.google.common.net.UrlEscapers;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A client speaking the same protocol as the java client: it loads the config, long polls the notifications of the
+ * namespace, and loads the config again once notified. Failures are retried after 1 to 120 seconds, doubling after
+ * each failure, and the read timeout of the long polling is 90 seconds, both the same as the java client.
+ *
+ * <p>Unlike the java client, which loads the config in another thread while polling again, the client polls again
+ * after the config is loaded, so it holds one connection at most.
+ */
+class VirtualClient {
+
+  private static final AttributeKey<VirtualClient> CLIENT = AttributeKey.valueOf("apolloVirtualClient");
+  private static final int READ_TIMEOUT_IN_SECONDS = 90;
+  private static final int MAX_CONTENT_LENGTH = 16 * 1024 * 1024;
+  private static final long INIT_NOTIFICATION_ID = -1;
+  private static final Gson GSON = new Gson();
+  private static final Escaper QUERY_PARAM_ESCAPER = UrlEscapers.urlFormParameterEscaper();
+  private static final Type NOTIFICATIONS_TYPE = new TypeToken<List<ApolloConfigNotification>>() {
+  }.getType();
+
+  private enum Pending {NONE, CONFIG, POLL}
+
+  private final Bootstrap bootstrap;
+  private final String host;
+  private final int port;
+  private final String appId;
+  private final String ip;
+  private final SimulatorMetrics metrics;
+  private final SchedulePolicy failSchedulePolicyInSecond = new ExponentialSchedulePolicy(1, 120);
+
+  private volatile boolean stopped;
+  private Channel channel;
+  private boolean connected;
+  private Pending pending = Pending.NONE;
+  private ScheduledFuture<?> readTimeout;
+  private long notificationId = INIT_NOTIFICATION_ID;
+  private ApolloNotificationMessages messages;
+  private String releaseKey = "-1";
+  //the time of the release notified, to measure the latency of loading its config
+  private Long notifiedReleaseTime;
+
+  VirtualClient(Bootstrap bootstrap, String host, int port, String appId, String ip, SimulatorMetrics metrics) {
+    this.bootstrap = bootstrap;
+    this.host = host;
+    this.port = port;
+    this.appId = appId;
+    this.ip = ip;
+    this.metrics = metrics;
+  }
+
+  /**
+   * The handlers of the channels of the clients, to set to the bootstrap shared by the clients
+   */
+  static ChannelInitializer<SocketChannel> channelInitializer() {
+    return new ChannelInitializer<SocketChannel>() {
+      @Override
+      protected void initChannel(SocketChannel channel) {
+        channel.pipeline()
+            .addLast(new HttpClientCodec())
+            .addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH))
+            .addLast(new ResponseHandler());
+      }
+    };
+  }
+
+  void start() {
+    loadConfig();
+  }
+
+  void close() {
+    stopped = true;
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  private void loadConfig() {
+    StringBuilder uri = new StringBuilder("/configs/").append(appId).append('/').append(EmbeddedConfigService.CLUSTER)
+        .append('/').append(EmbeddedConfigService.NAMESPACE).append("?releaseKey=").append(releaseKey)
+        .append("&ip=").append(ip);
+    if (messages != null) {
+      uri.append("&messages=").append(QUERY_PARAM_ESCAPER.escape(GSON.toJson(messages)));
+    }
+    send(Pending.CONFIG, uri.toString());
+  }
+
+  private void poll() {
+    String notifications = GSON.toJson(new ApolloConfigNotification[]{
+        new ApolloConfigNotification(EmbeddedConfigService.NAMESPACE, notificationId)});
+    String uri = "/notifications/v2?cluster=" + EmbeddedConfigService.CLUSTER + "&appId=" + appId + "&ip=" + ip
+        + "&notifications=" + QUERY_PARAM_ESCAPER.escape(notifications);
+    metrics.polls.increment();
+    send(Pending.POLL, uri);
+  }
+
+  private void send(Pending request, String uri) {
+    pending = request;
+    FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+    httpRequest.headers().set(HttpHeaderNames.HOST, host + ":" + port);
+    httpRequest.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+
+    if (channel != null && channel.isActive()) {
+      write(httpRequest);
+      return;
+    }
+
+    metrics.connects.increment();
+    if (connected) {
+      metrics.reconnects.increment();
+    }
+    connected = true;
+    ChannelFuture connectFuture = bootstrap.connect(host, port);
+    channel = connectFuture.channel();
+    channel.attr(CLIENT).set(this);
+    connectFuture.addListener(future -> {
+      if (future.isSuccess()) {
+        write(httpRequest);
+      } else {
+        httpRequest.release();
+        fail();
+      }
+    });
+  }
+
+  private void write(FullHttpRequest httpRequest) {
+    Channel requestChannel = channel;
+    //closing the channel fails the pending request
+    readTimeout = requestChannel.eventLoop().schedule(() -> {
+      requestChannel.close();
+    }, READ_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+    requestChannel.writeAndFlush(httpRequest).addListener(future -> {
+      if (!future.isSuccess()) {
+        fail();
+      }
+    });
+  }
+
+  private void onResponse(FullHttpResponse response) {
+    readTimeout.cancel(false);
+    Pending request = pending;
+    int status = response.status().code();
+    if (!HttpUtil.isKeepAlive(response)) {
+      //the next request is sent on a new connection
+      channel.close();
+      channel = null;
+    }
+
+    if (request == Pending.POLL && status == HttpResponseStatus.OK.code()) {
+      onNotified(GSON.fromJson(response.content().toString(StandardCharsets.UTF_8), NOTIFICATIONS_TYPE));
+    } else if (request == Pending.POLL && status == HttpResponseStatus.NOT_MODIFIED.code()) {
+      metrics.pollTimeouts.increment();
+      succeed(false);
+    } else if (request == Pending.CONFIG && status == HttpResponseStatus.OK.code()) {
+      ApolloConfig config = GSON.fromJson(response.content().toString(StandardCharsets.UTF_8), ApolloConfig.class);
+      releaseKey = config.getReleaseKey();
+      metrics.configFetches.increment();
+      if (notifiedReleaseTime != null) {
+        metrics.configLatency.record(System.currentTimeMillis() - notifiedReleaseTime);
+        notifiedReleaseTime = null;
+      }
+      succeed(false);
+    } else if (request == Pending.CONFIG && status == HttpResponseStatus.NOT_MODIFIED.code()) {
+      metrics.configNotModified.increment();
+      succeed(false);
+    } else {
+      fail();
+    }
+  }
+
+  private void onNotified(List<ApolloConfigNotification> notifications) {
+    long now = System.currentTimeMillis();
+    boolean initialPoll = notificationId == INIT_NOTIFICATION_ID;
+    for (ApolloConfigNotification notification : notifications) {
+      notificationId = notification.getNotificationId();
+      messages = notification.getMessages();
+      metrics.notifications.increment();
+      Long releaseTime = metrics.releaseTime(notificationId);
+      //the first poll is answered at once with the latest notification, which is not a delivery
+      if (releaseTime != null && !initialPoll) {
+        metrics.notificationLatency.record(now - releaseTime);
+        notifiedReleaseTime = releaseTime;
+      }
+    }
+    succeed(true);
+  }
+
+  private void succeed(boolean notified) {
+    failSchedulePolicyInSecond.success();
+    if (notified) {
+      loadConfig();
+    } else {
+      poll();
+    }
+  }
+
+  private void fail() {
+    //a failed write closes the channel, which should not fail the request again
+    if (pending == Pending.NONE || stopped) {
+      return;
+    }
+    pending = Pending.NONE;
+    metrics.errors.increment();
+    if (channel != null) {
+      channel.close();
+    }
+    long delay = failSchedulePolicyInSecond.fail();
+    bootstrap.config().group().schedule(() -> {
+      if (releaseKey.equals("-1")) {
+        loadConfig();
+      } else {
+        poll();
+      }
+    }, delay, TimeUnit.SECONDS);
+  }
+
+  private void onInactive(Channel inactiveChannel) {
+    //the server might close an idle keep-alive connection, which is only a failure when a response is expected
+    if (inactiveChannel == channel && pending != Pending.NONE) {
+      fail();
+    }
+  }
+
+  private static class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+      ctx.channel().attr(CLIENT).get().onResponse(response);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      ctx.channel().attr(CLIENT).get().onInactive(ctx.channel());
+      super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      ctx.close();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.ctrip.framework.apollo.configservice.controller;
+
+import com.ctrip.framework.apollo.benchmark.BenchmarkData;
+import com.ctrip.framework.apollo.biz.entity.Release;
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging the releases of a config request, e.g. the public namespace overridden by the app's own release. It's in the
+ * package of {@link ConfigController} as the method is package private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigControllerBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  private int keys;
+
+  @Param({"1", "2"})
+  private int releases;
+
+  private ConfigController configController;
+  private List<Release> releasesToMerge;
+
+  @Setup
+  public void setUp() {
+    configController = new ConfigController(null, null, null, null, new Gson());
+    releasesToMerge = Lists.newArrayListWithCapacity(releases);
+    for (int i = 0; i < releases; i++) {
+      Release release = new Release();
+      release.setId(i + 1);
+      release.setConfigurations(BenchmarkData.configurationsJson(keys, i));
+      releasesToMerge.add(release);
+    }
+  }
+
+  @Benchmark
+  public Map<String, String> mergeReleaseConfigurations() {
+    return configController.mergeReleaseConfigurations(releasesToMerge);
+  }
+}
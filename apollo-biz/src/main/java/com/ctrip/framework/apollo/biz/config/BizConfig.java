@@ -29,6 +29,20 @@ public class BizConfig extends RefreshableConfig {
   private static final int DEFAULT_RELEASE_MESSAGE_NOTIFICATION_BATCH = 100;
   private static final int DEFAULT_RELEASE_MESSAGE_NOTIFICATION_BATCH_INTERVAL_IN_MILLI = 100;//100ms
   private static final int DEFAULT_LONG_POLLING_TIMEOUT = 60; //60s
+  private static final int DEFAULT_RELEASE_CONFIGURATIONS_COMPRESS_THRESHOLD = -1; //disabled
+  private static final int DEFAULT_RELEASE_CONFIGURATIONS_BACKFILL_BATCH = 100;
+  private static final int DEFAULT_RELEASE_CONFIGURATIONS_BACKFILL_INTERVAL_IN_MILLI = 1000;//1s
+  private static final int DEFAULT_DATA_RETENTION_INTERVAL = 60; //60s
+  private static final int DEFAULT_DATA_RETENTION_BATCH = 100;
+  private static final int DEFAULT_DATA_RETENTION_BATCH_INTERVAL_IN_MILLI = 100;//100ms
+  private static final int DEFAULT_INSTANCE_CONFIG_RETENTION_DAYS = -1; //disabled
+  private static final int DEFAULT_ADMISSION_APP_QPS = -1; //disabled
+  private static final int DEFAULT_ADMISSION_IP_QPS = -1; //disabled
+  private static final int DEFAULT_ADMISSION_DB_CONCURRENCY = -1; //disabled
+  private static final int DEFAULT_ADMISSION_DB_WAIT_IN_MILLI = 100; //100ms
+  private static final int DEFAULT_ADMISSION_RETRY_AFTER = 5; //5s
+  private static final int DEFAULT_REPLICA_LAG_CHECK_INTERVAL_IN_MILLI = 1000; //1s
+  private static final int DEFAULT_REPLICA_MAX_LAG_IN_MILLI = 10000; //10s
 
   private Gson gson = new Gson();
   private static final Type namespaceValueLengthOverrideTypeReference =
@@ -166,6 +180,123 @@ public class BizConfig extends RefreshableConfig {
     return getBooleanProperty("config-service.cache.enabled", false);
   }
 
+  /**
+   * Release configurations longer than this threshold (in chars) are stored compressed, negative means disabled.
+   * Only enable it after all the config and admin services are upgraded, as older versions could not read them.
+   */
+  public int releaseConfigurationsCompressThreshold() {
+    int threshold = getIntProperty("release.configurations.compress.threshold",
+        DEFAULT_RELEASE_CONFIGURATIONS_COMPRESS_THRESHOLD);
+    return checkInt(threshold, -1, Integer.MAX_VALUE, DEFAULT_RELEASE_CONFIGURATIONS_COMPRESS_THRESHOLD);
+  }
+
+  public boolean isReleaseConfigurationsBackfillEnabled() {
+    return getBooleanProperty("release.configurations.backfill.enabled", false);
+  }
+
+  public int releaseConfigurationsBackfillBatch() {
+    int batch = getIntProperty("release.configurations.backfill.batch", DEFAULT_RELEASE_CONFIGURATIONS_BACKFILL_BATCH);
+    return checkInt(batch, 1, 1000, DEFAULT_RELEASE_CONFIGURATIONS_BACKFILL_BATCH);
+  }
+
+  public int releaseConfigurationsBackfillIntervalInMilli() {
+    int interval = getIntProperty("release.configurations.backfill.interval",
+        DEFAULT_RELEASE_CONFIGURATIONS_BACKFILL_INTERVAL_IN_MILLI);
+    return checkInt(interval, 0, Integer.MAX_VALUE, DEFAULT_RELEASE_CONFIGURATIONS_BACKFILL_INTERVAL_IN_MILLI);
+  }
+
+  public boolean isDataRetentionEnabled() {
+    return getBooleanProperty("apollo.data-retention.enabled", true);
+  }
+
+  public int dataRetentionInterval() {
+    int interval = getIntProperty("apollo.data-retention.interval", DEFAULT_DATA_RETENTION_INTERVAL);
+    return checkInt(interval, 1, Integer.MAX_VALUE, DEFAULT_DATA_RETENTION_INTERVAL);
+  }
+
+  public TimeUnit dataRetentionIntervalTimeUnit() {
+    return TimeUnit.SECONDS;
+  }
+
+  public int dataRetentionBatch() {
+    int batch = getIntProperty("apollo.data-retention.batch", DEFAULT_DATA_RETENTION_BATCH);
+    return checkInt(batch, 1, 1000, DEFAULT_DATA_RETENTION_BATCH);
+  }
+
+  public int dataRetentionBatchIntervalInMilli() {
+    int interval = getIntProperty("apollo.data-retention.batch.interval", DEFAULT_DATA_RETENTION_BATCH_INTERVAL_IN_MILLI);
+    return checkInt(interval, 0, Integer.MAX_VALUE, DEFAULT_DATA_RETENTION_BATCH_INTERVAL_IN_MILLI);
+  }
+
+  /**
+   * Instance configs not refreshed for these days are purged, together with the instances left without configs.
+   * Instance configs are refreshed at least once a day, so it must be at least 2 days, otherwise it's disabled.
+   */
+  public int instanceConfigRetentionDays() {
+    int days = getIntProperty("apollo.instance-config.retention.days", DEFAULT_INSTANCE_CONFIG_RETENTION_DAYS);
+    return checkInt(days, 2, Integer.MAX_VALUE, DEFAULT_INSTANCE_CONFIG_RETENTION_DAYS);
+  }
+
+  /**
+   * The permitted requests per second of each app to the config service, negative means unlimited
+   */
+  public int admissionAppQps() {
+    int qps = getIntProperty("config-service.admission.app-qps", DEFAULT_ADMISSION_APP_QPS);
+    return checkInt(qps, 1, Integer.MAX_VALUE, DEFAULT_ADMISSION_APP_QPS);
+  }
+
+  /**
+   * The permitted requests per second of each client ip to the config service, negative means unlimited
+   */
+  public int admissionIpQps() {
+    int qps = getIntProperty("config-service.admission.ip-qps", DEFAULT_ADMISSION_IP_QPS);
+    return checkInt(qps, 1, Integer.MAX_VALUE, DEFAULT_ADMISSION_IP_QPS);
+  }
+
+  /**
+   * The addresses of the proxies in front of the config service, e.g. the load balancers, whose X-Forwarded-For
+   * headers are trusted to find the client ips rate limited, separated by comma
+   */
+  public List<String> admissionTrustedProxies() {
+    String configuration = getValue("config-service.admission.trusted-proxies", "");
+    if (Strings.isNullOrEmpty(configuration)) {
+      return Collections.emptyList();
+    }
+
+    return splitter.splitToList(configuration);
+  }
+
+  /**
+   * The max concurrent database loads of the config service on cache misses, negative means unlimited
+   */
+  public int admissionDbConcurrency() {
+    int concurrency = getIntProperty("config-service.admission.db-concurrency", DEFAULT_ADMISSION_DB_CONCURRENCY);
+    return checkInt(concurrency, 1, Integer.MAX_VALUE, DEFAULT_ADMISSION_DB_CONCURRENCY);
+  }
+
+  public int admissionDbWaitInMilli() {
+    int wait = getIntProperty("config-service.admission.db-wait", DEFAULT_ADMISSION_DB_WAIT_IN_MILLI);
+    return checkInt(wait, 0, Integer.MAX_VALUE, DEFAULT_ADMISSION_DB_WAIT_IN_MILLI);
+  }
+
+  public int admissionRetryAfterInSeconds() {
+    int retryAfter = getIntProperty("config-service.admission.retry-after", DEFAULT_ADMISSION_RETRY_AFTER);
+    return checkInt(retryAfter, 1, Integer.MAX_VALUE, DEFAULT_ADMISSION_RETRY_AFTER);
+  }
+
+  public int replicaLagCheckIntervalInMilli() {
+    int interval = getIntProperty("config-service.replica.lag-check-interval", DEFAULT_REPLICA_LAG_CHECK_INTERVAL_IN_MILLI);
+    return checkInt(interval, 100, Integer.MAX_VALUE, DEFAULT_REPLICA_LAG_CHECK_INTERVAL_IN_MILLI);
+  }
+
+  /**
+   * The replica lagging more than this is not read by the config service until it catches up
+   */
+  public int replicaMaxLagInMilli() {
+    int lag = getIntProperty("config-service.replica.max-lag", DEFAULT_REPLICA_MAX_LAG_IN_MILLI);
+    return checkInt(lag, 0, Integer.MAX_VALUE, DEFAULT_REPLICA_MAX_LAG_IN_MILLI);
+  }
+
   int checkInt(int value, int min, int max, int defaultValue) {
     if (value >= min && value <= max) {
       return value;
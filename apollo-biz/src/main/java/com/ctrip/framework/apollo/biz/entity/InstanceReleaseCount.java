@@ -0,0 +1,156 @@
+package com.ctrip.framework.apollo.biz.entity;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * The number of instance configs of a namespace on a release, whose last modified time falls in the active hour.
+ *
+ * <p>Maintained incrementally with the instance configs, so that the active instances of a namespace or a release are
+ * counted by summing the counts of the recent hours.
+ */
+@Entity
+@Table(name = "InstanceReleaseCount", uniqueConstraints = @UniqueConstraint(columnNames = {"ConfigAppId",
+    "ConfigClusterName", "ConfigNamespaceName", "ReleaseKey", "ActiveHour"}))
+public class InstanceReleaseCount {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "Id")
+  private long id;
+
+  @Column(name = "ConfigAppId", nullable = false)
+  private String configAppId;
+
+  @Column(name = "ConfigClusterName", nullable = false)
+  private String configClusterName;
+
+  @Column(name = "ConfigNamespaceName", nullable = false)
+  private String configNamespaceName;
+
+  @Column(name = "ReleaseKey", nullable = false)
+  private String releaseKey;
+
+  @Column(name = "ActiveHour", nullable = false)
+  private Date activeHour;
+
+  @Column(name = "InstanceCount", nullable = false)
+  private int instanceCount;
+
+  @Column(name = "DataChange_CreatedTime", nullable = false)
+  private Date dataChangeCreatedTime;
+
+  @Column(name = "DataChange_LastTime")
+  private Date dataChangeLastModifiedTime;
+
+  @PrePersist
+  protected void prePersist() {
+    if (this.dataChangeCreatedTime == null) {
+      dataChangeCreatedTime = new Date();
+    }
+    if (this.dataChangeLastModifiedTime == null) {
+      dataChangeLastModifiedTime = dataChangeCreatedTime;
+    }
+  }
+
+  @PreUpdate
+  protected void preUpdate() {
+    this.dataChangeLastModifiedTime = new Date();
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  public String getConfigAppId() {
+    return configAppId;
+  }
+
+  public void setConfigAppId(String configAppId) {
+    this.configAppId = configAppId;
+  }
+
+  public String getConfigClusterName() {
+    return configClusterName;
+  }
+
+  public void setConfigClusterName(String configClusterName) {
+    this.configClusterName = configClusterName;
+  }
+
+  public String getConfigNamespaceName() {
+    return configNamespaceName;
+  }
+
+  public void setConfigNamespaceName(String configNamespaceName) {
+    this.configNamespaceName = configNamespaceName;
+  }
+
+  public String getReleaseKey() {
+    return releaseKey;
+  }
+
+  public void setReleaseKey(String releaseKey) {
+    this.releaseKey = releaseKey;
+  }
+
+  public Date getActiveHour() {
+    return activeHour;
+  }
+
+  public void setActiveHour(Date activeHour) {
+    this.activeHour = activeHour;
+  }
+
+  public int getInstanceCount() {
+    return instanceCount;
+  }
+
+  public void setInstanceCount(int instanceCount) {
+    this.instanceCount = instanceCount;
+  }
+
+  public Date getDataChangeCreatedTime() {
+    return dataChangeCreatedTime;
+  }
+
+  public void setDataChangeCreatedTime(Date dataChangeCreatedTime) {
+    this.dataChangeCreatedTime = dataChangeCreatedTime;
+  }
+
+  public Date getDataChangeLastModifiedTime() {
+    return dataChangeLastModifiedTime;
+  }
+
+  public void setDataChangeLastModifiedTime(Date dataChangeLastModifiedTime) {
+    this.dataChangeLastModifiedTime = dataChangeLastModifiedTime;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .omitNullValues()
+        .add("id", id)
+        .add("configAppId", configAppId)
+        .add("configClusterName", configClusterName)
+        .add("configNamespaceName", configNamespaceName)
+        .add("releaseKey", releaseKey)
+        .add("activeHour", activeHour)
+        .add("instanceCount", instanceCount)
+        .toString();
+  }
+}
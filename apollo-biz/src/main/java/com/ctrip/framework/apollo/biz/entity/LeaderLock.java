@@ -0,0 +1,132 @@
+package com.ctrip.framework.apollo.biz.entity;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
+
+/**
+ * A lease shared by all the config and admin services, the owner holds the lock until the expire time.
+ */
+@Entity
+@Table(name = "LeaderLock")
+public class LeaderLock {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "Id")
+  private long id;
+
+  @Column(name = "Name", nullable = false)
+  private String name;
+
+  @Column(name = "Owner", nullable = false)
+  private String owner;
+
+  @Column(name = "ExpireTime", nullable = false)
+  private Date expireTime;
+
+  /**
+   * The progress of the job, saved by the owner so that the next owner could resume from it
+   */
+  @Column(name = "Checkpoint")
+  private String checkpoint;
+
+  @Column(name = "DataChange_CreatedTime", nullable = false)
+  private Date dataChangeCreatedTime;
+
+  @Column(name = "DataChange_LastTime")
+  private Date dataChangeLastModifiedTime;
+
+  @PrePersist
+  protected void prePersist() {
+    if (this.dataChangeCreatedTime == null) {
+      dataChangeCreatedTime = new Date();
+    }
+    if (this.dataChangeLastModifiedTime == null) {
+      dataChangeLastModifiedTime = dataChangeCreatedTime;
+    }
+  }
+
+  @PreUpdate
+  protected void preUpdate() {
+    this.dataChangeLastModifiedTime = new Date();
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public void setOwner(String owner) {
+    this.owner = owner;
+  }
+
+  public Date getExpireTime() {
+    return expireTime;
+  }
+
+  public void setExpireTime(Date expireTime) {
+    this.expireTime = expireTime;
+  }
+
+  public String getCheckpoint() {
+    return checkpoint;
+  }
+
+  public void setCheckpoint(String checkpoint) {
+    this.checkpoint = checkpoint;
+  }
+
+  public Date getDataChangeCreatedTime() {
+    return dataChangeCreatedTime;
+  }
+
+  public void setDataChangeCreatedTime(Date dataChangeCreatedTime) {
+    this.dataChangeCreatedTime = dataChangeCreatedTime;
+  }
+
+  public Date getDataChangeLastModifiedTime() {
+    return dataChangeLastModifiedTime;
+  }
+
+  public void setDataChangeLastModifiedTime(Date dataChangeLastModifiedTime) {
+    this.dataChangeLastModifiedTime = dataChangeLastModifiedTime;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .omitNullValues()
+        .add("id", id)
+        .add("name", name)
+        .add("owner", owner)
+        .add("expireTime", expireTime)
+        .add("checkpoint", checkpoint)
+        .add("dataChangeCreatedTime", dataChangeCreatedTime)
+        .add("dataChangeLastModifiedTime", dataChangeLastModifiedTime)
+        .toString();
+  }
+}
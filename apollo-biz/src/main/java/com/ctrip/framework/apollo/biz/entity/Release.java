@@ -1,5 +1,6 @@
 package com.ctrip.framework.apollo.biz.entity;
 
+import com.ctrip.framework.apollo.biz.utils.ReleaseConfigurationsCompressor;
 import com.ctrip.framework.apollo.common.entity.BaseEntity;
 
 import org.hibernate.annotations.SQLDelete;
@@ -9,6 +10,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Lob;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
@@ -33,9 +35,14 @@ public class Release extends BaseEntity {
   @Column(name = "NamespaceName", nullable = false)
   private String namespaceName;
 
+  //either plain or compressed, see ReleaseConfigurationsCompressor
   @Column(name = "Configurations", nullable = false)
   @Lob
-  private String configurations;
+  private String storedConfigurations;
+
+  //materialized from the stored configurations when first read
+  @Transient
+  private volatile String configurations;
 
   @Column(name = "Comment", nullable = false)
   private String comment;
@@ -60,7 +67,16 @@ public class Release extends BaseEntity {
   }
 
   public String getConfigurations() {
-    return configurations;
+    String result = configurations;
+    if (result == null && storedConfigurations != null) {
+      result = ReleaseConfigurationsCompressor.materialize(storedConfigurations);
+      configurations = result;
+    }
+    return result;
+  }
+
+  public String getStoredConfigurations() {
+    return storedConfigurations;
   }
 
   public String getNamespaceName() {
@@ -89,6 +105,19 @@ public class Release extends BaseEntity {
 
   public void setConfigurations(String configurations) {
     this.configurations = configurations;
+    this.storedConfigurations = configurations;
+  }
+
+  /**
+   * Store the configurations compressed if they are not shorter than the threshold in chars, a negative threshold
+   * means they are stored as is
+   */
+  public void compressStoredConfigurations(int threshold) {
+    String plain = getConfigurations();
+    if (threshold < 0 || plain == null || plain.length() < threshold) {
+      return;
+    }
+    storedConfigurations = ReleaseConfigurationsCompressor.compress(plain);
   }
 
   public void setNamespaceName(String namespaceName) {
@@ -109,7 +138,7 @@ public class Release extends BaseEntity {
 
   public String toString() {
     return toStringHelper().add("name", name).add("appId", appId).add("clusterName", clusterName)
-        .add("namespaceName", namespaceName).add("configurations", configurations)
+        .add("namespaceName", namespaceName).add("configurations", getConfigurations())
         .add("comment", comment).add("isAbandoned", isAbandoned).toString();
   }
 }
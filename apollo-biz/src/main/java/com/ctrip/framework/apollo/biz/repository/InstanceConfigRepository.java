@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -27,10 +28,21 @@ public interface InstanceConfigRepository extends PagingAndSortingRepository<Ins
   List<InstanceConfig> findByConfigAppIdAndConfigClusterNameAndConfigNamespaceNameAndDataChangeLastModifiedTimeAfterAndReleaseKeyNotIn(
       String appId, String clusterName, String namespaceName, Date validDate, Set<String> releaseKey);
 
+  List<InstanceConfig> findByConfigAppIdAndConfigClusterNameAndConfigNamespaceNameAndDataChangeLastModifiedTimeAfterAndReleaseKeyNotInOrderByDataChangeLastModifiedTimeDesc(
+      String appId, String clusterName, String namespaceName, Date validDate, Set<String> releaseKey,
+      Pageable pageable);
+
   @Modifying
   @Query("delete from InstanceConfig  where ConfigAppId=?1 and ConfigClusterName=?2 and ConfigNamespaceName = ?3")
   int batchDelete(String appId, String clusterName, String namespaceName);
 
+  @Query("select id from InstanceConfig where dataChangeLastModifiedTime < ?1")
+  List<Long> findIdsByModifiedBefore(Date modifiedBefore, Pageable pageable);
+
+  @Modifying
+  @Query("delete from InstanceConfig where id in ?1")
+  int deleteByIds(Collection<Long> ids);
+
   @Query(
       value = "select b.Id from `InstanceConfig` a inner join `Instance` b on b.Id =" +
           " a.`InstanceId` where a.`ConfigAppId` = :configAppId and a.`ConfigClusterName` = " +
@@ -0,0 +1,48 @@
+package com.ctrip.framework.apollo.biz.repository;
+
+import com.ctrip.framework.apollo.biz.entity.InstanceReleaseCount;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface InstanceReleaseCountRepository extends PagingAndSortingRepository<InstanceReleaseCount, Long> {
+
+  @Modifying
+  @Query(value = "insert into `InstanceReleaseCount` (`ConfigAppId`, `ConfigClusterName`, `ConfigNamespaceName`, " +
+      "`ReleaseKey`, `ActiveHour`, `InstanceCount`, `DataChange_CreatedTime`, `DataChange_LastTime`) values " +
+      "(:configAppId, :clusterName, :namespaceName, :releaseKey, :activeHour, 1, :now, :now) " +
+      "on duplicate key update `InstanceCount` = `InstanceCount` + 1, `DataChange_LastTime` = :now",
+      nativeQuery = true)
+  int increase(@Param("configAppId") String configAppId, @Param("clusterName") String clusterName,
+      @Param("namespaceName") String namespaceName, @Param("releaseKey") String releaseKey,
+      @Param("activeHour") Date activeHour, @Param("now") Date now);
+
+  @Modifying
+  @Query("update InstanceReleaseCount set instanceCount = instanceCount - 1 where configAppId = ?1 and " +
+      "configClusterName = ?2 and configNamespaceName = ?3 and releaseKey = ?4 and activeHour = ?5 and " +
+      "instanceCount > 0")
+  int decrease(String configAppId, String clusterName, String namespaceName, String releaseKey, Date activeHour);
+
+  @Query("select sum(instanceCount) from InstanceReleaseCount where configAppId = ?1 and configClusterName = ?2 " +
+      "and configNamespaceName = ?3 and activeHour >= ?4")
+  Long sumByNamespace(String configAppId, String clusterName, String namespaceName, Date activeHourFrom);
+
+  @Query("select releaseKey, sum(instanceCount) from InstanceReleaseCount where configAppId = ?1 and " +
+      "configClusterName = ?2 and configNamespaceName = ?3 and activeHour >= ?4 group by releaseKey")
+  List<Object[]> sumByNamespaceGroupByReleaseKey(String configAppId, String clusterName, String namespaceName,
+      Date activeHourFrom);
+
+  @Modifying
+  @Query("delete from InstanceReleaseCount where configAppId = ?1 and configClusterName = ?2 and " +
+      "configNamespaceName = ?3")
+  int batchDelete(String configAppId, String clusterName, String namespaceName);
+
+  @Modifying
+  @Query("delete from InstanceReleaseCount where activeHour < ?1")
+  int deleteByActiveHourBefore(Date activeHour);
+}
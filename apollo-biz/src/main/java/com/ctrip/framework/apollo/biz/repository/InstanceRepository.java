@@ -2,8 +2,23 @@ package com.ctrip.framework.apollo.biz.repository;
 
 import com.ctrip.framework.apollo.biz.entity.Instance;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
 public interface InstanceRepository extends PagingAndSortingRepository<Instance, Long> {
   Instance findByAppIdAndClusterNameAndDataCenterAndIp(String appId, String clusterName, String dataCenter, String ip);
+
+  @Query("select id from Instance where id > ?1 and dataChangeLastModifiedTime < ?2 order by id")
+  List<Long> findIdsByIdGreaterThanAndModifiedBefore(long id, Date modifiedBefore, Pageable pageable);
+
+  @Modifying
+  @Query("delete from Instance i where i.id in ?1 and not exists "
+      + "(select c.id from InstanceConfig c where c.instanceId = i.id)")
+  int deleteWithoutInstanceConfigsByIds(Collection<Long> ids);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -21,6 +22,17 @@ public interface ItemRepository extends PagingAndSortingRepository<Item, Long> {
 
   Item findFirst1ByNamespaceIdOrderByLineNumDesc(Long namespaceId);
 
+  @Query("select distinct i.namespaceId from Item i where i.namespaceId in ?1")
+  List<Long> findNamespaceIdsHavingItems(Collection<Long> namespaceIds);
+
+  /**
+   * @return the items modified after the release of the same namespace, for each of the releases
+   */
+  @Query("select i from Item i, Namespace n, Release r where r.id in ?1 and n.appId = r.appId and " +
+      "n.clusterName = r.clusterName and n.namespaceName = r.namespaceName and i.namespaceId = n.id and " +
+      "i.dataChangeLastModifiedTime > r.dataChangeLastModifiedTime")
+  List<Item> findItemsModifiedAfterReleases(Collection<Long> releaseIds);
+
   @Modifying
   @Query("update Item set isdeleted=1,DataChange_LastModifiedBy = ?2 where namespaceId = ?1")
   int deleteByNamespaceId(long namespaceId, String operator);
@@ -0,0 +1,34 @@
+package com.ctrip.framework.apollo.biz.repository;
+
+import com.ctrip.framework.apollo.biz.entity.LeaderLock;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+public interface LeaderLockRepository extends PagingAndSortingRepository<LeaderLock, Long> {
+
+  LeaderLock findByName(String name);
+
+  /**
+   * Take over the lock if it's held by the owner already or expired
+   */
+  @Transactional
+  @Modifying
+  @Query("update LeaderLock set owner = ?2, expireTime = ?3, dataChangeLastModifiedTime = ?4 where name = ?1 and "
+      + "(owner = ?2 or expireTime < ?4)")
+  int tryAcquire(String name, String owner, Date expireTime, Date now);
+
+  @Transactional
+  @Modifying
+  @Query("update LeaderLock set expireTime = ?3 where name = ?1 and owner = ?2")
+  int release(String name, String owner, Date expireTime);
+
+  @Transactional
+  @Modifying
+  @Query("update LeaderLock set checkpoint = ?3 where name = ?1 and owner = ?2")
+  int saveCheckpoint(String name, String owner, String checkpoint);
+}
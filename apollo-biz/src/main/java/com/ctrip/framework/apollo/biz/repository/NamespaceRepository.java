@@ -13,6 +13,8 @@ public interface NamespaceRepository extends PagingAndSortingRepository<Namespac
 
   List<Namespace> findByAppIdAndClusterNameOrderByIdAsc(String appId, String clusterName);
 
+  List<Namespace> findByAppIdOrderByIdAsc(String appId);
+
   Namespace findByAppIdAndClusterNameAndNamespaceName(String appId, String clusterName, String namespaceName);
 
   @Modifying
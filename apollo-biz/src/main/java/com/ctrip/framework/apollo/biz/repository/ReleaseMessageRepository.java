@@ -2,6 +2,8 @@ package com.ctrip.framework.apollo.biz.repository;
 
 import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
@@ -21,6 +23,13 @@ public interface ReleaseMessageRepository extends PagingAndSortingRepository<Rel
 
   List<ReleaseMessage> findFirst100ByMessageAndIdLessThanOrderByIdAsc(String message, Long id);
 
+  @Query("select id from ReleaseMessage where message = ?1 and id < ?2 order by id")
+  List<Long> findIdsByMessageAndIdLessThan(String message, long id, Pageable pageable);
+
+  @Modifying
+  @Query("delete from ReleaseMessage where id in ?1")
+  int deleteByIds(Collection<Long> ids);
+
   @Query("select message, max(id) as id from ReleaseMessage where message in :messages group by message")
   List<Object[]> findLatestReleaseMessagesGroupByMessages(@Param("messages") Collection<String> messages);
 }
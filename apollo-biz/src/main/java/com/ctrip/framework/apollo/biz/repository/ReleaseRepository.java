@@ -29,10 +29,25 @@ public interface ReleaseRepository extends PagingAndSortingRepository<Release, L
 
   List<Release> findByIdIn(Set<Long> releaseIds);
 
+  @Query("select r from Release r where r.id in (select max(l.id) from Release l where l.appId = ?1 " +
+      "and l.isAbandoned = false group by l.clusterName, l.namespaceName)")
+  List<Release> findLatestActiveReleases(String appId);
+
   @Modifying
   @Query("update Release set isdeleted=1,DataChange_LastModifiedBy = ?4 where appId=?1 and clusterName=?2 and namespaceName = ?3")
   int batchDelete(String appId, String clusterName, String namespaceName, String operator);
 
+  @Query(value = "select `Id` from `Release` where `Id` > :id and `IsDeleted` = 0 and " +
+      "`Configurations` not like 'gzip:%' and char_length(`Configurations`) >= :minLength order by `Id` limit :limit", nativeQuery = true)
+  List<Number> findUncompressedReleaseIds(@Param("id") long id, @Param("minLength") int minLength,
+                                          @Param("limit") int limit);
+
+  // keep DataChange_LastTime unchanged as the content is not changed
+  @Modifying
+  @Query(value = "update `Release` set `Configurations` = :configurations, " +
+      "`DataChange_LastTime` = `DataChange_LastTime` where `Id` = :id", nativeQuery = true)
+  int updateStoredConfigurations(@Param("id") long id, @Param("configurations") String configurations);
+
   // For release history conversion program, need to delete after conversion it done
   List<Release> findByAppIdAndClusterNameAndNamespaceNameOrderByIdAsc(String appId, String clusterName, String namespaceName);
 }
@@ -1,12 +1,16 @@
 package com.ctrip.framework.apollo.biz.service;
 
 import com.ctrip.framework.apollo.biz.entity.Commit;
+import com.ctrip.framework.apollo.biz.entity.Item;
 import com.ctrip.framework.apollo.biz.repository.CommitRepository;
+import com.ctrip.framework.apollo.biz.utils.ConfigChangeContentBuilder;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class CommitService {
@@ -27,6 +31,17 @@ public class CommitService {
     return commitRepository.findByAppIdAndClusterNameAndNamespaceNameOrderByIdDesc(appId, clusterName, namespaceName, page);
   }
 
+  /**
+   * Find the items deleted in all the commits of the namespace
+   */
+  public List<Item> findDeletedItems(String appId, String clusterName, String namespaceName) {
+    List<Commit> commits = find(appId, clusterName, namespaceName, null);
+    return commits.stream()
+        .map(commit -> ConfigChangeContentBuilder.convertJsonString(commit.getChangeSets()).getDeleteItems())
+        .flatMap(Collection::stream)
+        .collect(Collectors.toList());
+  }
+
   @Transactional
   public int batchDelete(String appId, String clusterName, String namespaceName, String operator){
     return commitRepository.batchDelete(appId, clusterName, namespaceName, operator);
@@ -0,0 +1,276 @@
+package com.ctrip.framework.apollo.biz.service;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Type;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Purges the superseded release messages, the stale instances and their release counts in the background.
+ *
+ * <p>Only the node holding the leader lock does the purge. Rows are deleted by id in small batches, with a pause
+ * between batches, and the scan resumes from where the last batch stopped. The checkpoints are saved in the leader lock,
+ * so a new leader resumes from where the last one stopped.
+ */
+@Service
+public class DataRetentionService {
+  private static final Logger logger = LoggerFactory.getLogger(DataRetentionService.class);
+  static final String LOCK_NAME = "DataRetention";
+  private static final long LEASE_IN_MILLI = TimeUnit.MINUTES.toMillis(5);
+  private static final String RELEASE_MESSAGE_CHECKPOINT = "ReleaseMessage";
+  private static final String INSTANCE_CHECKPOINT = "Instance";
+  private static final Type CHECKPOINTS_TYPE = new TypeToken<Map<String, Long>>() {
+  }.getType();
+  private static final Gson gson = new Gson();
+
+  private final BizConfig bizConfig;
+  private final LeaderLockService leaderLockService;
+  private final ReleaseMessageService releaseMessageService;
+  private final InstanceService instanceService;
+  private final ScheduledExecutorService executorService;
+
+  //checkpoints of the last scanned ids, loaded from the leader lock when the lock is acquired
+  private volatile long releaseMessageCheckpoint = 0;
+  private volatile long instanceCheckpoint = 0;
+  private volatile long leaseRenewedTime = 0;
+
+  private final AtomicLong releaseMessagesPurged = new AtomicLong();
+  private final AtomicLong instanceConfigsPurged = new AtomicLong();
+  private final AtomicLong instancesPurged = new AtomicLong();
+  private final AtomicLong instanceReleaseCountsPurged = new AtomicLong();
+
+  public DataRetentionService(
+      final BizConfig bizConfig,
+      final LeaderLockService leaderLockService,
+      final ReleaseMessageService releaseMessageService,
+      final InstanceService instanceService) {
+    this.bizConfig = bizConfig;
+    this.leaderLockService = leaderLockService;
+    this.releaseMessageService = releaseMessageService;
+    this.instanceService = instanceService;
+    executorService = Executors.newScheduledThreadPool(1, ApolloThreadFactory
+        .create("DataRetentionService", true));
+  }
+
+  @PostConstruct
+  void initialize() {
+    int interval = bizConfig.dataRetentionInterval();
+    executorService.scheduleWithFixedDelay(() -> {
+      try {
+        purge();
+      } catch (Throwable ex) {
+        logger.error("Purge data failed", ex);
+        Tracer.logError(ex);
+      }
+    }, interval, interval, bizConfig.dataRetentionIntervalTimeUnit());
+  }
+
+  @PreDestroy
+  void stop() {
+    executorService.shutdownNow();
+    if (leaseRenewedTime > 0) {
+      leaderLockService.unlock(LOCK_NAME);
+    }
+  }
+
+  void purge() {
+    if (!bizConfig.isDataRetentionEnabled() || !renewLease(true)) {
+      return;
+    }
+
+    Transaction transaction = Tracer.newTransaction("Apollo.DataRetention", "purge");
+    try {
+      purgeReleaseMessages();
+      purgeInstances();
+      purgeInstanceReleaseCounts();
+      transaction.setStatus(Transaction.SUCCESS);
+    } catch (Throwable ex) {
+      transaction.setStatus(ex);
+      throw ex;
+    } finally {
+      transaction.complete();
+    }
+  }
+
+  void purgeReleaseMessages() {
+    int batchSize = bizConfig.dataRetentionBatch();
+    long purged = 0;
+    boolean hasMore = true;
+
+    while (hasMore && renewLease(false)) {
+      List<ReleaseMessage> messages = releaseMessageService.findFirst500AfterId(releaseMessageCheckpoint);
+      //newer messages override older ones in the same scan
+      Map<String, Long> latestIds = Maps.newLinkedHashMap();
+      for (ReleaseMessage message : messages) {
+        latestIds.put(message.getMessage(), message.getId());
+      }
+
+      for (Map.Entry<String, Long> entry : latestIds.entrySet()) {
+        int deleted;
+        do {
+          deleted = releaseMessageService.deleteSupersededMessages(entry.getKey(), entry.getValue(), batchSize);
+          purged += deleted;
+        } while (deleted == batchSize && throttle());
+      }
+
+      if (!messages.isEmpty()) {
+        releaseMessageCheckpoint = Iterables.getLast(messages).getId();
+        saveCheckpoints();
+      }
+      hasMore = messages.size() == 500 && throttle();
+    }
+
+    record("ReleaseMessage", purged, releaseMessagesPurged);
+  }
+
+  void purgeInstances() {
+    int retentionDays = bizConfig.instanceConfigRetentionDays();
+    if (retentionDays < 0) {
+      return;
+    }
+    int batchSize = bizConfig.dataRetentionBatch();
+    Date modifiedBefore = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+
+    long purged = 0;
+    int deleted = batchSize;
+    while (deleted == batchSize && renewLease(false)) {
+      deleted = instanceService.deleteInstanceConfigsModifiedBefore(modifiedBefore, batchSize);
+      purged += deleted;
+      throttle();
+    }
+    record("InstanceConfig", purged, instanceConfigsPurged);
+
+    //instances are never updated after created, so all the instances before the date have to be checked
+    purged = 0;
+    List<Long> instanceIds;
+    do {
+      instanceIds = instanceService.findInstanceIdsModifiedBefore(instanceCheckpoint, modifiedBefore, batchSize);
+      if (instanceIds.isEmpty()) {
+        //start over in the next round
+        instanceCheckpoint = 0;
+        saveCheckpoints();
+        break;
+      }
+      purged += instanceService.deleteInstancesWithoutInstanceConfigs(instanceIds);
+      instanceCheckpoint = Iterables.getLast(instanceIds);
+      saveCheckpoints();
+    } while (throttle() && renewLease(false));
+    record("Instance", purged, instancesPurged);
+  }
+
+  void purgeInstanceReleaseCounts() {
+    //the counts are derived from the instance configs, so they are kept only as long as they are counted
+    if (renewLease(false)) {
+      record("InstanceReleaseCount", instanceService.deleteInactiveInstanceReleaseCounts(),
+          instanceReleaseCountsPurged);
+    }
+  }
+
+  private void record(String type, long purged, AtomicLong counter) {
+    if (purged <= 0) {
+      return;
+    }
+    counter.addAndGet(purged);
+    Tracer.logEvent("Apollo.DataRetention." + type, String.valueOf(purged));
+    logger.info("Purged {} {} rows", purged, type);
+  }
+
+  /**
+   * Acquire the lease when starting a round, and renew it once half of the lease is passed during the round
+   *
+   * @return whether the current node is still the leader
+   */
+  private boolean renewLease(boolean force) {
+    long now = System.currentTimeMillis();
+    if (!force && now - leaseRenewedTime < LEASE_IN_MILLI / 2) {
+      return true;
+    }
+    if (leaderLockService.tryLock(LOCK_NAME, LEASE_IN_MILLI)) {
+      if (leaseRenewedTime == 0) {
+        loadCheckpoints();
+      }
+      leaseRenewedTime = now;
+      return true;
+    }
+    if (leaseRenewedTime > 0) {
+      logger.info("Lost the leader lock {}, owner: {}", LOCK_NAME, leaderLockService.getOwner());
+      //the new leader resumes from the saved checkpoints
+      leaseRenewedTime = 0;
+      releaseMessageCheckpoint = 0;
+      instanceCheckpoint = 0;
+    }
+    return false;
+  }
+
+  private void loadCheckpoints() {
+    String checkpoint = leaderLockService.getCheckpoint(LOCK_NAME);
+    Map<String, Long> checkpoints = null;
+    if (!Strings.isNullOrEmpty(checkpoint)) {
+      try {
+        checkpoints = gson.fromJson(checkpoint, CHECKPOINTS_TYPE);
+      } catch (JsonParseException ex) {
+        logger.warn("Ignore the malformed checkpoint {} of the leader lock {}", checkpoint, LOCK_NAME, ex);
+      }
+    }
+    if (checkpoints == null) {
+      checkpoints = Maps.newHashMap();
+    }
+    releaseMessageCheckpoint = checkpoints.getOrDefault(RELEASE_MESSAGE_CHECKPOINT, 0L);
+    instanceCheckpoint = checkpoints.getOrDefault(INSTANCE_CHECKPOINT, 0L);
+  }
+
+  private void saveCheckpoints() {
+    Map<String, Long> checkpoints = Maps.newLinkedHashMap();
+    checkpoints.put(RELEASE_MESSAGE_CHECKPOINT, releaseMessageCheckpoint);
+    checkpoints.put(INSTANCE_CHECKPOINT, instanceCheckpoint);
+    leaderLockService.saveCheckpoint(LOCK_NAME, gson.toJson(checkpoints));
+  }
+
+  private boolean throttle() {
+    try {
+      TimeUnit.MILLISECONDS.sleep(bizConfig.dataRetentionBatchIntervalInMilli());
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  public long getReleaseMessagesPurged() {
+    return releaseMessagesPurged.get();
+  }
+
+  public long getInstanceConfigsPurged() {
+    return instanceConfigsPurged.get();
+  }
+
+  public long getInstancesPurged() {
+    return instancesPurged.get();
+  }
+
+  public long getInstanceReleaseCountsPurged() {
+    return instanceReleaseCountsPurged.get();
+  }
+}
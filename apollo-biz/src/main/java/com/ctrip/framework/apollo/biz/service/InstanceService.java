@@ -3,12 +3,15 @@ package com.ctrip.framework.apollo.biz.service;
 import com.ctrip.framework.apollo.biz.entity.Instance;
 import com.ctrip.framework.apollo.biz.entity.InstanceConfig;
 import com.ctrip.framework.apollo.biz.repository.InstanceConfigRepository;
+import com.ctrip.framework.apollo.biz.repository.InstanceReleaseCountRepository;
 import com.ctrip.framework.apollo.biz.repository.InstanceRepository;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import java.util.Objects;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,10 +19,13 @@ import org.springframework.util.CollectionUtils;
 
 import java.math.BigInteger;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -27,14 +33,19 @@ import java.util.stream.Collectors;
  */
 @Service
 public class InstanceService {
+  private static final long HOUR_IN_MILLI = TimeUnit.HOURS.toMillis(1);
+
   private final InstanceRepository instanceRepository;
   private final InstanceConfigRepository instanceConfigRepository;
+  private final InstanceReleaseCountRepository instanceReleaseCountRepository;
 
   public InstanceService(
       final InstanceRepository instanceRepository,
-      final InstanceConfigRepository instanceConfigRepository) {
+      final InstanceConfigRepository instanceConfigRepository,
+      final InstanceReleaseCountRepository instanceReleaseCountRepository) {
     this.instanceRepository = instanceRepository;
     this.instanceConfigRepository = instanceConfigRepository;
+    this.instanceReleaseCountRepository = instanceReleaseCountRepository;
   }
 
   public Instance findInstance(String appId, String clusterName, String dataCenter, String ip) {
@@ -141,6 +152,42 @@ public class InstanceService {
     return instanceConfigs;
   }
 
+  /**
+   * Find a page of the active instance configs of the namespace not on the given releases, the most recently active
+   * first, so that it is served by the index of the namespace and the last modified time without a count query
+   */
+  public List<InstanceConfig> findInstanceConfigsByNamespaceWithReleaseKeysNotIn(String appId, String clusterName,
+      String namespaceName, Set<String> releaseKeysNotIn, Pageable pageable) {
+    return instanceConfigRepository
+        .findByConfigAppIdAndConfigClusterNameAndConfigNamespaceNameAndDataChangeLastModifiedTimeAfterAndReleaseKeyNotInOrderByDataChangeLastModifiedTimeDesc(
+            appId, clusterName, namespaceName, getValidInstanceConfigDate(), releaseKeysNotIn, pageable);
+  }
+
+  /**
+   * Count the active instances of the namespace by the instance release counts
+   */
+  public long countActiveInstancesByNamespace(String appId, String clusterName, String namespaceName) {
+    Long count = instanceReleaseCountRepository.sumByNamespace(appId, clusterName, namespaceName,
+        activeHourOf(getValidInstanceConfigDate()));
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * Count the active instances of the namespace on each release by the instance release counts
+   *
+   * @return release key -> count
+   */
+  public Map<String, Long> countActiveInstancesByNamespaceGroupByReleaseKey(String appId, String clusterName,
+      String namespaceName) {
+    List<Object[]> counts = instanceReleaseCountRepository.sumByNamespaceGroupByReleaseKey(appId, clusterName,
+        namespaceName, activeHourOf(getValidInstanceConfigDate()));
+    Map<String, Long> result = Maps.newHashMapWithExpectedSize(counts.size());
+    for (Object[] count : counts) {
+      result.put((String) count[0], count[1] == null ? 0 : ((Number) count[1]).longValue());
+    }
+    return result;
+  }
+
   /**
    * Currently the instance config is expired by 1 day, add one more hour to avoid possible time
    * difference
@@ -156,7 +203,11 @@ public class InstanceService {
   public InstanceConfig createInstanceConfig(InstanceConfig instanceConfig) {
     instanceConfig.setId(0); //protection
 
-    return instanceConfigRepository.save(instanceConfig);
+    InstanceConfig created = instanceConfigRepository.save(instanceConfig);
+    increaseReleaseCount(created.getConfigAppId(), created.getConfigClusterName(),
+        created.getConfigNamespaceName(), created.getReleaseKey(), created.getDataChangeLastModifiedTime());
+
+    return created;
   }
 
   @Transactional
@@ -165,17 +216,89 @@ public class InstanceService {
     Preconditions.checkArgument(existedInstanceConfig != null, String.format(
         "Instance config %d doesn't exist", instanceConfig.getId()));
 
+    String previousClusterName = existedInstanceConfig.getConfigClusterName();
+    String previousReleaseKey = existedInstanceConfig.getReleaseKey();
+    Date previousActiveHour = activeHourOf(existedInstanceConfig.getDataChangeLastModifiedTime());
+
     existedInstanceConfig.setConfigClusterName(instanceConfig.getConfigClusterName());
     existedInstanceConfig.setReleaseKey(instanceConfig.getReleaseKey());
     existedInstanceConfig.setReleaseDeliveryTime(instanceConfig.getReleaseDeliveryTime());
     existedInstanceConfig.setDataChangeLastModifiedTime(instanceConfig
         .getDataChangeLastModifiedTime());
 
-    return instanceConfigRepository.save(existedInstanceConfig);
+    InstanceConfig updated = instanceConfigRepository.save(existedInstanceConfig);
+
+    //the last modified time is set to now when flushed
+    Date now = new Date();
+    if (!Objects.equals(previousClusterName, updated.getConfigClusterName())
+        || !Objects.equals(previousReleaseKey, updated.getReleaseKey())
+        || !previousActiveHour.equals(activeHourOf(now))) {
+      instanceReleaseCountRepository.decrease(updated.getConfigAppId(), previousClusterName,
+          updated.getConfigNamespaceName(), previousReleaseKey, previousActiveHour);
+      increaseReleaseCount(updated.getConfigAppId(), updated.getConfigClusterName(),
+          updated.getConfigNamespaceName(), updated.getReleaseKey(), now);
+    }
+
+    return updated;
   }
 
   @Transactional
   public int batchDeleteInstanceConfig(String configAppId, String configClusterName, String configNamespaceName){
+    instanceReleaseCountRepository.batchDelete(configAppId, configClusterName, configNamespaceName);
     return instanceConfigRepository.batchDelete(configAppId, configClusterName, configNamespaceName);
   }
+
+  /**
+   * Delete the instance release counts of the hours no instance config modified in is active any more
+   *
+   * @return the number of instance release counts deleted
+   */
+  @Transactional
+  public int deleteInactiveInstanceReleaseCounts() {
+    return instanceReleaseCountRepository.deleteByActiveHourBefore(
+        activeHourOf(new Date(getValidInstanceConfigDate().getTime() - HOUR_IN_MILLI)));
+  }
+
+  private void increaseReleaseCount(String configAppId, String configClusterName, String configNamespaceName,
+      String releaseKey, Date lastModifiedTime) {
+    instanceReleaseCountRepository.increase(configAppId, configClusterName, configNamespaceName, releaseKey,
+        activeHourOf(lastModifiedTime), new Date());
+  }
+
+  private Date activeHourOf(Date time) {
+    long millis = time.getTime();
+    return new Date(millis - millis % HOUR_IN_MILLI);
+  }
+
+  /**
+   * Delete at most batchSize instance configs which are not modified since the given date
+   *
+   * @return the number of instance configs deleted
+   */
+  @Transactional
+  public int deleteInstanceConfigsModifiedBefore(Date modifiedBefore, int batchSize) {
+    List<Long> ids = instanceConfigRepository.findIdsByModifiedBefore(modifiedBefore, PageRequest.of(0, batchSize));
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    return instanceConfigRepository.deleteByIds(ids);
+  }
+
+  public List<Long> findInstanceIdsModifiedBefore(long afterId, Date modifiedBefore, int batchSize) {
+    return instanceRepository.findIdsByIdGreaterThanAndModifiedBefore(afterId, modifiedBefore,
+        PageRequest.of(0, batchSize));
+  }
+
+  /**
+   * Delete the given instances which no longer have any instance config
+   *
+   * @return the number of instances deleted
+   */
+  @Transactional
+  public int deleteInstancesWithoutInstanceConfigs(Collection<Long> instanceIds) {
+    if (CollectionUtils.isEmpty(instanceIds)) {
+      return 0;
+    }
+    return instanceRepository.deleteWithoutInstanceConfigsByIds(instanceIds);
+  }
 }
@@ -10,10 +10,13 @@ import com.ctrip.framework.apollo.common.exception.BadRequestException;
 import com.ctrip.framework.apollo.common.exception.NotFoundException;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -21,6 +24,8 @@ import java.util.Map;
 
 @Service
 public class ItemService {
+  //keep the IN clause of a single query within a reasonable size
+  private static final int BATCH_QUERY_SIZE = 500;
 
   private final ItemRepository itemRepository;
   private final NamespaceService namespaceService;
@@ -88,6 +93,14 @@ public class ItemService {
     return item;
   }
 
+  public List<Item> findByIds(Collection<Long> itemIds) {
+    List<Item> items = Lists.newArrayListWithCapacity(itemIds.size());
+    for (List<Long> partition : Lists.partition(Lists.newArrayList(itemIds), BATCH_QUERY_SIZE)) {
+      itemRepository.findAllById(partition).forEach(items::add);
+    }
+    return items;
+  }
+
   public List<Item> findItemsWithoutOrdered(Long namespaceId) {
     List<Item> items = itemRepository.findByNamespaceId(namespaceId);
     if (items == null) {
@@ -124,6 +137,23 @@ public class ItemService {
     return itemRepository.findByNamespaceIdAndDataChangeLastModifiedTimeGreaterThan(namespaceId, date);
   }
 
+  public List<Long> findNamespaceIdsHavingItems(Collection<Long> namespaceIds) {
+    if (namespaceIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return itemRepository.findNamespaceIdsHavingItems(namespaceIds);
+  }
+
+  /**
+   * @return the items modified after the release of their namespace, for each of the releases
+   */
+  public List<Item> findItemsModifiedAfterReleases(Collection<Long> releaseIds) {
+    if (releaseIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return itemRepository.findItemsModifiedAfterReleases(releaseIds);
+  }
+
   @Transactional
   public Item save(Item entity) {
     checkItemKeyLength(entity.getKey());
@@ -158,8 +188,94 @@ public class ItemService {
     return managedItem;
   }
 
+  /**
+   * Save the items in one batch, the items are validated before any of them is saved.
+   * Unlike {@link #save(Item)}, no audit is written per item, the caller is responsible for auditing the batch.
+   */
+  @Transactional
+  public List<Item> batchSave(List<Item> entities) {
+    if (entities.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    int keyLengthLimit = bizConfig.itemKeyLengthLimit();
+    Map<Long, Integer> valueLengthLimits = Maps.newHashMap();
+    Map<Long, Integer> lastLineNums = Maps.newHashMap();
+
+    for (Item entity : entities) {
+      checkItemKeyLength(entity.getKey(), keyLengthLimit);
+      checkItemValueLength(entity.getValue(), valueLengthLimits.computeIfAbsent(entity.getNamespaceId(),
+          this::getItemValueLengthLimit));
+
+      entity.setId(0);//protection
+
+      int lastLineNum = lastLineNums.computeIfAbsent(entity.getNamespaceId(), namespaceId -> {
+        Item lastItem = findLastOne(namespaceId);
+        return lastItem == null ? 0 : lastItem.getLineNum();
+      });
+
+      if (entity.getLineNum() == 0) {
+        entity.setLineNum(lastLineNum + 1);
+      }
+      lastLineNums.put(entity.getNamespaceId(), Math.max(lastLineNum, entity.getLineNum()));
+    }
+
+    return Lists.newArrayList(itemRepository.saveAll(entities));
+  }
+
+  /**
+   * Update the managed items in one batch, the items are validated before any of them is updated.
+   * Unlike {@link #update(Item)}, no audit is written per item, the caller is responsible for auditing the batch.
+   */
+  @Transactional
+  public List<Item> batchUpdate(List<Item> managedItems) {
+    if (managedItems.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<Long, Integer> valueLengthLimits = Maps.newHashMap();
+    for (Item item : managedItems) {
+      checkItemValueLength(item.getValue(), valueLengthLimits.computeIfAbsent(item.getNamespaceId(),
+          this::getItemValueLengthLimit));
+    }
+
+    return Lists.newArrayList(itemRepository.saveAll(managedItems));
+  }
+
+  /**
+   * Delete the items in one batch.
+   * Unlike {@link #delete(long, String)}, no audit is written per item, the caller is responsible for auditing the batch.
+   */
+  @Transactional
+  public List<Item> batchDeleteByIds(Collection<Long> itemIds, String operator) {
+    if (itemIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<Long, Item> items = Maps.newHashMapWithExpectedSize(itemIds.size());
+    for (Item item : findByIds(itemIds)) {
+      items.put(item.getId(), item);
+    }
+
+    List<Item> deletedItems = Lists.newArrayListWithCapacity(itemIds.size());
+    for (Long id : itemIds) {
+      Item item = items.get(id);
+      if (item == null) {
+        throw new IllegalArgumentException("item not exist. ID:" + id);
+      }
+      item.setDeleted(true);
+      item.setDataChangeLastModifiedBy(operator);
+      deletedItems.add(item);
+    }
+
+    return Lists.newArrayList(itemRepository.saveAll(deletedItems));
+  }
+
   private boolean checkItemValueLength(long namespaceId, String value) {
-    int limit = getItemValueLengthLimit(namespaceId);
+    return checkItemValueLength(value, getItemValueLengthLimit(namespaceId));
+  }
+
+  private boolean checkItemValueLength(String value, int limit) {
     if (!StringUtils.isEmpty(value) && value.length() > limit) {
       throw new BadRequestException("value too long. length limit:" + limit);
     }
@@ -167,8 +283,12 @@ public class ItemService {
   }
 
   private boolean checkItemKeyLength(String key) {
-    if (!StringUtils.isEmpty(key) && key.length() > bizConfig.itemKeyLengthLimit()) {
-      throw new BadRequestException("key too long. length limit:" + bizConfig.itemKeyLengthLimit());
+    return checkItemKeyLength(key, bizConfig.itemKeyLengthLimit());
+  }
+
+  private boolean checkItemKeyLength(String key, int limit) {
+    if (!StringUtils.isEmpty(key) && key.length() > limit) {
+      throw new BadRequestException("key too long. length limit:" + limit);
     }
     return true;
   }
@@ -9,10 +9,16 @@ import com.ctrip.framework.apollo.common.dto.ItemChangeSets;
 import com.ctrip.framework.apollo.common.dto.ItemDTO;
 import com.ctrip.framework.apollo.common.exception.NotFoundException;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 
 @Service
 public class ItemSetService {
@@ -42,42 +48,56 @@ public class ItemSetService {
     ConfigChangeContentBuilder configChangeContentBuilder = new ConfigChangeContentBuilder();
 
     if (!CollectionUtils.isEmpty(changeSet.getCreateItems())) {
+      List<Item> entities = Lists.newArrayListWithCapacity(changeSet.getCreateItems().size());
       for (ItemDTO item : changeSet.getCreateItems()) {
         Item entity = BeanUtils.transform(Item.class, item);
         entity.setDataChangeCreatedBy(operator);
         entity.setDataChangeLastModifiedBy(operator);
-        Item createdItem = itemService.save(entity);
+        entities.add(entity);
+      }
+      for (Item createdItem : itemService.batchSave(entities)) {
         configChangeContentBuilder.createItem(createdItem);
       }
       auditService.audit("ItemSet", null, Audit.OP.INSERT, operator);
     }
 
     if (!CollectionUtils.isEmpty(changeSet.getUpdateItems())) {
-      for (ItemDTO item : changeSet.getUpdateItems()) {
-        Item entity = BeanUtils.transform(Item.class, item);
+      //load all the items to update in one go instead of one query per item
+      Map<Long, Item> managedItems = Maps.newHashMap();
+      for (Item managedItem : itemService.findByIds(
+          changeSet.getUpdateItems().stream().map(ItemDTO::getId).collect(Collectors.toList()))) {
+        managedItems.put(managedItem.getId(), managedItem);
+      }
 
-        Item managedItem = itemService.findOne(entity.getId());
+      List<Item> itemsToUpdate = Lists.newArrayListWithCapacity(changeSet.getUpdateItems().size());
+      List<Item> beforeUpdateItems = Lists.newArrayListWithCapacity(changeSet.getUpdateItems().size());
+      for (ItemDTO item : changeSet.getUpdateItems()) {
+        Item managedItem = managedItems.get(item.getId());
         if (managedItem == null) {
-          throw new NotFoundException(String.format("item not found.(key=%s)", entity.getKey()));
+          throw new NotFoundException(String.format("item not found.(key=%s)", item.getKey()));
         }
-        Item beforeUpdateItem = BeanUtils.transform(Item.class, managedItem);
+        beforeUpdateItems.add(BeanUtils.transform(Item.class, managedItem));
 
         //protect. only value,comment,lastModifiedBy,lineNum can be modified
-        managedItem.setValue(entity.getValue());
-        managedItem.setComment(entity.getComment());
-        managedItem.setLineNum(entity.getLineNum());
+        managedItem.setValue(item.getValue());
+        managedItem.setComment(item.getComment());
+        managedItem.setLineNum(item.getLineNum());
         managedItem.setDataChangeLastModifiedBy(operator);
 
-        Item updatedItem = itemService.update(managedItem);
-        configChangeContentBuilder.updateItem(beforeUpdateItem, updatedItem);
+        itemsToUpdate.add(managedItem);
+      }
 
+      List<Item> updatedItems = itemService.batchUpdate(itemsToUpdate);
+      for (int i = 0; i < updatedItems.size(); i++) {
+        configChangeContentBuilder.updateItem(beforeUpdateItems.get(i), updatedItems.get(i));
       }
       auditService.audit("ItemSet", null, Audit.OP.UPDATE, operator);
     }
 
     if (!CollectionUtils.isEmpty(changeSet.getDeleteItems())) {
-      for (ItemDTO item : changeSet.getDeleteItems()) {
-        Item deletedItem = itemService.delete(item.getId(), operator);
+      List<Long> itemIds = changeSet.getDeleteItems().stream().map(ItemDTO::getId)
+          .collect(Collectors.toList());
+      for (Item deletedItem : itemService.batchDeleteByIds(itemIds, operator)) {
         configChangeContentBuilder.deleteItem(deletedItem);
       }
       auditService.audit("ItemSet", null, Audit.OP.DELETE, operator);
@@ -0,0 +1,85 @@
+package com.ctrip.framework.apollo.biz.service;
+
+import com.ctrip.framework.apollo.biz.entity.LeaderLock;
+import com.ctrip.framework.apollo.biz.repository.LeaderLockRepository;
+import com.ctrip.framework.foundation.Foundation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Elects a single node among all the config and admin services to run a background job, based on a lease
+ * stored in the <code>LeaderLock</code> table.
+ *
+ * <p>The lease is compared with the local clock, so it should be much longer than the clock skew between nodes.
+ */
+@Service
+public class LeaderLockService {
+  private static final Logger logger = LoggerFactory.getLogger(LeaderLockService.class);
+
+  private final LeaderLockRepository leaderLockRepository;
+  private final String owner;
+
+  public LeaderLockService(final LeaderLockRepository leaderLockRepository) {
+    this.leaderLockRepository = leaderLockRepository;
+    this.owner = Foundation.net().getHostAddress() + "-" + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  /**
+   * Acquire or renew the lock for the lease
+   *
+   * @return whether the current node holds the lock
+   */
+  public boolean tryLock(String name, long leaseInMilli) {
+    Date now = new Date();
+    Date expireTime = new Date(now.getTime() + leaseInMilli);
+    if (leaderLockRepository.tryAcquire(name, owner, expireTime, now) > 0) {
+      return true;
+    }
+    if (leaderLockRepository.findByName(name) != null) {
+      return false;
+    }
+
+    LeaderLock lock = new LeaderLock();
+    lock.setName(name);
+    lock.setOwner(owner);
+    lock.setExpireTime(expireTime);
+    try {
+      leaderLockRepository.save(lock);
+      logger.info("Created leader lock {} with owner {}", name, owner);
+      return true;
+    } catch (DataIntegrityViolationException ex) {
+      //created by others concurrently
+      return false;
+    }
+  }
+
+  public void unlock(String name) {
+    leaderLockRepository.release(name, owner, new Date());
+  }
+
+  /**
+   * @return the checkpoint saved by the last owner, or null if none
+   */
+  public String getCheckpoint(String name) {
+    LeaderLock lock = leaderLockRepository.findByName(name);
+    return lock == null ? null : lock.getCheckpoint();
+  }
+
+  /**
+   * Save the checkpoint if the current node still holds the lock
+   *
+   * @return whether the checkpoint is saved
+   */
+  public boolean saveCheckpoint(String name, String checkpoint) {
+    return leaderLockRepository.saveCheckpoint(name, owner, checkpoint) > 0;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+}
@@ -16,7 +16,10 @@ import com.ctrip.framework.apollo.common.exception.BadRequestException;
 import com.ctrip.framework.apollo.common.exception.ServiceException;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
 import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
 import com.google.gson.Gson;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Pageable;
@@ -25,7 +28,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 import java.util.Collections;
-import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +38,8 @@ import java.util.stream.Collectors;
 @Service
 public class NamespaceService {
 
+  private static final int MAX_IN_CLAUSE_SIZE = 500;
+
   private Gson gson = new Gson();
 
   private final NamespaceRepository namespaceRepository;
@@ -356,6 +360,10 @@ public class NamespaceService {
 
   }
 
+  /**
+   * Whether each parent cluster of the app has namespaces with items not published yet. The namespaces, their latest
+   * releases and the items modified after them are loaded for the whole app at once, instead of namespace by namespace.
+   */
   public Map<String, Boolean> namespacePublishInfo(String appId) {
     List<Cluster> clusters = clusterService.findParentClusters(appId);
     if (CollectionUtils.isEmpty(clusters)) {
@@ -363,52 +371,54 @@ public class NamespaceService {
     }
 
     Map<String, Boolean> clusterHasNotPublishedItems = Maps.newHashMap();
-
     for (Cluster cluster : clusters) {
-      String clusterName = cluster.getName();
-      List<Namespace> namespaces = findNamespaces(appId, clusterName);
-
-      for (Namespace namespace : namespaces) {
-        boolean isNamespaceNotPublished = isNamespaceNotPublished(namespace);
-
-        if (isNamespaceNotPublished) {
-          clusterHasNotPublishedItems.put(clusterName, true);
-          break;
-        }
-      }
-
-      clusterHasNotPublishedItems.putIfAbsent(clusterName, false);
+      clusterHasNotPublishedItems.put(cluster.getName(), false);
     }
 
-    return clusterHasNotPublishedItems;
-  }
-
-  private boolean isNamespaceNotPublished(Namespace namespace) {
-
-    Release latestRelease = releaseService.findLatestActiveRelease(namespace);
-    long namespaceId = namespace.getId();
-
-    if (latestRelease == null) {
-      Item lastItem = itemService.findLastOne(namespaceId);
-      return lastItem != null;
+    Table<String, String, Release> latestReleases = HashBasedTable.create();
+    for (Release release : releaseService.findLatestActiveReleases(appId)) {
+      latestReleases.put(release.getClusterName(), release.getNamespaceName(), release);
     }
 
-    Date lastPublishTime = latestRelease.getDataChangeLastModifiedTime();
-    List<Item> itemsModifiedAfterLastPublish = itemService.findItemsModifiedAfterDate(namespaceId, lastPublishTime);
+    Map<Long, String> notEverPublishedNamespaces = Maps.newHashMap();
+    Map<Long, Release> publishedNamespaces = Maps.newHashMap();
+    for (Namespace namespace : namespaceRepository.findByAppIdOrderByIdAsc(appId)) {
+      String clusterName = namespace.getClusterName();
+      if (!clusterHasNotPublishedItems.containsKey(clusterName)) {
+        continue;
+      }
+      Release latestRelease = latestReleases.get(clusterName, namespace.getNamespaceName());
+      if (latestRelease == null) {
+        notEverPublishedNamespaces.put(namespace.getId(), clusterName);
+      } else {
+        publishedNamespaces.put(namespace.getId(), latestRelease);
+      }
+    }
 
-    if (CollectionUtils.isEmpty(itemsModifiedAfterLastPublish)) {
-      return false;
+    for (List<Long> namespaceIds : Lists.partition(Lists.newArrayList(notEverPublishedNamespaces.keySet()),
+        MAX_IN_CLAUSE_SIZE)) {
+      for (Long namespaceId : itemService.findNamespaceIdsHavingItems(namespaceIds)) {
+        clusterHasNotPublishedItems.put(notEverPublishedNamespaces.get(namespaceId), true);
+      }
     }
 
-    Map<String, String> publishedConfiguration = gson.fromJson(latestRelease.getConfigurations(), GsonType.CONFIG);
-    for (Item item : itemsModifiedAfterLastPublish) {
-      if (!Objects.equals(item.getValue(), publishedConfiguration.get(item.getKey()))) {
-        return true;
+    List<Long> releaseIds = publishedNamespaces.values().stream().map(Release::getId).distinct()
+        .collect(Collectors.toList());
+    Map<Long, Map<String, String>> publishedConfigurations = Maps.newHashMap();
+    for (List<Long> partition : Lists.partition(releaseIds, MAX_IN_CLAUSE_SIZE)) {
+      for (Item item : itemService.findItemsModifiedAfterReleases(partition)) {
+        Release latestRelease = publishedNamespaces.get(item.getNamespaceId());
+        if (latestRelease == null || clusterHasNotPublishedItems.get(latestRelease.getClusterName())) {
+          continue;
+        }
+        Map<String, String> publishedConfiguration = publishedConfigurations.computeIfAbsent(latestRelease.getId(),
+            id -> gson.fromJson(latestRelease.getConfigurations(), GsonType.CONFIG));
+        if (!Objects.equals(item.getValue(), publishedConfiguration.get(item.getKey()))) {
+          clusterHasNotPublishedItems.put(latestRelease.getClusterName(), true);
+        }
       }
     }
 
-    return false;
+    return clusterHasNotPublishedItems;
   }
-
-
 }
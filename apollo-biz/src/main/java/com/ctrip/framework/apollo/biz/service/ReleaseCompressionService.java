@@ -0,0 +1,181 @@
+package com.ctrip.framework.apollo.biz.service;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Backfills the compression of the existing releases when <code>release.configurations.backfill.enabled</code> is
+ * turned on, the new releases are compressed when created by {@link ReleaseService}.
+ *
+ * <p>Only the node holding the leader lock does the backfill, and the progress is saved in the lock, so a new leader
+ * resumes from where the last one stopped. The backfill starts over once the threshold is changed, and resumes once it's
+ * turned on again.
+ */
+@Service
+public class ReleaseCompressionService {
+  private static final Logger logger = LoggerFactory.getLogger(ReleaseCompressionService.class);
+  static final String LOCK_NAME = "ReleaseCompression";
+  private static final long LEASE_IN_MILLI = TimeUnit.MINUTES.toMillis(5);
+  private static final String THRESHOLD_CHECKPOINT = "Threshold";
+  private static final String RELEASE_CHECKPOINT = "Release";
+  private static final Type CHECKPOINTS_TYPE = new TypeToken<Map<String, Long>>() {
+  }.getType();
+  private static final Gson gson = new Gson();
+
+  private final BizConfig bizConfig;
+  private final ReleaseService releaseService;
+  private final LeaderLockService leaderLockService;
+  private final ScheduledExecutorService executorService;
+
+  private volatile long maxIdCompressed = 0;
+  private volatile boolean backfillCompleted = false;
+  private volatile int backfillThreshold = -1;
+  private volatile long leaseRenewedTime = 0;
+  private volatile long leaseCheckedTime = 0;
+
+  public ReleaseCompressionService(
+      final BizConfig bizConfig,
+      final ReleaseService releaseService,
+      final LeaderLockService leaderLockService) {
+    this.bizConfig = bizConfig;
+    this.releaseService = releaseService;
+    this.leaderLockService = leaderLockService;
+    executorService = Executors.newScheduledThreadPool(1, ApolloThreadFactory
+        .create("ReleaseCompressionService", true));
+  }
+
+  @PostConstruct
+  void initialize() {
+    executorService.scheduleWithFixedDelay(() -> {
+      try {
+        backfill();
+      } catch (Throwable ex) {
+        logger.error("Backfill release configurations compression failed", ex);
+        Tracer.logError(ex);
+      }
+    }, getBackfillInterval(), getBackfillInterval(), TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    executorService.shutdownNow();
+    if (leaseRenewedTime > 0) {
+      leaderLockService.unlock(LOCK_NAME);
+    }
+  }
+
+  void backfill() {
+    int threshold = bizConfig.releaseConfigurationsCompressThreshold();
+    if (threshold < 0 || !bizConfig.isReleaseConfigurationsBackfillEnabled()) {
+      //the releases created meanwhile are scanned once turned on again
+      backfillCompleted = false;
+      return;
+    }
+    if (threshold != backfillThreshold) {
+      backfillCompleted = false;
+      backfillThreshold = threshold;
+      maxIdCompressed = 0;
+    }
+    if (backfillCompleted || !renewLease()) {
+      return;
+    }
+
+    Transaction transaction = Tracer.newTransaction("Apollo.ReleaseCompression", "backfill");
+    try {
+      long maxId = releaseService.compressConfigurations(maxIdCompressed,
+          bizConfig.releaseConfigurationsBackfillBatch(), threshold);
+      if (maxId < 0) {
+        backfillCompleted = true;
+        logger.info("Backfill release configurations compression completed, max id compressed: {}",
+            maxIdCompressed);
+      } else {
+        maxIdCompressed = maxId;
+        saveCheckpoints();
+        logger.debug("Compressed release configurations up to id {}", maxId);
+      }
+      transaction.setStatus(Transaction.SUCCESS);
+    } catch (Throwable ex) {
+      transaction.setStatus(ex);
+      throw ex;
+    } finally {
+      transaction.complete();
+    }
+  }
+
+  /**
+   * Acquire or renew the lease once half of the lease is passed since the last check, as the backfill runs in short
+   * intervals
+   *
+   * @return whether the current node is the leader
+   */
+  private boolean renewLease() {
+    long now = System.currentTimeMillis();
+    if (now - leaseCheckedTime < LEASE_IN_MILLI / 2) {
+      return leaseRenewedTime > 0;
+    }
+    leaseCheckedTime = now;
+    if (leaderLockService.tryLock(LOCK_NAME, LEASE_IN_MILLI)) {
+      if (leaseRenewedTime == 0) {
+        loadCheckpoints();
+      }
+      leaseRenewedTime = now;
+      return true;
+    }
+    if (leaseRenewedTime > 0) {
+      logger.info("Lost the leader lock {}, owner: {}", LOCK_NAME, leaderLockService.getOwner());
+      //the new leader resumes from the saved checkpoints
+      leaseRenewedTime = 0;
+      maxIdCompressed = 0;
+    }
+    return false;
+  }
+
+  private void loadCheckpoints() {
+    String checkpoint = leaderLockService.getCheckpoint(LOCK_NAME);
+    Map<String, Long> checkpoints = null;
+    if (!Strings.isNullOrEmpty(checkpoint)) {
+      try {
+        checkpoints = gson.fromJson(checkpoint, CHECKPOINTS_TYPE);
+      } catch (JsonParseException ex) {
+        logger.warn("Ignore the malformed checkpoint {} of the leader lock {}", checkpoint, LOCK_NAME, ex);
+      }
+    }
+    //the releases compressed under another threshold have to be checked again
+    if (checkpoints != null && checkpoints.getOrDefault(THRESHOLD_CHECKPOINT, -1L) == backfillThreshold) {
+      maxIdCompressed = checkpoints.getOrDefault(RELEASE_CHECKPOINT, 0L);
+    } else {
+      maxIdCompressed = 0;
+    }
+  }
+
+  private void saveCheckpoints() {
+    Map<String, Long> checkpoints = Maps.newLinkedHashMap();
+    checkpoints.put(THRESHOLD_CHECKPOINT, (long) backfillThreshold);
+    checkpoints.put(RELEASE_CHECKPOINT, maxIdCompressed);
+    leaderLockService.saveCheckpoint(LOCK_NAME, gson.toJson(checkpoints));
+  }
+
+  private long getBackfillInterval() {
+    //the interval throttles the backfill, at least 10ms to avoid busy looping
+    return Math.max(10, bizConfig.releaseConfigurationsBackfillIntervalInMilli());
+  }
+}
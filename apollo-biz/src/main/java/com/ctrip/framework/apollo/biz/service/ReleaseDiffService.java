@@ -0,0 +1,156 @@
+package com.ctrip.framework.apollo.biz.service;
+
+import com.ctrip.framework.apollo.biz.entity.Release;
+import com.ctrip.framework.apollo.biz.repository.ReleaseRepository;
+import com.ctrip.framework.apollo.common.constants.GsonType;
+import com.ctrip.framework.apollo.common.dto.ReleaseDiffDTO;
+import com.ctrip.framework.apollo.common.exception.BadRequestException;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the changed configurations between releases. Releases are immutable, so each diff is computed once and
+ * cached, and only the changes are kept instead of the full configurations.
+ */
+@Service
+public class ReleaseDiffService {
+
+  private static final Gson GSON = new Gson();
+  //weighed by the characters of the changes, about 64MB at most
+  private static final long CACHE_MAX_WEIGHT = 32 * 1024 * 1024;
+  private static final int CHANGE_OVERHEAD_WEIGHT = 32;
+  private static final int MAX_DIFFS_PER_BATCH = 100;
+
+  private final ReleaseRepository releaseRepository;
+  private final Cache<String, ReleaseDiffDTO> diffCache;
+
+  public ReleaseDiffService(final ReleaseRepository releaseRepository) {
+    this.releaseRepository = releaseRepository;
+    this.diffCache = CacheBuilder.newBuilder().maximumWeight(CACHE_MAX_WEIGHT)
+        .weigher((String key, ReleaseDiffDTO diff) -> weigh(diff)).build();
+  }
+
+  public ReleaseDiffDTO compare(long baseReleaseId, long toCompareReleaseId) {
+    return compare(Collections.singletonList(baseReleaseId), Collections.singletonList(toCompareReleaseId)).get(0);
+  }
+
+  /**
+   * Compare the releases pair by pair, and the releases of the diffs not cached are loaded in one query.
+   * A release id of 0 or a release not found is compared as an empty release.
+   *
+   * @return the diffs in the order of the pairs
+   */
+  public List<ReleaseDiffDTO> compare(List<Long> baseReleaseIds, List<Long> toCompareReleaseIds) {
+    if (baseReleaseIds.size() != toCompareReleaseIds.size()) {
+      throw new BadRequestException("The base releases and the releases to compare should be paired");
+    }
+    if (baseReleaseIds.size() > MAX_DIFFS_PER_BATCH) {
+      throw new BadRequestException(String.format("Too many diffs, at most %d in a batch", MAX_DIFFS_PER_BATCH));
+    }
+
+    int size = baseReleaseIds.size();
+    List<ReleaseDiffDTO> diffs = Lists.newArrayListWithCapacity(size);
+    Set<Long> releaseIdsToLoad = Sets.newHashSet();
+    for (int i = 0; i < size; i++) {
+      ReleaseDiffDTO diff = diffCache.getIfPresent(cacheKey(baseReleaseIds.get(i), toCompareReleaseIds.get(i)));
+      diffs.add(diff);
+      if (diff == null) {
+        releaseIdsToLoad.add(baseReleaseIds.get(i));
+        releaseIdsToLoad.add(toCompareReleaseIds.get(i));
+      }
+    }
+    if (!diffs.contains(null)) {
+      return diffs;
+    }
+    releaseIdsToLoad.remove(0L);
+
+    Map<Long, Map<String, String>> configurations = Maps.newHashMap();
+    if (!releaseIdsToLoad.isEmpty()) {
+      for (Release release : releaseRepository.findByIdIn(releaseIdsToLoad)) {
+        configurations.put(release.getId(), GSON.fromJson(release.getConfigurations(), GsonType.CONFIG));
+      }
+    }
+
+    for (int i = 0; i < size; i++) {
+      if (diffs.get(i) != null) {
+        continue;
+      }
+      long baseReleaseId = baseReleaseIds.get(i);
+      long toCompareReleaseId = toCompareReleaseIds.get(i);
+      Map<String, String> baseConfiguration = configurations.get(baseReleaseId);
+      Map<String, String> toCompareConfiguration = configurations.get(toCompareReleaseId);
+      ReleaseDiffDTO diff = compare(baseReleaseId, baseConfiguration, toCompareReleaseId, toCompareConfiguration);
+      diff.setReleasesFound((baseReleaseId == 0 || baseConfiguration != null) && (toCompareReleaseId == 0
+          || toCompareConfiguration != null));
+      //a missing release might not be committed yet, so only diffs of the releases found are cached
+      if (diff.isReleasesFound()) {
+        diffCache.put(cacheKey(baseReleaseId, toCompareReleaseId), diff);
+      }
+      diffs.set(i, diff);
+    }
+
+    return diffs;
+  }
+
+  private ReleaseDiffDTO compare(long baseReleaseId, Map<String, String> baseConfiguration, long toCompareReleaseId,
+      Map<String, String> toCompareConfiguration) {
+    if (baseConfiguration == null) {
+      baseConfiguration = Collections.emptyMap();
+    }
+    if (toCompareConfiguration == null) {
+      toCompareConfiguration = Collections.emptyMap();
+    }
+
+    List<ReleaseDiffDTO.Change> changes = Lists.newArrayList();
+    for (Map.Entry<String, String> entry : baseConfiguration.entrySet()) {
+      String key = entry.getKey();
+      String baseValue = entry.getValue();
+      String toCompareValue = toCompareConfiguration.get(key);
+      if (toCompareValue == null) {
+        changes.add(new ReleaseDiffDTO.Change(ReleaseDiffDTO.DELETED, key, baseValue, null));
+      } else if (!Objects.equal(baseValue, toCompareValue)) {
+        changes.add(new ReleaseDiffDTO.Change(ReleaseDiffDTO.MODIFIED, key, baseValue, toCompareValue));
+      }
+    }
+    for (Map.Entry<String, String> entry : toCompareConfiguration.entrySet()) {
+      String key = entry.getKey();
+      if (baseConfiguration.get(key) == null) {
+        changes.add(new ReleaseDiffDTO.Change(ReleaseDiffDTO.ADDED, key, null, entry.getValue()));
+      }
+    }
+
+    ReleaseDiffDTO diff = new ReleaseDiffDTO();
+    diff.setBaseReleaseId(baseReleaseId);
+    diff.setToCompareReleaseId(toCompareReleaseId);
+    diff.setChanges(Collections.unmodifiableList(changes));
+    return diff;
+  }
+
+  private String cacheKey(long baseReleaseId, long toCompareReleaseId) {
+    return baseReleaseId + "+" + toCompareReleaseId;
+  }
+
+  private static int weigh(ReleaseDiffDTO diff) {
+    int weight = CHANGE_OVERHEAD_WEIGHT;
+    for (ReleaseDiffDTO.Change change : diff.getChanges()) {
+      weight += CHANGE_OVERHEAD_WEIGHT + change.getKey().length() + length(change.getOldValue())
+          + length(change.getNewValue());
+    }
+    return weight;
+  }
+
+  private static int length(String value) {
+    return value == null ? 0 : value.length();
+  }
+}
@@ -4,7 +4,9 @@ import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
 import com.ctrip.framework.apollo.biz.repository.ReleaseMessageRepository;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.google.common.collect.Lists;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 import java.util.Collection;
@@ -47,4 +49,23 @@ public class ReleaseMessageService {
     }
     return releaseMessages;
   }
+
+  public List<ReleaseMessage> findFirst500AfterId(long id) {
+    return releaseMessageRepository.findFirst500ByIdGreaterThanOrderByIdAsc(id);
+  }
+
+  /**
+   * Delete at most batchSize messages which have the same content but are older than the latest one
+   *
+   * @return the number of messages deleted
+   */
+  @Transactional
+  public int deleteSupersededMessages(String message, long latestId, int batchSize) {
+    List<Long> ids = releaseMessageRepository.findIdsByMessageAndIdLessThan(message, latestId,
+        PageRequest.of(0, batchSize));
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    return releaseMessageRepository.deleteByIds(ids);
+  }
 }
@@ -1,5 +1,6 @@
 package com.ctrip.framework.apollo.biz.service;
 
+import com.ctrip.framework.apollo.biz.config.BizConfig;
 import com.ctrip.framework.apollo.biz.entity.Audit;
 import com.ctrip.framework.apollo.biz.entity.GrayReleaseRule;
 import com.ctrip.framework.apollo.biz.entity.Item;
@@ -8,6 +9,7 @@ import com.ctrip.framework.apollo.biz.entity.NamespaceLock;
 import com.ctrip.framework.apollo.biz.entity.Release;
 import com.ctrip.framework.apollo.biz.entity.ReleaseHistory;
 import com.ctrip.framework.apollo.biz.repository.ReleaseRepository;
+import com.ctrip.framework.apollo.biz.utils.ReleaseConfigurationsCompressor;
 import com.ctrip.framework.apollo.biz.utils.ReleaseKeyGenerator;
 import com.ctrip.framework.apollo.common.constants.GsonType;
 import com.ctrip.framework.apollo.common.constants.ReleaseOperation;
@@ -32,6 +34,7 @@ import org.springframework.util.CollectionUtils;
 
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
@@ -55,6 +58,7 @@ public class ReleaseService {
   private final NamespaceBranchService namespaceBranchService;
   private final ReleaseHistoryService releaseHistoryService;
   private final ItemSetService itemSetService;
+  private final BizConfig bizConfig;
 
   public ReleaseService(
       final ReleaseRepository releaseRepository,
@@ -64,7 +68,8 @@ public class ReleaseService {
       final NamespaceService namespaceService,
       final NamespaceBranchService namespaceBranchService,
       final ReleaseHistoryService releaseHistoryService,
-      final ItemSetService itemSetService) {
+      final ItemSetService itemSetService,
+      final BizConfig bizConfig) {
     this.releaseRepository = releaseRepository;
     this.itemService = itemService;
     this.auditService = auditService;
@@ -73,6 +78,28 @@ public class ReleaseService {
     this.namespaceBranchService = namespaceBranchService;
     this.releaseHistoryService = releaseHistoryService;
     this.itemSetService = itemSetService;
+    this.bizConfig = bizConfig;
+  }
+
+  /**
+   * Compress the stored configurations of the releases after the given id, at most batchSize releases are processed.
+   *
+   * @return the largest release id processed, or -1 if there are no more releases to compress
+   */
+  @Transactional
+  public long compressConfigurations(long afterId, int batchSize, int threshold) {
+    List<Number> releaseIds = releaseRepository.findUncompressedReleaseIds(afterId, threshold, batchSize);
+    if (releaseIds.isEmpty()) {
+      return -1;
+    }
+
+    for (Release release : releaseRepository.findAllById(
+        releaseIds.stream().map(Number::longValue).collect(Collectors.toList()))) {
+      releaseRepository.updateStoredConfigurations(release.getId(),
+          ReleaseConfigurationsCompressor.compress(release.getConfigurations()));
+    }
+    //advance by the ids found, the releases deleted in the meantime are not loaded
+    return releaseIds.get(releaseIds.size() - 1).longValue();
   }
 
   public Release findOne(long releaseId) {
@@ -108,6 +135,13 @@ public class ReleaseService {
                                                                                                             namespaceName);
   }
 
+  /**
+   * @return the latest active release of each namespace of the app, including the ones of the branches
+   */
+  public List<Release> findLatestActiveReleases(String appId) {
+    return releaseRepository.findLatestActiveReleases(appId);
+  }
+
   public List<Release> findAllReleases(String appId, String clusterName, String namespaceName, Pageable page) {
     List<Release> releases = releaseRepository.findByAppIdAndClusterNameAndNamespaceNameOrderByIdDesc(appId,
                                                                                                       clusterName,
@@ -406,6 +440,7 @@ public class ReleaseService {
     release.setClusterName(namespace.getClusterName());
     release.setNamespaceName(namespace.getNamespaceName());
     release.setConfigurations(gson.toJson(configurations));
+    release.compressStoredConfigurations(bizConfig.releaseConfigurationsCompressThreshold());
     release = releaseRepository.save(release);
 
     namespaceLockService.unlock(namespace.getId());
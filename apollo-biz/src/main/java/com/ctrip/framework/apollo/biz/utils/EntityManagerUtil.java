@@ -1,5 +1,7 @@
 package com.ctrip.framework.apollo.biz.utils;
 
+import java.util.function.Supplier;
+import javax.persistence.EntityManagerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.orm.jpa.EntityManagerFactoryAccessor;
@@ -28,4 +30,23 @@ public class EntityManagerUtil extends EntityManagerFactoryAccessor {
     logger.debug("Closing JPA EntityManager in EntityManagerUtil");
     EntityManagerFactoryUtils.closeEntityManager(emHolder.getEntityManager());
   }
+
+  /**
+   * Run the action without the entity manager bound to the current thread, e.g. the one opened in view, so that the
+   * repositories called in it use their own entity managers and get their connections when called. The bound entity
+   * manager holds its connection once it has got one, so the action would run on that connection otherwise.
+   * Must not be used inside a transaction, whose entity manager is bound to it.
+   */
+  public <T> T runWithoutBoundEntityManager(Supplier<T> action) {
+    EntityManagerFactory entityManagerFactory = getEntityManagerFactory();
+    Object emHolder = entityManagerFactory == null ? null :
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+    try {
+      return action.get();
+    } finally {
+      if (emHolder != null) {
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, emHolder);
+      }
+    }
+  }
 }
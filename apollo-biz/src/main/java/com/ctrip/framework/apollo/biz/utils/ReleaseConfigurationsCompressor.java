@@ -0,0 +1,72 @@
+package com.ctrip.framework.apollo.biz.utils;
+
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses release configurations as gzip text to store, and materializes the stored ones back, either compressed
+ * or not.
+ *
+ * <p>Materialized configurations are shared by content, so releases with identical configurations (e.g. a gray
+ * release which hasn't changed anything yet, or the same release loaded by different caches) hold one copy.
+ */
+public class ReleaseConfigurationsCompressor {
+
+  static final String COMPRESSED_PREFIX = "gzip:";
+
+  //the values are weakly referenced, so an entry lives only as long as some release holds its configurations
+  private static final Cache<String, String> decompressedCache = CacheBuilder.newBuilder().weakValues().build();
+  private static final Interner<String> plainInterner = Interners.newWeakInterner();
+
+  public static String materialize(String storedConfigurations) {
+    if (Strings.isNullOrEmpty(storedConfigurations)) {
+      return storedConfigurations;
+    }
+    if (!isCompressed(storedConfigurations)) {
+      return plainInterner.intern(storedConfigurations);
+    }
+    try {
+      return decompressedCache.get(storedConfigurations,
+          () -> plainInterner.intern(decompress(storedConfigurations)));
+    } catch (ExecutionException ex) {
+      Tracer.logError(ex.getCause());
+      throw new IllegalStateException("Failed to decompress release configurations", ex.getCause());
+    }
+  }
+
+  public static boolean isCompressed(String storedConfigurations) {
+    return storedConfigurations != null && storedConfigurations.startsWith(COMPRESSED_PREFIX);
+  }
+
+  public static String compress(String configurations) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(configurations.length() / 4 + 16);
+    try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+      gzipOut.write(configurations.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return COMPRESSED_PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+  }
+
+  static String decompress(String storedConfigurations) throws IOException {
+    byte[] compressed = Base64.getDecoder().decode(storedConfigurations.substring(COMPRESSED_PREFIX.length()));
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+    }
+  }
+}
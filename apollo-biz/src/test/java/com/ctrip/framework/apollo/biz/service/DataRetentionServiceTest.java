@@ -0,0 +1,189 @@
+package com.ctrip.framework.apollo.biz.service;
+
+import com.ctrip.framework.apollo.biz.AbstractIntegrationTest;
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.biz.entity.Instance;
+import com.ctrip.framework.apollo.biz.entity.InstanceConfig;
+import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
+import com.ctrip.framework.apollo.biz.repository.InstanceConfigRepository;
+import com.ctrip.framework.apollo.biz.repository.InstanceRepository;
+import com.ctrip.framework.apollo.biz.repository.ReleaseMessageRepository;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DataRetentionServiceTest extends AbstractIntegrationTest {
+
+  @Autowired
+  private LeaderLockService leaderLockService;
+  @Autowired
+  private ReleaseMessageService releaseMessageService;
+  @Autowired
+  private InstanceService instanceService;
+  @Autowired
+  private ReleaseMessageRepository releaseMessageRepository;
+  @Autowired
+  private InstanceRepository instanceRepository;
+  @Autowired
+  private InstanceConfigRepository instanceConfigRepository;
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private BizConfig bizConfig;
+  private DataRetentionService dataRetentionService;
+
+  @Before
+  public void setUp() throws Exception {
+    bizConfig = mock(BizConfig.class);
+    when(bizConfig.isDataRetentionEnabled()).thenReturn(true);
+    when(bizConfig.dataRetentionBatch()).thenReturn(2);
+    when(bizConfig.dataRetentionBatchIntervalInMilli()).thenReturn(0);
+    when(bizConfig.instanceConfigRetentionDays()).thenReturn(-1);
+
+    dataRetentionService = new DataRetentionService(bizConfig, leaderLockService, releaseMessageService,
+        instanceService);
+  }
+
+  @Test
+  public void testPurgeSupersededReleaseMessages() {
+    List<Long> someMessageIds = Lists.newArrayList();
+    for (int i = 0; i < 5; i++) {
+      someMessageIds.add(releaseMessageRepository.save(new ReleaseMessage("someMessage")).getId());
+    }
+    long anotherMessageId = releaseMessageRepository.save(new ReleaseMessage("anotherMessage")).getId();
+
+    dataRetentionService.purge();
+    entityManager.clear();
+
+    assertEquals(Lists.newArrayList(someMessageIds.get(4), anotherMessageId), findAllReleaseMessageIds());
+    assertEquals(4, dataRetentionService.getReleaseMessagesPurged());
+
+    //messages before the checkpoint are purged once superseded by new ones
+    long newMessageId = releaseMessageRepository.save(new ReleaseMessage("anotherMessage")).getId();
+
+    dataRetentionService.purge();
+    entityManager.clear();
+
+    assertEquals(Lists.newArrayList(someMessageIds.get(4), newMessageId), findAllReleaseMessageIds());
+    assertEquals(5, dataRetentionService.getReleaseMessagesPurged());
+    assertEquals("{\"ReleaseMessage\":" + newMessageId + ",\"Instance\":0}",
+        leaderLockService.getCheckpoint(DataRetentionService.LOCK_NAME));
+  }
+
+  @Test
+  public void testResumeFromSavedCheckpoint() {
+    List<Long> someMessageIds = Lists.newArrayList();
+    for (int i = 0; i < 2; i++) {
+      someMessageIds.add(releaseMessageRepository.save(new ReleaseMessage("someMessage")).getId());
+    }
+    List<Long> anotherMessageIds = Lists.newArrayList();
+    for (int i = 0; i < 2; i++) {
+      anotherMessageIds.add(releaseMessageRepository.save(new ReleaseMessage("anotherMessage")).getId());
+    }
+
+    //the last leader stopped after scanning someMessage
+    LeaderLockService anotherLeaderLockService = mock(LeaderLockService.class);
+    when(anotherLeaderLockService.tryLock(eq(DataRetentionService.LOCK_NAME), anyLong())).thenReturn(true);
+    when(anotherLeaderLockService.getCheckpoint(DataRetentionService.LOCK_NAME))
+        .thenReturn("{\"ReleaseMessage\":" + someMessageIds.get(1) + ",\"Instance\":0}");
+    DataRetentionService anotherDataRetentionService = new DataRetentionService(bizConfig,
+        anotherLeaderLockService, releaseMessageService, instanceService);
+
+    anotherDataRetentionService.purge();
+    entityManager.clear();
+
+    assertEquals(Lists.newArrayList(someMessageIds.get(0), someMessageIds.get(1), anotherMessageIds.get(1)),
+        findAllReleaseMessageIds());
+    assertEquals(1, anotherDataRetentionService.getReleaseMessagesPurged());
+    verify(anotherLeaderLockService).saveCheckpoint(DataRetentionService.LOCK_NAME,
+        "{\"ReleaseMessage\":" + anotherMessageIds.get(1) + ",\"Instance\":0}");
+  }
+
+  @Test
+  public void testPurgeStaleInstances() {
+    when(bizConfig.instanceConfigRetentionDays()).thenReturn(7);
+    Date staleTime = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(8));
+
+    long staleInstanceId = instanceRepository.save(assembleInstance("10.0.0.1", staleTime)).getId();
+    long activeInstanceId = instanceRepository.save(assembleInstance("10.0.0.2", staleTime)).getId();
+    long newInstanceId = instanceRepository.save(assembleInstance("10.0.0.3", new Date())).getId();
+
+    long staleConfigId = instanceConfigRepository.save(assembleInstanceConfig(staleInstanceId, "ns1", staleTime)).getId();
+    instanceConfigRepository.save(assembleInstanceConfig(activeInstanceId, "ns1", staleTime));
+    long activeConfigId = instanceConfigRepository.save(assembleInstanceConfig(activeInstanceId, "ns2", new Date()))
+        .getId();
+
+    dataRetentionService.purge();
+    entityManager.clear();
+
+    assertFalse(instanceConfigRepository.findById(staleConfigId).isPresent());
+    assertTrue(instanceConfigRepository.findById(activeConfigId).isPresent());
+    assertEquals(2, dataRetentionService.getInstanceConfigsPurged());
+
+    assertFalse(instanceRepository.findById(staleInstanceId).isPresent());
+    assertTrue(instanceRepository.findById(activeInstanceId).isPresent());
+    assertTrue(instanceRepository.findById(newInstanceId).isPresent());
+    assertEquals(1, dataRetentionService.getInstancesPurged());
+  }
+
+  @Test
+  public void testPurgeWithoutLeaderLock() {
+    long someMessageId = releaseMessageRepository.save(new ReleaseMessage("someMessage")).getId();
+    releaseMessageRepository.save(new ReleaseMessage("someMessage"));
+
+    LeaderLockService anotherLeaderLockService = mock(LeaderLockService.class);
+    DataRetentionService anotherDataRetentionService = new DataRetentionService(bizConfig,
+        anotherLeaderLockService, releaseMessageService, instanceService);
+
+    anotherDataRetentionService.purge();
+    entityManager.clear();
+
+    assertTrue(releaseMessageRepository.findById(someMessageId).isPresent());
+    assertEquals(0, anotherDataRetentionService.getReleaseMessagesPurged());
+  }
+
+  private List<Long> findAllReleaseMessageIds() {
+    return Lists.newArrayList(releaseMessageRepository.findAll()).stream().map(ReleaseMessage::getId).sorted()
+        .collect(Collectors.toList());
+  }
+
+  private Instance assembleInstance(String ip, Date createdTime) {
+    Instance instance = new Instance();
+    instance.setAppId("someAppId");
+    instance.setClusterName("default");
+    instance.setDataCenter("someDC");
+    instance.setIp(ip);
+    instance.setDataChangeCreatedTime(createdTime);
+    return instance;
+  }
+
+  private InstanceConfig assembleInstanceConfig(long instanceId, String namespaceName, Date modifiedTime) {
+    InstanceConfig instanceConfig = new InstanceConfig();
+    instanceConfig.setInstanceId(instanceId);
+    instanceConfig.setConfigAppId("someConfigAppId");
+    instanceConfig.setConfigClusterName("default");
+    instanceConfig.setConfigNamespaceName(namespaceName);
+    instanceConfig.setReleaseKey("someReleaseKey");
+    instanceConfig.setReleaseDeliveryTime(modifiedTime);
+    instanceConfig.setDataChangeCreatedTime(modifiedTime);
+    return instanceConfig;
+  }
+}
@@ -17,7 +17,9 @@ import org.springframework.test.annotation.Rollback;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
@@ -237,6 +239,73 @@ public class InstanceServiceTest extends AbstractIntegrationTest {
     assertEquals(Lists.newArrayList(someInstanceConfig, anotherInstanceConfig), instanceConfigs);
   }
 
+  @Test
+  @Rollback
+  public void testCountActiveInstancesByNamespace() throws Exception {
+    String someConfigAppId = "someConfigAppId";
+    String someConfigClusterName = "someConfigClusterName";
+    String someConfigNamespaceName = "someConfigNamespaceName";
+    String someReleaseKey = "someReleaseKey";
+    String anotherReleaseKey = "anotherReleaseKey";
+    Date someValidDate = new Date();
+    Date someInvalidDate = new Date(someValidDate.getTime() - TimeUnit.DAYS.toMillis(3));
+
+    InstanceConfig someInstanceConfig = prepareInstanceConfigForInstance(1, someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName, someReleaseKey, someValidDate);
+    prepareInstanceConfigForInstance(2, someConfigAppId, someConfigClusterName,
+        someConfigNamespaceName, someReleaseKey, someValidDate);
+    prepareInstanceConfigForInstance(3, someConfigAppId, someConfigClusterName,
+        someConfigNamespaceName, someReleaseKey, someInvalidDate);
+
+    assertEquals(2, instanceService.countActiveInstancesByNamespace(someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName));
+
+    InstanceConfig someUpdatedInstanceConfig = assembleInstanceConfig(1, someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName, anotherReleaseKey);
+    someUpdatedInstanceConfig.setId(someInstanceConfig.getId());
+    instanceService.updateInstanceConfig(someUpdatedInstanceConfig);
+
+    Map<String, Long> counts = instanceService.countActiveInstancesByNamespaceGroupByReleaseKey(
+        someConfigAppId, someConfigClusterName, someConfigNamespaceName);
+    assertEquals(2, counts.size());
+    assertEquals(1, counts.get(someReleaseKey).longValue());
+    assertEquals(1, counts.get(anotherReleaseKey).longValue());
+
+    instanceService.batchDeleteInstanceConfig(someConfigAppId, someConfigClusterName,
+        someConfigNamespaceName);
+
+    assertEquals(0, instanceService.countActiveInstancesByNamespace(someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName));
+  }
+
+  @Test
+  @Rollback
+  public void testFindInstanceConfigsByNamespaceWithReleaseKeysNotInWithPage() throws Exception {
+    String someConfigAppId = "someConfigAppId";
+    String someConfigClusterName = "someConfigClusterName";
+    String someConfigNamespaceName = "someConfigNamespaceName";
+    String someReleaseKey = "someReleaseKey";
+    String anotherReleaseKey = "anotherReleaseKey";
+    Date someValidDate = new Date();
+    Date anotherValidDate = new Date(someValidDate.getTime() - 1000);
+
+    InstanceConfig someInstanceConfig = prepareInstanceConfigForInstance(1, someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName, someReleaseKey, someValidDate);
+    InstanceConfig anotherInstanceConfig = prepareInstanceConfigForInstance(2, someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName, someReleaseKey, anotherValidDate);
+    prepareInstanceConfigForInstance(3, someConfigAppId, someConfigClusterName,
+        someConfigNamespaceName, anotherReleaseKey, someValidDate);
+
+    Set<String> releaseKeysNotIn = Sets.newHashSet(anotherReleaseKey);
+
+    assertEquals(Lists.newArrayList(someInstanceConfig), instanceService
+        .findInstanceConfigsByNamespaceWithReleaseKeysNotIn(someConfigAppId, someConfigClusterName,
+            someConfigNamespaceName, releaseKeysNotIn, PageRequest.of(0, 1)));
+    assertEquals(Lists.newArrayList(anotherInstanceConfig), instanceService
+        .findInstanceConfigsByNamespaceWithReleaseKeysNotIn(someConfigAppId, someConfigClusterName,
+            someConfigNamespaceName, releaseKeysNotIn, PageRequest.of(1, 1)));
+  }
+
   private InstanceConfig prepareInstanceConfigForInstance(long instanceId, String configAppId,
                                                           String configClusterName, String
                                                               configNamespace, String releaseKey,
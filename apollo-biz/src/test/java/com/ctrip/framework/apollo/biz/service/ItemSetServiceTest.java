@@ -0,0 +1,109 @@
+package com.ctrip.framework.apollo.biz.service;
+
+import com.ctrip.framework.apollo.biz.AbstractIntegrationTest;
+import com.ctrip.framework.apollo.biz.entity.Audit;
+import com.ctrip.framework.apollo.biz.entity.Commit;
+import com.ctrip.framework.apollo.biz.entity.Item;
+import com.ctrip.framework.apollo.biz.utils.ConfigChangeContentBuilder;
+import com.ctrip.framework.apollo.common.dto.ItemChangeSets;
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
+import com.ctrip.framework.apollo.common.exception.NotFoundException;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ItemSetServiceTest extends AbstractIntegrationTest {
+
+  private static final int ITEM_COUNT = 1000;
+
+  @Autowired
+  private ItemSetService itemSetService;
+  @Autowired
+  private ItemService itemService;
+  @Autowired
+  private CommitService commitService;
+  @Autowired
+  private AuditService auditService;
+
+  private String someAppId = "someAppId";
+  private String someClusterName = "someClusterName";
+  private String someNamespaceName = "someNamespaceName";
+  private long someNamespaceId = 100;
+  private String someOperator = "someOperator";
+
+  @Test
+  public void testUpdateSetInBatch() {
+    ItemChangeSets createChangeSets = new ItemChangeSets();
+    createChangeSets.setDataChangeLastModifiedBy(someOperator);
+    for (int i = 0; i < ITEM_COUNT; i++) {
+      //line number 0 means append to the end
+      createChangeSets.addCreateItem(assembleItem(0, "k" + i, "v" + i, 0));
+    }
+
+    itemSetService.updateSet(someAppId, someClusterName, someNamespaceName, createChangeSets);
+
+    List<Item> items = itemService.findItemsWithOrdered((Long) someNamespaceId);
+    assertEquals(ITEM_COUNT, items.size());
+    for (int i = 0; i < ITEM_COUNT; i++) {
+      assertEquals("k" + i, items.get(i).getKey());
+      assertEquals(i + 1, items.get(i).getLineNum().intValue());
+    }
+
+    ItemChangeSets changeSets = new ItemChangeSets();
+    changeSets.setDataChangeLastModifiedBy(someOperator);
+    for (int i = 0; i < ITEM_COUNT; i++) {
+      Item item = items.get(i);
+      if (i % 2 == 0) {
+        changeSets.addUpdateItem(assembleItem(item.getId(), item.getKey(), "new-" + item.getValue(),
+            item.getLineNum()));
+      } else {
+        changeSets.addDeleteItem(assembleItem(item.getId(), item.getKey(), item.getValue(), item.getLineNum()));
+      }
+    }
+    changeSets.addCreateItem(assembleItem(0, "someNewKey", "someNewValue", 0));
+
+    itemSetService.updateSet(someAppId, someClusterName, someNamespaceName, changeSets);
+
+    items = itemService.findItemsWithOrdered((Long) someNamespaceId);
+    assertEquals(ITEM_COUNT / 2 + 1, items.size());
+    for (int i = 0; i < ITEM_COUNT / 2; i++) {
+      assertEquals("new-v" + i * 2, items.get(i).getValue());
+    }
+    Item newItem = items.get(items.size() - 1);
+    assertEquals("someNewKey", newItem.getKey());
+    assertEquals(ITEM_COUNT + 1, newItem.getLineNum().intValue());
+
+    List<Commit> commits = commitService.find(someAppId, someClusterName, someNamespaceName, PageRequest.of(0, 10));
+    assertEquals(2, commits.size());
+    ConfigChangeContentBuilder latestChanges = ConfigChangeContentBuilder.convertJsonString(commits.get(0).getChangeSets());
+    assertEquals(1, latestChanges.getCreateItems().size());
+    assertEquals(ITEM_COUNT / 2, latestChanges.getUpdateItems().size());
+    assertEquals(ITEM_COUNT / 2, latestChanges.getDeleteItems().size());
+
+    //one audit per operation instead of one per item
+    List<Audit> audits = auditService.findByOwner(someOperator);
+    assertEquals(4, audits.size());
+    assertTrue(audits.stream().allMatch(audit -> "ItemSet".equals(audit.getEntityName())));
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testUpdateSetWithNonExistingItem() {
+    ItemChangeSets changeSets = new ItemChangeSets();
+    changeSets.setDataChangeLastModifiedBy(someOperator);
+    changeSets.addUpdateItem(assembleItem(-1, "someKey", "someValue", 1));
+
+    itemSetService.updateSet(someAppId, someClusterName, someNamespaceName, changeSets);
+  }
+
+  private ItemDTO assembleItem(long id, String key, String value, int lineNum) {
+    ItemDTO item = new ItemDTO(key, value, "", lineNum);
+    item.setId(id);
+    item.setNamespaceId(someNamespaceId);
+    return item;
+  }
+}
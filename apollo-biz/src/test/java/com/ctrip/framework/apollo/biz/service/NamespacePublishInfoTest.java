@@ -13,12 +13,14 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Random;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class NamespacePublishInfoTest extends AbstractUnitTest {
@@ -44,9 +46,9 @@ public class NamespacePublishInfoTest extends AbstractUnitTest {
     Item item = createItem(namespace.getId(), "a", "b");
 
     when(clusterService.findParentClusters(testApp)).thenReturn(Collections.singletonList(cluster));
-    when(namespaceRepository.findByAppIdAndClusterNameOrderByIdAsc(testApp, ConfigConsts.CLUSTER_NAME_DEFAULT))
-        .thenReturn(Collections.singletonList(namespace));
-    when(itemService.findLastOne(anyLong())).thenReturn(item);
+    when(namespaceRepository.findByAppIdOrderByIdAsc(testApp)).thenReturn(Collections.singletonList(namespace));
+    when(itemService.findNamespaceIdsHavingItems(Collections.singletonList(namespace.getId())))
+        .thenReturn(Collections.singletonList(item.getNamespaceId()));
 
     Map<String, Boolean> result = namespaceService.namespacePublishInfo(testApp);
 
@@ -59,13 +61,14 @@ public class NamespacePublishInfoTest extends AbstractUnitTest {
     Cluster cluster = createCluster(ConfigConsts.CLUSTER_NAME_DEFAULT);
     Namespace namespace = createNamespace(ConfigConsts.CLUSTER_NAME_DEFAULT, ConfigConsts.NAMESPACE_APPLICATION);
     Item item = createItem(namespace.getId(), "a", "b");
-    Release release = createRelease("{\"a\":\"b\"}");
+    Release release = createRelease(ConfigConsts.CLUSTER_NAME_DEFAULT, ConfigConsts.NAMESPACE_APPLICATION,
+        "{\"a\":\"b\"}");
 
     when(clusterService.findParentClusters(testApp)).thenReturn(Collections.singletonList(cluster));
-    when(namespaceRepository.findByAppIdAndClusterNameOrderByIdAsc(testApp, ConfigConsts.CLUSTER_NAME_DEFAULT))
-        .thenReturn(Collections.singletonList(namespace));
-    when(releaseService.findLatestActiveRelease(namespace)).thenReturn(release);
-    when(itemService.findItemsModifiedAfterDate(anyLong(), any())).thenReturn(Collections.singletonList(item));
+    when(namespaceRepository.findByAppIdOrderByIdAsc(testApp)).thenReturn(Collections.singletonList(namespace));
+    when(releaseService.findLatestActiveReleases(testApp)).thenReturn(Collections.singletonList(release));
+    when(itemService.findItemsModifiedAfterReleases(Collections.singletonList(release.getId())))
+        .thenReturn(Collections.singletonList(item));
 
     Map<String, Boolean> result = namespaceService.namespacePublishInfo(testApp);
 
@@ -79,13 +82,14 @@ public class NamespacePublishInfoTest extends AbstractUnitTest {
     Cluster cluster = createCluster(ConfigConsts.CLUSTER_NAME_DEFAULT);
     Namespace namespace = createNamespace(ConfigConsts.CLUSTER_NAME_DEFAULT, ConfigConsts.NAMESPACE_APPLICATION);
     Item item = createItem(namespace.getId(), "a", "b");
-    Release release = createRelease("{\"a\":\"c\"}");
+    Release release = createRelease(ConfigConsts.CLUSTER_NAME_DEFAULT, ConfigConsts.NAMESPACE_APPLICATION,
+        "{\"a\":\"c\"}");
 
     when(clusterService.findParentClusters(testApp)).thenReturn(Collections.singletonList(cluster));
-    when(namespaceRepository.findByAppIdAndClusterNameOrderByIdAsc(testApp, ConfigConsts.CLUSTER_NAME_DEFAULT))
-        .thenReturn(Collections.singletonList(namespace));
-    when(releaseService.findLatestActiveRelease(namespace)).thenReturn(release);
-    when(itemService.findItemsModifiedAfterDate(anyLong(), any())).thenReturn(Collections.singletonList(item));
+    when(namespaceRepository.findByAppIdOrderByIdAsc(testApp)).thenReturn(Collections.singletonList(namespace));
+    when(releaseService.findLatestActiveReleases(testApp)).thenReturn(Collections.singletonList(release));
+    when(itemService.findItemsModifiedAfterReleases(Collections.singletonList(release.getId())))
+        .thenReturn(Collections.singletonList(item));
 
     Map<String, Boolean> result = namespaceService.namespacePublishInfo(testApp);
 
@@ -94,6 +98,44 @@ public class NamespacePublishInfoTest extends AbstractUnitTest {
 
   }
 
+  @Test
+  public void testMultipleClustersAndNamespaces() {
+    String someCluster = "someCluster";
+    String someNamespaceName = "someNamespace";
+    Namespace defaultApplication = createNamespace(ConfigConsts.CLUSTER_NAME_DEFAULT,
+        ConfigConsts.NAMESPACE_APPLICATION);
+    Namespace defaultSomeNamespace = createNamespace(ConfigConsts.CLUSTER_NAME_DEFAULT, someNamespaceName);
+    Namespace someClusterApplication = createNamespace(someCluster, ConfigConsts.NAMESPACE_APPLICATION);
+    Namespace branchApplication = createNamespace("someBranch", ConfigConsts.NAMESPACE_APPLICATION);
+    Release defaultApplicationRelease = createRelease(ConfigConsts.CLUSTER_NAME_DEFAULT,
+        ConfigConsts.NAMESPACE_APPLICATION, "{\"a\":\"b\"}");
+    Release defaultSomeNamespaceRelease = createRelease(ConfigConsts.CLUSTER_NAME_DEFAULT, someNamespaceName,
+        "{\"c\":\"d\"}");
+    Item defaultApplicationItem = createItem(defaultApplication.getId(), "a", "b");
+    Item defaultSomeNamespaceItem = createItem(defaultSomeNamespace.getId(), "c", "e");
+    Item branchItem = createItem(branchApplication.getId(), "a", "c");
+
+    when(clusterService.findParentClusters(testApp))
+        .thenReturn(Arrays.asList(createCluster(ConfigConsts.CLUSTER_NAME_DEFAULT), createCluster(someCluster)));
+    when(namespaceRepository.findByAppIdOrderByIdAsc(testApp))
+        .thenReturn(Arrays.asList(defaultApplication, defaultSomeNamespace, someClusterApplication, branchApplication));
+    when(releaseService.findLatestActiveReleases(testApp))
+        .thenReturn(Arrays.asList(defaultApplicationRelease, defaultSomeNamespaceRelease));
+    when(itemService.findNamespaceIdsHavingItems(Collections.singletonList(someClusterApplication.getId())))
+        .thenReturn(Collections.emptyList());
+    when(itemService.findItemsModifiedAfterReleases(any()))
+        .thenReturn(Arrays.asList(defaultApplicationItem, defaultSomeNamespaceItem, branchItem));
+
+    Map<String, Boolean> result = namespaceService.namespacePublishInfo(testApp);
+
+    Assert.assertEquals(2, result.size());
+    Assert.assertTrue(result.get(ConfigConsts.CLUSTER_NAME_DEFAULT));
+    Assert.assertFalse(result.get(someCluster));
+    //branch namespaces are not loaded one by one
+    verify(itemService, never()).findNamespaceIdsHavingItems(Collections.singletonList(branchApplication.getId()));
+    verify(releaseService, never()).findLatestActiveRelease(any(Namespace.class));
+  }
+
   private Cluster createCluster(String clusterName) {
     Cluster cluster = new Cluster();
 
@@ -125,8 +167,12 @@ public class NamespacePublishInfoTest extends AbstractUnitTest {
     return item;
   }
 
-  private Release createRelease(String configuration) {
+  private Release createRelease(String clusterName, String namespaceName, String configuration) {
     Release release = new Release();
+    release.setId(new Random().nextLong());
+    release.setAppId(testApp);
+    release.setClusterName(clusterName);
+    release.setNamespaceName(namespaceName);
     release.setConfigurations(configuration);
     return release;
   }
@@ -17,7 +17,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -88,4 +90,24 @@ public class NamespaceServiceIntegrationTest extends AbstractIntegrationTest {
     assertNull(instanceConfig);
   }
 
+  @Test
+  @Sql(scripts = "/sql/namespace-test.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+  @Sql(scripts = "/sql/clean.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+  public void testNamespacePublishInfo() throws Exception {
+    //the item is never published
+    assertEquals(Collections.singletonMap(testCluster, true), namespaceService.namespacePublishInfo(testApp));
+
+    Namespace namespace = namespaceService.findOne(testApp, testCluster, testPrivateNamespace);
+    releaseService.publish(namespace, "someRelease", "someComment", testUser, false);
+
+    assertEquals(Collections.singletonMap(testCluster, false), namespaceService.namespacePublishInfo(testApp));
+
+    TimeUnit.MILLISECONDS.sleep(10);
+    Item item = itemService.findOne(testApp, testCluster, testPrivateNamespace, "k1");
+    item.setValue("v2");
+    itemService.update(item);
+
+    assertEquals(Collections.singletonMap(testCluster, true), namespaceService.namespacePublishInfo(testApp));
+  }
+
 }
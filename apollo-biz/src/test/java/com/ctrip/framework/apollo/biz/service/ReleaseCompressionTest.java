@@ -0,0 +1,149 @@
+package com.ctrip.framework.apollo.biz.service;
+
+import com.ctrip.framework.apollo.biz.AbstractIntegrationTest;
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.biz.entity.Release;
+import com.ctrip.framework.apollo.biz.repository.ReleaseRepository;
+import com.google.common.base.Strings;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReleaseCompressionTest extends AbstractIntegrationTest {
+
+  @Autowired
+  private ReleaseService releaseService;
+  @Autowired
+  private ReleaseRepository releaseRepository;
+  @Autowired
+  private LeaderLockService leaderLockService;
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private String largeConfigurations = "{\"k1\":\"" + Strings.repeat("someValue", 1000) + "\"}";
+  private String smallConfigurations = "{\"k1\":\"v1\"}";
+
+  @Test
+  public void testSaveCompressedRelease() {
+    Release largeRelease = assembleRelease(largeConfigurations);
+    largeRelease.compressStoredConfigurations(100);
+    Release smallRelease = assembleRelease(smallConfigurations);
+    smallRelease.compressStoredConfigurations(100);
+
+    long largeReleaseId = releaseRepository.save(largeRelease).getId();
+    long smallReleaseId = releaseRepository.save(smallRelease).getId();
+    entityManager.flush();
+    entityManager.clear();
+
+    assertEquals("gzip:", loadStoredPrefix(largeReleaseId));
+    assertEquals(smallConfigurations.substring(0, 5), loadStoredPrefix(smallReleaseId));
+    assertEquals(largeConfigurations, releaseService.findOne(largeReleaseId).getConfigurations());
+    assertEquals(smallConfigurations, releaseService.findOne(smallReleaseId).getConfigurations());
+
+    //updating other columns keeps the configurations compressed
+    Release loadedRelease = releaseService.findOne(largeReleaseId);
+    loadedRelease.setAbandoned(true);
+    releaseRepository.save(loadedRelease);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertEquals("gzip:", loadStoredPrefix(largeReleaseId));
+    assertEquals(largeConfigurations, releaseService.findOne(largeReleaseId).getConfigurations());
+  }
+
+  @Test
+  public void testBackfillCompression() {
+    long largeReleaseId = releaseRepository.save(assembleRelease(largeConfigurations)).getId();
+    long anotherLargeReleaseId = releaseRepository.save(assembleRelease(largeConfigurations)).getId();
+    long smallReleaseId = releaseRepository.save(assembleRelease(smallConfigurations)).getId();
+    entityManager.flush();
+    entityManager.clear();
+
+    assertEquals(largeConfigurations.substring(0, 5), loadStoredPrefix(largeReleaseId));
+
+    long maxId = releaseService.compressConfigurations(0, 1, 100);
+    assertEquals(largeReleaseId, maxId);
+
+    maxId = releaseService.compressConfigurations(maxId, 10, 100);
+    assertEquals(anotherLargeReleaseId, maxId);
+
+    assertEquals(-1, releaseService.compressConfigurations(maxId, 10, 100));
+    entityManager.clear();
+
+    assertEquals("gzip:", loadStoredPrefix(largeReleaseId));
+    assertEquals("gzip:", loadStoredPrefix(anotherLargeReleaseId));
+    assertEquals(smallConfigurations.substring(0, 5), loadStoredPrefix(smallReleaseId));
+    assertEquals(largeConfigurations, releaseService.findOne(largeReleaseId).getConfigurations());
+  }
+
+  @Test
+  public void testBackfillSkipsDeletedReleases() {
+    Release deletedRelease = assembleRelease(largeConfigurations);
+    deletedRelease.setDeleted(true);
+    long deletedReleaseId = releaseRepository.save(deletedRelease).getId();
+    long largeReleaseId = releaseRepository.save(assembleRelease(largeConfigurations)).getId();
+    entityManager.flush();
+    entityManager.clear();
+
+    long maxId = releaseService.compressConfigurations(0, 1, 100);
+    assertEquals(largeReleaseId, maxId);
+    assertEquals(-1, releaseService.compressConfigurations(maxId, 1, 100));
+    entityManager.clear();
+
+    assertEquals(largeConfigurations.substring(0, 5), loadStoredPrefix(deletedReleaseId));
+    assertEquals("gzip:", loadStoredPrefix(largeReleaseId));
+  }
+
+  @Test
+  public void testBackfillWithLeaderLock() {
+    long largeReleaseId = releaseRepository.save(assembleRelease(largeConfigurations)).getId();
+    entityManager.flush();
+    entityManager.clear();
+
+    BizConfig bizConfig = mock(BizConfig.class);
+    when(bizConfig.releaseConfigurationsCompressThreshold()).thenReturn(100);
+    when(bizConfig.isReleaseConfigurationsBackfillEnabled()).thenReturn(true);
+    when(bizConfig.releaseConfigurationsBackfillBatch()).thenReturn(10);
+
+    ReleaseCompressionService anotherCompressionService = new ReleaseCompressionService(bizConfig, releaseService,
+        mock(LeaderLockService.class));
+    anotherCompressionService.backfill();
+    entityManager.clear();
+
+    assertEquals(largeConfigurations.substring(0, 5), loadStoredPrefix(largeReleaseId));
+
+    ReleaseCompressionService compressionService = new ReleaseCompressionService(bizConfig, releaseService,
+        leaderLockService);
+    compressionService.backfill();
+    entityManager.clear();
+
+    assertEquals("gzip:", loadStoredPrefix(largeReleaseId));
+    assertEquals("{\"Threshold\":100,\"Release\":" + largeReleaseId + "}",
+        leaderLockService.getCheckpoint(ReleaseCompressionService.LOCK_NAME));
+  }
+
+  private String loadStoredPrefix(long releaseId) {
+    return (String) entityManager
+        .createNativeQuery("select substring(`Configurations`, 1, 5) from `Release` where `Id` = ?1")
+        .setParameter(1, releaseId).getSingleResult();
+  }
+
+  private Release assembleRelease(String configurations) {
+    Release release = new Release();
+    release.setReleaseKey("someReleaseKey");
+    release.setName("someName");
+    release.setComment("someComment");
+    release.setAppId("someAppId");
+    release.setClusterName("someClusterName");
+    release.setNamespaceName("someNamespaceName");
+    release.setConfigurations(configurations);
+    release.setDataChangeCreatedBy("someOperator");
+    return release;
+  }
+}
@@ -0,0 +1,108 @@
+package com.ctrip.framework.apollo.biz.service;
+
+import com.ctrip.framework.apollo.biz.AbstractUnitTest;
+import com.ctrip.framework.apollo.biz.entity.Release;
+import com.ctrip.framework.apollo.biz.repository.ReleaseRepository;
+import com.ctrip.framework.apollo.common.dto.ReleaseDiffDTO;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReleaseDiffServiceTest extends AbstractUnitTest {
+
+  @Mock
+  private ReleaseRepository releaseRepository;
+
+  @InjectMocks
+  private ReleaseDiffService releaseDiffService;
+
+  @Test
+  public void testCompare() {
+    Release someRelease = assembleRelease(1, "{\"k1\":\"v1\",\"k2\":\"v2\",\"k3\":\"v3\"}");
+    Release anotherRelease = assembleRelease(2, "{\"k1\":\"v1\",\"k2\":\"v2-new\",\"k4\":\"v4\"}");
+    when(releaseRepository.findByIdIn(Sets.newHashSet(1L, 2L))).thenReturn(Arrays.asList(someRelease,
+        anotherRelease));
+
+    ReleaseDiffDTO diff = releaseDiffService.compare(1, 2);
+
+    assertEquals(1, diff.getBaseReleaseId());
+    assertEquals(2, diff.getToCompareReleaseId());
+    List<ReleaseDiffDTO.Change> changes = diff.getChanges();
+    assertEquals(3, changes.size());
+    assertChange(changes.get(0), ReleaseDiffDTO.MODIFIED, "k2", "v2", "v2-new");
+    assertChange(changes.get(1), ReleaseDiffDTO.DELETED, "k3", "v3", null);
+    assertChange(changes.get(2), ReleaseDiffDTO.ADDED, "k4", null, "v4");
+  }
+
+  @Test
+  public void testCompareInBatchWithCache() {
+    Release someRelease = assembleRelease(1, "{\"k1\":\"v1\"}");
+    Release anotherRelease = assembleRelease(2, "{\"k1\":\"v2\"}");
+    Release yetAnotherRelease = assembleRelease(3, "{}");
+    when(releaseRepository.findByIdIn(Sets.newHashSet(1L, 2L, 3L))).thenReturn(Arrays.asList(someRelease,
+        anotherRelease, yetAnotherRelease));
+    when(releaseRepository.findByIdIn(Sets.newHashSet(1L))).thenReturn(Arrays.asList(someRelease));
+
+    List<ReleaseDiffDTO> diffs = releaseDiffService.compare(Arrays.asList(0L, 1L, 2L), Arrays.asList(1L, 2L, 3L));
+
+    assertEquals(3, diffs.size());
+    assertChange(diffs.get(0).getChanges().get(0), ReleaseDiffDTO.ADDED, "k1", null, "v1");
+    assertChange(diffs.get(1).getChanges().get(0), ReleaseDiffDTO.MODIFIED, "k1", "v1", "v2");
+    assertChange(diffs.get(2).getChanges().get(0), ReleaseDiffDTO.DELETED, "k1", "v2", null);
+    verify(releaseRepository, times(1)).findByIdIn(anySet());
+
+    //cached ones are not loaded again
+    diffs = releaseDiffService.compare(Arrays.asList(1L, 2L, 1L), Arrays.asList(2L, 3L, 0L));
+
+    assertEquals(3, diffs.size());
+    assertChange(diffs.get(1).getChanges().get(0), ReleaseDiffDTO.DELETED, "k1", "v2", null);
+    assertChange(diffs.get(2).getChanges().get(0), ReleaseDiffDTO.DELETED, "k1", "v1", null);
+    verify(releaseRepository, times(1)).findByIdIn(Sets.newHashSet(1L));
+    verify(releaseRepository, times(2)).findByIdIn(anySet());
+  }
+
+  @Test
+  public void testCompareWithReleaseNotFound() {
+    when(releaseRepository.findByIdIn(Sets.newHashSet(1L, 2L))).thenReturn(Arrays.asList(assembleRelease(1,
+        "{\"k1\":\"v1\"}")));
+
+    ReleaseDiffDTO diff = releaseDiffService.compare(1, 2);
+    assertChange(diff.getChanges().get(0), ReleaseDiffDTO.DELETED, "k1", "v1", null);
+    assertFalse(diff.isReleasesFound());
+
+    //not cached, as the release might be found later
+    when(releaseRepository.findByIdIn(Sets.newHashSet(1L, 2L))).thenReturn(Arrays.asList(assembleRelease(1,
+        "{\"k1\":\"v1\"}"), assembleRelease(2, "{\"k1\":\"v1\"}")));
+
+    diff = releaseDiffService.compare(1, 2);
+    assertTrue(diff.getChanges().isEmpty());
+    assertTrue(diff.isReleasesFound());
+  }
+
+  private void assertChange(ReleaseDiffDTO.Change change, String type, String key, String oldValue,
+      String newValue) {
+    assertEquals(type, change.getType());
+    assertEquals(key, change.getKey());
+    assertEquals(oldValue, change.getOldValue());
+    assertEquals(newValue, change.getNewValue());
+  }
+
+  private Release assembleRelease(long id, String configurations) {
+    Release release = new Release();
+    release.setId(id);
+    release.setConfigurations(configurations);
+    return release;
+  }
+}
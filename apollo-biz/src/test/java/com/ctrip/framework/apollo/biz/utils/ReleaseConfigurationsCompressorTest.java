@@ -0,0 +1,72 @@
+package com.ctrip.framework.apollo.biz.utils;
+
+import com.ctrip.framework.apollo.biz.entity.Release;
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ReleaseConfigurationsCompressorTest {
+
+  @Test
+  public void testCompressionDisabled() throws Exception {
+    String someConfigurations = "{\"k1\":\"" + Strings.repeat("someValue", 1000) + "\"}";
+
+    Release release = new Release();
+    release.setConfigurations(someConfigurations);
+    release.compressStoredConfigurations(-1);
+
+    assertEquals(someConfigurations, release.getStoredConfigurations());
+    assertEquals(someConfigurations, release.getConfigurations());
+  }
+
+  @Test
+  public void testCompressAboveThreshold() throws Exception {
+    String smallConfigurations = "{\"k1\":\"v1\"}";
+    String largeConfigurations = "{\"k1\":\"" + Strings.repeat("someValue", 1000) + "\"}";
+
+    Release smallRelease = new Release();
+    smallRelease.setConfigurations(smallConfigurations);
+    smallRelease.compressStoredConfigurations(100);
+    Release largeRelease = new Release();
+    largeRelease.setConfigurations(largeConfigurations);
+    largeRelease.compressStoredConfigurations(100);
+
+    assertEquals(smallConfigurations, smallRelease.getStoredConfigurations());
+
+    String storedConfigurations = largeRelease.getStoredConfigurations();
+
+    assertTrue(ReleaseConfigurationsCompressor.isCompressed(storedConfigurations));
+    assertTrue(storedConfigurations.length() < largeConfigurations.length());
+    assertEquals(largeConfigurations, largeRelease.getConfigurations());
+    assertEquals(largeConfigurations, ReleaseConfigurationsCompressor.materialize(storedConfigurations));
+  }
+
+  @Test
+  public void testReadPlainConfigurations() throws Exception {
+    String someConfigurations = "{\"k1\":\"v1\"}";
+
+    assertFalse(ReleaseConfigurationsCompressor.isCompressed(someConfigurations));
+    assertEquals(someConfigurations, ReleaseConfigurationsCompressor.materialize(someConfigurations));
+    assertEquals("", ReleaseConfigurationsCompressor.materialize(""));
+    assertNull(ReleaseConfigurationsCompressor.materialize(null));
+  }
+
+  @Test
+  public void testIdenticalConfigurationsShareOneCopy() throws Exception {
+    String someConfigurations = "{\"k1\":\"" + Strings.repeat("someValue", 100) + "\"}";
+    String compressed = ReleaseConfigurationsCompressor.compress(someConfigurations);
+
+    String first = ReleaseConfigurationsCompressor.materialize(new String(compressed));
+    String second = ReleaseConfigurationsCompressor.materialize(new String(compressed));
+    String plain = ReleaseConfigurationsCompressor.materialize(new String(someConfigurations));
+
+    assertEquals(someConfigurations, first);
+    assertSame(first, second);
+    assertSame(first, plain);
+  }
+}
@@ -0,0 +1,48 @@
+package com.ctrip.framework.apollo;
+
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
+import com.ctrip.framework.apollo.internals.ConfigManager;
+
+/**
+ * Entry point for the configs of an app, which may be different from the app of the current process.
+ *
+ * <p>The configs of all the apps share the same long polling connection and executors, see
+ * {@link ConfigService#forApp(String)}.
+ */
+public class AppConfigService {
+  private final String m_appId;
+  private final ConfigManager m_configManager;
+
+  AppConfigService(String appId, ConfigManager configManager) {
+    m_appId = appId;
+    m_configManager = configManager;
+  }
+
+  public String getAppId() {
+    return m_appId;
+  }
+
+  /**
+   * Get the application config instance of the app.
+   *
+   * @return config instance
+   */
+  public Config getAppConfig() {
+    return getConfig(ConfigConsts.NAMESPACE_APPLICATION);
+  }
+
+  /**
+   * Get the config instance for the namespace of the app.
+   *
+   * @param namespace the namespace of the config
+   * @return config instance
+   */
+  public Config getConfig(String namespace) {
+    return m_configManager.getConfig(namespace);
+  }
+
+  public ConfigFile getConfigFile(String namespace, ConfigFileFormat configFileFormat) {
+    return m_configManager.getConfigFile(namespace, configFileFormat);
+  }
+}
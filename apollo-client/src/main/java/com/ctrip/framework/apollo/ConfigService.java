@@ -4,8 +4,16 @@ import com.ctrip.framework.apollo.build.ApolloInjector;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
 import com.ctrip.framework.apollo.internals.ConfigManager;
+import com.ctrip.framework.apollo.internals.DefaultConfigManager;
 import com.ctrip.framework.apollo.spi.ConfigFactory;
+import com.ctrip.framework.apollo.spi.ConfigFactoryManager;
 import com.ctrip.framework.apollo.spi.ConfigRegistry;
+import com.ctrip.framework.apollo.spi.DefaultConfigFactory;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Entry point for client config use
@@ -17,6 +25,7 @@ public class ConfigService {
 
   private volatile ConfigManager m_configManager;
   private volatile ConfigRegistry m_configRegistry;
+  private final ConcurrentMap<String, AppConfigService> m_appConfigServices = Maps.newConcurrentMap();
 
   private ConfigManager getManager() {
     if (m_configManager == null) {
@@ -65,6 +74,45 @@ public class ConfigService {
     return s_instance.getManager().getConfigFile(namespace, configFileFormat);
   }
 
+  /**
+   * Get the entry point for the configs of the app, e.g. for a gateway loading the configs of the apps behind it.
+   * <p>
+   * The namespaces of all the apps are watched by one long polling request and the same executors, so the numbers of
+   * the threads and the connections don't grow with the apps. The config services must support polling several apps
+   * together once more than one app is used. The access key secrets of the other apps are configured by
+   * apollo.accesskey.{appId}.secret.
+   *
+   * @param appId the app id
+   * @return the entry point for the configs of the app
+   */
+  public static AppConfigService forApp(String appId) {
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(appId), "appId should not be null or empty");
+    return s_instance.getAppConfigService(appId);
+  }
+
+  private AppConfigService getAppConfigService(String appId) {
+    AppConfigService appConfigService = m_appConfigServices.get(appId);
+    if (appConfigService != null) {
+      return appConfigService;
+    }
+
+    ConfigManager configManager;
+    if (appId.equals(ApolloInjector.getInstance(ConfigUtil.class).getAppId())) {
+      configManager = getManager();
+    } else {
+      final ConfigFactory factory = new DefaultConfigFactory(appId);
+      configManager = new DefaultConfigManager(new ConfigFactoryManager() {
+        @Override
+        public ConfigFactory getFactory(String namespace) {
+          return factory;
+        }
+      });
+    }
+    appConfigService = new AppConfigService(appId, configManager);
+    AppConfigService previous = m_appConfigServices.putIfAbsent(appId, appConfigService);
+    return previous == null ? appConfigService : previous;
+  }
+
   static void setConfig(Config config) {
     setConfig(ConfigConsts.NAMESPACE_APPLICATION, config);
   }
@@ -109,6 +157,7 @@ public class ConfigService {
     synchronized (s_instance) {
       s_instance.m_configManager = null;
       s_instance.m_configRegistry = null;
+      s_instance.m_appConfigServices.clear();
     }
   }
 }
@@ -73,11 +73,9 @@ public abstract class AbstractConfigFile implements ConfigFile, RepositoryChange
 
   @Override
   public synchronized void onRepositoryChange(String namespace, Properties newProperties) {
-    if (newProperties.equals(m_configProperties.get())) {
+    if (ConfigSnapshot.isSame(m_configProperties.get(), newProperties)) {
       return;
     }
-    Properties newConfigProperties = propertiesFactory.getPropertiesInstance();
-    newConfigProperties.putAll(newProperties);
 
     String oldValue = getContent();
 
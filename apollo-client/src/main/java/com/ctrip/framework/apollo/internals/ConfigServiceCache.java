@@ -0,0 +1,115 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.core.dto.ServiceDTO;
+import com.ctrip.framework.apollo.core.utils.ClassLoaderUtil;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.ctrip.framework.apollo.util.ExceptionUtil;
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Strings;
+import com.google.gson.Gson;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists the meta server selected and the config services located in the local cache directory, so after a restart
+ * the client could load the config with them immediately, while the meta servers are probed and the config services
+ * are located again in the background.
+ */
+class ConfigServiceCache {
+  private static final Logger logger = LoggerFactory.getLogger(ConfigServiceCache.class);
+  private static final String META_DIR = "/meta-cache";
+
+  private final ConfigUtil m_configUtil;
+  private final Gson gson = new Gson();
+  private volatile String m_persisted;
+
+  ConfigServiceCache(ConfigUtil configUtil) {
+    m_configUtil = configUtil;
+  }
+
+  /**
+   * @return the snapshot persisted for the meta server addresses configured now, or null if there is none
+   */
+  Snapshot load(String metaServerAddresses) {
+    try {
+      File file = cacheFile();
+      if (!file.isFile()) {
+        return null;
+      }
+      String json = new String(Files.readAllBytes(file.toPath()), Charsets.UTF_8);
+      Snapshot snapshot = gson.fromJson(json, Snapshot.class);
+      if (snapshot == null || !Objects.equal(metaServerAddresses, snapshot.getMetaServerAddresses())
+          || snapshot.getConfigServices() == null || snapshot.getConfigServices().isEmpty()) {
+        return null;
+      }
+      m_persisted = json;
+      return snapshot;
+    } catch (Throwable ex) {
+      Tracer.logError(ex);
+      logger.warn("Load the cached config services failed, reason: {}", ExceptionUtil.getDetailMessage(ex));
+    }
+    return null;
+  }
+
+  synchronized void persist(Snapshot snapshot) {
+    String json = gson.toJson(snapshot);
+    if (json.equals(m_persisted)) {
+      return;
+    }
+    try {
+      File file = cacheFile();
+      Files.createDirectories(file.getParentFile().toPath());
+      Path tmp = Paths.get(file.getAbsolutePath() + ".tmp");
+      Files.write(tmp, json.getBytes(Charsets.UTF_8));
+      Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      m_persisted = json;
+    } catch (Throwable ex) {
+      Tracer.logError(ex);
+      logger.warn("Persist the config services failed, reason: {}", ExceptionUtil.getDetailMessage(ex));
+    }
+  }
+
+  private File cacheFile() {
+    String fileName = String.format("services-%s.json", m_configUtil.getApolloEnv());
+    String defaultCacheDir = m_configUtil.getDefaultLocalCacheDir();
+    if (!Strings.isNullOrEmpty(defaultCacheDir)) {
+      Path path = Paths.get(defaultCacheDir);
+      if (Files.isDirectory(path) && Files.isWritable(path)) {
+        return new File(defaultCacheDir + META_DIR, fileName);
+      }
+    }
+    return new File(ClassLoaderUtil.getClassPath() + META_DIR, fileName);
+  }
+
+  static class Snapshot {
+    private String metaServerAddresses;
+    private String metaServer;
+    private List<ServiceDTO> configServices;
+
+    Snapshot(String metaServerAddresses, String metaServer, List<ServiceDTO> configServices) {
+      this.metaServerAddresses = metaServerAddresses;
+      this.metaServer = metaServer;
+      this.configServices = configServices;
+    }
+
+    String getMetaServerAddresses() {
+      return metaServerAddresses;
+    }
+
+    String getMetaServer() {
+      return metaServer;
+    }
+
+    List<ServiceDTO> getConfigServices() {
+      return configServices;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.ctrip.framework.apollo.internals;
 
+import com.ctrip.framework.apollo.core.MetaDomainConsts;
 import com.ctrip.framework.apollo.core.ServiceNameConsts;
 import com.ctrip.framework.foundation.Foundation;
 import java.lang.reflect.Type;
@@ -7,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -14,8 +16,12 @@ import org.slf4j.LoggerFactory;
 
 import com.ctrip.framework.apollo.build.ApolloInjector;
 import com.ctrip.framework.apollo.core.dto.ServiceDTO;
+import com.ctrip.framework.apollo.core.dto.ServiceListDTO;
+import com.ctrip.framework.apollo.core.schedule.ExponentialSchedulePolicy;
+import com.ctrip.framework.apollo.core.schedule.SchedulePolicy;
 import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.exceptions.ApolloConfigStatusCodeException;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.tracer.spi.Transaction;
 import com.ctrip.framework.apollo.util.ConfigUtil;
@@ -33,11 +39,19 @@ import com.google.gson.reflect.TypeToken;
 
 public class ConfigServiceLocator {
   private static final Logger logger = LoggerFactory.getLogger(ConfigServiceLocator.class);
+  private static final String CONFIG_SERVICES_PATH = "/services/config";
+  private static final String WATCH_CONFIG_SERVICES_PATH = "/services/config/watch";
+  //90 seconds, should be longer than server side's long polling timeout, which is now 60 seconds
+  private static final int WATCH_READ_TIMEOUT = 90 * 1000;
   private HttpUtil m_httpUtil;
   private ConfigUtil m_configUtil;
   private AtomicReference<List<ServiceDTO>> m_configServices;
   private Type m_responseType;
   private ScheduledExecutorService m_executorService;
+  private ConfigServiceCache m_configServiceCache;
+  private SchedulePolicy m_watchFailSchedulePolicyInSecond;
+  //the version of the config services watched, -1 if unknown
+  private volatile long m_configServicesVersion = -1;
   private static final Joiner.MapJoiner MAP_JOINER = Joiner.on("&").withKeyValueSeparator("=");
   private static final Escaper queryParamEscaper = UrlEscapers.urlFormParameterEscaper();
 
@@ -51,6 +65,8 @@ public class ConfigServiceLocator {
     }.getType();
     m_httpUtil = ApolloInjector.getInstance(HttpUtil.class);
     m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
+    m_configServiceCache = new ConfigServiceCache(m_configUtil);
+    m_watchFailSchedulePolicyInSecond = new ExponentialSchedulePolicy(1, 120);
     this.m_executorService = Executors.newScheduledThreadPool(1,
         ApolloThreadFactory.create("ConfigServiceLocator", true));
     initConfigServices();
@@ -65,9 +81,32 @@ public class ConfigServiceLocator {
       return;
     }
 
-    // update from meta service
-    this.tryUpdateConfigServices();
-    this.schedulePeriodicRefresh();
+    // start with the cached ones if any, otherwise update from meta service
+    if (!tryLoadCachedConfigServices()) {
+      this.tryUpdateConfigServices();
+    }
+    // the first watch returns the current config services right away, which refreshes the cached ones
+    this.startWatching();
+  }
+
+  private boolean tryLoadCachedConfigServices() {
+    try {
+      String metaServerAddresses = m_configUtil.getMetaServerAddresses();
+      if (Strings.isNullOrEmpty(metaServerAddresses)) {
+        return false;
+      }
+      ConfigServiceCache.Snapshot snapshot = m_configServiceCache.load(metaServerAddresses);
+      if (snapshot == null) {
+        return false;
+      }
+      MetaDomainConsts.restoreSelectedMetaServerAddress(metaServerAddresses, snapshot.getMetaServer());
+      logger.debug("Loaded config services from the local cache, meta server: {}", snapshot.getMetaServer());
+      setConfigServices(snapshot.getConfigServices());
+      return true;
+    } catch (Throwable ex) {
+      //ignore
+    }
+    return false;
   }
 
   private List<ServiceDTO> getCustomizedConfigService() {
@@ -127,6 +166,85 @@ public class ConfigServiceLocator {
     return false;
   }
 
+  private void startWatching() {
+    this.m_executorService.submit(new Runnable() {
+      @Override
+      public void run() {
+        doWatchConfigServices();
+      }
+    });
+  }
+
+  /**
+   * Long polling the meta service, which returns once the membership of the config services changes. Falls back to
+   * refreshing periodically if the meta service doesn't support it.
+   */
+  private void doWatchConfigServices() {
+    while (!Thread.currentThread().isInterrupted()) {
+      Transaction transaction = Tracer.newTransaction("Apollo.MetaService", "watchConfigService");
+      String url = null;
+      long watchStartTime = System.currentTimeMillis();
+      boolean answered = false;
+      try {
+        String domainName = m_configUtil.getMetaServerDomainName();
+        url = assembleMetaServiceUrl(domainName, WATCH_CONFIG_SERVICES_PATH, m_configServicesVersion);
+        transaction.addData("Url", url);
+
+        HttpRequest request = new HttpRequest(url);
+        request.setReadTimeout(WATCH_READ_TIMEOUT);
+        HttpResponse<ServiceListDTO> response = m_httpUtil.doGet(request, ServiceListDTO.class);
+
+        if (response.getStatusCode() == 200 && response.getBody() != null) {
+          ServiceListDTO serviceList = response.getBody();
+          List<ServiceDTO> services = serviceList.getServices();
+          if (services == null || services.isEmpty()) {
+            logConfigService("Empty response!");
+          } else {
+            setConfigServices(services);
+            persistConfigServices(domainName, services);
+          }
+          m_configServicesVersion = serviceList.getVersion();
+          answered = true;
+        }
+
+        m_watchFailSchedulePolicyInSecond.success();
+        transaction.addData("StatusCode", response.getStatusCode());
+        transaction.setStatus(Transaction.SUCCESS);
+      } catch (Throwable ex) {
+        transaction.setStatus(ex);
+        if (ex instanceof ApolloConfigStatusCodeException
+            && ((ApolloConfigStatusCodeException) ex).getStatusCode() == 404) {
+          logger.info("Meta service {} doesn't support watching config services, will refresh them periodically",
+              url);
+          this.schedulePeriodicRefresh();
+          return;
+        }
+        Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(ex));
+        long sleepTimeInSecond = m_watchFailSchedulePolicyInSecond.fail();
+        logger.warn("Watching config services failed, will retry in {} seconds. url: {}, reason: {}",
+            sleepTimeInSecond, url, ExceptionUtil.getDetailMessage(ex));
+        try {
+          TimeUnit.SECONDS.sleep(sleepTimeInSecond);
+        } catch (InterruptedException ie) {
+          return;
+        }
+      } finally {
+        transaction.complete();
+      }
+
+      // a meta server answering right away again and again must not be polled in a tight loop
+      long waitTimeInMills = m_configUtil.getConfigServicesWatchMinIntervalInMills()
+          - (System.currentTimeMillis() - watchStartTime);
+      if (answered && waitTimeInMills > 0) {
+        try {
+          TimeUnit.MILLISECONDS.sleep(waitTimeInMills);
+        } catch (InterruptedException ie) {
+          return;
+        }
+      }
+    }
+  }
+
   private void schedulePeriodicRefresh() {
     this.m_executorService.scheduleAtFixedRate(
         new Runnable() {
@@ -141,7 +259,8 @@ public class ConfigServiceLocator {
   }
 
   private synchronized void updateConfigServices() {
-    String url = assembleMetaServiceUrl();
+    String domainName = m_configUtil.getMetaServerDomainName();
+    String url = assembleMetaServiceUrl(domainName, CONFIG_SERVICES_PATH, null);
 
     HttpRequest request = new HttpRequest(url);
     int maxRetries = 2;
@@ -159,6 +278,7 @@ public class ConfigServiceLocator {
           continue;
         }
         setConfigServices(services);
+        persistConfigServices(domainName, services);
         return;
       } catch (Throwable ex) {
         Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(ex));
@@ -184,8 +304,14 @@ public class ConfigServiceLocator {
     logConfigServices(services);
   }
 
-  private String assembleMetaServiceUrl() {
-    String domainName = m_configUtil.getMetaServerDomainName();
+  private void persistConfigServices(String domainName, List<ServiceDTO> services) {
+    String metaServerAddresses = m_configUtil.getMetaServerAddresses();
+    if (!Strings.isNullOrEmpty(metaServerAddresses)) {
+      m_configServiceCache.persist(new ConfigServiceCache.Snapshot(metaServerAddresses, domainName, services));
+    }
+  }
+
+  private String assembleMetaServiceUrl(String domainName, String path, Long version) {
     String appId = m_configUtil.getAppId();
     String localIp = m_configUtil.getLocalIp();
 
@@ -194,8 +320,11 @@ public class ConfigServiceLocator {
     if (!Strings.isNullOrEmpty(localIp)) {
       queryParams.put("ip", queryParamEscaper.escape(localIp));
     }
+    if (version != null) {
+      queryParams.put("version", String.valueOf(version));
+    }
 
-    return domainName + "/services/config?" + MAP_JOINER.join(queryParams);
+    return domainName + path + "?" + MAP_JOINER.join(queryParams);
   }
 
   private void logConfigServices(List<ServiceDTO> serviceDtos) {
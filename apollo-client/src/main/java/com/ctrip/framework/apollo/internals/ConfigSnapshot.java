@@ -0,0 +1,313 @@
+package com.ctrip.framework.apollo.internals;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * An immutable snapshot of the properties of a namespace, identified by the release key it is loaded from.
+ *
+ * <p>The config repositories and configs pass the same snapshot along by reference instead of copying it, and tell
+ * whether it is changed by comparing the release keys instead of all the properties. The property names keep the
+ * order they are loaded in, so a snapshot stands in for an {@link com.ctrip.framework.apollo.util.OrderedProperties}
+ * as well.
+ *
+ * <p>All the mutators of {@link Properties} throw {@link UnsupportedOperationException}, including the default map
+ * methods which {@link java.util.Hashtable} implements on its own table since Java 8, e.g. {@code putIfAbsent} and
+ * {@code compute}. They are only overridden and never called on Java 7, so the snapshot still loads there.
+ */
+public class ConfigSnapshot extends Properties {
+  private static final long serialVersionUID = 4512633093658411836L;
+
+  private final String m_releaseKey;
+  private final String[] m_propertyNames;
+  private final int m_size;
+  private transient volatile Set<String> m_propertyNameSet;
+
+  /**
+   * Constructor.
+   *
+   * @param releaseKey the release key the properties are loaded from, null if unknown
+   * @param properties the properties, in the order they should be iterated
+   */
+  public ConfigSnapshot(String releaseKey, Map<String, String> properties) {
+    m_releaseKey = releaseKey;
+    m_propertyNames = new String[properties.size()];
+    int i = 0;
+    for (Map.Entry<String, String> entry : properties.entrySet()) {
+      if (entry.getKey() != null && entry.getValue() != null && super.put(entry.getKey(), entry.getValue()) == null) {
+        m_propertyNames[i++] = entry.getKey();
+      }
+    }
+    m_size = i;
+  }
+
+  private ConfigSnapshot(String releaseKey, Properties properties) {
+    m_releaseKey = releaseKey;
+    Set<String> names = properties.stringPropertyNames();
+    m_propertyNames = new String[names.size()];
+    int i = 0;
+    for (String name : names) {
+      String value = properties.getProperty(name);
+      if (value != null) {
+        super.put(name, value);
+        m_propertyNames[i++] = name;
+      }
+    }
+    m_size = i;
+  }
+
+  /**
+   * Take a snapshot of the properties.
+   *
+   * @param properties the properties, null if there is none
+   * @return the properties itself if it is already a snapshot, otherwise a snapshot of it without release key
+   */
+  public static ConfigSnapshot of(Properties properties) {
+    if (properties == null || properties instanceof ConfigSnapshot) {
+      return (ConfigSnapshot) properties;
+    }
+    return new ConfigSnapshot(null, properties);
+  }
+
+  /**
+   * Check whether the current properties are the same as the previous ones, by the release keys if both of them are
+   * snapshots of known releases, otherwise by comparing all the properties.
+   */
+  public static boolean isSame(Properties previous, Properties current) {
+    if (previous == current) {
+      return true;
+    }
+    if (previous == null || current == null) {
+      return false;
+    }
+    if (previous instanceof ConfigSnapshot && current instanceof ConfigSnapshot) {
+      String previousReleaseKey = ((ConfigSnapshot) previous).getReleaseKey();
+      String currentReleaseKey = ((ConfigSnapshot) current).getReleaseKey();
+      if (previousReleaseKey != null && currentReleaseKey != null) {
+        return previousReleaseKey.equals(currentReleaseKey);
+      }
+    }
+    return current.equals(previous);
+  }
+
+  /**
+   * Check whether the property names are taken from a snapshot. The names of a snapshot never change and the same set
+   * is returned every time, so the set itself stamps the version of the properties it is taken from.
+   */
+  public static boolean isSnapshotPropertyNames(Set<String> propertyNames) {
+    return propertyNames instanceof PropertyNameSet;
+  }
+
+  public String getReleaseKey() {
+    return m_releaseKey;
+  }
+
+  @Override
+  public Set<String> stringPropertyNames() {
+    Set<String> propertyNameSet = m_propertyNameSet;
+    if (propertyNameSet == null) {
+      propertyNameSet = new PropertyNameSet();
+      m_propertyNameSet = propertyNameSet;
+    }
+    return propertyNameSet;
+  }
+
+  @Override
+  public Enumeration<?> propertyNames() {
+    return Collections.enumeration(stringPropertyNames());
+  }
+
+  @Override
+  public Enumeration<Object> keys() {
+    return Collections.enumeration(keySet());
+  }
+
+  @Override
+  public Set<Object> keySet() {
+    return Collections.<Object>unmodifiableSet(stringPropertyNames());
+  }
+
+  @Override
+  public Set<Map.Entry<Object, Object>> entrySet() {
+    return new PropertyEntrySet();
+  }
+
+  @Override
+  public Collection<Object> values() {
+    return Collections.unmodifiableCollection(super.values());
+  }
+
+  @Override
+  public synchronized Object put(Object key, Object value) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized void putAll(Map<?, ?> t) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized Object remove(Object key) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized void clear() {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized Object putIfAbsent(Object key, Object value) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized boolean remove(Object key, Object value) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized Object replace(Object key, Object value) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized Object computeIfPresent(Object key,
+      BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized Object merge(Object key, Object value,
+      BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized void load(Reader reader) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized void load(InputStream inStream) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  @Override
+  public synchronized void loadFromXML(InputStream in) {
+    throw new UnsupportedOperationException("Config snapshot is immutable");
+  }
+
+  private abstract class PropertyIterator<T> implements Iterator<T> {
+    private int m_index = 0;
+
+    @Override
+    public boolean hasNext() {
+      return m_index < m_size;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return transform(m_propertyNames[m_index++]);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Config snapshot is immutable");
+    }
+
+    protected abstract T transform(String propertyName);
+  }
+
+  /**
+   * The property names in loading order, backed by the names array and the hash table of the snapshot so that no
+   * extra hash set is kept for them
+   */
+  private class PropertyNameSet extends AbstractSet<String> {
+    @Override
+    public Iterator<String> iterator() {
+      return new PropertyIterator<String>() {
+        @Override
+        protected String transform(String propertyName) {
+          return propertyName;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return m_size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsKey(o);
+    }
+  }
+
+  /**
+   * The properties in loading order, with the entries created on iteration
+   */
+  private class PropertyEntrySet extends AbstractSet<Map.Entry<Object, Object>> {
+    @Override
+    public Iterator<Map.Entry<Object, Object>> iterator() {
+      return new PropertyIterator<Map.Entry<Object, Object>>() {
+        @Override
+        protected Map.Entry<Object, Object> transform(String propertyName) {
+          return new AbstractMap.SimpleImmutableEntry<Object, Object>(propertyName, get(propertyName));
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return m_size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+      Object value = get(entry.getKey());
+      return value != null && value.equals(entry.getValue());
+    }
+  }
+}
@@ -4,7 +4,6 @@ import com.ctrip.framework.apollo.enums.ConfigSourceType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -32,7 +31,7 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
   private static final Logger logger = LoggerFactory.getLogger(DefaultConfig.class);
   private final String m_namespace;
   private final Properties m_resourceProperties;
-  private final AtomicReference<Properties> m_configProperties;
+  private final AtomicReference<ConfigSnapshot> m_configProperties;
   private final ConfigRepository m_configRepository;
   private final RateLimiter m_warnLogRateLimiter;
 
@@ -55,7 +54,7 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
 
   private void initialize() {
     try {
-      updateConfig(m_configRepository.getConfig(), m_configRepository.getSourceType());
+      updateConfig(ConfigSnapshot.of(m_configRepository.getConfig()), m_configRepository.getSourceType());
     } catch (Throwable ex) {
       Tracer.logError(ex);
       logger.warn("Init Apollo Local Config failed - namespace: {}, reason: {}.",
@@ -100,12 +99,13 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
 
   @Override
   public Set<String> getPropertyNames() {
-    Properties properties = m_configProperties.get();
+    ConfigSnapshot properties = m_configProperties.get();
     if (properties == null) {
       return Collections.emptySet();
     }
 
-    return stringPropertyNames(properties);
+    //the names of a snapshot are kept when it is loaded, so no need to enumerate the properties
+    return properties.stringPropertyNames();
   }
 
   @Override
@@ -113,28 +113,14 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
     return m_sourceType;
   }
 
-  private Set<String> stringPropertyNames(Properties properties) {
-    //jdk9以下版本Properties#enumerateStringProperties方法存在性能问题，keys() + get(k) 重复迭代, jdk9之后改为entrySet遍历.
-    Map<String, String> h = new LinkedHashMap<>();
-    for (Map.Entry<Object, Object> e : properties.entrySet()) {
-      Object k = e.getKey();
-      Object v = e.getValue();
-      if (k instanceof String && v instanceof String) {
-        h.put((String) k, (String) v);
-      }
-    }
-    return h.keySet();
-  }
-
   @Override
   public synchronized void onRepositoryChange(String namespace, Properties newProperties) {
-    if (newProperties.equals(m_configProperties.get())) {
+    if (ConfigSnapshot.isSame(m_configProperties.get(), newProperties)) {
       return;
     }
 
     ConfigSourceType sourceType = m_configRepository.getSourceType();
-    Properties newConfigProperties = propertiesFactory.getPropertiesInstance();
-    newConfigProperties.putAll(newProperties);
+    ConfigSnapshot newConfigProperties = ConfigSnapshot.of(newProperties);
 
     Map<String, ConfigChange> actualChanges = updateAndCalcConfigChanges(newConfigProperties, sourceType);
 
@@ -148,12 +134,12 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
     Tracer.logEvent("Apollo.Client.ConfigChanges", m_namespace);
   }
 
-  private void updateConfig(Properties newConfigProperties, ConfigSourceType sourceType) {
+  private void updateConfig(ConfigSnapshot newConfigProperties, ConfigSourceType sourceType) {
     m_configProperties.set(newConfigProperties);
     m_sourceType = sourceType;
   }
 
-  private Map<String, ConfigChange> updateAndCalcConfigChanges(Properties newConfigProperties,
+  private Map<String, ConfigChange> updateAndCalcConfigChanges(ConfigSnapshot newConfigProperties,
       ConfigSourceType sourceType) {
     List<ConfigChange> configChanges =
         calcPropertyChanges(m_namespace, m_configProperties.get(), newConfigProperties);
@@ -20,7 +20,11 @@ public class DefaultConfigManager implements ConfigManager {
   private Map<String, ConfigFile> m_configFiles = Maps.newConcurrentMap();
 
   public DefaultConfigManager() {
-    m_factoryManager = ApolloInjector.getInstance(ConfigFactoryManager.class);
+    this(ApolloInjector.getInstance(ConfigFactoryManager.class));
+  }
+
+  public DefaultConfigManager(ConfigFactoryManager factoryManager) {
+    m_factoryManager = factoryManager;
   }
 
   @Override
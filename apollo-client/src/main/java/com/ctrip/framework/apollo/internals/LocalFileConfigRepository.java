@@ -33,10 +33,11 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
     implements RepositoryChangeListener {
   private static final Logger logger = LoggerFactory.getLogger(LocalFileConfigRepository.class);
   private static final String CONFIG_DIR = "/config-cache";
+  private final String m_appId;
   private final String m_namespace;
   private File m_baseDir;
   private final ConfigUtil m_configUtil;
-  private volatile Properties m_fileProperties;
+  private volatile ConfigSnapshot m_fileProperties;
   private volatile ConfigRepository m_upstream;
 
   private volatile ConfigSourceType m_sourceType = ConfigSourceType.LOCAL;
@@ -51,6 +52,18 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
   }
 
   public LocalFileConfigRepository(String namespace, ConfigRepository upstream) {
+    this(null, namespace, upstream);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param appId     the app of the namespace, null for the app of the current process
+   * @param namespace the namespace
+   * @param upstream  the upstream repository, null if there is none
+   */
+  public LocalFileConfigRepository(String appId, String namespace, ConfigRepository upstream) {
+    m_appId = appId;
     m_namespace = namespace;
     m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
     this.setLocalCacheDir(findLocalCacheDir(), false);
@@ -68,7 +81,8 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
 
   private File findLocalCacheDir() {
     try {
-      String defaultCacheDir = m_configUtil.getDefaultLocalCacheDir();
+      String defaultCacheDir = m_appId == null ? m_configUtil.getDefaultLocalCacheDir() :
+          m_configUtil.getDefaultLocalCacheDir(m_appId);
       Path path = Paths.get(defaultCacheDir);
       if (!Files.exists(path)) {
         Files.createDirectories(path);
@@ -88,9 +102,7 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
     if (m_fileProperties == null) {
       sync();
     }
-    Properties result = propertiesFactory.getPropertiesInstance();
-    result.putAll(m_fileProperties);
-    return result;
+    return m_fileProperties;
   }
 
   @Override
@@ -114,13 +126,11 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
 
   @Override
   public void onRepositoryChange(String namespace, Properties newProperties) {
-    if (newProperties.equals(m_fileProperties)) {
+    ConfigSnapshot newFileProperties = ConfigSnapshot.of(newProperties);
+    if (!updateFileProperties(newFileProperties, m_upstream.getSourceType())) {
       return;
     }
-    Properties newFileProperties = propertiesFactory.getPropertiesInstance();
-    newFileProperties.putAll(newProperties);
-    updateFileProperties(newFileProperties, m_upstream.getSourceType());
-    this.fireRepositoryChange(namespace, newProperties);
+    this.fireRepositoryChange(namespace, newFileProperties);
   }
 
   @Override
@@ -136,7 +146,7 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
     Throwable exception = null;
     try {
       transaction.addData("Basedir", m_baseDir.getAbsolutePath());
-      m_fileProperties = this.loadFromLocalCacheFile(m_baseDir, m_namespace);
+      m_fileProperties = ConfigSnapshot.of(this.loadFromLocalCacheFile(m_baseDir, m_namespace));
       m_sourceType = ConfigSourceType.LOCAL;
       transaction.setStatus(Transaction.SUCCESS);
     } catch (Throwable ex) {
@@ -160,7 +170,9 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
       return false;
     }
     try {
-      updateFileProperties(m_upstream.getConfig(), m_upstream.getSourceType());
+      Properties upstreamProperties = m_upstream.getConfig();
+      Preconditions.checkNotNull(upstreamProperties, "Upstream config cannot be null");
+      updateFileProperties(ConfigSnapshot.of(upstreamProperties), m_upstream.getSourceType());
       return true;
     } catch (Throwable ex) {
       Tracer.logError(ex);
@@ -171,13 +183,19 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
     return false;
   }
 
-  private synchronized void updateFileProperties(Properties newProperties, ConfigSourceType sourceType) {
+  /**
+   * @return whether the properties are changed
+   */
+  private synchronized boolean updateFileProperties(ConfigSnapshot newProperties, ConfigSourceType sourceType) {
     this.m_sourceType = sourceType;
-    if (newProperties.equals(m_fileProperties)) {
-      return;
+    if (ConfigSnapshot.isSame(m_fileProperties, newProperties)) {
+      //keep the upstream snapshot, which could be told by release key next time
+      this.m_fileProperties = newProperties;
+      return false;
     }
     this.m_fileProperties = newProperties;
     persistLocalCacheFile(m_baseDir, m_namespace);
+    return true;
   }
 
   private Properties loadFromLocalCacheFile(File baseDir, String namespace) throws IOException {
@@ -276,7 +294,7 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
   File assembleLocalCacheFile(File baseDir, String namespace) {
     String fileName =
         String.format("%s.properties", Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR)
-            .join(m_configUtil.getAppId(), m_configUtil.getCluster(), namespace));
+            .join(m_appId == null ? m_configUtil.getAppId() : m_appId, m_configUtil.getCluster(), namespace));
     return new File(baseDir, fileName);
   }
 }
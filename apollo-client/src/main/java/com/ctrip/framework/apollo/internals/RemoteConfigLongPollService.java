@@ -12,6 +12,7 @@ import com.ctrip.framework.apollo.core.signature.Signature;
 import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.exceptions.ApolloConfigStatusCodeException;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.tracer.spi.Transaction;
 import com.ctrip.framework.apollo.util.ConfigUtil;
@@ -26,6 +27,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.collect.Sets;
 import com.google.common.escape.Escaper;
 import com.google.common.net.UrlEscapers;
 import com.google.common.reflect.TypeToken;
@@ -35,6 +37,7 @@ import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -49,19 +52,24 @@ import org.slf4j.LoggerFactory;
 public class RemoteConfigLongPollService {
   private static final Logger logger = LoggerFactory.getLogger(RemoteConfigLongPollService.class);
   private static final Joiner STRING_JOINER = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR);
+  private static final Joiner APP_ID_JOINER = Joiner.on(",");
   private static final Joiner.MapJoiner MAP_JOINER = Joiner.on("&").withKeyValueSeparator("=");
   private static final Escaper queryParamEscaper = UrlEscapers.urlFormParameterEscaper();
   private static final long INIT_NOTIFICATION_ID = ConfigConsts.NOTIFICATION_ID_PLACEHOLDER;
+  private static final String HEADER_SIZE_ESTIMATION_URI = "http://localhost";
   //90 seconds, should be longer than server side's long polling timeout, which is now 60 seconds
   private static final int LONG_POLLING_READ_TIMEOUT = 90 * 1000;
   private final ExecutorService m_longPollingService;
   private final AtomicBoolean m_longPollingStopped;
-  private SchedulePolicy m_longPollFailSchedulePolicyInSecond;
   private RateLimiter m_longPollRateLimiter;
   private final AtomicBoolean m_longPollStarted;
+  //the apps are polled in chunks, each of which fits in the header size limit of one request
+  private final List<LongPollChunk> m_longPollChunks;
+  //appId+namespaceName -> repositories
   private final Multimap<String, RemoteConfigRepository> m_longPollNamespaces;
-  private final ConcurrentMap<String, Long> m_notifications;
-  private final Map<String, ApolloNotificationMessages> m_remoteNotificationMessages;//namespaceName -> watchedKey -> notificationId
+  //appId -> namespaceName -> notificationId
+  private final ConcurrentMap<String, ConcurrentMap<String, Long>> m_notifications;
+  private final Map<String, ApolloNotificationMessages> m_remoteNotificationMessages;//appId+namespaceName -> watchedKey -> notificationId
   private Type m_responseType;
   private Gson gson;
   private ConfigUtil m_configUtil;
@@ -72,11 +80,12 @@ public class RemoteConfigLongPollService {
    * Constructor.
    */
   public RemoteConfigLongPollService() {
-    m_longPollFailSchedulePolicyInSecond = new ExponentialSchedulePolicy(1, 120); //in second
     m_longPollingStopped = new AtomicBoolean(false);
-    m_longPollingService = Executors.newSingleThreadExecutor(
+    //one thread for each chunk of apps
+    m_longPollingService = Executors.newCachedThreadPool(
         ApolloThreadFactory.create("RemoteConfigLongPollService", true));
     m_longPollStarted = new AtomicBoolean(false);
+    m_longPollChunks = Lists.newArrayList();
     m_longPollNamespaces =
         Multimaps.synchronizedSetMultimap(HashMultimap.<String, RemoteConfigRepository>create());
     m_notifications = Maps.newConcurrentMap();
@@ -91,8 +100,28 @@ public class RemoteConfigLongPollService {
   }
 
   public boolean submit(String namespace, RemoteConfigRepository remoteConfigRepository) {
-    boolean added = m_longPollNamespaces.put(namespace, remoteConfigRepository);
-    m_notifications.putIfAbsent(namespace, INIT_NOTIFICATION_ID);
+    return submit(m_configUtil.getAppId(), namespace, remoteConfigRepository);
+  }
+
+  /**
+   * Submit the namespace of the app to long poll. The namespaces of the apps are polled together, with one long
+   * polling request to the config service for as many apps as the header size limit of a request permits, see {@link
+   * ConfigUtil#getLongPollingMaxHeaderSize()}.
+   */
+  public boolean submit(String appId, String namespace, RemoteConfigRepository remoteConfigRepository) {
+    boolean added = m_longPollNamespaces.put(assembleKey(appId, namespace), remoteConfigRepository);
+    ConcurrentMap<String, Long> notifications = m_notifications.get(appId);
+    if (notifications == null) {
+      ConcurrentMap<String, Long> newNotifications = Maps.newConcurrentMap();
+      newNotifications.put(namespace, INIT_NOTIFICATION_ID);
+      notifications = m_notifications.putIfAbsent(appId, newNotifications);
+      if (notifications == null) {
+        notifications = newNotifications;
+        //the first namespace of the app
+        assignLongPollChunk(appId, null);
+      }
+    }
+    notifications.putIfAbsent(namespace, INIT_NOTIFICATION_ID);
     if (!m_longPollStarted.get()) {
       startLongPolling();
     }
@@ -104,11 +133,21 @@ public class RemoteConfigLongPollService {
       //already started
       return;
     }
+    synchronized (m_longPollChunks) {
+      for (LongPollChunk chunk : m_longPollChunks) {
+        startLongPolling(chunk);
+      }
+    }
+  }
+
+  private void startLongPolling(final LongPollChunk chunk) {
+    if (!chunk.m_started.compareAndSet(false, true)) {
+      //already started
+      return;
+    }
     try {
-      final String appId = m_configUtil.getAppId();
       final String cluster = m_configUtil.getCluster();
       final String dataCenter = m_configUtil.getDataCenter();
-      final String secret = m_configUtil.getAccessKeySecret();
       final long longPollingInitialDelayInMills = m_configUtil.getLongPollingInitialDelayInMills();
       m_longPollingService.submit(new Runnable() {
         @Override
@@ -121,11 +160,11 @@ public class RemoteConfigLongPollService {
               //ignore
             }
           }
-          doLongPollingRefresh(appId, cluster, dataCenter, secret);
+          doLongPollingRefresh(chunk, cluster, dataCenter);
         }
       });
     } catch (Throwable ex) {
-      m_longPollStarted.set(false);
+      chunk.m_started.set(false);
       ApolloConfigException exception =
           new ApolloConfigException("Schedule long polling refresh failed", ex);
       Tracer.logError(exception);
@@ -133,12 +172,84 @@ public class RemoteConfigLongPollService {
     }
   }
 
+  /**
+   * Add the app to the last chunk if it fits, otherwise to a new chunk, which is polled at once if the long polling
+   * is started
+   *
+   * @param excludedChunk the chunk the app is moved out of, if any
+   */
+  private void assignLongPollChunk(String appId, LongPollChunk excludedChunk) {
+    synchronized (m_longPollChunks) {
+      if (!m_longPollChunks.isEmpty()) {
+        LongPollChunk lastChunk = m_longPollChunks.get(m_longPollChunks.size() - 1);
+        if (lastChunk != excludedChunk) {
+          List<String> appIds = Lists.newArrayList(lastChunk.m_appIds);
+          appIds.add(appId);
+          if (fitsInOneRequest(appIds)) {
+            lastChunk.m_appIds.add(appId);
+            return;
+          }
+        }
+      }
+      LongPollChunk chunk = new LongPollChunk();
+      chunk.m_appIds.add(appId);
+      m_longPollChunks.add(chunk);
+      if (m_longPollStarted.get()) {
+        startLongPolling(chunk);
+      }
+    }
+  }
+
+  /**
+   * Move the apps out of the chunk until it fits in one request again, e.g. after namespaces are submitted to its apps
+   *
+   * @return the apps in the chunk
+   */
+  private List<String> rebalanceLongPollChunk(LongPollChunk chunk) {
+    synchronized (m_longPollChunks) {
+      List<String> appIds = Lists.newArrayList(chunk.m_appIds);
+      List<String> movedAppIds = Lists.newArrayList();
+      while (appIds.size() > 1 && !fitsInOneRequest(appIds)) {
+        movedAppIds.add(0, appIds.remove(appIds.size() - 1));
+      }
+      for (String appId : movedAppIds) {
+        chunk.m_appIds.remove(appId);
+        assignLongPollChunk(appId, chunk);
+      }
+      return appIds;
+    }
+  }
+
+  /**
+   * A single app is always polled by itself, no matter how large its request is
+   */
+  private boolean fitsInOneRequest(List<String> appIds) {
+    if (appIds.size() <= 1) {
+      return true;
+    }
+    Map<String, Map<String, Long>> appNotifications = Maps.newLinkedHashMap();
+    Map<String, String> appSecrets = Maps.newHashMap();
+    for (String appId : appIds) {
+      appNotifications.put(appId, m_notifications.get(appId));
+      appSecrets.put(appId, m_configUtil.getAccessKeySecret(appId));
+    }
+    //the request line has only the path and the query, so any config service does for the estimation
+    String url = assembleAppsLongPollRefreshUrl(HEADER_SIZE_ESTIMATION_URI, m_configUtil.getCluster(),
+        m_configUtil.getDataCenter(), appNotifications);
+    int headerSize = url.length();
+    for (Map.Entry<String, String> header : Signature.buildHttpHeaders(url, appSecrets).entrySet()) {
+      headerSize += header.getKey().length() + header.getValue().length();
+    }
+    return headerSize <= m_configUtil.getLongPollingMaxHeaderSize();
+  }
+
   void stopLongPollingRefresh() {
     this.m_longPollingStopped.compareAndSet(false, true);
   }
 
-  private void doLongPollingRefresh(String appId, String cluster, String dataCenter, String secret) {
+  private void doLongPollingRefresh(LongPollChunk chunk, String cluster, String dataCenter) {
     final Random random = new Random();
+    SchedulePolicy longPollFailSchedulePolicyInSecond = new ExponentialSchedulePolicy(1, 120); //in second
     ServiceDTO lastServiceDto = null;
     while (!m_longPollingStopped.get() && !Thread.currentThread().isInterrupted()) {
       if (!m_longPollRateLimiter.tryAcquire(5, TimeUnit.SECONDS)) {
@@ -149,6 +260,9 @@ public class RemoteConfigLongPollService {
         }
       }
       Transaction transaction = Tracer.newTransaction("Apollo.ConfigService", "pollNotification");
+      List<String> appIds = rebalanceLongPollChunk(chunk);
+      //a single app is polled by the api of one app, so it works with the config services not supporting several apps
+      String singleAppId = appIds.size() == 1 ? appIds.get(0) : null;
       String url = null;
       try {
         if (lastServiceDto == null) {
@@ -156,19 +270,37 @@ public class RemoteConfigLongPollService {
           lastServiceDto = configServices.get(random.nextInt(configServices.size()));
         }
 
-        url =
-            assembleLongPollRefreshUrl(lastServiceDto.getHomepageUrl(), appId, cluster, dataCenter,
-                m_notifications);
+        HttpRequest request;
+        if (singleAppId != null) {
+          url = assembleLongPollRefreshUrl(lastServiceDto.getHomepageUrl(), singleAppId, cluster, dataCenter,
+              m_notifications.get(singleAppId));
+          request = new HttpRequest(url);
+          String secret = m_configUtil.getAccessKeySecret(singleAppId);
+          if (!StringUtils.isBlank(secret)) {
+            Map<String, String> headers = Signature.buildHttpHeaders(url, singleAppId, secret);
+            request.setHeaders(headers);
+          }
+        } else {
+          Map<String, Map<String, Long>> appNotifications = Maps.newLinkedHashMap();
+          for (String appId : appIds) {
+            appNotifications.put(appId, m_notifications.get(appId));
+          }
+          url = assembleAppsLongPollRefreshUrl(lastServiceDto.getHomepageUrl(), cluster, dataCenter,
+              appNotifications);
+          request = new HttpRequest(url);
+          Map<String, String> appSecrets = Maps.newHashMap();
+          for (String appId : appIds) {
+            appSecrets.put(appId, m_configUtil.getAccessKeySecret(appId));
+          }
+          Map<String, String> headers = Signature.buildHttpHeaders(url, appSecrets);
+          if (!headers.isEmpty()) {
+            request.setHeaders(headers);
+          }
+        }
+        request.setReadTimeout(LONG_POLLING_READ_TIMEOUT);
 
         logger.debug("Long polling from {}", url);
 
-        HttpRequest request = new HttpRequest(url);
-        request.setReadTimeout(LONG_POLLING_READ_TIMEOUT);
-        if (!StringUtils.isBlank(secret)) {
-          Map<String, String> headers = Signature.buildHttpHeaders(url, appId, secret);
-          request.setHeaders(headers);
-        }
-
         transaction.addData("Url", url);
 
         final HttpResponse<List<ApolloConfigNotification>> response =
@@ -176,10 +308,10 @@ public class RemoteConfigLongPollService {
 
         logger.debug("Long polling response: {}, url: {}", response.getStatusCode(), url);
         if (response.getStatusCode() == 200 && response.getBody() != null) {
-          updateNotifications(response.getBody());
-          updateRemoteNotifications(response.getBody());
+          updateNotifications(singleAppId, response.getBody());
+          updateRemoteNotifications(singleAppId, response.getBody());
           transaction.addData("Result", response.getBody().toString());
-          notify(lastServiceDto, response.getBody());
+          notify(lastServiceDto, singleAppId, response.getBody());
         }
 
         //try to load balance
@@ -187,17 +319,23 @@ public class RemoteConfigLongPollService {
           lastServiceDto = null;
         }
 
-        m_longPollFailSchedulePolicyInSecond.success();
+        longPollFailSchedulePolicyInSecond.success();
         transaction.addData("StatusCode", response.getStatusCode());
         transaction.setStatus(Transaction.SUCCESS);
       } catch (Throwable ex) {
         lastServiceDto = null;
         Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(ex));
         transaction.setStatus(ex);
-        long sleepTimeInSecond = m_longPollFailSchedulePolicyInSecond.fail();
+        long sleepTimeInSecond = longPollFailSchedulePolicyInSecond.fail();
+        // back off at least as long as the config service asked when it sheds the request
+        if (ex instanceof ApolloConfigStatusCodeException) {
+          sleepTimeInSecond = Math.max(sleepTimeInSecond,
+              ((ApolloConfigStatusCodeException) ex).getRetryAfterInSeconds());
+        }
         logger.warn(
             "Long polling failed, will retry in {} seconds. appId: {}, cluster: {}, namespaces: {}, long polling url: {}, reason: {}",
-            sleepTimeInSecond, appId, cluster, assembleNamespaces(), url, ExceptionUtil.getDetailMessage(ex));
+            sleepTimeInSecond, APP_ID_JOINER.join(appIds), cluster, assembleNamespaces(appIds), url,
+            ExceptionUtil.getDetailMessage(ex));
         try {
           TimeUnit.SECONDS.sleep(sleepTimeInSecond);
         } catch (InterruptedException ie) {
@@ -209,20 +347,24 @@ public class RemoteConfigLongPollService {
     }
   }
 
-  private void notify(ServiceDTO lastServiceDto, List<ApolloConfigNotification> notifications) {
+  private void notify(ServiceDTO lastServiceDto, String singleAppId, List<ApolloConfigNotification> notifications) {
     if (notifications == null || notifications.isEmpty()) {
       return;
     }
     for (ApolloConfigNotification notification : notifications) {
-      String namespaceName = notification.getNamespaceName();
+      String appId = resolveAppId(singleAppId, notification);
+      if (appId == null) {
+        continue;
+      }
+      String key = assembleKey(appId, notification.getNamespaceName());
       //create a new list to avoid ConcurrentModificationException
       List<RemoteConfigRepository> toBeNotified =
-          Lists.newArrayList(m_longPollNamespaces.get(namespaceName));
-      ApolloNotificationMessages originalMessages = m_remoteNotificationMessages.get(namespaceName);
+          Lists.newArrayList(m_longPollNamespaces.get(key));
+      ApolloNotificationMessages originalMessages = m_remoteNotificationMessages.get(key);
       ApolloNotificationMessages remoteMessages = originalMessages == null ? null : originalMessages.clone();
       //since .properties are filtered out by default, so we need to check if there is any listener for it
       toBeNotified.addAll(m_longPollNamespaces
-          .get(String.format("%s.%s", namespaceName, ConfigFileFormat.Properties.getValue())));
+          .get(String.format("%s.%s", key, ConfigFileFormat.Properties.getValue())));
       for (RemoteConfigRepository remoteConfigRepository : toBeNotified) {
         try {
           remoteConfigRepository.onLongPollNotified(lastServiceDto, remoteMessages);
@@ -233,27 +375,33 @@ public class RemoteConfigLongPollService {
     }
   }
 
-  private void updateNotifications(List<ApolloConfigNotification> deltaNotifications) {
+  private void updateNotifications(String singleAppId, List<ApolloConfigNotification> deltaNotifications) {
     for (ApolloConfigNotification notification : deltaNotifications) {
-      if (Strings.isNullOrEmpty(notification.getNamespaceName())) {
+      String appId = resolveAppId(singleAppId, notification);
+      if (Strings.isNullOrEmpty(notification.getNamespaceName()) || appId == null) {
+        continue;
+      }
+      Map<String, Long> notifications = m_notifications.get(appId);
+      if (notifications == null) {
         continue;
       }
       String namespaceName = notification.getNamespaceName();
-      if (m_notifications.containsKey(namespaceName)) {
-        m_notifications.put(namespaceName, notification.getNotificationId());
+      if (notifications.containsKey(namespaceName)) {
+        notifications.put(namespaceName, notification.getNotificationId());
       }
       //since .properties are filtered out by default, so we need to check if there is notification with .properties suffix
       String namespaceNameWithPropertiesSuffix =
           String.format("%s.%s", namespaceName, ConfigFileFormat.Properties.getValue());
-      if (m_notifications.containsKey(namespaceNameWithPropertiesSuffix)) {
-        m_notifications.put(namespaceNameWithPropertiesSuffix, notification.getNotificationId());
+      if (notifications.containsKey(namespaceNameWithPropertiesSuffix)) {
+        notifications.put(namespaceNameWithPropertiesSuffix, notification.getNotificationId());
       }
     }
   }
 
-  private void updateRemoteNotifications(List<ApolloConfigNotification> deltaNotifications) {
+  private void updateRemoteNotifications(String singleAppId, List<ApolloConfigNotification> deltaNotifications) {
     for (ApolloConfigNotification notification : deltaNotifications) {
-      if (Strings.isNullOrEmpty(notification.getNamespaceName())) {
+      String appId = resolveAppId(singleAppId, notification);
+      if (Strings.isNullOrEmpty(notification.getNamespaceName()) || appId == null) {
         continue;
       }
 
@@ -261,19 +409,34 @@ public class RemoteConfigLongPollService {
         continue;
       }
 
-      ApolloNotificationMessages localRemoteMessages =
-          m_remoteNotificationMessages.get(notification.getNamespaceName());
+      String key = assembleKey(appId, notification.getNamespaceName());
+      ApolloNotificationMessages localRemoteMessages = m_remoteNotificationMessages.get(key);
       if (localRemoteMessages == null) {
         localRemoteMessages = new ApolloNotificationMessages();
-        m_remoteNotificationMessages.put(notification.getNamespaceName(), localRemoteMessages);
+        m_remoteNotificationMessages.put(key, localRemoteMessages);
       }
 
       localRemoteMessages.mergeFrom(notification.getMessages());
     }
   }
 
-  private String assembleNamespaces() {
-    return STRING_JOINER.join(m_longPollNamespaces.keySet());
+  private String assembleNamespaces(List<String> appIds) {
+    Set<String> namespaces = Sets.newLinkedHashSet();
+    for (String appId : appIds) {
+      namespaces.addAll(m_notifications.get(appId).keySet());
+    }
+    return STRING_JOINER.join(namespaces);
+  }
+
+  /**
+   * The notifications of the api of one app are not marked with the app id
+   */
+  private static String resolveAppId(String singleAppId, ApolloConfigNotification notification) {
+    return notification.getAppId() != null ? notification.getAppId() : singleAppId;
+  }
+
+  private static String assembleKey(String appId, String namespace) {
+    return STRING_JOINER.join(appId, namespace);
   }
 
   String assembleLongPollRefreshUrl(String uri, String appId, String cluster, String dataCenter,
@@ -300,13 +463,54 @@ public class RemoteConfigLongPollService {
     return uri + "notifications/v2?" + params;
   }
 
+  String assembleAppsLongPollRefreshUrl(String uri, String cluster, String dataCenter,
+      Map<String, ? extends Map<String, Long>> appNotificationsMap) {
+    Map<String, List<ApolloConfigNotification>> appNotifications = Maps.newLinkedHashMap();
+    for (Map.Entry<String, ? extends Map<String, Long>> entry : appNotificationsMap.entrySet()) {
+      appNotifications.put(entry.getKey(), assembleNotificationList(entry.getValue()));
+    }
+
+    Map<String, String> queryParams = Maps.newHashMap();
+    queryParams.put("appIds", queryParamEscaper.escape(APP_ID_JOINER.join(appNotifications.keySet())));
+    queryParams.put("cluster", queryParamEscaper.escape(cluster));
+    queryParams.put("notifications", queryParamEscaper.escape(gson.toJson(appNotifications)));
+
+    if (!Strings.isNullOrEmpty(dataCenter)) {
+      queryParams.put("dataCenter", queryParamEscaper.escape(dataCenter));
+    }
+    String localIp = m_configUtil.getLocalIp();
+    if (!Strings.isNullOrEmpty(localIp)) {
+      queryParams.put("ip", queryParamEscaper.escape(localIp));
+    }
+
+    String params = MAP_JOINER.join(queryParams);
+    if (!uri.endsWith("/")) {
+      uri += "/";
+    }
+
+    return uri + "notifications/v2/apps?" + params;
+  }
+
   String assembleNotifications(Map<String, Long> notificationsMap) {
+    return gson.toJson(assembleNotificationList(notificationsMap));
+  }
+
+  private List<ApolloConfigNotification> assembleNotificationList(Map<String, Long> notificationsMap) {
     List<ApolloConfigNotification> notifications = Lists.newArrayList();
     for (Map.Entry<String, Long> entry : notificationsMap.entrySet()) {
       ApolloConfigNotification notification = new ApolloConfigNotification(entry.getKey(), entry.getValue());
       notifications.add(notification);
     }
-    return gson.toJson(notifications);
+    return notifications;
+  }
+
+  /**
+   * The apps polled by one request
+   */
+  private static class LongPollChunk {
+    //guarded by m_longPollChunks
+    private final Set<String> m_appIds = Sets.newLinkedHashSet();
+    private final AtomicBoolean m_started = new AtomicBoolean(false);
   }
 
   private List<ServiceDTO> getConfigServices() {
@@ -56,6 +56,8 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
   private final ConfigUtil m_configUtil;
   private final RemoteConfigLongPollService remoteConfigLongPollService;
   private volatile AtomicReference<ApolloConfig> m_configCache;
+  private volatile ConfigSnapshot m_configSnapshot;
+  private final String m_appId;
   private final String m_namespace;
   private final static ScheduledExecutorService m_executorService;
   private final AtomicReference<ServiceDTO> m_longPollServiceDto;
@@ -76,6 +78,17 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
    * @param namespace the namespace
    */
   public RemoteConfigRepository(String namespace) {
+    this(null, namespace);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param appId     the app of the namespace, null for the app of the current process
+   * @param namespace the namespace
+   */
+  public RemoteConfigRepository(String appId, String namespace) {
+    m_appId = appId;
     m_namespace = namespace;
     m_configCache = new AtomicReference<>();
     m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
@@ -99,7 +112,7 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     if (m_configCache.get() == null) {
       this.sync();
     }
-    return transformApolloConfigToProperties(m_configCache.get());
+    return m_configSnapshot;
   }
 
   @Override
@@ -139,8 +152,11 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
       //reference equals means HTTP 304
       if (previous != current) {
         logger.debug("Remote Config refreshed!");
+        //the snapshot is the only copy of the configurations kept, the cached config only keeps the release key
+        m_configSnapshot = transformApolloConfigToSnapshot(current);
+        current.setConfigurations(null);
         m_configCache.set(current);
-        this.fireRepositoryChange(m_namespace, this.getConfig());
+        this.fireRepositoryChange(m_namespace, m_configSnapshot);
       }
 
       if (current != null) {
@@ -157,10 +173,12 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     }
   }
 
-  private Properties transformApolloConfigToProperties(ApolloConfig apolloConfig) {
-    Properties result = propertiesFactory.getPropertiesInstance();
-    result.putAll(apolloConfig.getConfigurations());
-    return result;
+  private ConfigSnapshot transformApolloConfigToSnapshot(ApolloConfig apolloConfig) {
+    Map<String, String> configurations = apolloConfig.getConfigurations();
+    if (configurations == null) {
+      configurations = Collections.emptyMap();
+    }
+    return new ConfigSnapshot(apolloConfig.getReleaseKey(), configurations);
   }
 
   private ApolloConfig loadApolloConfig() {
@@ -171,10 +189,10 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
       } catch (InterruptedException e) {
       }
     }
-    String appId = m_configUtil.getAppId();
+    String appId = getAppId();
     String cluster = m_configUtil.getCluster();
     String dataCenter = m_configUtil.getDataCenter();
-    String secret = m_configUtil.getAccessKeySecret();
+    String secret = m_appId == null ? m_configUtil.getAccessKeySecret() : m_configUtil.getAccessKeySecret(m_appId);
     Tracer.logEvent("Apollo.Client.ConfigMeta", STRING_JOINER.join(appId, cluster, m_namespace));
     int maxRetries = m_configNeedForceRefresh.get() ? 2 : 1;
     long onErrorSleepTime = 0; // 0 means no sleep
@@ -216,6 +234,7 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
 
         Transaction transaction = Tracer.newTransaction("Apollo.ConfigService", "queryConfig");
         transaction.addData("Url", url);
+        long retryAfterInSeconds = -1;
         try {
 
           HttpResponse<ApolloConfig> response = m_httpUtil.doGet(request, ApolloConfig.class);
@@ -249,6 +268,7 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
           Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(statusCodeException));
           transaction.setStatus(statusCodeException);
           exception = statusCodeException;
+          retryAfterInSeconds = ex.getRetryAfterInSeconds();
         } catch (Throwable ex) {
           Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(ex));
           transaction.setStatus(ex);
@@ -260,6 +280,11 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
         // if force refresh, do normal sleep, if normal config load, do exponential sleep
         onErrorSleepTime = m_configNeedForceRefresh.get() ? m_configUtil.getOnErrorRetryInterval() :
             m_loadConfigFailSchedulePolicy.fail();
+        // back off at least as long as the config service asked when it sheds the request
+        if (retryAfterInSeconds > 0) {
+          onErrorSleepTime = Math.max(onErrorSleepTime,
+              m_configUtil.getOnErrorRetryIntervalTimeUnit().convert(retryAfterInSeconds, TimeUnit.SECONDS));
+        }
       }
 
     }
@@ -307,7 +332,11 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
   }
 
   private void scheduleLongPollingRefresh() {
-    remoteConfigLongPollService.submit(m_namespace, this);
+    remoteConfigLongPollService.submit(getAppId(), m_namespace, this);
+  }
+
+  private String getAppId() {
+    return m_appId == null ? m_configUtil.getAppId() : m_appId;
   }
 
   public void onLongPollNotified(ServiceDTO longPollNotifiedServiceDto, ApolloNotificationMessages remoteMessages) {
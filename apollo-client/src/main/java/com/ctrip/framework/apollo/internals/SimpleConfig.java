@@ -78,11 +78,10 @@ public class SimpleConfig extends AbstractConfig implements RepositoryChangeList
 
   @Override
   public synchronized void onRepositoryChange(String namespace, Properties newProperties) {
-    if (newProperties.equals(m_configProperties)) {
+    if (ConfigSnapshot.isSame(m_configProperties, newProperties)) {
       return;
     }
-    Properties newConfigProperties = propertiesFactory.getPropertiesInstance();
-    newConfigProperties.putAll(newProperties);
+    Properties newConfigProperties = ConfigSnapshot.of(newProperties);
 
     List<ConfigChange> changes = calcPropertyChanges(namespace, m_configProperties, newConfigProperties);
     Map<String, ConfigChange> changeMap = Maps.uniqueIndex(changes,
@@ -27,9 +27,18 @@ import com.ctrip.framework.apollo.util.ConfigUtil;
  */
 public class DefaultConfigFactory implements ConfigFactory {
   private static final Logger logger = LoggerFactory.getLogger(DefaultConfigFactory.class);
+  private final String m_appId;
   private ConfigUtil m_configUtil;
 
   public DefaultConfigFactory() {
+    this(null);
+  }
+
+  /**
+   * @param appId the app of the configs created, null for the app of the current process
+   */
+  public DefaultConfigFactory(String appId) {
+    m_appId = appId;
     m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
   }
 
@@ -68,20 +77,21 @@ public class DefaultConfigFactory implements ConfigFactory {
       logger.warn(
           "==== Apollo is in local mode! Won't pull configs from remote server for namespace {} ! ====",
           namespace);
-      return new LocalFileConfigRepository(namespace);
+      return new LocalFileConfigRepository(m_appId, namespace, null);
     }
-    return new LocalFileConfigRepository(namespace, createRemoteConfigRepository(namespace));
+    return new LocalFileConfigRepository(m_appId, namespace, createRemoteConfigRepository(namespace));
   }
 
   RemoteConfigRepository createRemoteConfigRepository(String namespace) {
-    return new RemoteConfigRepository(namespace);
+    return new RemoteConfigRepository(m_appId, namespace);
   }
 
   PropertiesCompatibleFileConfigRepository createPropertiesCompatibleFileConfigRepository(String namespace,
       ConfigFileFormat format) {
     String actualNamespaceName = trimNamespaceFormat(namespace, format);
-    PropertiesCompatibleConfigFile configFile = (PropertiesCompatibleConfigFile) ConfigService
-        .getConfigFile(actualNamespaceName, format);
+    PropertiesCompatibleConfigFile configFile = (PropertiesCompatibleConfigFile) (m_appId == null ?
+        ConfigService.getConfigFile(actualNamespaceName, format) :
+        ConfigService.forApp(m_appId).getConfigFile(actualNamespaceName, format));
 
     return new PropertiesCompatibleFileConfigRepository(configFile);
   }
@@ -0,0 +1,104 @@
+package com.ctrip.framework.apollo.spring.boot;
+
+import com.ctrip.framework.apollo.ConfigChangeListener;
+import com.ctrip.framework.apollo.model.ConfigChangeEvent;
+import com.ctrip.framework.apollo.spring.property.ConfigurationPropertiesRegistry;
+import com.ctrip.framework.apollo.spring.util.SpringInjector;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBindingPostProcessor;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Rebinds the {@code @ConfigurationProperties} beans whose prefixes cover the changed keys, each of them once per
+ * change event no matter how many of its keys are changed. The time spent on each bean is logged and traced as
+ * {@code Apollo.ConfigurationProperties.Rebind} transactions.
+ */
+public class AutoUpdateConfigurationPropertiesListener implements ConfigChangeListener {
+  private static final Logger logger = LoggerFactory.getLogger(AutoUpdateConfigurationPropertiesListener.class);
+
+  private final ConfigurableListableBeanFactory beanFactory;
+  private final ConfigurationPropertiesRegistry configurationPropertiesRegistry;
+  private volatile BeanPostProcessor configurationPropertiesBinder;
+
+  public AutoUpdateConfigurationPropertiesListener(ConfigurableListableBeanFactory beanFactory) {
+    this.beanFactory = beanFactory;
+    this.configurationPropertiesRegistry = SpringInjector.getInstance(ConfigurationPropertiesRegistry.class);
+  }
+
+  @Override
+  public void onChange(ConfigChangeEvent changeEvent) {
+    Set<String> keys = changeEvent.changedKeys();
+    if (CollectionUtils.isEmpty(keys)) {
+      return;
+    }
+
+    // 1. find the beans covering the changed keys
+    Set<String> beanNames = configurationPropertiesRegistry.getBeanNames(beanFactory, keys);
+    if (beanNames.isEmpty()) {
+      return;
+    }
+
+    BeanPostProcessor binder = getConfigurationPropertiesBinder();
+    if (binder == null) {
+      return;
+    }
+
+    // 2. rebind them in one pass, which is serialized with the changes of the other namespaces
+    synchronized (this) {
+      long start = System.nanoTime();
+      for (String beanName : beanNames) {
+        rebind(binder, beanName);
+      }
+      logger.info("Auto update apollo changed configuration properties of namespace {}, {} beans rebound in {} ms",
+          changeEvent.getNamespace(), beanNames.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+  }
+
+  private void rebind(BeanPostProcessor binder, String beanName) {
+    Transaction transaction = Tracer.newTransaction("Apollo.ConfigurationProperties.Rebind", beanName);
+    long start = System.nanoTime();
+    try {
+      binder.postProcessBeforeInitialization(getTargetObject(beanFactory.getBean(beanName)), beanName);
+      transaction.setStatus(Transaction.SUCCESS);
+
+      logger.info("Auto update apollo changed configuration properties successfully, bean: {}, cost: {} ms", beanName,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (Throwable ex) {
+      transaction.setStatus(ex);
+      Tracer.logError(ex);
+      logger.error("Auto update apollo changed configuration properties failed, bean: {}", beanName, ex);
+    } finally {
+      transaction.complete();
+    }
+  }
+
+  private Object getTargetObject(Object bean) throws Exception {
+    if (AopUtils.isAopProxy(bean) && bean instanceof Advised) {
+      return ((Advised) bean).getTargetSource().getTarget();
+    }
+    return bean;
+  }
+
+  private BeanPostProcessor getConfigurationPropertiesBinder() {
+    if (configurationPropertiesBinder == null) {
+      try {
+        configurationPropertiesBinder = beanFactory.getBean(ConfigurationPropertiesBindingPostProcessor.class);
+      } catch (NoSuchBeanDefinitionException ex) {
+        logger.warn("Auto update apollo changed configuration properties skipped, as no {} is found, "
+            + "please check whether @EnableConfigurationProperties is declared",
+            ConfigurationPropertiesBindingPostProcessor.class.getSimpleName());
+      }
+    }
+    return configurationPropertiesBinder;
+  }
+}
@@ -0,0 +1,75 @@
+package com.ctrip.framework.apollo.spring.boot;
+
+import com.ctrip.framework.apollo.spring.property.ConfigurationPropertiesRegistry;
+import com.ctrip.framework.apollo.spring.util.SpringInjector;
+import java.util.Map;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.StringUtils;
+
+/**
+ * Registers the singleton beans annotated with {@link ConfigurationProperties}, either on the bean class or on the
+ * {@code @Bean} method, to {@link ConfigurationPropertiesRegistry} by their prefixes.
+ */
+public class ConfigurationPropertiesProcessor implements BeanPostProcessor {
+  private final ConfigurableListableBeanFactory beanFactory;
+  private final ConfigurationPropertiesRegistry configurationPropertiesRegistry;
+
+  public ConfigurationPropertiesProcessor(ConfigurableListableBeanFactory beanFactory) {
+    this.beanFactory = beanFactory;
+    this.configurationPropertiesRegistry = SpringInjector.getInstance(ConfigurationPropertiesRegistry.class);
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+    // only the singletons are rebound, as the other scoped beans are created with the latest properties anyway
+    if (!beanFactory.containsBeanDefinition(beanName) || !beanFactory.isSingleton(beanName)) {
+      return bean;
+    }
+
+    String prefix = findPrefix(bean, beanFactory.getBeanDefinition(beanName));
+    if (prefix != null) {
+      configurationPropertiesRegistry.register(beanFactory, prefix, beanName);
+    }
+
+    return bean;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+    return bean;
+  }
+
+  /**
+   * The annotation on the @Bean method takes precedence over the one on the bean class, the same as Spring Boot
+   */
+  private String findPrefix(Object bean, BeanDefinition beanDefinition) {
+    if (beanDefinition instanceof AnnotatedBeanDefinition) {
+      MethodMetadata factoryMethodMetadata = ((AnnotatedBeanDefinition) beanDefinition).getFactoryMethodMetadata();
+      if (factoryMethodMetadata != null) {
+        Map<String, Object> attributes = factoryMethodMetadata
+            .getAnnotationAttributes(ConfigurationProperties.class.getName());
+        if (attributes != null) {
+          return prefixOf((String) attributes.get("prefix"), (String) attributes.get("value"));
+        }
+      }
+    }
+
+    ConfigurationProperties annotation = AnnotationUtils.findAnnotation(bean.getClass(), ConfigurationProperties.class);
+    if (annotation != null) {
+      return prefixOf(annotation.prefix(), annotation.value());
+    }
+
+    return null;
+  }
+
+  private String prefixOf(String prefix, String value) {
+    return StringUtils.hasText(prefix) ? prefix : (value == null ? "" : value);
+  }
+}
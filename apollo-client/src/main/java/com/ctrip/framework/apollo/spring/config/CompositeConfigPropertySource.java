@@ -0,0 +1,113 @@
+package com.ctrip.framework.apollo.spring.config;
+
+import com.ctrip.framework.apollo.internals.ConfigSnapshot;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Composite property source of the Apollo config property sources.
+ *
+ * <p>It keeps an index of the property names across all the configs, stamped by the versions of the configs, so that
+ * the property names and the property names with some prefix are not collected from every config on each call. The
+ * index is rebuilt once any of the configs changes. Containment checks are answered by the config property sources,
+ * each of which looks up the property names set of its config.
+ */
+public class CompositeConfigPropertySource extends CompositePropertySource {
+  private volatile PropertyNamesIndex index;
+
+  public CompositeConfigPropertySource(String name) {
+    super(name);
+  }
+
+  /**
+   * The property names are cached for each version of the configs, so the array returned should not be modified
+   */
+  @Override
+  public String[] getPropertyNames() {
+    return getIndex().names;
+  }
+
+  /**
+   * Get the property names with the prefix across all the configs.
+   *
+   * @param prefix the prefix of the property names
+   * @return the property names in alphabetical order
+   */
+  public String[] getPropertyNamesWithPrefix(String prefix) {
+    String[] sortedNames = getIndex().getSortedNames();
+    int from = Arrays.binarySearch(sortedNames, prefix);
+    if (from < 0) {
+      from = -from - 1;
+    }
+    int to = from;
+    while (to < sortedNames.length && sortedNames[to].startsWith(prefix)) {
+      to++;
+    }
+    return Arrays.copyOfRange(sortedNames, from, to);
+  }
+
+  private PropertyNamesIndex getIndex() {
+    Collection<PropertySource<?>> propertySources = getPropertySources();
+    Object[] stamps = new Object[propertySources.size()];
+    boolean stamped = true;
+    int i = 0;
+    for (PropertySource<?> propertySource : propertySources) {
+      if (propertySource instanceof ConfigPropertySource) {
+        Set<String> propertyNames = ((ConfigPropertySource) propertySource).getSource().getPropertyNames();
+        if (ConfigSnapshot.isSnapshotPropertyNames(propertyNames)) {
+          stamps[i] = propertyNames;
+        }
+      }
+      stamped &= stamps[i++] != null;
+    }
+
+    PropertyNamesIndex current = this.index;
+    if (stamped && current != null && current.isStampedBy(stamps)) {
+      return current;
+    }
+
+    //the configs might change while collecting the names, which only makes the index rebuilt once more next time
+    PropertyNamesIndex rebuilt = new PropertyNamesIndex(stamps, super.getPropertyNames());
+    if (stamped) {
+      this.index = rebuilt;
+    }
+    return rebuilt;
+  }
+
+  private static class PropertyNamesIndex {
+    private final Object[] stamps;
+    private final String[] names;
+    private volatile String[] sortedNames;
+
+    private PropertyNamesIndex(Object[] stamps, String[] names) {
+      this.stamps = stamps;
+      this.names = names;
+    }
+
+    private boolean isStampedBy(Object[] otherStamps) {
+      if (stamps.length != otherStamps.length) {
+        return false;
+      }
+      for (int i = 0; i < stamps.length; i++) {
+        if (stamps[i] != otherStamps[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    //only sorted when looked up by prefix
+    private String[] getSortedNames() {
+      String[] sorted = sortedNames;
+      if (sorted == null) {
+        sorted = names.clone();
+        Arrays.sort(sorted);
+        sortedNames = sorted;
+      }
+      return sorted;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package com.ctrip.framework.apollo.spring.config;
 
 import com.ctrip.framework.apollo.ConfigChangeListener;
+import com.ctrip.framework.apollo.internals.ConfigSnapshot;
 import java.util.Set;
 
 import org.springframework.core.env.EnumerablePropertySource;
@@ -15,17 +16,34 @@ import com.ctrip.framework.apollo.Config;
 public class ConfigPropertySource extends EnumerablePropertySource<Config> {
   private static final String[] EMPTY_ARRAY = new String[0];
 
+  //the property names array of the config version stamped by its property names set
+  private volatile CachedPropertyNames cachedPropertyNames;
+
   ConfigPropertySource(String name, Config source) {
     super(name, source);
   }
 
+  /**
+   * The property names are cached for each version of the config, so the array returned should not be modified
+   */
   @Override
   public String[] getPropertyNames() {
     Set<String> propertyNames = this.source.getPropertyNames();
-    if (propertyNames.isEmpty()) {
-      return EMPTY_ARRAY;
+    CachedPropertyNames cached = this.cachedPropertyNames;
+    if (cached != null && cached.stamp == propertyNames) {
+      return cached.names;
+    }
+
+    String[] names = propertyNames.isEmpty() ? EMPTY_ARRAY : propertyNames.toArray(new String[propertyNames.size()]);
+    if (ConfigSnapshot.isSnapshotPropertyNames(propertyNames)) {
+      this.cachedPropertyNames = new CachedPropertyNames(propertyNames, names);
     }
-    return propertyNames.toArray(new String[propertyNames.size()]);
+    return names;
+  }
+
+  @Override
+  public boolean containsProperty(String name) {
+    return this.source.getPropertyNames().contains(name);
   }
 
   @Override
@@ -36,4 +54,14 @@ public class ConfigPropertySource extends EnumerablePropertySource<Config> {
   public void addChangeListener(ConfigChangeListener listener) {
     this.source.addChangeListener(listener);
   }
+
+  private static class CachedPropertyNames {
+    private final Set<String> stamp;
+    private final String[] names;
+
+    private CachedPropertyNames(Set<String> stamp, String[] names) {
+      this.stamp = stamp;
+      this.names = names;
+    }
+  }
 }
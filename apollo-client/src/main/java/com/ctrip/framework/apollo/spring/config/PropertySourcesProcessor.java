@@ -1,6 +1,8 @@
 package com.ctrip.framework.apollo.spring.config;
 
 import com.ctrip.framework.apollo.build.ApolloInjector;
+import com.ctrip.framework.apollo.spring.boot.AutoUpdateConfigurationPropertiesListener;
+import com.ctrip.framework.apollo.spring.boot.ConfigurationPropertiesProcessor;
 import com.ctrip.framework.apollo.spring.property.AutoUpdateConfigChangeListener;
 import com.ctrip.framework.apollo.spring.util.SpringInjector;
 import com.ctrip.framework.apollo.util.ConfigUtil;
@@ -21,7 +23,6 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
-import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 
@@ -29,6 +30,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
+import org.springframework.util.ClassUtils;
 
 /**
  * Apollo Property Sources processor for Spring Annotation Based Application. <br /> <br />
@@ -43,6 +45,10 @@ import org.springframework.core.env.PropertySource;
 public class PropertySourcesProcessor implements BeanFactoryPostProcessor, EnvironmentAware, PriorityOrdered {
   private static final Multimap<Integer, String> NAMESPACE_NAMES = LinkedHashMultimap.create();
   private static final Set<BeanFactory> AUTO_UPDATE_INITIALIZED_BEAN_FACTORIES = Sets.newConcurrentHashSet();
+  // @ConfigurationProperties beans could only be rebound with Spring Boot
+  private static final boolean CONFIGURATION_PROPERTIES_BINDING_PRESENT = ClassUtils.isPresent(
+      "org.springframework.boot.context.properties.ConfigurationPropertiesBindingPostProcessor",
+      PropertySourcesProcessor.class.getClassLoader());
 
   private final ConfigPropertySourceFactory configPropertySourceFactory = SpringInjector
       .getInstance(ConfigPropertySourceFactory.class);
@@ -64,7 +70,8 @@ public class PropertySourcesProcessor implements BeanFactoryPostProcessor, Envir
       //already initialized
       return;
     }
-    CompositePropertySource composite = new CompositePropertySource(PropertySourcesConstants.APOLLO_PROPERTY_SOURCE_NAME);
+    CompositeConfigPropertySource composite = new CompositeConfigPropertySource(
+        PropertySourcesConstants.APOLLO_PROPERTY_SOURCE_NAME);
 
     //sort by order asc
     ImmutableSortedSet<Integer> orders = ImmutableSortedSet.copyOf(NAMESPACE_NAMES.keySet());
@@ -124,6 +131,26 @@ public class PropertySourcesProcessor implements BeanFactoryPostProcessor, Envir
     for (ConfigPropertySource configPropertySource : configPropertySources) {
       configPropertySource.addChangeListener(autoUpdateConfigChangeListener);
     }
+
+    if (CONFIGURATION_PROPERTIES_BINDING_PRESENT) {
+      initializeAutoUpdateConfigurationPropertiesFeature(beanFactory, configPropertySources);
+    }
+  }
+
+  /**
+   * Index the @ConfigurationProperties beans by their prefixes while they are created, so that only the ones covering
+   * the changed keys are rebound
+   */
+  private void initializeAutoUpdateConfigurationPropertiesFeature(ConfigurableListableBeanFactory beanFactory,
+      List<ConfigPropertySource> configPropertySources) {
+    beanFactory.addBeanPostProcessor(new ConfigurationPropertiesProcessor(beanFactory));
+
+    AutoUpdateConfigurationPropertiesListener autoUpdateConfigurationPropertiesListener =
+        new AutoUpdateConfigurationPropertiesListener(beanFactory);
+
+    for (ConfigPropertySource configPropertySource : configPropertySources) {
+      configPropertySource.addChangeListener(autoUpdateConfigurationPropertiesListener);
+    }
   }
 
   @Override
@@ -0,0 +1,81 @@
+package com.ctrip.framework.apollo.spring.property;
+
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.BeanFactory;
+
+/**
+ * Index of the singleton beans annotated with {@code @ConfigurationProperties}, by their prefixes, so that only the
+ * beans whose prefixes cover the changed keys are rebound.
+ *
+ * <p>The prefixes and keys are compared in a relaxed form, i.e. case insensitive and ignoring '-' and '_', so that
+ * {@code redis.cache-config} covers {@code redis.cacheConfig.expireSeconds}.
+ */
+public class ConfigurationPropertiesRegistry {
+  private final Map<BeanFactory, SetMultimap<String, String>> registry = Maps.newConcurrentMap();
+  private final Object LOCK = new Object();
+
+  public void register(BeanFactory beanFactory, String prefix, String beanName) {
+    if (!registry.containsKey(beanFactory)) {
+      synchronized (LOCK) {
+        if (!registry.containsKey(beanFactory)) {
+          registry.put(beanFactory, Multimaps.synchronizedSetMultimap(LinkedHashMultimap.<String, String>create()));
+        }
+      }
+    }
+
+    registry.get(beanFactory).put(relax(prefix), beanName);
+  }
+
+  /**
+   * Get the names of the beans whose prefixes cover any of the changed keys, i.e. the key is the prefix itself or a
+   * property or an element under the prefix.
+   *
+   * @return the bean names in registration order, each of which appears only once
+   */
+  public Set<String> getBeanNames(BeanFactory beanFactory, Collection<String> keys) {
+    Set<String> beanNames = Sets.newLinkedHashSet();
+    SetMultimap<String, String> beanFactoryPrefixes = registry.get(beanFactory);
+    if (beanFactoryPrefixes == null) {
+      return beanNames;
+    }
+
+    synchronized (beanFactoryPrefixes) {
+      if (beanFactoryPrefixes.isEmpty()) {
+        return beanNames;
+      }
+      for (String key : keys) {
+        // walk up from the key itself to the root, e.g. a.b[0].c -> a.b[0] -> a.b -> a -> ""
+        String candidate = relax(key);
+        while (true) {
+          beanNames.addAll(beanFactoryPrefixes.get(candidate));
+          if (candidate.isEmpty()) {
+            break;
+          }
+          int separator = Math.max(candidate.lastIndexOf('.'), candidate.lastIndexOf('['));
+          candidate = separator < 0 ? "" : candidate.substring(0, separator);
+        }
+      }
+    }
+
+    return beanNames;
+  }
+
+  private String relax(String name) {
+    StringBuilder relaxed = new StringBuilder(name.length());
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c != '-' && c != '_') {
+        relaxed.append(c);
+      }
+    }
+    return relaxed.toString().toLowerCase(Locale.ROOT);
+  }
+}
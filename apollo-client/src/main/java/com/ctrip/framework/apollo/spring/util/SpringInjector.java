@@ -2,6 +2,7 @@ package com.ctrip.framework.apollo.spring.util;
 
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
 import com.ctrip.framework.apollo.spring.config.ConfigPropertySourceFactory;
+import com.ctrip.framework.apollo.spring.property.ConfigurationPropertiesRegistry;
 import com.ctrip.framework.apollo.spring.property.PlaceholderHelper;
 import com.ctrip.framework.apollo.spring.property.SpringValueRegistry;
 import com.ctrip.framework.apollo.tracer.Tracer;
@@ -48,6 +49,7 @@ public class SpringInjector {
       bind(PlaceholderHelper.class).in(Singleton.class);
       bind(ConfigPropertySourceFactory.class).in(Singleton.class);
       bind(SpringValueRegistry.class).in(Singleton.class);
+      bind(ConfigurationPropertiesRegistry.class).in(Singleton.class);
     }
   }
 }
@@ -4,6 +4,7 @@ import static com.ctrip.framework.apollo.util.factory.PropertiesFactory.APOLLO_P
 
 import com.google.common.util.concurrent.RateLimiter;
 import java.io.File;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -37,6 +38,8 @@ public class ConfigUtil {
   private long configCacheExpireTime = 1;//1 minute
   private TimeUnit configCacheExpireTimeUnit = TimeUnit.MINUTES;//1 minute
   private long longPollingInitialDelayInMills = 2000;//2 seconds
+  private long configServicesWatchMinIntervalInMills = 5000;//5 seconds
+  private int longPollingMaxHeaderSize = 8 * 1024;//8k, below the default 10k limit of the config service
   private boolean autoUpdateInjectedSpringProperties = true;
   private final RateLimiter warnLogRateLimiter;
   private boolean propertiesOrdered = false;
@@ -50,6 +53,8 @@ public class ConfigUtil {
     initQPS();
     initMaxConfigCacheSize();
     initLongPollingInitialDelayInMills();
+    initConfigServicesWatchMinIntervalInMills();
+    initLongPollingMaxHeaderSize();
     initAutoUpdateInjectedSpringProperties();
     initPropertiesOrdered();
   }
@@ -80,6 +85,24 @@ public class ConfigUtil {
     return Foundation.app().getAccessKeySecret();
   }
 
+  /**
+   * Get the access key secret for the application, which is configured by apollo.accesskey.{appId}.secret in system
+   * property or app.properties if it's not the current application.
+   *
+   * @return the access key secret, null if there is no such secret.
+   */
+  public String getAccessKeySecret(String appId) {
+    if (Objects.equals(appId, getAppId())) {
+      return getAccessKeySecret();
+    }
+    String key = String.format("apollo.accesskey.%s.secret", appId);
+    String secret = System.getProperty(key);
+    if (Strings.isNullOrEmpty(secret)) {
+      secret = Foundation.app().getProperty(key, null);
+    }
+    return secret;
+  }
+
   /**
    * Get the data center info for the current application.
    *
@@ -130,6 +153,13 @@ public class ConfigUtil {
     return MetaDomainConsts.getDomain(getApolloEnv());
   }
 
+  /**
+   * @return the meta server addresses configured, comma separated if there are multiple ones
+   */
+  public String getMetaServerAddresses() {
+    return MetaDomainConsts.getMetaServerAddress(getApolloEnv());
+  }
+
   private void initConnectTimeout() {
     String customizedConnectTimeout = System.getProperty("apollo.connectTimeout");
     if (!Strings.isNullOrEmpty(customizedConnectTimeout)) {
@@ -216,14 +246,18 @@ public class ConfigUtil {
   }
 
   public String getDefaultLocalCacheDir() {
+    return getDefaultLocalCacheDir(getAppId());
+  }
+
+  public String getDefaultLocalCacheDir(String appId) {
     String cacheRoot = getCustomizedCacheRoot();
 
     if (!Strings.isNullOrEmpty(cacheRoot)) {
-      return cacheRoot + File.separator + getAppId();
+      return cacheRoot + File.separator + appId;
     }
 
     cacheRoot = isOSWindows() ? "C:\\opt\\data\\%s" : "/opt/data/%s";
-    return String.format(cacheRoot, getAppId());
+    return String.format(cacheRoot, appId);
   }
 
   private String getCustomizedCacheRoot() {
@@ -302,6 +336,45 @@ public class ConfigUtil {
     return longPollingInitialDelayInMills;
   }
 
+  private void initConfigServicesWatchMinIntervalInMills() {
+    String customizedWatchMinInterval = System.getProperty("apollo.configServicesWatchMinIntervalInMills");
+    if (!Strings.isNullOrEmpty(customizedWatchMinInterval)) {
+      try {
+        configServicesWatchMinIntervalInMills = Long.parseLong(customizedWatchMinInterval);
+      } catch (Throwable ex) {
+        logger.error("Config for apollo.configServicesWatchMinIntervalInMills is invalid: {}",
+            customizedWatchMinInterval);
+      }
+    }
+  }
+
+  /**
+   * The minimum interval between two watches of the config services, so that a meta server responding right away,
+   * e.g. with a version unknown to it, is not polled in a tight loop
+   */
+  public long getConfigServicesWatchMinIntervalInMills() {
+    return configServicesWatchMinIntervalInMills;
+  }
+
+  private void initLongPollingMaxHeaderSize() {
+    String customizedLongPollingMaxHeaderSize = System.getProperty("apollo.longPollingMaxHeaderSize");
+    if (!Strings.isNullOrEmpty(customizedLongPollingMaxHeaderSize)) {
+      try {
+        longPollingMaxHeaderSize = Integer.parseInt(customizedLongPollingMaxHeaderSize);
+      } catch (Throwable ex) {
+        logger.error("Config for apollo.longPollingMaxHeaderSize is invalid: {}", customizedLongPollingMaxHeaderSize);
+      }
+    }
+  }
+
+  /**
+   * The max size of the url and the signatures of a long polling request, the apps are polled in chunks by several
+   * requests if they don't fit in one
+   */
+  public int getLongPollingMaxHeaderSize() {
+    return longPollingMaxHeaderSize;
+  }
+
   private void initAutoUpdateInjectedSpringProperties() {
     // 1. Get from System Property
     String enableAutoUpdate = System.getProperty("apollo.autoUpdateInjectedSpringProperties");
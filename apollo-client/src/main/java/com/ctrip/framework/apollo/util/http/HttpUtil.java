@@ -20,6 +20,7 @@ import java.util.Map;
  * @author Jason Song(song_s@ctrip.com)
  */
 public class HttpUtil {
+  private static final String RETRY_AFTER_HEADER = "Retry-After";
   private ConfigUtil m_configUtil;
   private Gson gson;
 
@@ -129,7 +130,8 @@ public class HttpUtil {
           throw ex;
         }
         // for status codes like 404, IOException is expected when calling conn.getInputStream()
-        throw new ApolloConfigStatusCodeException(statusCode, ex);
+        throw new ApolloConfigStatusCodeException(statusCode, ex,
+            parseRetryAfter(conn.getHeaderField(RETRY_AFTER_HEADER)));
       }
 
       if (statusCode == 200) {
@@ -165,4 +167,17 @@ public class HttpUtil {
         String.format("Get operation failed for %s", httpRequest.getUrl()));
   }
 
+  /**
+   * Only the delay-seconds form of Retry-After is sent by the config service
+   */
+  private long parseRetryAfter(String retryAfter) {
+    if (retryAfter == null) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(retryAfter.trim());
+    } catch (NumberFormatException ex) {
+      return -1;
+    }
+  }
 }
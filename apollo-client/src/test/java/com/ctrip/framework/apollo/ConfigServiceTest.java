@@ -1,6 +1,7 @@
 package com.ctrip.framework.apollo;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import com.ctrip.framework.apollo.enums.ConfigSourceType;
 import java.util.Set;
@@ -56,6 +57,19 @@ public class ConfigServiceTest {
         config.getProperty(someKey, null));
   }
 
+  @Test
+  public void testForApp() throws Exception {
+    ConfigService.setConfigFactory(new MockConfigFactory());
+
+    AppConfigService appConfigService = ConfigService.forApp(someAppId);
+    AppConfigService anotherAppConfigService = ConfigService.forApp("anotherAppId");
+
+    assertEquals(someAppId, appConfigService.getAppId());
+    assertSame(ConfigService.getAppConfig(), appConfigService.getAppConfig());
+    assertEquals("anotherAppId", anotherAppConfigService.getAppId());
+    assertSame(anotherAppConfigService, ConfigService.forApp("anotherAppId"));
+  }
+
   @Test
   public void testMockConfigFactory() throws Exception {
     String someNamespace = "mock";
@@ -49,6 +49,7 @@ import com.google.common.util.concurrent.SettableFuture;
 public class ConfigIntegrationTest extends BaseIntegrationTest {
 
   private String someReleaseKey;
+  private String anotherReleaseKey;
   private File configDir;
   private String defaultNamespace;
   private String someOtherNamespace;
@@ -61,6 +62,7 @@ public class ConfigIntegrationTest extends BaseIntegrationTest {
     defaultNamespace = ConfigConsts.NAMESPACE_APPLICATION;
     someOtherNamespace = "someOtherNamespace";
     someReleaseKey = "1";
+    anotherReleaseKey = "2";
     configDir = new File(ClassLoaderUtil.getClassPath() + "config-cache");
     if (configDir.exists()) {
       configDir.delete();
@@ -323,6 +325,7 @@ public class ConfigIntegrationTest extends BaseIntegrationTest {
     });
 
     apolloConfig.getConfigurations().put(someKey, anotherValue);
+    apolloConfig.setReleaseKey(anotherReleaseKey);
 
     refreshFinished.get(someRefreshInterval * 5, someRefreshTimeUnit);
 
@@ -365,6 +368,7 @@ public class ConfigIntegrationTest extends BaseIntegrationTest {
     });
 
     apolloConfig.getConfigurations().put(someKey, anotherValue);
+    apolloConfig.setReleaseKey(anotherReleaseKey);
 
     longPollFinished.get(pollTimeoutInMS * 20, TimeUnit.MILLISECONDS);
 
@@ -407,6 +411,7 @@ public class ConfigIntegrationTest extends BaseIntegrationTest {
     });
 
     apolloConfig.getConfigurations().put(someKey, anotherValue);
+    apolloConfig.setReleaseKey(anotherReleaseKey);
 
     longPollFinished.get(5000, TimeUnit.MILLISECONDS);
 
@@ -460,6 +465,7 @@ public class ConfigIntegrationTest extends BaseIntegrationTest {
     });
 
     apolloConfig.getConfigurations().put(someKey, anotherValue);
+    apolloConfig.setReleaseKey(anotherReleaseKey);
 
     longPollFinished.get(5000, TimeUnit.MILLISECONDS);
     someOtherNamespacelongPollFinished.get(5000, TimeUnit.MILLISECONDS);
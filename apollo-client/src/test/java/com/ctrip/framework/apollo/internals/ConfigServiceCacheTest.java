@@ -0,0 +1,84 @@
+package com.ctrip.framework.apollo.internals;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ctrip.framework.apollo.core.dto.ServiceDTO;
+import com.ctrip.framework.apollo.core.enums.Env;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import java.io.File;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConfigServiceCacheTest {
+  private File someBaseDir;
+  private ConfigUtil configUtil;
+  private String someMetaServerAddresses;
+  private String someMetaServer;
+
+  @Before
+  public void setUp() throws Exception {
+    someBaseDir = Files.createTempDir();
+    configUtil = mock(ConfigUtil.class);
+    when(configUtil.getDefaultLocalCacheDir()).thenReturn(someBaseDir.getAbsolutePath());
+    when(configUtil.getApolloEnv()).thenReturn(Env.DEV);
+
+    someMetaServer = "http://someMetaServer";
+    someMetaServerAddresses = someMetaServer + ",http://anotherMetaServer";
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    recursiveDelete(someBaseDir);
+  }
+
+  @Test
+  public void testPersistAndLoad() throws Exception {
+    new ConfigServiceCache(configUtil).persist(new ConfigServiceCache.Snapshot(someMetaServerAddresses,
+        someMetaServer, Lists.newArrayList(someService("http://someConfigService"))));
+
+    ConfigServiceCache.Snapshot snapshot = new ConfigServiceCache(configUtil).load(someMetaServerAddresses);
+
+    assertEquals(someMetaServer, snapshot.getMetaServer());
+    List<ServiceDTO> configServices = snapshot.getConfigServices();
+    assertEquals(1, configServices.size());
+    assertEquals("http://someConfigService", configServices.get(0).getHomepageUrl());
+  }
+
+  @Test
+  public void testLoadWithMetaServerAddressesChanged() throws Exception {
+    ConfigServiceCache configServiceCache = new ConfigServiceCache(configUtil);
+    configServiceCache.persist(new ConfigServiceCache.Snapshot(someMetaServerAddresses, someMetaServer,
+        Lists.newArrayList(someService("http://someConfigService"))));
+
+    assertNull(configServiceCache.load("http://yetAnotherMetaServer"));
+  }
+
+  @Test
+  public void testLoadWithoutCache() throws Exception {
+    assertNull(new ConfigServiceCache(configUtil).load(someMetaServerAddresses));
+  }
+
+  private ServiceDTO someService(String homepageUrl) {
+    ServiceDTO serviceDTO = new ServiceDTO();
+    serviceDTO.setHomepageUrl(homepageUrl);
+    serviceDTO.setInstanceId(homepageUrl);
+    return serviceDTO;
+  }
+
+  private void recursiveDelete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        recursiveDelete(child);
+      }
+    }
+    file.delete();
+  }
+}
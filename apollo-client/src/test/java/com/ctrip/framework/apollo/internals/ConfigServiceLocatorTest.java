@@ -1,17 +1,37 @@
 package com.ctrip.framework.apollo.internals;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.ctrip.framework.apollo.build.MockInjector;
 import com.ctrip.framework.apollo.core.dto.ServiceDTO;
+import com.ctrip.framework.apollo.core.dto.ServiceListDTO;
+import com.ctrip.framework.apollo.exceptions.ApolloConfigStatusCodeException;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.ctrip.framework.apollo.util.http.HttpRequest;
+import com.ctrip.framework.apollo.util.http.HttpResponse;
+import com.ctrip.framework.apollo.util.http.HttpUtil;
+import com.google.common.collect.Lists;
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class ConfigServiceLocatorTest {
 
   @After
   public void tearDown() throws Exception {
     System.clearProperty("apollo.configService");
+    MockInjector.reset();
   }
 
   @Test
@@ -30,4 +50,78 @@ public class ConfigServiceLocatorTest {
     assertEquals(someConfigServiceUrl.trim(), result.get(0).getHomepageUrl());
     assertEquals(anotherConfigServiceUrl.trim(), result.get(1).getHomepageUrl());
   }
+
+  @Test
+  public void testWatchConfigServices() throws Exception {
+    String someMetaServer = "http://someMetaServer";
+    long someVersion = 1;
+    ServiceDTO someConfigService = someConfigService("http://someConfigService");
+    ServiceDTO anotherConfigService = someConfigService("http://anotherConfigService");
+
+    ConfigUtil configUtil = mock(ConfigUtil.class);
+    when(configUtil.getMetaServerDomainName()).thenReturn(someMetaServer);
+    when(configUtil.getAppId()).thenReturn("someAppId");
+    when(configUtil.getRefreshInterval()).thenReturn(5);
+    when(configUtil.getRefreshIntervalTimeUnit()).thenReturn(TimeUnit.MINUTES);
+    HttpUtil httpUtil = mock(HttpUtil.class);
+    when(httpUtil.<List<ServiceDTO>>doGet(any(HttpRequest.class), any(Type.class)))
+        .thenReturn(new HttpResponse<List<ServiceDTO>>(200, Lists.newArrayList(someConfigService)));
+    when(httpUtil.doGet(any(HttpRequest.class), eq(ServiceListDTO.class)))
+        .thenReturn(new HttpResponse<>(200, new ServiceListDTO(someVersion, Lists.newArrayList(anotherConfigService))))
+        .thenThrow(new ApolloConfigStatusCodeException(404, "Not Found"));
+    MockInjector.setInstance(ConfigUtil.class, configUtil);
+    MockInjector.setInstance(HttpUtil.class, httpUtil);
+
+    ConfigServiceLocator configServiceLocator = new ConfigServiceLocator();
+
+    ArgumentCaptor<HttpRequest> watchRequests = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(httpUtil, timeout(1000).times(2)).doGet(watchRequests.capture(), eq(ServiceListDTO.class));
+    assertEquals(anotherConfigService.getHomepageUrl(),
+        configServiceLocator.getConfigServices().get(0).getHomepageUrl());
+
+    String firstWatchUrl = watchRequests.getAllValues().get(0).getUrl();
+    String secondWatchUrl = watchRequests.getAllValues().get(1).getUrl();
+    assertTrue(firstWatchUrl.startsWith(someMetaServer + "/services/config/watch?"));
+    assertTrue(firstWatchUrl.contains("version=-1"));
+    assertTrue(secondWatchUrl.contains("version=" + someVersion));
+
+    //not watching any more after the meta server responds 404
+    TimeUnit.MILLISECONDS.sleep(100);
+    verify(httpUtil, times(2)).doGet(any(HttpRequest.class), eq(ServiceListDTO.class));
+  }
+
+  @Test
+  public void testWatchConfigServicesNoMoreOftenThanMinInterval() throws Exception {
+    long someMinIntervalInMills = 1000;
+    ServiceDTO someConfigService = someConfigService("http://someConfigService");
+
+    ConfigUtil configUtil = mock(ConfigUtil.class);
+    when(configUtil.getMetaServerDomainName()).thenReturn("http://someMetaServer");
+    when(configUtil.getAppId()).thenReturn("someAppId");
+    when(configUtil.getConfigServicesWatchMinIntervalInMills()).thenReturn(someMinIntervalInMills);
+    HttpUtil httpUtil = mock(HttpUtil.class);
+    when(httpUtil.<List<ServiceDTO>>doGet(any(HttpRequest.class), any(Type.class)))
+        .thenReturn(new HttpResponse<List<ServiceDTO>>(200, Lists.newArrayList(someConfigService)));
+    //e.g. the meta servers behind a load balancer answer right away every time
+    when(httpUtil.doGet(any(HttpRequest.class), eq(ServiceListDTO.class)))
+        .thenReturn(new HttpResponse<>(200, new ServiceListDTO(1, Lists.newArrayList(someConfigService))));
+    MockInjector.setInstance(ConfigUtil.class, configUtil);
+    MockInjector.setInstance(HttpUtil.class, httpUtil);
+
+    new ConfigServiceLocator();
+
+    verify(httpUtil, timeout(200).times(1)).doGet(any(HttpRequest.class),
+        eq(ServiceListDTO.class));
+    TimeUnit.MILLISECONDS.sleep(300);
+    verify(httpUtil, times(1)).doGet(any(HttpRequest.class), eq(ServiceListDTO.class));
+    verify(httpUtil, timeout(someMinIntervalInMills * 2).times(2)).doGet(any(HttpRequest.class),
+        eq(ServiceListDTO.class));
+  }
+
+  private ServiceDTO someConfigService(String homepageUrl) {
+    ServiceDTO serviceDTO = new ServiceDTO();
+    serviceDTO.setHomepageUrl(homepageUrl);
+    serviceDTO.setInstanceId(homepageUrl);
+    return serviceDTO;
+  }
 }
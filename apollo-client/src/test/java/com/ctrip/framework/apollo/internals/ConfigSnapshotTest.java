@@ -0,0 +1,158 @@
+package com.ctrip.framework.apollo.internals;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.Test;
+
+public class ConfigSnapshotTest {
+
+  @Test
+  public void testKeepLoadingOrder() throws Exception {
+    Map<String, String> configurations = ImmutableMap.of("someKey", "someValue", "anotherKey", "anotherValue",
+        "yetAnotherKey", "yetAnotherValue");
+
+    ConfigSnapshot snapshot = new ConfigSnapshot("someReleaseKey", configurations);
+
+    assertEquals("someReleaseKey", snapshot.getReleaseKey());
+    assertEquals(Lists.newArrayList(configurations.keySet()), Lists.newArrayList(snapshot.stringPropertyNames()));
+    assertEquals(Lists.<Object>newArrayList(configurations.keySet()), Lists.newArrayList(snapshot.keySet()));
+    assertTrue(snapshot.stringPropertyNames().contains("anotherKey"));
+    assertFalse(snapshot.stringPropertyNames().contains("someMissingKey"));
+    assertEquals("anotherValue", snapshot.getProperty("anotherKey"));
+    assertEquals(configurations, snapshot);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSetProperty() throws Exception {
+    ConfigSnapshot snapshot = new ConfigSnapshot("someReleaseKey", ImmutableMap.of("someKey", "someValue"));
+
+    snapshot.setProperty("someKey", "anotherValue");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testRemovePropertyName() throws Exception {
+    ConfigSnapshot snapshot = new ConfigSnapshot("someReleaseKey", ImmutableMap.of("someKey", "someValue"));
+
+    snapshot.stringPropertyNames().remove("someKey");
+  }
+
+  @Test
+  public void testMapMutators() throws Exception {
+    final ConfigSnapshot snapshot = new ConfigSnapshot("someReleaseKey", ImmutableMap.of("someKey", "someValue"));
+    List<Runnable> mutators = Lists.<Runnable>newArrayList(
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.putIfAbsent("anotherKey", "anotherValue");
+          }
+        },
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.remove("someKey", "someValue");
+          }
+        },
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.replace("someKey", "anotherValue");
+          }
+        },
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.replace("someKey", "someValue", "anotherValue");
+          }
+        },
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.replaceAll(null);
+          }
+        },
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.computeIfAbsent("anotherKey", null);
+          }
+        },
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.computeIfPresent("someKey", null);
+          }
+        },
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.compute("someKey", null);
+          }
+        },
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.merge("someKey", "anotherValue", null);
+          }
+        },
+        new Runnable() {
+          @Override
+          public void run() {
+            snapshot.load(new StringReader("someKey=anotherValue"));
+          }
+        });
+
+    for (Runnable mutator : mutators) {
+      try {
+        mutator.run();
+        fail("Config snapshot should be immutable");
+      } catch (UnsupportedOperationException ex) {
+        //expected
+      }
+    }
+    assertEquals(ImmutableMap.of("someKey", "someValue"), snapshot);
+  }
+
+  @Test
+  public void testOf() throws Exception {
+    Properties someProperties = new Properties();
+    someProperties.setProperty("someKey", "someValue");
+
+    ConfigSnapshot snapshot = ConfigSnapshot.of(someProperties);
+
+    assertNull(snapshot.getReleaseKey());
+    assertEquals(someProperties, snapshot);
+    assertSame(snapshot, ConfigSnapshot.of(snapshot));
+    assertNull(ConfigSnapshot.of(null));
+  }
+
+  @Test
+  public void testIsSame() throws Exception {
+    Map<String, String> configurations = ImmutableMap.of("someKey", "someValue");
+    Map<String, String> anotherConfigurations = ImmutableMap.of("someKey", "anotherValue");
+
+    ConfigSnapshot someSnapshot = new ConfigSnapshot("someReleaseKey", configurations);
+    //same release means same properties, so they are not compared
+    assertTrue(ConfigSnapshot.isSame(someSnapshot, new ConfigSnapshot("someReleaseKey", anotherConfigurations)));
+    assertFalse(ConfigSnapshot.isSame(someSnapshot, new ConfigSnapshot("anotherReleaseKey", configurations)));
+
+    //properties are compared when the release is unknown
+    assertTrue(ConfigSnapshot.isSame(someSnapshot, new ConfigSnapshot(null, configurations)));
+    assertFalse(ConfigSnapshot.isSame(someSnapshot, new ConfigSnapshot(null, anotherConfigurations)));
+
+    Properties someProperties = new Properties();
+    someProperties.setProperty("someKey", "someValue");
+    assertTrue(ConfigSnapshot.isSame(someProperties, someSnapshot));
+    assertFalse(ConfigSnapshot.isSame(null, someSnapshot));
+  }
+}
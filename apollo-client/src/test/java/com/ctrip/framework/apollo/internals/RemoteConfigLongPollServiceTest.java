@@ -21,14 +21,22 @@ import com.ctrip.framework.apollo.util.ConfigUtil;
 import com.ctrip.framework.apollo.util.http.HttpRequest;
 import com.ctrip.framework.apollo.util.http.HttpResponse;
 import com.ctrip.framework.apollo.util.http.HttpUtil;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.SettableFuture;
 import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.servlet.http.HttpServletResponse;
 import org.junit.Before;
 import org.junit.Test;
@@ -58,6 +66,7 @@ public class RemoteConfigLongPollServiceTest {
   private static String someAppId;
   private static String someCluster;
   private static String someSecret;
+  private static final Pattern APP_IDS_PATTERN = Pattern.compile("[?&]appIds?=([^&]*)");
 
   @Before
   public void setUp() throws Exception {
@@ -471,6 +480,151 @@ public class RemoteConfigLongPollServiceTest {
     assertEquals(anotherNotificationId, captured.get(anotherKey).longValue());
   }
 
+  @Test
+  public void testSubmitLongPollNamespacesOfApps() throws Exception {
+    RemoteConfigRepository someRepository = mock(RemoteConfigRepository.class);
+    RemoteConfigRepository anotherRepository = mock(RemoteConfigRepository.class);
+    final String someNamespace = "someNamespace";
+    final String anotherAppId = "anotherAppId";
+    someSecret = "someSecret";
+
+    ApolloConfigNotification someNotification = new ApolloConfigNotification(someNamespace, 1);
+    someNotification.setAppId(anotherAppId);
+    someNotification.addMessage("someKey", 1);
+
+    when(pollResponse.getStatusCode()).thenReturn(HttpServletResponse.SC_OK);
+    when(pollResponse.getBody()).thenReturn(Lists.newArrayList(someNotification));
+
+    final SettableFuture<HttpRequest> pollRequest = SettableFuture.create();
+    doAnswer(new Answer<HttpResponse<List<ApolloConfigNotification>>>() {
+      @Override
+      public HttpResponse<List<ApolloConfigNotification>> answer(InvocationOnMock invocation)
+          throws Throwable {
+        try {
+          TimeUnit.MILLISECONDS.sleep(50);
+        } catch (InterruptedException e) {
+        }
+        HttpRequest request = invocation.getArgumentAt(0, HttpRequest.class);
+        //wait until both apps are submitted
+        if (request.getUrl().contains("/notifications/v2/apps?")) {
+          pollRequest.set(request);
+        }
+        return pollResponse;
+      }
+    }).when(httpUtil).doGet(any(HttpRequest.class), eq(responseType));
+
+    final SettableFuture<ApolloNotificationMessages> onAnotherRepositoryNotified = SettableFuture.create();
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        onAnotherRepositoryNotified.set(invocation.getArgumentAt(1, ApolloNotificationMessages.class));
+        return null;
+      }
+    }).when(anotherRepository).onLongPollNotified(any(ServiceDTO.class), any(ApolloNotificationMessages.class));
+
+    remoteConfigLongPollService.submit(someAppId, someNamespace, someRepository);
+    remoteConfigLongPollService.submit(anotherAppId, someNamespace, anotherRepository);
+
+    HttpRequest request = pollRequest.get(5000, TimeUnit.MILLISECONDS);
+    ApolloNotificationMessages messages = onAnotherRepositoryNotified.get(5000, TimeUnit.MILLISECONDS);
+
+    remoteConfigLongPollService.stopLongPollingRefresh();
+
+    assertTrue(request.getUrl().contains("cluster=" + someCluster));
+    assertTrue(request.getUrl().contains(someAppId));
+    assertTrue(request.getUrl().contains(anotherAppId));
+    //only some app has the secret
+    assertTrue(request.getHeaders().get(Signature.HTTP_HEADER_AUTHORIZATION)
+        .startsWith("Apollo " + someAppId + ":"));
+    assertEquals(1, messages.get("someKey").longValue());
+    verify(someRepository, never()).onLongPollNotified(any(ServiceDTO.class), any(ApolloNotificationMessages.class));
+  }
+
+  @Test
+  public void testSubmitLongPollNamespacesOfAppsInChunks() throws Exception {
+    //the default header size limit of the config service
+    int maxHttpHeaderSize = 10240;
+    final String someNamespace = "someNamespace";
+    final List<String> appIds = Lists.newArrayList();
+    for (int i = 0; i < 200; i++) {
+      String appId = String.format("someAppId-%03d", i);
+      appIds.add(appId);
+      System.setProperty(String.format("apollo.accesskey.%s.secret", appId), "someSecret-" + i);
+    }
+
+    when(pollResponse.getStatusCode()).thenReturn(HttpServletResponse.SC_NOT_MODIFIED);
+
+    final List<HttpRequest> pollRequests = Collections.synchronizedList(Lists.<HttpRequest>newArrayList());
+    final Set<String> polledAppIds = Sets.newConcurrentHashSet();
+    final SettableFuture<Boolean> allAppsPolled = SettableFuture.create();
+    doAnswer(new Answer<HttpResponse<List<ApolloConfigNotification>>>() {
+      @Override
+      public HttpResponse<List<ApolloConfigNotification>> answer(InvocationOnMock invocation)
+          throws Throwable {
+        try {
+          TimeUnit.MILLISECONDS.sleep(50);
+        } catch (InterruptedException e) {
+        }
+        HttpRequest request = invocation.getArgumentAt(0, HttpRequest.class);
+        pollRequests.add(request);
+        polledAppIds.addAll(extractAppIds(request.getUrl()));
+        if (polledAppIds.containsAll(appIds)) {
+          allAppsPolled.set(true);
+        }
+        return pollResponse;
+      }
+    }).when(httpUtil).doGet(any(HttpRequest.class), eq(responseType));
+
+    try {
+      for (String appId : appIds) {
+        remoteConfigLongPollService.submit(appId, someNamespace, mock(RemoteConfigRepository.class));
+      }
+
+      allAppsPolled.get(5000, TimeUnit.MILLISECONDS);
+    } finally {
+      remoteConfigLongPollService.stopLongPollingRefresh();
+      for (String appId : appIds) {
+        System.clearProperty(String.format("apollo.accesskey.%s.secret", appId));
+      }
+    }
+
+    //all the apps in one request would exceed the limit
+    int chunkedRequests = 0;
+    synchronized (pollRequests) {
+      for (HttpRequest request : pollRequests) {
+        URL url = new URL(request.getUrl());
+        int headerSize = url.getPath().length() + url.getQuery().length();
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+          headerSize += header.getKey().length() + header.getValue().length();
+        }
+        assertTrue(headerSize < maxHttpHeaderSize);
+        if (request.getUrl().contains("/notifications/v2/apps?")) {
+          assertTrue(extractAppIds(request.getUrl()).size() < appIds.size());
+          chunkedRequests++;
+        }
+      }
+    }
+    assertTrue(chunkedRequests > 1);
+  }
+
+  @Test
+  public void testAssembleAppsLongPollRefreshUrl() throws Exception {
+    String someUri = someServerUrl;
+    String anotherAppId = "anotherAppId";
+    String someNamespace = "someName";
+    Map<String, Map<String, Long>> appNotificationsMap = ImmutableMap.<String, Map<String, Long>>of(
+        someAppId, ImmutableMap.of(someNamespace, 1L), anotherAppId, ImmutableMap.of(someNamespace, 2L));
+
+    String longPollRefreshUrl =
+        remoteConfigLongPollService.assembleAppsLongPollRefreshUrl(someUri, someCluster, null, appNotificationsMap);
+
+    assertTrue(longPollRefreshUrl.contains(someServerUrl + "/notifications/v2/apps?"));
+    assertTrue(longPollRefreshUrl.contains("appIds=" + someAppId + "%2C" + anotherAppId));
+    assertTrue(longPollRefreshUrl.contains("cluster=" + someCluster));
+    assertTrue(longPollRefreshUrl.contains("notifications=%7B%22" + someAppId + "%22%3A%5B%7B%22namespaceName%22%3A%22"
+        + someNamespace + "%22%2C%22notificationId%22%3A1%7D%5D%2C%22" + anotherAppId));
+  }
+
   @Test
   public void testAssembleLongPollRefreshUrl() throws Exception {
     String someUri = someServerUrl;
@@ -518,6 +672,14 @@ public class RemoteConfigLongPollServiceTest {
             + "%22%2C%22notificationId%22%3A" + anotherNotificationId + "%7D%5D"));
   }
 
+  private static List<String> extractAppIds(String url) throws Exception {
+    Matcher matcher = APP_IDS_PATTERN.matcher(url);
+    if (!matcher.find()) {
+      return Collections.emptyList();
+    }
+    return Splitter.on(",").splitToList(URLDecoder.decode(matcher.group(1), "UTF-8"));
+  }
+
   public static class MockConfigUtil extends ConfigUtil {
     @Override
     public String getAppId() {
@@ -0,0 +1,145 @@
+package com.ctrip.framework.apollo.spring;
+
+import static org.junit.Assert.assertEquals;
+
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.ctrip.framework.apollo.internals.SimpleConfig;
+import com.ctrip.framework.apollo.spring.annotation.EnableApolloConfig;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+public class JavaConfigConfigurationPropertiesAutoUpdateTest extends AbstractSpringIntegrationTest {
+
+  private static final String TIMEOUT_PROPERTY = "redis.timeout";
+  private static final String BATCH_PROPERTY = "kafka.batch";
+
+  @Test
+  public void testAutoUpdateOnlyCoveringConfigurationProperties() throws Exception {
+    int initialTimeout = 1000;
+    int initialBatch = 2000;
+    int newTimeout = 1001;
+
+    Properties properties = assembleProperties(TIMEOUT_PROPERTY, String.valueOf(initialTimeout), BATCH_PROPERTY,
+        String.valueOf(initialBatch));
+
+    SimpleConfig config = prepareConfig(ConfigConsts.NAMESPACE_APPLICATION, properties);
+
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(AppConfig1.class);
+
+    TestRedisProperties redisProperties = context.getBean(TestRedisProperties.class);
+    TestKafkaProperties kafkaProperties = context.getBean(TestKafkaProperties.class);
+
+    assertEquals(initialTimeout, redisProperties.getTimeout());
+    assertEquals(initialBatch, kafkaProperties.getBatch());
+    assertEquals(1, redisProperties.getBoundTimes());
+    assertEquals(1, kafkaProperties.getBoundTimes());
+
+    Properties newProperties = assembleProperties(TIMEOUT_PROPERTY, String.valueOf(newTimeout), BATCH_PROPERTY,
+        String.valueOf(initialBatch));
+
+    config.onRepositoryChange(ConfigConsts.NAMESPACE_APPLICATION, newProperties);
+
+    TimeUnit.MILLISECONDS.sleep(100);
+
+    assertEquals(newTimeout, redisProperties.getTimeout());
+    assertEquals(initialBatch, kafkaProperties.getBatch());
+    assertEquals(2, redisProperties.getBoundTimes());
+    assertEquals(1, kafkaProperties.getBoundTimes());
+  }
+
+  @Test
+  public void testAutoUpdateConfigurationPropertiesOnBeanMethod() throws Exception {
+    int initialBatch = 2000;
+    int newBatch = 2001;
+
+    Properties properties = assembleProperties(BATCH_PROPERTY, String.valueOf(initialBatch));
+
+    SimpleConfig config = prepareConfig(ConfigConsts.NAMESPACE_APPLICATION, properties);
+
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(AppConfig2.class);
+
+    TestBatchHolder bean = context.getBean(TestBatchHolder.class);
+
+    assertEquals(initialBatch, bean.getBatch());
+
+    config.onRepositoryChange(ConfigConsts.NAMESPACE_APPLICATION,
+        assembleProperties(BATCH_PROPERTY, String.valueOf(newBatch)));
+
+    TimeUnit.MILLISECONDS.sleep(100);
+
+    assertEquals(newBatch, bean.getBatch());
+  }
+
+  @Configuration
+  @EnableApolloConfig
+  @EnableConfigurationProperties({TestRedisProperties.class, TestKafkaProperties.class})
+  static class AppConfig1 {
+  }
+
+  @Configuration
+  @EnableApolloConfig
+  @EnableConfigurationProperties
+  static class AppConfig2 {
+    @Bean
+    @ConfigurationProperties(prefix = "kafka")
+    TestBatchHolder testBatchHolder() {
+      return new TestBatchHolder();
+    }
+  }
+
+  @ConfigurationProperties(prefix = "redis")
+  static class TestRedisProperties {
+    private int timeout;
+    private int boundTimes;
+
+    public int getTimeout() {
+      return timeout;
+    }
+
+    public void setTimeout(int timeout) {
+      this.timeout = timeout;
+      this.boundTimes++;
+    }
+
+    public int getBoundTimes() {
+      return boundTimes;
+    }
+  }
+
+  @ConfigurationProperties(prefix = "kafka")
+  static class TestKafkaProperties {
+    private int batch;
+    private int boundTimes;
+
+    public int getBatch() {
+      return batch;
+    }
+
+    public void setBatch(int batch) {
+      this.batch = batch;
+      this.boundTimes++;
+    }
+
+    public int getBoundTimes() {
+      return boundTimes;
+    }
+  }
+
+  static class TestBatchHolder {
+    private int batch;
+
+    public int getBatch() {
+      return batch;
+    }
+
+    public void setBatch(int batch) {
+      this.batch = batch;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.ctrip.framework.apollo.spring.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.ctrip.framework.apollo.Config;
+import com.ctrip.framework.apollo.internals.ConfigSnapshot;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CompositeConfigPropertySourceTest {
+
+  private CompositeConfigPropertySource compositeConfigPropertySource;
+
+  @Mock
+  private Config someConfig;
+  @Mock
+  private Config anotherConfig;
+
+  @Before
+  public void setUp() throws Exception {
+    compositeConfigPropertySource = new CompositeConfigPropertySource("someName");
+    compositeConfigPropertySource.addPropertySource(new ConfigPropertySource("someConfig", someConfig));
+    compositeConfigPropertySource.addPropertySource(new ConfigPropertySource("anotherConfig", anotherConfig));
+  }
+
+  @Test
+  public void testGetPropertyNames() throws Exception {
+    when(someConfig.getPropertyNames()).thenReturn(snapshotPropertyNames("someReleaseKey", "b.key", "a.key"));
+    when(anotherConfig.getPropertyNames()).thenReturn(snapshotPropertyNames("anotherReleaseKey", "a.key", "c.key"));
+
+    String[] result = compositeConfigPropertySource.getPropertyNames();
+
+    assertArrayEquals(new String[]{"b.key", "a.key", "c.key"}, result);
+    assertSame(result, compositeConfigPropertySource.getPropertyNames());
+
+    when(anotherConfig.getPropertyNames()).thenReturn(snapshotPropertyNames("yetAnotherReleaseKey", "d.key"));
+
+    String[] anotherResult = compositeConfigPropertySource.getPropertyNames();
+
+    assertNotSame(result, anotherResult);
+    assertArrayEquals(new String[]{"b.key", "a.key", "d.key"}, anotherResult);
+  }
+
+  @Test
+  public void testGetPropertyNamesNotCachedWithoutSnapshot() throws Exception {
+    when(someConfig.getPropertyNames()).thenReturn(snapshotPropertyNames("someReleaseKey", "a.key"));
+    when(anotherConfig.getPropertyNames()).thenReturn(Sets.newHashSet("b.key"));
+
+    String[] result = compositeConfigPropertySource.getPropertyNames();
+
+    assertArrayEquals(new String[]{"a.key", "b.key"}, result);
+    assertNotSame(result, compositeConfigPropertySource.getPropertyNames());
+  }
+
+  @Test
+  public void testContainsProperty() throws Exception {
+    when(someConfig.getPropertyNames()).thenReturn(snapshotPropertyNames("someReleaseKey", "a.key"));
+    when(anotherConfig.getPropertyNames()).thenReturn(snapshotPropertyNames("anotherReleaseKey", "b.key"));
+
+    assertTrue(compositeConfigPropertySource.containsProperty("a.key"));
+    assertTrue(compositeConfigPropertySource.containsProperty("b.key"));
+    assertFalse(compositeConfigPropertySource.containsProperty("c.key"));
+  }
+
+  @Test
+  public void testGetPropertyNamesWithPrefix() throws Exception {
+    when(someConfig.getPropertyNames()).thenReturn(
+        snapshotPropertyNames("someReleaseKey", "server.port", "spring.datasource.url", "server.address"));
+    when(anotherConfig.getPropertyNames()).thenReturn(
+        snapshotPropertyNames("anotherReleaseKey", "serverless", "server.port", "spring.application.name"));
+
+    assertArrayEquals(new String[]{"server.address", "server.port"},
+        compositeConfigPropertySource.getPropertyNamesWithPrefix("server."));
+    assertArrayEquals(new String[]{"spring.application.name", "spring.datasource.url"},
+        compositeConfigPropertySource.getPropertyNamesWithPrefix("spring."));
+    assertEquals(5, compositeConfigPropertySource.getPropertyNamesWithPrefix("").length);
+    assertEquals(0, compositeConfigPropertySource.getPropertyNamesWithPrefix("zzz").length);
+  }
+
+  private Set<String> snapshotPropertyNames(String releaseKey, String... names) {
+    ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+    for (String name : names) {
+      builder.put(name, "someValue");
+    }
+    return new ConfigSnapshot(releaseKey, builder.build()).stringPropertyNames();
+  }
+}
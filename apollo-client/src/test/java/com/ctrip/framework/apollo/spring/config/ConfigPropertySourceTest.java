@@ -2,6 +2,9 @@ package com.ctrip.framework.apollo.spring.config;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
@@ -12,6 +15,8 @@ import static org.mockito.Mockito.when;
 
 import com.ctrip.framework.apollo.Config;
 import com.ctrip.framework.apollo.ConfigChangeListener;
+import com.ctrip.framework.apollo.internals.ConfigSnapshot;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.util.List;
@@ -53,6 +58,30 @@ public class ConfigPropertySourceTest {
     assertArrayEquals(somePropertyNames.toArray(), result);
   }
 
+  @Test
+  public void testGetPropertyNamesCachedForSnapshot() throws Exception {
+    ConfigSnapshot someSnapshot = new ConfigSnapshot("someReleaseKey",
+        ImmutableMap.of("somePropertyName", "someValue", "anotherPropertyName", "anotherValue"));
+    ConfigSnapshot anotherSnapshot = new ConfigSnapshot("anotherReleaseKey",
+        ImmutableMap.of("somePropertyName", "someValue"));
+
+    when(someConfig.getPropertyNames()).thenReturn(someSnapshot.stringPropertyNames());
+
+    String[] result = configPropertySource.getPropertyNames();
+
+    assertArrayEquals(new String[]{"somePropertyName", "anotherPropertyName"}, result);
+    assertSame(result, configPropertySource.getPropertyNames());
+    assertTrue(configPropertySource.containsProperty("anotherPropertyName"));
+
+    when(someConfig.getPropertyNames()).thenReturn(anotherSnapshot.stringPropertyNames());
+
+    String[] anotherResult = configPropertySource.getPropertyNames();
+
+    assertNotSame(result, anotherResult);
+    assertArrayEquals(new String[]{"somePropertyName"}, anotherResult);
+    assertFalse(configPropertySource.containsProperty("anotherPropertyName"));
+  }
+
   @Test
   public void testGetEmptyPropertyNames() throws Exception {
     when(someConfig.getPropertyNames()).thenReturn(Sets.<String>newHashSet());
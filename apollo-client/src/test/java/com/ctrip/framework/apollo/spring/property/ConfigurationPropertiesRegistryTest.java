@@ -0,0 +1,75 @@
+package com.ctrip.framework.apollo.spring.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanFactory;
+
+public class ConfigurationPropertiesRegistryTest {
+
+  private ConfigurationPropertiesRegistry configurationPropertiesRegistry;
+  private BeanFactory someBeanFactory;
+
+  @Before
+  public void setUp() throws Exception {
+    configurationPropertiesRegistry = new ConfigurationPropertiesRegistry();
+    someBeanFactory = mock(BeanFactory.class);
+
+    configurationPropertiesRegistry.register(someBeanFactory, "redis.cache", "redisCacheProperties");
+    configurationPropertiesRegistry.register(someBeanFactory, "redis", "redisProperties");
+    configurationPropertiesRegistry.register(someBeanFactory, "server.connection-pool", "poolProperties");
+  }
+
+  @Test
+  public void testGetBeanNames() throws Exception {
+    check(Lists.newArrayList("redis.cache.expireSeconds"), "redisCacheProperties", "redisProperties");
+    check(Lists.newArrayList("redis.cache"), "redisCacheProperties", "redisProperties");
+    check(Lists.newArrayList("redis.host"), "redisProperties");
+    check(Lists.newArrayList("redis.cacheTimeout"), "redisProperties");
+    check(Lists.newArrayList("server.port"));
+    check(Lists.newArrayList("someKey"));
+  }
+
+  @Test
+  public void testGetBeanNamesWithIndexedKeys() throws Exception {
+    check(Lists.newArrayList("server.connection-pool[0].size"), "poolProperties");
+    check(Lists.newArrayList("redis.cache.hosts[1]"), "redisCacheProperties", "redisProperties");
+  }
+
+  @Test
+  public void testGetBeanNamesWithRelaxedKeys() throws Exception {
+    check(Lists.newArrayList("server.connectionPool.size"), "poolProperties");
+    check(Lists.newArrayList("server.connection_pool.size"), "poolProperties");
+    check(Lists.newArrayList("SERVER.CONNECTION-POOL.SIZE"), "poolProperties");
+  }
+
+  @Test
+  public void testGetBeanNamesOnlyOnceForMultipleKeys() throws Exception {
+    check(Lists.newArrayList("redis.cache.expireSeconds", "redis.cache.size", "redis.host", "server.port"),
+        "redisCacheProperties", "redisProperties");
+  }
+
+  @Test
+  public void testGetBeanNamesWithEmptyPrefix() throws Exception {
+    configurationPropertiesRegistry.register(someBeanFactory, "", "rootProperties");
+
+    check(Lists.newArrayList("someKey"), "rootProperties");
+    check(Lists.newArrayList("redis.host"), "redisProperties", "rootProperties");
+  }
+
+  @Test
+  public void testGetBeanNamesWithAnotherBeanFactory() throws Exception {
+    assertTrue(configurationPropertiesRegistry
+        .getBeanNames(mock(BeanFactory.class), Lists.newArrayList("redis.host")).isEmpty());
+  }
+
+  private void check(List<String> keys, String... expectedBeanNames) {
+    assertEquals(Sets.newHashSet(expectedBeanNames), configurationPropertiesRegistry.getBeanNames(someBeanFactory, keys));
+  }
+}
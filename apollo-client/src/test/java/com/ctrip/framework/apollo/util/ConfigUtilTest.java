@@ -26,8 +26,11 @@ public class ConfigUtilTest {
     System.clearProperty("apollo.longPollQPS");
     System.clearProperty("apollo.configCacheSize");
     System.clearProperty("apollo.longPollingInitialDelayInMills");
+    System.clearProperty("apollo.configServicesWatchMinIntervalInMills");
+    System.clearProperty("apollo.longPollingMaxHeaderSize");
     System.clearProperty("apollo.autoUpdateInjectedSpringProperties");
     System.clearProperty("apollo.cacheDir");
+    System.clearProperty("apollo.accesskey.anotherAppId.secret");
     System.clearProperty(PropertiesFactory.APOLLO_PROPERTY_ORDER_ENABLE);
   }
 
@@ -182,6 +185,26 @@ public class ConfigUtilTest {
     assertTrue(configUtil.getLongPollingInitialDelayInMills() > 0);
   }
 
+  @Test
+  public void testCustomizeConfigServicesWatchMinIntervalInMills() throws Exception {
+    long someWatchMinIntervalInMills = 1;
+    System.setProperty("apollo.configServicesWatchMinIntervalInMills", String.valueOf(someWatchMinIntervalInMills));
+
+    ConfigUtil configUtil = new ConfigUtil();
+
+    assertEquals(someWatchMinIntervalInMills, configUtil.getConfigServicesWatchMinIntervalInMills());
+  }
+
+  @Test
+  public void testCustomizeLongPollingMaxHeaderSize() throws Exception {
+    int someLongPollingMaxHeaderSize = 1024;
+    System.setProperty("apollo.longPollingMaxHeaderSize", String.valueOf(someLongPollingMaxHeaderSize));
+
+    ConfigUtil configUtil = new ConfigUtil();
+
+    assertEquals(someLongPollingMaxHeaderSize, configUtil.getLongPollingMaxHeaderSize());
+  }
+
   @Test
   public void testCustomizeAutoUpdateInjectedSpringProperties() throws Exception {
     boolean someAutoUpdateInjectedSpringProperties = false;
@@ -225,6 +248,37 @@ public class ConfigUtilTest {
     assertEquals("/opt/data/" + someAppId, configUtil.getDefaultLocalCacheDir());
   }
 
+  @Test
+  public void testDefaultLocalCacheDirOfApp() throws Exception {
+    String someCacheDir = "someCacheDir";
+    String anotherAppId = "anotherAppId";
+
+    System.setProperty("apollo.cacheDir", someCacheDir);
+
+    ConfigUtil configUtil = new ConfigUtil();
+
+    assertEquals(someCacheDir + File.separator + anotherAppId, configUtil.getDefaultLocalCacheDir(anotherAppId));
+  }
+
+  @Test
+  public void testAccessKeySecretOfApp() throws Exception {
+    String someAppId = "someAppId";
+    String someSecret = "someSecret";
+    String anotherAppId = "anotherAppId";
+    String anotherSecret = "anotherSecret";
+
+    System.setProperty("apollo.accesskey.anotherAppId.secret", anotherSecret);
+
+    ConfigUtil configUtil = spy(new ConfigUtil());
+
+    doReturn(someAppId).when(configUtil).getAppId();
+    doReturn(someSecret).when(configUtil).getAccessKeySecret();
+
+    assertEquals(someSecret, configUtil.getAccessKeySecret(someAppId));
+    assertEquals(anotherSecret, configUtil.getAccessKeySecret(anotherAppId));
+    assertNull(configUtil.getAccessKeySecret("yetAnotherAppId"));
+  }
+
   @Test
   public void testCustomizePropertiesOrdered() {
     boolean propertiesOrdered = true;
@@ -2,6 +2,7 @@ package com.ctrip.framework.apollo.common.controller;
 
 import com.ctrip.framework.apollo.common.exception.AbstractApolloHttpException;
 import com.ctrip.framework.apollo.common.exception.BadRequestException;
+import com.ctrip.framework.apollo.common.exception.TooManyRequestsException;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -29,6 +30,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.client.HttpStatusCodeException;
+import static org.slf4j.event.Level.DEBUG;
 import static org.slf4j.event.Level.ERROR;
 import static org.slf4j.event.Level.WARN;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
@@ -73,6 +75,17 @@ public class GlobalDefaultExceptionHandler {
     return handleError(request, ex.getHttpStatus(), ex);
   }
 
+  //shed requests are expected under overload, so they are not logged as errors
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<Map<String, Object>> tooManyRequests(HttpServletRequest request,
+                                                             TooManyRequestsException ex) {
+    ResponseEntity<Map<String, Object>> response = handleError(request, ex.getHttpStatus(), ex, DEBUG);
+    HttpHeaders headers = new HttpHeaders();
+    headers.putAll(response.getHeaders());
+    headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterInSeconds()));
+    return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<Map<String, Object>> handleMethodArgumentNotValidException(
       HttpServletRequest request, MethodArgumentNotValidException ex
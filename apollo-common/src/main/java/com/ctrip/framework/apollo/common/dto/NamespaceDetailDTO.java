@@ -0,0 +1,49 @@
+package com.ctrip.framework.apollo.common.dto;
+
+import java.util.List;
+
+/**
+ * Namespace with its items, deleted items and latest release, so that the portal could load a cluster in one call
+ */
+public class NamespaceDetailDTO {
+
+  private NamespaceDTO baseInfo;
+
+  private List<ItemDTO> items;
+
+  private List<ItemDTO> deletedItems;
+
+  private ReleaseDTO latestRelease;
+
+  public NamespaceDTO getBaseInfo() {
+    return baseInfo;
+  }
+
+  public void setBaseInfo(NamespaceDTO baseInfo) {
+    this.baseInfo = baseInfo;
+  }
+
+  public List<ItemDTO> getItems() {
+    return items;
+  }
+
+  public void setItems(List<ItemDTO> items) {
+    this.items = items;
+  }
+
+  public List<ItemDTO> getDeletedItems() {
+    return deletedItems;
+  }
+
+  public void setDeletedItems(List<ItemDTO> deletedItems) {
+    this.deletedItems = deletedItems;
+  }
+
+  public ReleaseDTO getLatestRelease() {
+    return latestRelease;
+  }
+
+  public void setLatestRelease(ReleaseDTO latestRelease) {
+    this.latestRelease = latestRelease;
+  }
+}
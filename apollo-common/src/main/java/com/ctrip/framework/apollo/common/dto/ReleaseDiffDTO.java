@@ -0,0 +1,109 @@
+package com.ctrip.framework.apollo.common.dto;
+
+import java.util.List;
+
+/**
+ * The changed configurations between two releases, so that the portal could compare releases without loading them
+ */
+public class ReleaseDiffDTO {
+
+  public static final String ADDED = "ADDED";
+  public static final String MODIFIED = "MODIFIED";
+  public static final String DELETED = "DELETED";
+
+  private long baseReleaseId;
+
+  private long toCompareReleaseId;
+
+  private List<Change> changes;
+
+  /**
+   * Whether both the releases are found, a release not found is compared as an empty release
+   */
+  private boolean releasesFound;
+
+  public long getBaseReleaseId() {
+    return baseReleaseId;
+  }
+
+  public void setBaseReleaseId(long baseReleaseId) {
+    this.baseReleaseId = baseReleaseId;
+  }
+
+  public long getToCompareReleaseId() {
+    return toCompareReleaseId;
+  }
+
+  public void setToCompareReleaseId(long toCompareReleaseId) {
+    this.toCompareReleaseId = toCompareReleaseId;
+  }
+
+  public List<Change> getChanges() {
+    return changes;
+  }
+
+  public void setChanges(List<Change> changes) {
+    this.changes = changes;
+  }
+
+  public boolean isReleasesFound() {
+    return releasesFound;
+  }
+
+  public void setReleasesFound(boolean releasesFound) {
+    this.releasesFound = releasesFound;
+  }
+
+  public static class Change {
+
+    private String type;
+
+    private String key;
+
+    private String oldValue;
+
+    private String newValue;
+
+    public Change() {
+    }
+
+    public Change(String type, String key, String oldValue, String newValue) {
+      this.type = type;
+      this.key = key;
+      this.oldValue = oldValue;
+      this.newValue = newValue;
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    public void setType(String type) {
+      this.type = type;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public void setKey(String key) {
+      this.key = key;
+    }
+
+    public String getOldValue() {
+      return oldValue;
+    }
+
+    public void setOldValue(String oldValue) {
+      this.oldValue = oldValue;
+    }
+
+    public String getNewValue() {
+      return newValue;
+    }
+
+    public void setNewValue(String newValue) {
+      this.newValue = newValue;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.ctrip.framework.apollo.common.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a request is shed because the server is overloaded, the client should retry after the given seconds
+ */
+public class TooManyRequestsException extends AbstractApolloHttpException {
+
+  private final long retryAfterInSeconds;
+
+  public TooManyRequestsException(String str, long retryAfterInSeconds) {
+    super(str);
+    this.retryAfterInSeconds = retryAfterInSeconds;
+    setHttpStatus(HttpStatus.TOO_MANY_REQUESTS);
+  }
+
+  public long getRetryAfterInSeconds() {
+    return retryAfterInSeconds;
+  }
+}
@@ -0,0 +1,30 @@
+package com.ctrip.framework.apollo.common.tracer;
+
+import com.ctrip.framework.apollo.tracer.internals.aggregate.AggregatingMessageProducer;
+import com.ctrip.framework.apollo.tracer.internals.aggregate.AggregatingMessageProducerManager;
+import com.ctrip.framework.apollo.tracer.internals.aggregate.MessageStats;
+import com.google.common.collect.Maps;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the transactions and the events aggregated by the tracer as /tracer, which are empty if the tracer is
+ * reporting to Cat instead.
+ */
+@Component
+@Endpoint(id = "tracer")
+public class TracerEndpoint {
+
+  @ReadOperation
+  public Map<String, List<MessageStats>> tracer() {
+    AggregatingMessageProducer producer = AggregatingMessageProducerManager.getAggregatingProducer();
+    Map<String, List<MessageStats>> snapshot = Maps.newLinkedHashMap();
+    snapshot.put("transactions", producer.getTransactions());
+    snapshot.put("events", producer.getEvents());
+    return snapshot;
+  }
+}
@@ -6,15 +6,19 @@ import com.ctrip.framework.apollo.biz.message.ReleaseMessageScanner;
 import com.ctrip.framework.apollo.configservice.controller.ConfigFileController;
 import com.ctrip.framework.apollo.configservice.controller.NotificationController;
 import com.ctrip.framework.apollo.configservice.controller.NotificationControllerV2;
+import com.ctrip.framework.apollo.configservice.filter.ClientAppRateLimitFilter;
 import com.ctrip.framework.apollo.configservice.filter.ClientAuthenticationFilter;
+import com.ctrip.framework.apollo.configservice.filter.ClientRateLimitFilter;
 import com.ctrip.framework.apollo.configservice.service.ReleaseMessageServiceWithCache;
 import com.ctrip.framework.apollo.configservice.service.config.ConfigService;
 import com.ctrip.framework.apollo.configservice.service.config.ConfigServiceWithCache;
 import com.ctrip.framework.apollo.configservice.service.config.DefaultConfigService;
 import com.ctrip.framework.apollo.configservice.util.AccessKeyUtil;
+import com.ctrip.framework.apollo.configservice.util.AdmissionControlUtil;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 
 /**
@@ -55,6 +59,36 @@ public class ConfigServiceAutoConfiguration {
     filterRegistrationBean.addUrlPatterns("/configs/*");
     filterRegistrationBean.addUrlPatterns("/configfiles/*");
     filterRegistrationBean.addUrlPatterns("/notifications/v2/*");
+    filterRegistrationBean.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+
+    return filterRegistrationBean;
+  }
+
+  @Bean
+  public FilterRegistrationBean clientRateLimitFilter(AdmissionControlUtil admissionControlUtil) {
+    FilterRegistrationBean filterRegistrationBean = new FilterRegistrationBean();
+
+    filterRegistrationBean.setFilter(new ClientRateLimitFilter(admissionControlUtil));
+    filterRegistrationBean.addUrlPatterns("/configs/*");
+    filterRegistrationBean.addUrlPatterns("/configfiles/*");
+    filterRegistrationBean.addUrlPatterns("/notifications/v2/*");
+    //shed the client ips before the requests are authenticated
+    filterRegistrationBean.setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+
+    return filterRegistrationBean;
+  }
+
+  @Bean
+  public FilterRegistrationBean clientAppRateLimitFilter(AdmissionControlUtil admissionControlUtil,
+      AccessKeyUtil accessKeyUtil) {
+    FilterRegistrationBean filterRegistrationBean = new FilterRegistrationBean();
+
+    filterRegistrationBean.setFilter(new ClientAppRateLimitFilter(admissionControlUtil, accessKeyUtil));
+    filterRegistrationBean.addUrlPatterns("/configs/*");
+    filterRegistrationBean.addUrlPatterns("/configfiles/*");
+    filterRegistrationBean.addUrlPatterns("/notifications/v2/*");
+    //charge the apps only for the authenticated requests
+    filterRegistrationBean.setOrder(Ordered.LOWEST_PRECEDENCE);
 
     return filterRegistrationBean;
   }
@@ -15,19 +15,13 @@ import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.RemovalListener;
-import com.google.common.cache.RemovalNotification;
 import com.google.common.cache.Weigher;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -36,12 +30,19 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
@@ -53,16 +54,18 @@ public class ConfigFileController implements ReleaseMessageListener {
   private static final Joiner STRING_JOINER = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR);
   private static final Splitter X_FORWARDED_FOR_SPLITTER = Splitter.on(",").omitEmptyStrings()
       .trimResults();
+  private static final Splitter ETAG_SPLITTER = Splitter.on(",").omitEmptyStrings().trimResults();
   private static final long MAX_CACHE_SIZE = 50 * 1024 * 1024; // 50MB
   private static final long EXPIRE_AFTER_WRITE = 30;
-  private final HttpHeaders propertiesResponseHeaders;
-  private final HttpHeaders jsonResponseHeaders;
-  private final ResponseEntity<String> NOT_FOUND_RESPONSE;
-  private Cache<String, String> localCache;
-  private final Multimap<String, String>
-      watchedKeys2CacheKey = Multimaps.synchronizedSetMultimap(HashMultimap.create());
-  private final Multimap<String, String>
-      cacheKey2WatchedKeys = Multimaps.synchronizedSetMultimap(HashMultimap.create());
+  //contents smaller than this are not worth compressing
+  private static final int MIN_GZIP_SIZE = 1024;
+  private static final String GZIP_ENCODING = "gzip";
+  private static final String GZIP_ETAG_SUFFIX = "-gzip";
+  private static final String PROPERTIES_CONTENT_TYPE = "text/plain;charset=UTF-8";
+  private static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+  private Cache<String, ConfigFileCacheEntry> localCache;
+  private final ConcurrentMap<String, Set<String>> watchedKeys2CacheKey = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<String>> cacheKey2WatchedKeys = new ConcurrentHashMap<>();
   private static final Gson gson = new Gson();
 
   private final ConfigController configController;
@@ -77,28 +80,24 @@ public class ConfigFileController implements ReleaseMessageListener {
       final GrayReleaseRulesHolder grayReleaseRulesHolder) {
     localCache = CacheBuilder.newBuilder()
         .expireAfterWrite(EXPIRE_AFTER_WRITE, TimeUnit.MINUTES)
-        .weigher((Weigher<String, String>) (key, value) -> value == null ? 0 : value.length())
+        .weigher((Weigher<String, ConfigFileCacheEntry>) (key, value) -> value == null ? 0 : value.getWeight())
         .maximumWeight(MAX_CACHE_SIZE)
         .removalListener(notification -> {
           String cacheKey = notification.getKey();
           logger.debug("removing cache key: {}", cacheKey);
-          if (!cacheKey2WatchedKeys.containsKey(cacheKey)) {
+          Set<String> watchedKeys = cacheKey2WatchedKeys.remove(cacheKey);
+          if (watchedKeys == null) {
             return;
           }
-          //create a new list to avoid ConcurrentModificationException
-          List<String> watchedKeys = new ArrayList<>(cacheKey2WatchedKeys.get(cacheKey));
           for (String watchedKey : watchedKeys) {
-            watchedKeys2CacheKey.remove(watchedKey, cacheKey);
+            watchedKeys2CacheKey.computeIfPresent(watchedKey, (key, cacheKeys) -> {
+              cacheKeys.remove(cacheKey);
+              return cacheKeys.isEmpty() ? null : cacheKeys;
+            });
           }
-          cacheKey2WatchedKeys.removeAll(cacheKey);
           logger.debug("removed cache key: {}", cacheKey);
         })
         .build();
-    propertiesResponseHeaders = new HttpHeaders();
-    propertiesResponseHeaders.add("Content-Type", "text/plain;charset=UTF-8");
-    jsonResponseHeaders = new HttpHeaders();
-    jsonResponseHeaders.add("Content-Type", "application/json;charset=UTF-8");
-    NOT_FOUND_RESPONSE = new ResponseEntity<>(HttpStatus.NOT_FOUND);
     this.configController = configController;
     this.namespaceUtil = namespaceUtil;
     this.watchKeysUtil = watchKeysUtil;
@@ -106,50 +105,42 @@ public class ConfigFileController implements ReleaseMessageListener {
   }
 
   @GetMapping(value = "/{appId}/{clusterName}/{namespace:.+}")
-  public ResponseEntity<String> queryConfigAsProperties(@PathVariable String appId,
-                                                        @PathVariable String clusterName,
-                                                        @PathVariable String namespace,
-                                                        @RequestParam(value = "dataCenter", required = false) String dataCenter,
-                                                        @RequestParam(value = "ip", required = false) String clientIp,
-                                                        HttpServletRequest request,
-                                                        HttpServletResponse response)
+  public void queryConfigAsProperties(@PathVariable String appId,
+                                      @PathVariable String clusterName,
+                                      @PathVariable String namespace,
+                                      @RequestParam(value = "dataCenter", required = false) String dataCenter,
+                                      @RequestParam(value = "ip", required = false) String clientIp,
+                                      HttpServletRequest request,
+                                      HttpServletResponse response)
       throws IOException {
 
-    String result =
+    ConfigFileCacheEntry result =
         queryConfig(ConfigFileOutputFormat.PROPERTIES, appId, clusterName, namespace, dataCenter,
             clientIp, request, response);
 
-    if (result == null) {
-      return NOT_FOUND_RESPONSE;
-    }
-
-    return new ResponseEntity<>(result, propertiesResponseHeaders, HttpStatus.OK);
+    writeResponse(result, PROPERTIES_CONTENT_TYPE, request, response);
   }
 
   @GetMapping(value = "/json/{appId}/{clusterName}/{namespace:.+}")
-  public ResponseEntity<String> queryConfigAsJson(@PathVariable String appId,
-                                                  @PathVariable String clusterName,
-                                                  @PathVariable String namespace,
-                                                  @RequestParam(value = "dataCenter", required = false) String dataCenter,
-                                                  @RequestParam(value = "ip", required = false) String clientIp,
-                                                  HttpServletRequest request,
-                                                  HttpServletResponse response) throws IOException {
-
-    String result =
+  public void queryConfigAsJson(@PathVariable String appId,
+                                @PathVariable String clusterName,
+                                @PathVariable String namespace,
+                                @RequestParam(value = "dataCenter", required = false) String dataCenter,
+                                @RequestParam(value = "ip", required = false) String clientIp,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+
+    ConfigFileCacheEntry result =
         queryConfig(ConfigFileOutputFormat.JSON, appId, clusterName, namespace, dataCenter,
             clientIp, request, response);
 
-    if (result == null) {
-      return NOT_FOUND_RESPONSE;
-    }
-
-    return new ResponseEntity<>(result, jsonResponseHeaders, HttpStatus.OK);
+    writeResponse(result, JSON_CONTENT_TYPE, request, response);
   }
 
-  String queryConfig(ConfigFileOutputFormat outputFormat, String appId, String clusterName,
-                     String namespace, String dataCenter, String clientIp,
-                     HttpServletRequest request,
-                     HttpServletResponse response) throws IOException {
+  ConfigFileCacheEntry queryConfig(ConfigFileOutputFormat outputFormat, String appId, String clusterName,
+                                   String namespace, String dataCenter, String clientIp,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
     //strip out .properties suffix
     namespace = namespaceUtil.filterNamespaceName(namespace);
     //fix the character case issue, such as FX.apollo <-> fx.apollo
@@ -169,17 +160,17 @@ public class ConfigFileController implements ReleaseMessageListener {
     if (hasGrayReleaseRule) {
       Tracer.logEvent("ConfigFile.Cache.GrayRelease", cacheKey);
       return loadConfig(outputFormat, appId, clusterName, namespace, dataCenter, clientIp,
-          request, response);
+          request, response, false);
     }
 
     //3. if not gray release, check weather cache exists, if exists, return
-    String result = localCache.getIfPresent(cacheKey);
+    ConfigFileCacheEntry result = localCache.getIfPresent(cacheKey);
 
     //4. if not exists, load from ConfigController
-    if (Strings.isNullOrEmpty(result)) {
+    if (result == null) {
       Tracer.logEvent("ConfigFile.Cache.Miss", cacheKey);
       result = loadConfig(outputFormat, appId, clusterName, namespace, dataCenter, clientIp,
-          request, response);
+          request, response, true);
 
       if (result == null) {
         return null;
@@ -189,7 +180,7 @@ public class ConfigFileController implements ReleaseMessageListener {
       if (grayReleaseRulesHolder.hasGrayReleaseRule(appId, clientIp, namespace)) {
         Tracer.logEvent("ConfigFile.Cache.GrayReleaseConflict", cacheKey);
         return loadConfig(outputFormat, appId, clusterName, namespace, dataCenter, clientIp,
-            request, response);
+            request, response, false);
       }
 
       localCache.put(cacheKey, result);
@@ -199,10 +190,16 @@ public class ConfigFileController implements ReleaseMessageListener {
           watchKeysUtil.assembleAllWatchKeys(appId, clusterName, namespace, dataCenter);
 
       for (String watchedKey : watchedKeys) {
-        watchedKeys2CacheKey.put(watchedKey, cacheKey);
+        watchedKeys2CacheKey.compute(watchedKey, (key, cacheKeys) -> {
+          if (cacheKeys == null) {
+            cacheKeys = ConcurrentHashMap.newKeySet();
+          }
+          cacheKeys.add(cacheKey);
+          return cacheKeys;
+        });
       }
 
-      cacheKey2WatchedKeys.putAll(cacheKey, watchedKeys);
+      cacheKey2WatchedKeys.put(cacheKey, watchedKeys);
       logger.debug("added cache for key: {}", cacheKey);
     } else {
       Tracer.logEvent("ConfigFile.Cache.Hit", cacheKey);
@@ -211,10 +208,10 @@ public class ConfigFileController implements ReleaseMessageListener {
     return result;
   }
 
-  private String loadConfig(ConfigFileOutputFormat outputFormat, String appId, String clusterName,
-                            String namespace, String dataCenter, String clientIp,
-                            HttpServletRequest request,
-                            HttpServletResponse response) throws IOException {
+  private ConfigFileCacheEntry loadConfig(ConfigFileOutputFormat outputFormat, String appId,
+                                          String clusterName, String namespace, String dataCenter,
+                                          String clientIp, HttpServletRequest request,
+                                          HttpServletResponse response, boolean cacheable) throws IOException {
     ApolloConfig apolloConfig = configController.queryConfig(appId, clusterName, namespace,
         dataCenter, "-1", clientIp, null, request, response);
 
@@ -235,7 +232,47 @@ public class ConfigFileController implements ReleaseMessageListener {
         break;
     }
 
-    return result;
+    return ConfigFileCacheEntry.create(result.getBytes(StandardCharsets.UTF_8), cacheable);
+  }
+
+  private void writeResponse(ConfigFileCacheEntry entry, String contentType,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (entry == null) {
+      if (!response.isCommitted()) {
+        response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+      }
+      return;
+    }
+
+    boolean gzip = entry.getGzippedContent() != null && acceptsGzip(request);
+    response.setHeader(HttpHeaders.ETAG, gzip ? entry.getGzipETag() : entry.getETag());
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+    if (entry.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+      Tracer.logEvent("ConfigFile.NotModified", entry.getETag());
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    //duplicate so that concurrent requests don't share the buffer position
+    ByteBuffer body = (gzip ? entry.getGzippedContent() : entry.getContent()).duplicate();
+
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(contentType);
+    if (gzip) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+    }
+    response.setContentLength(body.remaining());
+
+    WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+    while (body.hasRemaining()) {
+      channel.write(body);
+    }
+  }
+
+  private boolean acceptsGzip(HttpServletRequest request) {
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    return acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP_ENCODING);
   }
 
   String assembleCacheKey(ConfigFileOutputFormat outputFormat, String appId, String clusterName,
@@ -258,14 +295,14 @@ public class ConfigFileController implements ReleaseMessageListener {
       return;
     }
 
-    if (!watchedKeys2CacheKey.containsKey(content)) {
+    Set<String> cacheKeys = watchedKeys2CacheKey.get(content);
+
+    if (cacheKeys == null) {
       return;
     }
 
-    //create a new list to avoid ConcurrentModificationException
-    List<String> cacheKeys = new ArrayList<>(watchedKeys2CacheKey.get(content));
-
-    for (String cacheKey : cacheKeys) {
+    //the removal listener modifies the set, so iterate over a snapshot
+    for (String cacheKey : cacheKeys.toArray(new String[0])) {
       logger.debug("invalidate cache key: {}", cacheKey);
       localCache.invalidate(cacheKey);
     }
@@ -292,4 +329,95 @@ public class ConfigFileController implements ReleaseMessageListener {
     }
     return request.getRemoteAddr();
   }
+
+  /**
+   * Pre-encoded config file content, kept in direct memory when cached so that large
+   * configurations don't stay on the java heap
+   */
+  static class ConfigFileCacheEntry {
+    private final ByteBuffer content;
+    private final ByteBuffer gzippedContent;
+    private final String eTag;
+    private final String gzipETag;
+
+    private ConfigFileCacheEntry(ByteBuffer content, ByteBuffer gzippedContent, String eTag) {
+      this.content = content;
+      this.gzippedContent = gzippedContent;
+      this.eTag = eTag;
+      this.gzipETag = gzippedContent == null ? null :
+          eTag.substring(0, eTag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+    }
+
+    static ConfigFileCacheEntry create(byte[] bytes, boolean cacheable) throws IOException {
+      String eTag = "\"" + Hashing.sha1().hashBytes(bytes).toString() + "\"";
+      if (!cacheable) {
+        return new ConfigFileCacheEntry(ByteBuffer.wrap(bytes).asReadOnlyBuffer(), null, eTag);
+      }
+
+      ByteBuffer gzippedContent = null;
+      if (bytes.length >= MIN_GZIP_SIZE) {
+        byte[] gzipped = gzip(bytes);
+        //only keep the compressed copy when it actually saves something
+        if (gzipped.length < bytes.length) {
+          gzippedContent = toDirectBuffer(gzipped);
+        }
+      }
+
+      return new ConfigFileCacheEntry(toDirectBuffer(bytes), gzippedContent, eTag);
+    }
+
+    private static ByteBuffer toDirectBuffer(byte[] bytes) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+      buffer.put(bytes);
+      buffer.flip();
+      return buffer.asReadOnlyBuffer();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 16);
+      try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+        gzipOut.write(bytes);
+      }
+      return out.toByteArray();
+    }
+
+    boolean matches(String ifNoneMatch) {
+      if (Strings.isNullOrEmpty(ifNoneMatch)) {
+        return false;
+      }
+      for (String candidate : ETAG_SPLITTER.split(ifNoneMatch)) {
+        if ("*".equals(candidate)) {
+          return true;
+        }
+        //weak comparison, see RFC 7232 section 2.3.2
+        if (candidate.startsWith("W/")) {
+          candidate = candidate.substring(2);
+        }
+        if (candidate.equals(eTag) || candidate.equals(gzipETag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    int getWeight() {
+      return content.capacity() + (gzippedContent == null ? 0 : gzippedContent.capacity());
+    }
+
+    ByteBuffer getContent() {
+      return content;
+    }
+
+    ByteBuffer getGzippedContent() {
+      return gzippedContent;
+    }
+
+    String getETag() {
+      return eTag;
+    }
+
+    String getGzipETag() {
+      return gzipETag;
+    }
+  }
 }
@@ -10,6 +10,7 @@ import com.ctrip.framework.apollo.configservice.service.ReleaseMessageServiceWit
 import com.ctrip.framework.apollo.configservice.util.NamespaceUtil;
 import com.ctrip.framework.apollo.configservice.util.WatchKeysUtil;
 import com.ctrip.framework.apollo.configservice.wrapper.DeferredResultWrapper;
+import com.ctrip.framework.apollo.configservice.wrapper.MultiAppDeferredResultWrapper;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.ctrip.framework.apollo.core.dto.ApolloConfigNotification;
 import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
@@ -64,6 +65,10 @@ public class NotificationControllerV2 implements ReleaseMessageListener {
   private static final Type notificationsTypeReference =
       new TypeToken<List<ApolloConfigNotification>>() {
       }.getType();
+  private static final Type appNotificationsTypeReference =
+      new TypeToken<Map<String, List<ApolloConfigNotification>>>() {
+      }.getType();
+  private static final Splitter APP_IDS_SPLITTER = Splitter.on(",").omitEmptyStrings().trimResults();
 
   private final ExecutorService largeNotificationBatchExecutorService;
 
@@ -145,23 +150,8 @@ public class NotificationControllerV2 implements ReleaseMessageListener {
      * If the check before setting deferredResult,it may receive a notification the next time
      * when method handleMessage is executed between check and set deferredResult.
      */
-    deferredResultWrapper
-          .onTimeout(() -> logWatchedKeys(watchedKeys, "Apollo.LongPoll.TimeOutKeys"));
-
-    deferredResultWrapper.onCompletion(() -> {
-      //unregister all keys
-      for (String key : watchedKeys) {
-        deferredResults.remove(key, deferredResultWrapper);
-      }
-      logWatchedKeys(watchedKeys, "Apollo.LongPoll.CompletedKeys");
-    });
+    registerDeferredResult(deferredResultWrapper, watchedKeys);
 
-    //register all keys
-    for (String key : watchedKeys) {
-      this.deferredResults.put(key, deferredResultWrapper);
-    }
-
-    logWatchedKeys(watchedKeys, "Apollo.LongPoll.RegisteredKeys");
     logger.debug("Listening {} from appId: {}, cluster: {}, namespace: {}, datacenter: {}",
         watchedKeys, appId, cluster, namespaces, dataCenter);
 
@@ -190,6 +180,130 @@ public class NotificationControllerV2 implements ReleaseMessageListener {
     return deferredResultWrapper.getResult();
   }
 
+  /**
+   * Poll the notifications of several apps with one request, so a client loading the configs of several apps doesn't
+   * need a long polling connection for each of them. The returned notifications are marked with their app ids.
+   *
+   * @param appIdsAsString the ids of the apps joined by commas, which are used to authenticate the request
+   * @param notificationsAsString the notifications of each app, i.e. {"appId": [{"namespaceName": "application",
+   *                              "notificationId": 100}]}
+   */
+  @GetMapping("/apps")
+  public DeferredResult<ResponseEntity<List<ApolloConfigNotification>>> pollNotifications(
+      @RequestParam(value = "appIds") String appIdsAsString,
+      @RequestParam(value = "cluster") String cluster,
+      @RequestParam(value = "notifications") String notificationsAsString,
+      @RequestParam(value = "dataCenter", required = false) String dataCenter,
+      @RequestParam(value = "ip", required = false) String clientIp) {
+    Map<String, List<ApolloConfigNotification>> appNotifications = null;
+
+    try {
+      appNotifications = gson.fromJson(notificationsAsString, appNotificationsTypeReference);
+    } catch (Throwable ex) {
+      Tracer.logError(ex);
+    }
+
+    if (CollectionUtils.isEmpty(appNotifications)) {
+      throw new BadRequestException("Invalid format of notifications: " + notificationsAsString);
+    }
+    Set<String> appIds = Sets.newHashSet(APP_IDS_SPLITTER.split(appIdsAsString));
+    if (!appIds.containsAll(appNotifications.keySet())) {
+      throw new BadRequestException(String.format("The apps of the notifications %s are not all in the appIds %s",
+          appNotifications.keySet(), appIdsAsString));
+    }
+
+    MultiAppDeferredResultWrapper deferredResultWrapper =
+        new MultiAppDeferredResultWrapper(bizConfig.longPollingTimeoutInMilli());
+    //key: appId, value: the watched keys of each namespace of the app
+    Map<String, Multimap<String, String>> appWatchedKeysMap = Maps.newHashMap();
+    //key: appId, value: the notification ids of the namespaces of the app
+    Map<String, Map<String, Long>> appClientSideNotifications = Maps.newHashMap();
+    //key: appId, value: key: normalized namespace, value: original namespace
+    Map<String, Map<String, String>> appOriginalNamespaces = Maps.newHashMap();
+    Set<String> watchedKeys = Sets.newHashSet();
+
+    for (Map.Entry<String, List<ApolloConfigNotification>> entry : appNotifications.entrySet()) {
+      String appId = entry.getKey();
+      if (CollectionUtils.isEmpty(entry.getValue())) {
+        continue;
+      }
+      Map<String, Long> clientSideNotifications = Maps.newHashMap();
+      Map<String, String> originalNamespaces = Maps.newHashMap();
+      for (Map.Entry<String, ApolloConfigNotification> notificationEntry :
+          filterNotifications(appId, entry.getValue()).entrySet()) {
+        clientSideNotifications.put(notificationEntry.getKey(), notificationEntry.getValue().getNotificationId());
+        originalNamespaces.put(notificationEntry.getKey(), notificationEntry.getValue().getNamespaceName());
+      }
+      if (clientSideNotifications.isEmpty()) {
+        continue;
+      }
+
+      Multimap<String, String> watchedKeysMap =
+          watchKeysUtil.assembleAllWatchKeys(appId, cluster, clientSideNotifications.keySet(), dataCenter);
+      for (Map.Entry<String, String> watchedKey : watchedKeysMap.entries()) {
+        deferredResultWrapper.recordWatchedNamespace(watchedKey.getValue(), appId,
+            originalNamespaces.get(watchedKey.getKey()));
+        watchedKeys.add(watchedKey.getValue());
+      }
+      appWatchedKeysMap.put(appId, watchedKeysMap);
+      appClientSideNotifications.put(appId, clientSideNotifications);
+      appOriginalNamespaces.put(appId, originalNamespaces);
+    }
+
+    if (watchedKeys.isEmpty()) {
+      throw new BadRequestException("Invalid format of notifications: " + notificationsAsString);
+    }
+
+    registerDeferredResult(deferredResultWrapper, watchedKeys);
+    logger.debug("Listening {} from appIds: {}, cluster: {}, datacenter: {}", watchedKeys, appIds, cluster,
+        dataCenter);
+
+    List<ReleaseMessage> latestReleaseMessages =
+        releaseMessageService.findLatestReleaseMessagesGroupByMessages(watchedKeys);
+
+    entityManagerUtil.closeEntityManager();
+
+    List<ApolloConfigNotification> newNotifications = Lists.newArrayList();
+    for (Map.Entry<String, Multimap<String, String>> entry : appWatchedKeysMap.entrySet()) {
+      String appId = entry.getKey();
+      Map<String, Long> clientSideNotifications = appClientSideNotifications.get(appId);
+      Map<String, String> originalNamespaces = appOriginalNamespaces.get(appId);
+      for (ApolloConfigNotification notification : getApolloConfigNotifications(clientSideNotifications.keySet(),
+          clientSideNotifications, entry.getValue(), latestReleaseMessages)) {
+        notification.setAppId(appId);
+        //the namespace name is used as a key in client side, so the original one is returned
+        notification.setNamespaceName(originalNamespaces.get(notification.getNamespaceName()));
+        newNotifications.add(notification);
+      }
+    }
+
+    if (!CollectionUtils.isEmpty(newNotifications)) {
+      deferredResultWrapper.setResult(newNotifications);
+    }
+
+    return deferredResultWrapper.getResult();
+  }
+
+  private void registerDeferredResult(DeferredResultWrapper deferredResultWrapper, Set<String> watchedKeys) {
+    deferredResultWrapper
+          .onTimeout(() -> logWatchedKeys(watchedKeys, "Apollo.LongPoll.TimeOutKeys"));
+
+    deferredResultWrapper.onCompletion(() -> {
+      //unregister all keys
+      for (String key : watchedKeys) {
+        deferredResults.remove(key, deferredResultWrapper);
+      }
+      logWatchedKeys(watchedKeys, "Apollo.LongPoll.CompletedKeys");
+    });
+
+    //register all keys
+    for (String key : watchedKeys) {
+      this.deferredResults.put(key, deferredResultWrapper);
+    }
+
+    logWatchedKeys(watchedKeys, "Apollo.LongPoll.RegisteredKeys");
+  }
+
   /**
    * 筛选客户端传递的Namespace，处理Namespace名称不正确的问题，并将处理后的Namespace与ApolloConfigNotification组成Map
    *
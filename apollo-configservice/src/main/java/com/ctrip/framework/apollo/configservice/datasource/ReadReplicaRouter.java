@@ -0,0 +1,82 @@
+package com.ctrip.framework.apollo.configservice.datasource;
+
+import com.ctrip.framework.apollo.biz.utils.EntityManagerUtil;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Decides whether a read of the config service could be served by the replica.
+ *
+ * <p>The replica is consistent for a read if it has applied the release message the read depends on, since the
+ * release is committed before its message and the replica applies the transactions in commit order. So a read is
+ * routed to the replica only if the replica is healthy and its max applied release message id, tracked by
+ * {@link ReplicaLagTracker}, is not less than the required notification id, e.g. the one demanded by the client's
+ * {@link com.ctrip.framework.apollo.core.dto.ApolloNotificationMessages}. Otherwise it falls back to the primary.
+ *
+ * <p>The connection is picked when it is got, and an entity manager holds its connection afterwards, so each routed
+ * read runs in its own entity manager instead of the one opened in view for the request, which would otherwise keep
+ * the connection of the first read for all the later ones. Inside a transaction the connection is already picked by
+ * the transaction, so the reads there stay on the primary.
+ *
+ * <p>Without a replica configured, all the reads go to the primary as usual.
+ */
+@Component
+public class ReadReplicaRouter {
+  private static final String READ_METRIC_NAME = "apollo.config-service.replica.reads";
+  private static final String TRACER_EVENT_FALLBACK = "Apollo.Replica.Fallback";
+  private static final long REPLICA_UNAVAILABLE = -1;
+
+  private final MeterRegistry meterRegistry;
+  private final EntityManagerUtil entityManagerUtil;
+  private volatile long replicaAppliedNotificationId = REPLICA_UNAVAILABLE;
+
+  public ReadReplicaRouter(final MeterRegistry meterRegistry, final EntityManagerUtil entityManagerUtil) {
+    this.meterRegistry = meterRegistry;
+    this.entityManagerUtil = entityManagerUtil;
+  }
+
+  /**
+   * Read from the replica if it has applied the required notification id, or from the primary
+   *
+   * @param requiredNotificationId the release message id the read must observe, 0 if any
+   */
+  public <T> T read(long requiredNotificationId, Supplier<T> reader) {
+    long appliedId = replicaAppliedNotificationId;
+    if (appliedId == REPLICA_UNAVAILABLE) {
+      return reader.get();
+    }
+
+    boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+    boolean toReplica = !inTransaction && appliedId >= requiredNotificationId;
+    meterRegistry.counter(READ_METRIC_NAME, "target", toReplica ? "replica" : "primary").increment();
+    if (!toReplica) {
+      Tracer.logEvent(TRACER_EVENT_FALLBACK, String.valueOf(requiredNotificationId));
+    }
+    if (inTransaction) {
+      return reader.get();
+    }
+
+    boolean previous = ReplicaRoutingDataSource.isReadFromReplica();
+    ReplicaRoutingDataSource.setReadFromReplica(toReplica);
+    try {
+      return entityManagerUtil.runWithoutBoundEntityManager(reader);
+    } finally {
+      ReplicaRoutingDataSource.setReadFromReplica(previous);
+    }
+  }
+
+  void replicaApplied(long notificationId) {
+    this.replicaAppliedNotificationId = Math.max(notificationId, 0);
+  }
+
+  void replicaUnavailable() {
+    this.replicaAppliedNotificationId = REPLICA_UNAVAILABLE;
+  }
+
+  boolean isReplicaAvailable() {
+    return replicaAppliedNotificationId != REPLICA_UNAVAILABLE;
+  }
+}
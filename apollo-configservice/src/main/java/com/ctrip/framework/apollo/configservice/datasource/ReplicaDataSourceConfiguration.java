@@ -0,0 +1,71 @@
+package com.ctrip.framework.apollo.configservice.datasource;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Sends the routed reads of the config service to a read replica of ApolloConfigDB, enabled by configuring
+ * <code>spring.datasource.replica.url</code>, <code>spring.datasource.replica.username</code> and
+ * <code>spring.datasource.replica.password</code>.
+ *
+ * <p>The replica pool inherits <code>spring.datasource.hikari.*</code>, which could be overridden by
+ * <code>spring.datasource.replica.hikari.*</code>.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "url")
+public class ReplicaDataSourceConfiguration {
+  private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+  private static final String REPLICA_PREFIX = "spring.datasource.replica";
+  private static final String REPLICA_HIKARI_PREFIX = "spring.datasource.replica.hikari";
+
+  @Bean
+  public HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+    HikariDataSource dataSource = createDataSource(properties);
+    Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+    return dataSource;
+  }
+
+  @Bean
+  public HikariDataSource replicaDataSource(Environment environment) {
+    Binder binder = Binder.get(environment);
+    DataSourceProperties properties = binder.bind(REPLICA_PREFIX, DataSourceProperties.class).get();
+    HikariDataSource dataSource = createDataSource(properties);
+    binder.bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+    binder.bind(REPLICA_HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+    if (dataSource.getPoolName() == null) {
+      dataSource.setPoolName("ReplicaPool");
+    }
+    return dataSource;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+    return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource);
+  }
+
+  @Bean
+  public ReplicaLagTracker replicaLagTracker(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource, ReadReplicaRouter readReplicaRouter,
+      BizConfig bizConfig, MeterRegistry meterRegistry) {
+    return new ReplicaLagTracker(new JdbcTemplate(primaryDataSource), new JdbcTemplate(replicaDataSource),
+        readReplicaRouter, bizConfig, meterRegistry);
+  }
+
+  private HikariDataSource createDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+}
@@ -0,0 +1,104 @@
+package com.ctrip.framework.apollo.configservice.datasource;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Tracks how far the replica lags behind the primary by the max release message id each of them has.
+ *
+ * <p>The lag is the time since the primary had the oldest release message the replica has not applied yet. The
+ * replica is taken out of service when it lags more than {@link BizConfig#replicaMaxLagInMilli()} or could not be
+ * checked, and taken back once it catches up.
+ */
+public class ReplicaLagTracker implements InitializingBean, DisposableBean {
+  private static final Logger logger = LoggerFactory.getLogger(ReplicaLagTracker.class);
+  private static final String MAX_RELEASE_MESSAGE_ID_SQL = "SELECT MAX(Id) FROM ReleaseMessage";
+  private static final String LAG_METRIC_NAME = "apollo.config-service.replica.lag";
+
+  private final JdbcTemplate primaryJdbcTemplate;
+  private final JdbcTemplate replicaJdbcTemplate;
+  private final ReadReplicaRouter readReplicaRouter;
+  private final BizConfig bizConfig;
+  private final AtomicLong lagInMilli;
+  //the max release message ids of the primary not applied by the replica yet, with the time they were seen
+  private final Deque<long[]> pendingIds = new ArrayDeque<>();
+  private final ScheduledExecutorService executorService;
+
+  public ReplicaLagTracker(final JdbcTemplate primaryJdbcTemplate, final JdbcTemplate replicaJdbcTemplate,
+      final ReadReplicaRouter readReplicaRouter, final BizConfig bizConfig, final MeterRegistry meterRegistry) {
+    this.primaryJdbcTemplate = primaryJdbcTemplate;
+    this.replicaJdbcTemplate = replicaJdbcTemplate;
+    this.readReplicaRouter = readReplicaRouter;
+    this.bizConfig = bizConfig;
+    this.lagInMilli = meterRegistry.gauge(LAG_METRIC_NAME, new AtomicLong());
+    this.executorService = Executors.newSingleThreadScheduledExecutor(ApolloThreadFactory
+        .create("ReplicaLagTracker", true));
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    check();
+    int interval = bizConfig.replicaLagCheckIntervalInMilli();
+    executorService.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void destroy() {
+    executorService.shutdownNow();
+  }
+
+  void check() {
+    long replicaMaxId;
+    long primaryMaxId;
+    try {
+      //query the replica first, so that it never seems to be ahead of the primary
+      replicaMaxId = maxReleaseMessageId(replicaJdbcTemplate);
+      primaryMaxId = maxReleaseMessageId(primaryJdbcTemplate);
+    } catch (Throwable ex) {
+      logger.warn("Check replica lag failed, reading from primary", ex);
+      Tracer.logError(ex);
+      readReplicaRouter.replicaUnavailable();
+      return;
+    }
+
+    long lag = updateLag(replicaMaxId, primaryMaxId, System.currentTimeMillis());
+    lagInMilli.set(lag);
+
+    if (lag > bizConfig.replicaMaxLagInMilli()) {
+      if (readReplicaRouter.isReplicaAvailable()) {
+        logger.warn("Replica lags {} ms behind primary, reading from primary", lag);
+      }
+      readReplicaRouter.replicaUnavailable();
+    } else {
+      readReplicaRouter.replicaApplied(replicaMaxId);
+    }
+  }
+
+  long updateLag(long replicaMaxId, long primaryMaxId, long now) {
+    while (!pendingIds.isEmpty() && pendingIds.peekFirst()[0] <= replicaMaxId) {
+      pendingIds.pollFirst();
+    }
+    if (primaryMaxId > replicaMaxId && (pendingIds.isEmpty() || pendingIds.peekLast()[0] < primaryMaxId)) {
+      pendingIds.addLast(new long[]{primaryMaxId, now});
+    }
+    return pendingIds.isEmpty() ? 0 : now - pendingIds.peekFirst()[1];
+  }
+
+  private long maxReleaseMessageId(JdbcTemplate jdbcTemplate) {
+    Long maxId = jdbcTemplate.queryForObject(MAX_RELEASE_MESSAGE_ID_SQL, Long.class);
+    return maxId == null ? 0 : maxId;
+  }
+}
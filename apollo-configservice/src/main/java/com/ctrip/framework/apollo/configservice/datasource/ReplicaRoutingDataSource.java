@@ -0,0 +1,41 @@
+package com.ctrip.framework.apollo.configservice.datasource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes the connections of the current thread to the replica inside {@link ReadReplicaRouter#read}, and to the
+ * primary otherwise, so that writes and unrouted reads are never affected.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+  private static final String PRIMARY = "primary";
+  private static final String REPLICA = "replica";
+  private static final ThreadLocal<Boolean> READ_FROM_REPLICA = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+    Map<Object, Object> targetDataSources = new HashMap<>();
+    targetDataSources.put(PRIMARY, primary);
+    targetDataSources.put(REPLICA, replica);
+    setTargetDataSources(targetDataSources);
+    setDefaultTargetDataSource(primary);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return READ_FROM_REPLICA.get() ? REPLICA : PRIMARY;
+  }
+
+  static boolean isReadFromReplica() {
+    return READ_FROM_REPLICA.get();
+  }
+
+  static void setReadFromReplica(boolean readFromReplica) {
+    if (readFromReplica) {
+      READ_FROM_REPLICA.set(Boolean.TRUE);
+    } else {
+      READ_FROM_REPLICA.remove();
+    }
+  }
+}
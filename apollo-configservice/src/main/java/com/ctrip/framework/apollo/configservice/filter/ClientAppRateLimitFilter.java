@@ -0,0 +1,65 @@
+package com.ctrip.framework.apollo.configservice.filter;
+
+import com.ctrip.framework.apollo.configservice.util.AccessKeyUtil;
+import com.ctrip.framework.apollo.configservice.util.AdmissionControlUtil;
+import com.google.common.base.Strings;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Sheds the requests of the apps exceeding their rates with 429 and Retry-After, after they are authenticated by
+ * {@link ClientAuthenticationFilter}, so that only the requests passing the access key check are charged to the apps.
+ */
+public class ClientAppRateLimitFilter implements Filter {
+
+  private final AdmissionControlUtil admissionControlUtil;
+  private final AccessKeyUtil accessKeyUtil;
+
+  public ClientAppRateLimitFilter(AdmissionControlUtil admissionControlUtil, AccessKeyUtil accessKeyUtil) {
+    this.admissionControlUtil = admissionControlUtil;
+    this.accessKeyUtil = accessKeyUtil;
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) throws ServletException {
+    //nothing
+  }
+
+  @Override
+  public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain)
+      throws IOException, ServletException {
+    HttpServletRequest request = (HttpServletRequest) req;
+    HttpServletResponse response = (HttpServletResponse) resp;
+
+    for (String appId : extractAppIds(request)) {
+      if (!admissionControlUtil.tryAcquireApp(appId)) {
+        ClientRateLimitFilter.reject(admissionControlUtil, response);
+        return;
+      }
+    }
+
+    chain.doFilter(request, response);
+  }
+
+  @Override
+  public void destroy() {
+    //nothing
+  }
+
+  private List<String> extractAppIds(HttpServletRequest request) {
+    if (accessKeyUtil.isAppsRequest(request)) {
+      return accessKeyUtil.extractAppIdsFromRequest(request);
+    }
+    String appId = accessKeyUtil.extractAppIdFromRequest(request);
+    return Strings.isNullOrEmpty(appId) ? Collections.emptyList() : Collections.singletonList(appId);
+  }
+}
@@ -26,6 +26,7 @@ public class ClientAuthenticationFilter implements Filter {
   private static final Logger logger = LoggerFactory.getLogger(ClientAuthenticationFilter.class);
 
   private static final Long TIMESTAMP_INTERVAL = 60 * 1000L;
+  private static final String AUTHORIZATION_PREFIX_FORMAT = "Apollo %s:";
 
   private final AccessKeyUtil accessKeyUtil;
 
@@ -44,22 +45,46 @@ public class ClientAuthenticationFilter implements Filter {
     HttpServletRequest request = (HttpServletRequest) req;
     HttpServletResponse response = (HttpServletResponse) resp;
 
-    String appId = accessKeyUtil.extractAppIdFromRequest(request);
-    if (StringUtils.isBlank(appId)) {
-      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "InvalidAppId");
-      return;
+    if (accessKeyUtil.isAppsRequest(request)) {
+      List<String> appIds = accessKeyUtil.extractAppIdsFromRequest(request);
+      if (appIds.isEmpty()) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "InvalidAppId");
+        return;
+      }
+      String authorizations = request.getHeader(Signature.HTTP_HEADER_AUTHORIZATION);
+      for (String appId : appIds) {
+        if (!authenticate(request, response, appId, findAuthorization(authorizations, appId))) {
+          return;
+        }
+      }
+    } else {
+      String appId = accessKeyUtil.extractAppIdFromRequest(request);
+      if (StringUtils.isBlank(appId)) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "InvalidAppId");
+        return;
+      }
+      if (!authenticate(request, response, appId, request.getHeader(Signature.HTTP_HEADER_AUTHORIZATION))) {
+        return;
+      }
     }
 
+    chain.doFilter(request, response);
+  }
+
+  /**
+   * @return false if the request is rejected, and the error is sent
+   */
+  private boolean authenticate(HttpServletRequest request, HttpServletResponse response, String appId,
+      String authorization) throws IOException {
     List<String> availableSecrets = accessKeyUtil.findAvailableSecret(appId);
     if (!CollectionUtils.isEmpty(availableSecrets)) {
       String timestamp = request.getHeader(Signature.HTTP_HEADER_TIMESTAMP);
-      String authorization = request.getHeader(Signature.HTTP_HEADER_AUTHORIZATION);
 
       // check timestamp, valid within 1 minute
       if (!checkTimestamp(timestamp)) {
         logger.warn("Invalid timestamp. appId={},timestamp={}", appId, timestamp);
         response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "RequestTimeTooSkewed");
-        return;
+        return false;
       }
 
       // check signature
@@ -68,11 +93,27 @@ public class ClientAuthenticationFilter implements Filter {
       if (!checkAuthorization(authorization, availableSecrets, timestamp, path, query)) {
         logger.warn("Invalid authorization. appId={},authorization={}", appId, authorization);
         response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
-        return;
+        return false;
       }
     }
+    return true;
+  }
 
-    chain.doFilter(request, response);
+  /**
+   * Find the authorization of the app in the ones of the apps requested together, i.e. Apollo {appId1}:{sign1},Apollo
+   * {appId2}:{sign2}
+   */
+  private String findAuthorization(String authorizations, String appId) {
+    if (authorizations == null) {
+      return null;
+    }
+    String prefix = String.format(AUTHORIZATION_PREFIX_FORMAT, appId);
+    for (String authorization : authorizations.split(Signature.AUTHORIZATION_SEPARATOR)) {
+      if (authorization.trim().startsWith(prefix)) {
+        return authorization.trim();
+      }
+    }
+    return null;
   }
 
   @Override
@@ -0,0 +1,58 @@
+package com.ctrip.framework.apollo.configservice.filter;
+
+import com.ctrip.framework.apollo.configservice.util.AdmissionControlUtil;
+import java.io.IOException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Sheds the requests of the client ips exceeding their rates with 429 and Retry-After, before they are authenticated.
+ *
+ * <p>The client ip is resolved by {@link AdmissionControlUtil#resolveClientIp(HttpServletRequest)}, and the apps are
+ * rate limited by {@link ClientAppRateLimitFilter} after the requests are authenticated.
+ */
+public class ClientRateLimitFilter implements Filter {
+
+  private final AdmissionControlUtil admissionControlUtil;
+
+  public ClientRateLimitFilter(AdmissionControlUtil admissionControlUtil) {
+    this.admissionControlUtil = admissionControlUtil;
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) throws ServletException {
+    //nothing
+  }
+
+  @Override
+  public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain)
+      throws IOException, ServletException {
+    HttpServletRequest request = (HttpServletRequest) req;
+    HttpServletResponse response = (HttpServletResponse) resp;
+
+    if (!admissionControlUtil.tryAcquireIp(admissionControlUtil.resolveClientIp(request))) {
+      reject(admissionControlUtil, response);
+      return;
+    }
+
+    chain.doFilter(request, response);
+  }
+
+  @Override
+  public void destroy() {
+    //nothing
+  }
+
+  static void reject(AdmissionControlUtil admissionControlUtil, HttpServletResponse response) throws IOException {
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionControlUtil.retryAfterInSeconds()));
+    response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "TooManyRequests");
+  }
+}
@@ -3,6 +3,7 @@ package com.ctrip.framework.apollo.configservice.service;
 import com.ctrip.framework.apollo.biz.config.BizConfig;
 import com.ctrip.framework.apollo.biz.repository.AppNamespaceRepository;
 import com.ctrip.framework.apollo.common.entity.AppNamespace;
+import com.ctrip.framework.apollo.configservice.datasource.ReadReplicaRouter;
 import com.ctrip.framework.apollo.configservice.wrapper.CaseInsensitiveMapWrapper;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
@@ -39,6 +40,7 @@ public class AppNamespaceServiceWithCache implements InitializingBean {
       .skipNulls();
   private final AppNamespaceRepository appNamespaceRepository;
   private final BizConfig bizConfig;
+  private final ReadReplicaRouter readReplicaRouter;
 
   private int scanInterval;
   private TimeUnit scanIntervalTimeUnit;
@@ -58,9 +60,11 @@ public class AppNamespaceServiceWithCache implements InitializingBean {
 
   public AppNamespaceServiceWithCache(
       final AppNamespaceRepository appNamespaceRepository,
-      final BizConfig bizConfig) {
+      final BizConfig bizConfig,
+      final ReadReplicaRouter readReplicaRouter) {
     this.appNamespaceRepository = appNamespaceRepository;
     this.bizConfig = bizConfig;
+    this.readReplicaRouter = readReplicaRouter;
     initialize();
   }
 
@@ -148,13 +152,13 @@ public class AppNamespaceServiceWithCache implements InitializingBean {
     }
   }
 
-  //for those new app namespaces
+  //for those new app namespaces, which could be read from the replica as it only moves forward
   private void loadNewAppNamespaces() {
     boolean hasMore = true;
     while (hasMore && !Thread.currentThread().isInterrupted()) {
       //current batch is 500
-      List<AppNamespace> appNamespaces = appNamespaceRepository
-          .findFirst500ByIdGreaterThanOrderByIdAsc(maxIdScanned);
+      List<AppNamespace> appNamespaces = readReplicaRouter.read(0,
+          () -> appNamespaceRepository.findFirst500ByIdGreaterThanOrderByIdAsc(maxIdScanned));
       if (CollectionUtils.isEmpty(appNamespaces)) {
         break;
       }
@@ -176,7 +180,8 @@ public class AppNamespaceServiceWithCache implements InitializingBean {
     }
   }
 
-  //for those updated or deleted app namespaces
+  //for those updated or deleted app namespaces, read from the primary so that the app namespaces scanned from it
+  //are not taken as deleted by a lagging replica
   private void updateAndDeleteCache() {
     List<Long> ids = Lists.newArrayList(appNamespaceIdCache.keySet());
     if (CollectionUtils.isEmpty(ids)) {
@@ -5,6 +5,7 @@ import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
 import com.ctrip.framework.apollo.biz.message.ReleaseMessageListener;
 import com.ctrip.framework.apollo.biz.message.Topics;
 import com.ctrip.framework.apollo.biz.repository.ReleaseMessageRepository;
+import com.ctrip.framework.apollo.configservice.datasource.ReadReplicaRouter;
 import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.tracer.spi.Transaction;
@@ -34,6 +35,7 @@ public class ReleaseMessageServiceWithCache implements ReleaseMessageListener, I
   private static final Logger logger = LoggerFactory.getLogger(ReleaseMessageServiceWithCache.class);
   private final ReleaseMessageRepository releaseMessageRepository;
   private final BizConfig bizConfig;
+  private final ReadReplicaRouter readReplicaRouter;
 
   private int scanInterval;
   private TimeUnit scanIntervalTimeUnit;
@@ -47,9 +49,11 @@ public class ReleaseMessageServiceWithCache implements ReleaseMessageListener, I
 
   public ReleaseMessageServiceWithCache(
       final ReleaseMessageRepository releaseMessageRepository,
-      final BizConfig bizConfig) {
+      final BizConfig bizConfig,
+      final ReadReplicaRouter readReplicaRouter) {
     this.releaseMessageRepository = releaseMessageRepository;
     this.bizConfig = bizConfig;
+    this.readReplicaRouter = readReplicaRouter;
     initialize();
   }
 
@@ -111,7 +115,7 @@ public class ReleaseMessageServiceWithCache implements ReleaseMessageListener, I
       mergeReleaseMessage(message);
     } else if (gap > 1) {
       //gap found!
-      loadReleaseMessages(maxIdScanned);
+      loadReleaseMessages(maxIdScanned, message.getId());
     }
   }
 
@@ -120,14 +124,14 @@ public class ReleaseMessageServiceWithCache implements ReleaseMessageListener, I
     populateDataBaseInterval();
     //block the startup process until load finished
     //this should happen before ReleaseMessageScanner due to autowire
-    loadReleaseMessages(0);
+    loadReleaseMessages(0, 0);
 
     executorService.submit(() -> {
       while (doScan.get() && !Thread.currentThread().isInterrupted()) {
         Transaction transaction = Tracer.newTransaction("Apollo.ReleaseMessageServiceWithCache",
             "scanNewReleaseMessages");
         try {
-          loadReleaseMessages(maxIdScanned);
+          loadReleaseMessages(maxIdScanned, 0);
           transaction.setStatus(Transaction.SUCCESS);
         } catch (Throwable ex) {
           transaction.setStatus(ex);
@@ -152,12 +156,16 @@ public class ReleaseMessageServiceWithCache implements ReleaseMessageListener, I
     }
   }
 
-  private void loadReleaseMessages(long startId) {
+  /**
+   * @param requiredId the release message id which must be loaded, so that it is not loaded from a stale replica
+   */
+  private void loadReleaseMessages(long startId, long requiredId) {
     boolean hasMore = true;
     while (hasMore && !Thread.currentThread().isInterrupted()) {
       //current batch is 500
-      List<ReleaseMessage> releaseMessages = releaseMessageRepository
-          .findFirst500ByIdGreaterThanOrderByIdAsc(startId);
+      long fromId = startId;
+      List<ReleaseMessage> releaseMessages = readReplicaRouter.read(requiredId,
+          () -> releaseMessageRepository.findFirst500ByIdGreaterThanOrderByIdAsc(fromId));
       if (CollectionUtils.isEmpty(releaseMessages)) {
         break;
       }
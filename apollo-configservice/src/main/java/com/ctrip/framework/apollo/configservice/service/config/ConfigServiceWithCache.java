@@ -6,6 +6,8 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import com.ctrip.framework.apollo.biz.entity.Release;
 import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
@@ -13,6 +15,9 @@ import com.ctrip.framework.apollo.biz.message.Topics;
 import com.ctrip.framework.apollo.biz.service.ReleaseMessageService;
 import com.ctrip.framework.apollo.biz.service.ReleaseService;
 import com.ctrip.framework.apollo.biz.utils.ReleaseMessageKeyGenerator;
+import com.ctrip.framework.apollo.common.exception.TooManyRequestsException;
+import com.ctrip.framework.apollo.configservice.datasource.ReadReplicaRouter;
+import com.ctrip.framework.apollo.configservice.util.AdmissionControlUtil;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.ctrip.framework.apollo.core.dto.ApolloNotificationMessages;
 import com.ctrip.framework.apollo.tracer.Tracer;
@@ -25,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
@@ -51,12 +57,21 @@ public class ConfigServiceWithCache extends AbstractConfigService {
   @Autowired
   private ReleaseMessageService releaseMessageService;
 
+  @Autowired
+  private AdmissionControlUtil admissionControlUtil;
+
+  @Autowired
+  private ReadReplicaRouter readReplicaRouter;
+
   private LoadingCache<String, ConfigCacheEntry> configCache;
 
   private LoadingCache<Long, Optional<Release>> configIdCache;
 
   private ConfigCacheEntry nullConfigCacheEntry;
 
+  //the notification ids the next loads of the keys must observe, so that they are not loaded from a stale replica
+  private final ConcurrentMap<String, Long> requiredNotificationIds = Maps.newConcurrentMap();
+
   public ConfigServiceWithCache() {
     nullConfigCacheEntry = new ConfigCacheEntry(ConfigConsts.NOTIFICATION_ID_PLACEHOLDER, null);
   }
@@ -76,22 +91,31 @@ public class ConfigServiceWithCache extends AbstractConfigService {
             }
 
             Transaction transaction = Tracer.newTransaction(TRACER_EVENT_CACHE_LOAD, key);
+            Long requiredNotificationId = requiredNotificationIds.get(key);
             try {
-              ReleaseMessage latestReleaseMessage = releaseMessageService.findLatestReleaseMessageForMessages(Lists
-                  .newArrayList(key));
-              Release latestRelease = releaseService.findLatestActiveRelease(namespaceInfo.get(0), namespaceInfo.get(1),
-                  namespaceInfo.get(2));
+              ConfigCacheEntry cacheEntry = admissionControlUtil.loadFromDb(() -> readReplicaRouter.read(
+                  requiredNotificationId == null ? 0 : requiredNotificationId, () -> {
+                ReleaseMessage latestReleaseMessage = releaseMessageService.findLatestReleaseMessageForMessages(Lists
+                    .newArrayList(key));
+                Release latestRelease = releaseService.findLatestActiveRelease(namespaceInfo.get(0),
+                    namespaceInfo.get(1), namespaceInfo.get(2));
 
-              transaction.setStatus(Transaction.SUCCESS);
+                long notificationId = latestReleaseMessage == null ? ConfigConsts.NOTIFICATION_ID_PLACEHOLDER :
+                    latestReleaseMessage.getId();
+
+                if (notificationId == ConfigConsts.NOTIFICATION_ID_PLACEHOLDER && latestRelease == null) {
+                  return nullConfigCacheEntry;
+                }
 
-              long notificationId = latestReleaseMessage == null ? ConfigConsts.NOTIFICATION_ID_PLACEHOLDER : latestReleaseMessage
-                  .getId();
+                return new ConfigCacheEntry(notificationId, latestRelease);
+              }));
 
-              if (notificationId == ConfigConsts.NOTIFICATION_ID_PLACEHOLDER && latestRelease == null) {
-                return nullConfigCacheEntry;
+              if (requiredNotificationId != null) {
+                requiredNotificationIds.remove(key, requiredNotificationId);
               }
+              transaction.setStatus(Transaction.SUCCESS);
 
-              return new ConfigCacheEntry(notificationId, latestRelease);
+              return cacheEntry;
             } catch (Throwable ex) {
               transaction.setStatus(ex);
               throw ex;
@@ -107,7 +131,7 @@ public class ConfigServiceWithCache extends AbstractConfigService {
           public Optional<Release> load(Long key) throws Exception {
             Transaction transaction = Tracer.newTransaction(TRACER_EVENT_CACHE_LOAD_ID, String.valueOf(key));
             try {
-              Release release = releaseService.findActiveOne(key);
+              Release release = admissionControlUtil.loadFromDb(() -> releaseService.findActiveOne(key));
 
               transaction.setStatus(Transaction.SUCCESS);
 
@@ -125,7 +149,7 @@ public class ConfigServiceWithCache extends AbstractConfigService {
   @Override
   protected Release findActiveOne(long id, ApolloNotificationMessages clientMessages) {
     Tracer.logEvent(TRACER_EVENT_CACHE_GET_ID, String.valueOf(id));
-    return configIdCache.getUnchecked(id).orElse(null);
+    return getUnchecked(configIdCache, id).orElse(null);
   }
 
   @Override
@@ -135,19 +159,38 @@ public class ConfigServiceWithCache extends AbstractConfigService {
 
     Tracer.logEvent(TRACER_EVENT_CACHE_GET, key);
 
-    ConfigCacheEntry cacheEntry = configCache.getUnchecked(key);
+    ConfigCacheEntry cacheEntry = getUnchecked(configCache, key);
 
     //cache is out-dated
     if (clientMessages != null && clientMessages.has(key) &&
         clientMessages.get(key) > cacheEntry.getNotificationId()) {
       //invalidate the cache and try to load from db again
+      requireNotificationId(key, clientMessages.get(key));
       invalidate(key);
-      cacheEntry = configCache.getUnchecked(key);
+      cacheEntry = getUnchecked(configCache, key);
     }
 
     return cacheEntry.getRelease();
   }
 
+  /**
+   * Unwrap the shed loads, so that they are responded with 429 instead of 500
+   */
+  private <K, V> V getUnchecked(LoadingCache<K, V> cache, K key) {
+    try {
+      return cache.getUnchecked(key);
+    } catch (UncheckedExecutionException ex) {
+      if (ex.getCause() instanceof TooManyRequestsException) {
+        throw (TooManyRequestsException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  private void requireNotificationId(String key, long notificationId) {
+    requiredNotificationIds.merge(key, notificationId, Math::max);
+  }
+
   private void invalidate(String key) {
     configCache.invalidate(key);
     Tracer.logEvent(TRACER_EVENT_CACHE_INVALIDATE, key);
@@ -161,6 +204,7 @@ public class ConfigServiceWithCache extends AbstractConfigService {
     }
 
     try {
+      requireNotificationId(message.getMessage(), message.getId());
       invalidate(message.getMessage());
 
       //warm up the cache
@@ -3,6 +3,9 @@ package com.ctrip.framework.apollo.configservice.service.config;
 import com.ctrip.framework.apollo.biz.entity.Release;
 import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
 import com.ctrip.framework.apollo.biz.service.ReleaseService;
+import com.ctrip.framework.apollo.biz.utils.ReleaseMessageKeyGenerator;
+import com.ctrip.framework.apollo.configservice.datasource.ReadReplicaRouter;
+import com.ctrip.framework.apollo.configservice.util.AdmissionControlUtil;
 import com.ctrip.framework.apollo.core.dto.ApolloNotificationMessages;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,16 +20,26 @@ public class DefaultConfigService extends AbstractConfigService {
   @Autowired
   private ReleaseService releaseService;
 
+  @Autowired
+  private AdmissionControlUtil admissionControlUtil;
+
+  @Autowired
+  private ReadReplicaRouter readReplicaRouter;
+
   @Override
   protected Release findActiveOne(long id, ApolloNotificationMessages clientMessages) {
-    return releaseService.findActiveOne(id);
+    return admissionControlUtil.loadFromDb(() -> releaseService.findActiveOne(id));
   }
 
   @Override
   protected Release findLatestActiveRelease(String configAppId, String configClusterName, String configNamespace,
                                             ApolloNotificationMessages clientMessages) {
-    return releaseService.findLatestActiveRelease(configAppId, configClusterName,
-        configNamespace);
+    //the replica must have applied the notification the client has received
+    String key = ReleaseMessageKeyGenerator.generate(configAppId, configClusterName, configNamespace);
+    long requiredNotificationId = clientMessages != null && clientMessages.has(key) ? clientMessages.get(key) : 0;
+
+    return admissionControlUtil.loadFromDb(() -> readReplicaRouter.read(requiredNotificationId,
+        () -> releaseService.findLatestActiveRelease(configAppId, configClusterName, configNamespace)));
   }
 
   @Override
@@ -2,7 +2,9 @@ package com.ctrip.framework.apollo.configservice.util;
 
 import com.ctrip.framework.apollo.configservice.service.AccessKeyServiceWithCache;
 import com.ctrip.framework.apollo.core.signature.Signature;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import java.util.Collections;
 import java.util.List;
 import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.lang.StringUtils;
@@ -19,6 +21,8 @@ public class AccessKeyUtil {
   private static final String URL_CONFIGFILES_JSON_PREFIX = "/configfiles/json/";
   private static final String URL_CONFIGFILES_PREFIX = "/configfiles/";
   private static final String URL_NOTIFICATIONS_PREFIX = "/notifications/v2";
+  private static final String URL_NOTIFICATIONS_APPS = "/notifications/v2/apps";
+  private static final Splitter APP_IDS_SPLITTER = Splitter.on(",").omitEmptyStrings().trimResults();
 
   private final AccessKeyServiceWithCache accessKeyServiceWithCache;
 
@@ -47,6 +51,21 @@ public class AccessKeyUtil {
     return appId;
   }
 
+  /**
+   * @return whether the request is for several apps, whose ids are in the appIds parameter
+   */
+  public boolean isAppsRequest(HttpServletRequest request) {
+    return URL_NOTIFICATIONS_APPS.equals(request.getServletPath());
+  }
+
+  public List<String> extractAppIdsFromRequest(HttpServletRequest request) {
+    String appIds = request.getParameter("appIds");
+    if (Strings.isNullOrEmpty(appIds)) {
+      return Collections.emptyList();
+    }
+    return APP_IDS_SPLITTER.splitToList(appIds);
+  }
+
   public String buildSignature(String path, String query, String timestampString, String secret) {
     String pathWithQuery = path;
     if (!Strings.isNullOrEmpty(query)) {
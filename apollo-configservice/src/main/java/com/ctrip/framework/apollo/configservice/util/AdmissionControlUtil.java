@@ -0,0 +1,189 @@
+package com.ctrip.framework.apollo.configservice.util;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.common.exception.TooManyRequestsException;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control of the config service, so that an overloaded config service sheds the excess requests instead of
+ * queueing them until everyone times out.
+ *
+ * <p>Each app and each client ip has a token bucket, and the database loads on cache misses are bounded by a global
+ * concurrency limit. The client ips are shed before the requests are authenticated, while the apps are charged only
+ * for the authenticated requests, so that the bucket of an app is not drained by requests forged with its app id. All
+ * the limits are disabled by default, see {@link BizConfig}.
+ */
+@Component
+public class AdmissionControlUtil {
+  static final String REASON_APP = "app";
+  static final String REASON_IP = "ip";
+  static final String REASON_DB = "db";
+  private static final String SHED_METRIC_NAME = "apollo.config-service.admission.shed";
+  private static final String TRACER_EVENT_SHED = "Admission.Shed";
+  private static final int LIMITER_CACHE_MAX_SIZE = 100000;
+  private static final long LIMITER_EXPIRED_AFTER_ACCESS_IN_MINUTES = 10;
+  private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+  private static final Splitter HOPS_SPLITTER = Splitter.on(',').omitEmptyStrings().trimResults();
+
+  private final BizConfig bizConfig;
+  private final MeterRegistry meterRegistry;
+  private final Cache<String, RateLimiter> appLimiters = newLimiterCache();
+  private final Cache<String, RateLimiter> ipLimiters = newLimiterCache();
+  private volatile DbPermits dbPermits;
+
+  public AdmissionControlUtil(final BizConfig bizConfig, final MeterRegistry meterRegistry) {
+    this.bizConfig = bizConfig;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * @return whether the request of the app is admitted
+   */
+  public boolean tryAcquireApp(String appId) {
+    return tryAcquire(appLimiters, appId, bizConfig.admissionAppQps(), REASON_APP);
+  }
+
+  /**
+   * @return whether the request of the client ip is admitted
+   */
+  public boolean tryAcquireIp(String ip) {
+    return tryAcquire(ipLimiters, ip, bizConfig.admissionIpQps(), REASON_IP);
+  }
+
+  /**
+   * The client ip is the remote address, or the one forwarded by the trusted proxies if the remote address is one of
+   * them, i.e. the rightmost address in X-Forwarded-For not of a trusted proxy. The ip reported by the client itself
+   * is not used, as it could be anything.
+   */
+  public String resolveClientIp(HttpServletRequest request) {
+    String ip = request.getRemoteAddr();
+    List<String> trustedProxies = bizConfig.admissionTrustedProxies();
+    if (!trustedProxies.contains(ip)) {
+      return ip;
+    }
+
+    String forwardedFor = request.getHeader(X_FORWARDED_FOR);
+    if (forwardedFor == null) {
+      return ip;
+    }
+    List<String> hops = HOPS_SPLITTER.splitToList(forwardedFor);
+    for (int i = hops.size() - 1; i >= 0; i--) {
+      ip = hops.get(i);
+      if (!trustedProxies.contains(ip)) {
+        break;
+      }
+    }
+    return ip;
+  }
+
+  public long retryAfterInSeconds() {
+    return bizConfig.admissionRetryAfterInSeconds();
+  }
+
+  /**
+   * Load from the database if the concurrency limit permits in time
+   *
+   * @throws TooManyRequestsException if there are too many concurrent loads
+   */
+  public <T> T loadFromDb(Supplier<T> loader) {
+    DbPermits permits = currentDbPermits();
+    if (permits == null) {
+      return loader.get();
+    }
+
+    boolean acquired;
+    try {
+      acquired = permits.semaphore.tryAcquire(bizConfig.admissionDbWaitInMilli(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      shed(REASON_DB);
+      throw new TooManyRequestsException("Too many concurrent loads from db", retryAfterInSeconds());
+    }
+
+    try {
+      return loader.get();
+    } finally {
+      permits.semaphore.release();
+    }
+  }
+
+  /**
+   * The semaphore is replaced when the limit changes, the loads holding the old one release it as usual
+   */
+  private DbPermits currentDbPermits() {
+    int concurrency = bizConfig.admissionDbConcurrency();
+    if (concurrency <= 0) {
+      return null;
+    }
+    DbPermits permits = dbPermits;
+    if (permits == null || permits.concurrency != concurrency) {
+      synchronized (this) {
+        permits = dbPermits;
+        if (permits == null || permits.concurrency != concurrency) {
+          permits = new DbPermits(concurrency);
+          dbPermits = permits;
+        }
+      }
+    }
+    return permits;
+  }
+
+  private boolean tryAcquire(Cache<String, RateLimiter> limiters, String key, int qps, String reason) {
+    if (qps <= 0 || key == null) {
+      return true;
+    }
+
+    RateLimiter limiter;
+    try {
+      limiter = limiters.get(key, () -> RateLimiter.create(qps));
+    } catch (ExecutionException ex) {
+      //not likely
+      return true;
+    }
+    if (limiter.getRate() != qps) {
+      limiter.setRate(qps);
+    }
+    if (limiter.tryAcquire()) {
+      return true;
+    }
+    shed(reason);
+    return false;
+  }
+
+  private void shed(String reason) {
+    meterRegistry.counter(SHED_METRIC_NAME, "reason", reason).increment();
+    Tracer.logEvent(TRACER_EVENT_SHED, reason);
+  }
+
+  private static Cache<String, RateLimiter> newLimiterCache() {
+    return CacheBuilder.newBuilder()
+        .maximumSize(LIMITER_CACHE_MAX_SIZE)
+        .expireAfterAccess(LIMITER_EXPIRED_AFTER_ACCESS_IN_MINUTES, TimeUnit.MINUTES)
+        .build();
+  }
+
+  private static class DbPermits {
+    private final int concurrency;
+    private final Semaphore semaphore;
+
+    private DbPermits(int concurrency) {
+      this.concurrency = concurrency;
+      this.semaphore = new Semaphore(concurrency);
+    }
+  }
+}
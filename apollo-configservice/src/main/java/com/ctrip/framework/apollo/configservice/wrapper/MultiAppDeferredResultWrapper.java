@@ -0,0 +1,74 @@
+package com.ctrip.framework.apollo.configservice.wrapper;
+
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.ctrip.framework.apollo.core.dto.ApolloConfigNotification;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The deferred result of a long polling request of several apps, whose notifications are marked with the app ids.
+ *
+ * <p>The same watch key may be watched by several apps, e.g. a public namespace, so a notification of the watch key is
+ * returned for each of them, with the namespace name the app watches it by.
+ */
+public class MultiAppDeferredResultWrapper extends DeferredResultWrapper {
+  private static final Joiner KEY_JOINER = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR);
+
+  //key: watch key, value: the app and the original namespace name watching it
+  private final Multimap<String, ApolloConfigNotification> watchedNamespaces =
+      Multimaps.newListMultimap(Maps.newTreeMap(String.CASE_INSENSITIVE_ORDER), Lists::newArrayList);
+
+  public MultiAppDeferredResultWrapper(long timeoutInMilli) {
+    super(timeoutInMilli);
+  }
+
+  public void recordWatchedNamespace(String watchKey, String appId, String originalNamespaceName) {
+    ApolloConfigNotification watchedNamespace = new ApolloConfigNotification(originalNamespaceName, 0);
+    watchedNamespace.setAppId(appId);
+    watchedNamespaces.put(watchKey, watchedNamespace);
+  }
+
+  /**
+   * The notifications without app ids, i.e. the ones of the release messages, are resolved to the apps watching the
+   * keys in their messages
+   */
+  @Override
+  public void setResult(List<ApolloConfigNotification> notifications) {
+    Map<String, ApolloConfigNotification> resolved = Maps.newLinkedHashMap();
+    for (ApolloConfigNotification notification : notifications) {
+      if (notification.getAppId() != null) {
+        resolved.put(assembleKey(notification), notification);
+        continue;
+      }
+      if (notification.getMessages() == null) {
+        continue;
+      }
+      for (Map.Entry<String, Long> message : notification.getMessages().getDetails().entrySet()) {
+        Collection<ApolloConfigNotification> watching = watchedNamespaces.get(message.getKey());
+        for (ApolloConfigNotification watchedNamespace : watching) {
+          String key = assembleKey(watchedNamespace);
+          ApolloConfigNotification appNotification = resolved.get(key);
+          if (appNotification == null) {
+            appNotification = new ApolloConfigNotification(watchedNamespace.getNamespaceName(),
+                notification.getNotificationId());
+            appNotification.setAppId(watchedNamespace.getAppId());
+            resolved.put(key, appNotification);
+          }
+          appNotification.addMessage(message.getKey(), message.getValue());
+        }
+      }
+    }
+    super.setResult(Lists.newArrayList(resolved.values()));
+  }
+
+  private static String assembleKey(ApolloConfigNotification notification) {
+    return KEY_JOINER.join(notification.getAppId(), notification.getNamespaceName());
+  }
+}
@@ -1,55 +1,54 @@
 package com.ctrip.framework.apollo.metaservice.controller;
 
+import com.ctrip.framework.apollo.core.ServiceNameConsts;
 import com.ctrip.framework.apollo.core.dto.ServiceDTO;
-import com.ctrip.framework.apollo.metaservice.service.DiscoveryService;
-import com.netflix.appinfo.InstanceInfo;
+import com.ctrip.framework.apollo.core.dto.ServiceListDTO;
+import com.ctrip.framework.apollo.metaservice.service.DiscoveryServiceWithCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/services")
 public class ServiceController {
 
-  private final DiscoveryService discoveryService;
+  private final DiscoveryServiceWithCache discoveryServiceWithCache;
 
-  private static Function<InstanceInfo, ServiceDTO> instanceInfoToServiceDTOFunc = instance -> {
-    ServiceDTO service = new ServiceDTO();
-    service.setAppName(instance.getAppName());
-    service.setInstanceId(instance.getInstanceId());
-    service.setHomepageUrl(instance.getHomePageUrl());
-    return service;
-  };
-
-  public ServiceController(final DiscoveryService discoveryService) {
-    this.discoveryService = discoveryService;
+  public ServiceController(final DiscoveryServiceWithCache discoveryServiceWithCache) {
+    this.discoveryServiceWithCache = discoveryServiceWithCache;
   }
 
 
   @RequestMapping("/meta")
   public List<ServiceDTO> getMetaService() {
-    List<InstanceInfo> instances = discoveryService.getMetaServiceInstances();
-    List<ServiceDTO> result = instances.stream().map(instanceInfoToServiceDTOFunc).collect(Collectors.toList());
-    return result;
+    return discoveryServiceWithCache.getServices(ServiceNameConsts.APOLLO_METASERVICE).getServices();
   }
 
   @RequestMapping("/config")
   public List<ServiceDTO> getConfigService(
       @RequestParam(value = "appId", defaultValue = "") String appId,
       @RequestParam(value = "ip", required = false) String clientIp) {
-    List<InstanceInfo> instances = discoveryService.getConfigServiceInstances();
-    List<ServiceDTO> result = instances.stream().map(instanceInfoToServiceDTOFunc).collect(Collectors.toList());
-    return result;
+    return discoveryServiceWithCache.getServices(ServiceNameConsts.APOLLO_CONFIGSERVICE).getServices();
+  }
+
+  /**
+   * Long polling for the config services, which returns when their membership is no longer the version given
+   */
+  @GetMapping("/config/watch")
+  public DeferredResult<ResponseEntity<ServiceListDTO>> watchConfigService(
+      @RequestParam(value = "version", defaultValue = "-1") long version,
+      @RequestParam(value = "appId", defaultValue = "") String appId,
+      @RequestParam(value = "ip", required = false) String clientIp) {
+    return discoveryServiceWithCache.watchServices(ServiceNameConsts.APOLLO_CONFIGSERVICE, version);
   }
 
   @RequestMapping("/admin")
   public List<ServiceDTO> getAdminService() {
-    List<InstanceInfo> instances = discoveryService.getAdminServiceInstances();
-    List<ServiceDTO> result = instances.stream().map(instanceInfoToServiceDTOFunc).collect(Collectors.toList());
-    return result;
+    return discoveryServiceWithCache.getServices(ServiceNameConsts.APOLLO_ADMINSERVICE).getServices();
   }
 }
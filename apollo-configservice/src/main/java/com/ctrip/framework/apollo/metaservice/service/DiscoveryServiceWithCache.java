@@ -0,0 +1,190 @@
+package com.ctrip.framework.apollo.metaservice.service;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.core.ServiceNameConsts;
+import com.ctrip.framework.apollo.core.dto.ServiceDTO;
+import com.ctrip.framework.apollo.core.dto.ServiceListDTO;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import com.google.common.base.Joiner;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.hash.Hashing;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.CacheRefreshedEvent;
+import com.netflix.discovery.EurekaClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the instances of the services with a version, which changes whenever the membership of a service changes, so
+ * the clients could watch the membership instead of refreshing it periodically.
+ *
+ * <p>The version is derived from the membership itself, so all the meta server nodes agree on it and a client watching
+ * through a load balancer is not answered right away just because it reaches another node.
+ *
+ * <p>The cache is refreshed whenever the eureka client fetches the registry, and periodically in case the event is
+ * missed.
+ */
+@Service
+public class DiscoveryServiceWithCache implements InitializingBean {
+  private static final Logger logger = LoggerFactory.getLogger(DiscoveryServiceWithCache.class);
+  private static final long REFRESH_INTERVAL_IN_SECONDS = 5;
+  private static final ResponseEntity<ServiceListDTO> NOT_MODIFIED_RESPONSE = new ResponseEntity<>(
+      HttpStatus.NOT_MODIFIED);
+  private static final Joiner MEMBERSHIP_JOINER = Joiner.on(',');
+
+  private final DiscoveryService discoveryService;
+  private final EurekaClient eurekaClient;
+  private final BizConfig bizConfig;
+  private final ScheduledExecutorService scheduledExecutorService;
+  private final Map<String, Supplier<List<InstanceInfo>>> instanceSuppliers = Maps.newLinkedHashMap();
+
+  //store service name -> service list
+  private final Map<String, ServiceListDTO> serviceCache = Maps.newConcurrentMap();
+
+  //store service name -> watcher
+  private final Multimap<String, DeferredResult<ResponseEntity<ServiceListDTO>>> watchers =
+      Multimaps.synchronizedSetMultimap(HashMultimap.create());
+
+  public DiscoveryServiceWithCache(
+      final DiscoveryService discoveryService,
+      final EurekaClient eurekaClient,
+      final BizConfig bizConfig) {
+    this.discoveryService = discoveryService;
+    this.eurekaClient = eurekaClient;
+    this.bizConfig = bizConfig;
+    this.scheduledExecutorService = Executors.newScheduledThreadPool(1, ApolloThreadFactory
+        .create("DiscoveryServiceWithCache", true));
+    instanceSuppliers.put(ServiceNameConsts.APOLLO_METASERVICE, discoveryService::getMetaServiceInstances);
+    instanceSuppliers.put(ServiceNameConsts.APOLLO_CONFIGSERVICE, discoveryService::getConfigServiceInstances);
+    instanceSuppliers.put(ServiceNameConsts.APOLLO_ADMINSERVICE, discoveryService::getAdminServiceInstances);
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    refresh();
+    eurekaClient.registerEventListener(event -> {
+      if (event instanceof CacheRefreshedEvent) {
+        scheduledExecutorService.execute(this::refresh);
+      }
+    });
+    scheduledExecutorService.scheduleWithFixedDelay(this::refresh, REFRESH_INTERVAL_IN_SECONDS,
+        REFRESH_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+  }
+
+  public ServiceListDTO getServices(String serviceName) {
+    ServiceListDTO services = serviceCache.get(serviceName);
+    if (services == null) {
+      // not refreshed yet, e.g. the eureka client failed to initialize
+      services = new ServiceListDTO(0, toServiceDTOs(instanceSuppliers.get(serviceName).get()));
+    }
+    return services;
+  }
+
+  /**
+   * @return the services right away if the version is not the current one, otherwise the services once the
+   * membership changes, or 304 if it doesn't change before the long polling timeout
+   */
+  public DeferredResult<ResponseEntity<ServiceListDTO>> watchServices(String serviceName, long version) {
+    DeferredResult<ResponseEntity<ServiceListDTO>> result =
+        new DeferredResult<>(bizConfig.longPollingTimeoutInMilli(), NOT_MODIFIED_RESPONSE);
+    ServiceListDTO services = getServices(serviceName);
+    if (services.getVersion() != version) {
+      result.setResult(new ResponseEntity<>(services, HttpStatus.OK));
+      return result;
+    }
+
+    result.onCompletion(() -> watchers.remove(serviceName, result));
+    watchers.put(serviceName, result);
+
+    //check again in case the membership changed before the watcher is registered
+    services = serviceCache.get(serviceName);
+    if (services != null && services.getVersion() != version) {
+      result.setResult(new ResponseEntity<>(services, HttpStatus.OK));
+    }
+    return result;
+  }
+
+  synchronized void refresh() {
+    Transaction transaction = Tracer.newTransaction("Apollo.DiscoveryServiceWithCache", "refresh");
+    try {
+      for (Map.Entry<String, Supplier<List<InstanceInfo>>> entry : instanceSuppliers.entrySet()) {
+        refresh(entry.getKey(), toServiceDTOs(entry.getValue().get()));
+      }
+      transaction.setStatus(Transaction.SUCCESS);
+    } catch (Throwable ex) {
+      transaction.setStatus(ex);
+      logger.error("Refresh service cache failed", ex);
+    } finally {
+      transaction.complete();
+    }
+  }
+
+  private void refresh(String serviceName, List<ServiceDTO> services) {
+    ServiceListDTO cached = serviceCache.get(serviceName);
+    List<String> membership = membership(services);
+    if (cached != null && membership(cached.getServices()).equals(membership)) {
+      return;
+    }
+
+    ServiceListDTO changed = new ServiceListDTO(versionOf(membership), services);
+    serviceCache.put(serviceName, changed);
+    if (cached != null) {
+      logger.info("Membership of {} changed to version {}: {}", serviceName, changed.getVersion(), membership);
+      Tracer.logEvent("Apollo.Discovery.MembershipChanged", serviceName);
+    }
+
+    Collection<DeferredResult<ResponseEntity<ServiceListDTO>>> toBeNotified;
+    synchronized (watchers) {
+      toBeNotified = Lists.newArrayList(watchers.get(serviceName));
+    }
+    ResponseEntity<ServiceListDTO> response = new ResponseEntity<>(changed, HttpStatus.OK);
+    for (DeferredResult<ResponseEntity<ServiceListDTO>> watcher : toBeNotified) {
+      watcher.setResult(response);
+    }
+  }
+
+  private List<String> membership(List<ServiceDTO> services) {
+    return services.stream().map(service -> service.getInstanceId() + "@" + service.getHomepageUrl()).sorted()
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return a positive version, as 0 stands for a service not cached yet and -1 for a client knowing no version
+   */
+  static long versionOf(List<String> membership) {
+    long version = Hashing.murmur3_128().hashString(MEMBERSHIP_JOINER.join(membership), StandardCharsets.UTF_8)
+        .asLong() & Long.MAX_VALUE;
+    return version == 0 ? 1 : version;
+  }
+
+  static List<ServiceDTO> toServiceDTOs(List<InstanceInfo> instances) {
+    return instances.stream().map(instance -> {
+      ServiceDTO service = new ServiceDTO();
+      service.setAppName(instance.getAppName());
+      service.setInstanceId(instance.getInstanceId());
+      service.setHomepageUrl(instance.getHomePageUrl());
+      return service;
+    }).collect(Collectors.toList());
+  }
+}
@@ -6,10 +6,9 @@ import com.ctrip.framework.apollo.biz.message.Topics;
 import com.ctrip.framework.apollo.configservice.util.NamespaceUtil;
 import com.ctrip.framework.apollo.configservice.util.WatchKeysUtil;
 import com.ctrip.framework.apollo.core.dto.ApolloConfig;
+import com.google.common.base.Strings;
 import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
@@ -18,19 +17,29 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -52,12 +61,10 @@ public class ConfigFileControllerTest {
   private String someNamespace;
   private String someDataCenter;
   private String someClientIp;
-  @Mock
-  private HttpServletResponse someResponse;
-  @Mock
-  private HttpServletRequest someRequest;
-  Multimap<String, String> watchedKeys2CacheKey;
-  Multimap<String, String> cacheKey2WatchedKeys;
+  private MockHttpServletResponse someResponse;
+  private MockHttpServletRequest someRequest;
+  private ConcurrentMap<String, Set<String>> watchedKeys2CacheKey;
+  private ConcurrentMap<String, Set<String>> cacheKey2WatchedKeys;
 
   @Before
   public void setUp() throws Exception {
@@ -70,6 +77,8 @@ public class ConfigFileControllerTest {
     someNamespace = "someNamespace";
     someDataCenter = "someDataCenter";
     someClientIp = "10.1.1.1";
+    someRequest = new MockHttpServletRequest();
+    someResponse = new MockHttpServletResponse();
 
     when(namespaceUtil.filterNamespaceName(someNamespace)).thenReturn(someNamespace);
     when(namespaceUtil.normalizeNamespace(someAppId, someNamespace)).thenReturn(someNamespace);
@@ -77,10 +86,10 @@ public class ConfigFileControllerTest {
         .thenReturn(false);
 
     watchedKeys2CacheKey =
-        (Multimap<String, String>) ReflectionTestUtils
+        (ConcurrentMap<String, Set<String>>) ReflectionTestUtils
             .getField(configFileController, "watchedKeys2CacheKey");
     cacheKey2WatchedKeys =
-        (Multimap<String, String>) ReflectionTestUtils
+        (ConcurrentMap<String, Set<String>>) ReflectionTestUtils
             .getField(configFileController, "cacheKey2WatchedKeys");
   }
 
@@ -110,28 +119,32 @@ public class ConfigFileControllerTest {
         .assembleAllWatchKeys(someAppId, someClusterName, someNamespace, someDataCenter))
         .thenReturn(watchKeys);
 
-    ResponseEntity<String> response =
-        configFileController
-            .queryConfigAsProperties(someAppId, someClusterName, someNamespace, someDataCenter,
-                someClientIp, someRequest, someResponse);
+    configFileController
+        .queryConfigAsProperties(someAppId, someClusterName, someNamespace, someDataCenter,
+            someClientIp, someRequest, someResponse);
 
     assertEquals(2, watchedKeys2CacheKey.size());
-    assertEquals(2, cacheKey2WatchedKeys.size());
-    assertTrue(watchedKeys2CacheKey.containsEntry(someWatchKey, cacheKey));
-    assertTrue(watchedKeys2CacheKey.containsEntry(anotherWatchKey, cacheKey));
-    assertTrue(cacheKey2WatchedKeys.containsEntry(cacheKey, someWatchKey));
-    assertTrue(cacheKey2WatchedKeys.containsEntry(cacheKey, anotherWatchKey));
+    assertEquals(1, cacheKey2WatchedKeys.size());
+    assertTrue(watchedKeys2CacheKey.get(someWatchKey).contains(cacheKey));
+    assertTrue(watchedKeys2CacheKey.get(anotherWatchKey).contains(cacheKey));
+    assertTrue(cacheKey2WatchedKeys.get(cacheKey).contains(someWatchKey));
+    assertTrue(cacheKey2WatchedKeys.get(cacheKey).contains(anotherWatchKey));
 
-    assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertTrue(response.getBody().contains(String.format("%s=%s", someKey, someValue)));
-    assertTrue(response.getBody().contains(String.format("%s=%s", anotherKey, anotherValue)));
+    String result = someResponse.getContentAsString();
 
-    ResponseEntity<String> anotherResponse =
-        configFileController
-            .queryConfigAsProperties(someAppId, someClusterName, someNamespace, someDataCenter,
-                someClientIp, someRequest, someResponse);
+    assertEquals(HttpServletResponse.SC_OK, someResponse.getStatus());
+    assertEquals("text/plain;charset=UTF-8", someResponse.getContentType());
+    assertNotNull(someResponse.getHeader(HttpHeaders.ETAG));
+    assertTrue(result.contains(String.format("%s=%s", someKey, someValue)));
+    assertTrue(result.contains(String.format("%s=%s", anotherKey, anotherValue)));
+
+    MockHttpServletResponse anotherResponse = new MockHttpServletResponse();
+    configFileController
+        .queryConfigAsProperties(someAppId, someClusterName, someNamespace, someDataCenter,
+            someClientIp, someRequest, anotherResponse);
 
-    assertEquals(response, anotherResponse);
+    assertEquals(result, anotherResponse.getContentAsString());
+    assertEquals(someResponse.getHeader(HttpHeaders.ETAG), anotherResponse.getHeader(HttpHeaders.ETAG));
 
     verify(configController, times(1))
         .queryConfig(someAppId, someClusterName, someNamespace, someDataCenter, "-1", someClientIp, null,
@@ -159,13 +172,13 @@ public class ConfigFileControllerTest {
         .assembleAllWatchKeys(someAppId, someClusterName, someNamespace, someDataCenter))
         .thenReturn(watchKeys);
 
-    ResponseEntity<String> response =
-        configFileController
-            .queryConfigAsJson(someAppId, someClusterName, someNamespace, someDataCenter,
-                someClientIp, someRequest, someResponse);
+    configFileController
+        .queryConfigAsJson(someAppId, someClusterName, someNamespace, someDataCenter,
+            someClientIp, someRequest, someResponse);
 
-    assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals(configurations, gson.fromJson(response.getBody(), responseType));
+    assertEquals(HttpServletResponse.SC_OK, someResponse.getStatus());
+    assertEquals("application/json;charset=UTF-8", someResponse.getContentType());
+    assertEquals(configurations, gson.fromJson(someResponse.getContentAsString(), responseType));
   }
 
   @Test
@@ -187,22 +200,28 @@ public class ConfigFileControllerTest {
         .queryConfig(someAppId, someClusterName, someNamespace, someDataCenter, "-1", someClientIp, null,
             someRequest, someResponse)).thenReturn(someApolloConfig);
 
-    ResponseEntity<String> response =
-        configFileController
-            .queryConfigAsJson(someAppId, someClusterName, someNamespace, someDataCenter,
-                someClientIp, someRequest, someResponse);
+    configFileController
+        .queryConfigAsJson(someAppId, someClusterName, someNamespace, someDataCenter,
+            someClientIp, someRequest, someResponse);
 
-    ResponseEntity<String> anotherResponse =
-        configFileController
-            .queryConfigAsJson(someAppId, someClusterName, someNamespace, someDataCenter,
-                someClientIp, someRequest, someResponse);
+    String result = someResponse.getContentAsString();
 
-    verify(configController, times(2))
+    someResponse = new MockHttpServletResponse();
+    when(configController
         .queryConfig(someAppId, someClusterName, someNamespace, someDataCenter, "-1", someClientIp, null,
-            someRequest, someResponse);
+            someRequest, someResponse)).thenReturn(someApolloConfig);
+
+    configFileController
+        .queryConfigAsJson(someAppId, someClusterName, someNamespace, someDataCenter,
+            someClientIp, someRequest, someResponse);
+
+    verify(configController, times(2))
+        .queryConfig(eq(someAppId), eq(someClusterName), eq(someNamespace), eq(someDataCenter), eq("-1"),
+            eq(someClientIp), isNull(), eq(someRequest), any(HttpServletResponse.class));
 
-    assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals(configurations, gson.fromJson(response.getBody(), responseType));
+    assertEquals(HttpServletResponse.SC_OK, someResponse.getStatus());
+    assertEquals(configurations, gson.fromJson(result, responseType));
+    assertEquals(result, someResponse.getContentAsString());
     assertTrue(watchedKeys2CacheKey.isEmpty());
     assertTrue(cacheKey2WatchedKeys.isEmpty());
   }
@@ -218,20 +237,102 @@ public class ConfigFileControllerTest {
     ReleaseMessage someReleaseMessage = mock(ReleaseMessage.class);
     when(someReleaseMessage.getMessage()).thenReturn(someWatchKey);
 
-    Cache<String, String> cache =
-        (Cache<String, String>) ReflectionTestUtils.getField(configFileController, "localCache");
-    cache.put(someCacheKey, someValue);
-    cache.put(anotherCacheKey, someValue);
+    Cache<String, ConfigFileController.ConfigFileCacheEntry> cache =
+        (Cache<String, ConfigFileController.ConfigFileCacheEntry>) ReflectionTestUtils
+            .getField(configFileController, "localCache");
+    cache.put(someCacheKey, ConfigFileController.ConfigFileCacheEntry.create(someValue.getBytes(), true));
+    cache.put(anotherCacheKey, ConfigFileController.ConfigFileCacheEntry.create(someValue.getBytes(), true));
 
-    watchedKeys2CacheKey.putAll(someWatchKey, Lists.newArrayList(someCacheKey, anotherCacheKey));
-    watchedKeys2CacheKey.putAll(anotherWatchKey, Lists.newArrayList(someCacheKey, anotherCacheKey));
+    watchedKeys2CacheKey.put(someWatchKey, Sets.newConcurrentHashSet(Sets.newHashSet(someCacheKey, anotherCacheKey)));
+    watchedKeys2CacheKey.put(anotherWatchKey, Sets.newConcurrentHashSet(Sets.newHashSet(someCacheKey, anotherCacheKey)));
 
-    cacheKey2WatchedKeys.putAll(someCacheKey, Lists.newArrayList(someWatchKey, anotherWatchKey));
-    cacheKey2WatchedKeys.putAll(anotherCacheKey, Lists.newArrayList(someWatchKey, anotherWatchKey));
+    cacheKey2WatchedKeys.put(someCacheKey, Sets.newHashSet(someWatchKey, anotherWatchKey));
+    cacheKey2WatchedKeys.put(anotherCacheKey, Sets.newHashSet(someWatchKey, anotherWatchKey));
 
     configFileController.handleMessage(someReleaseMessage, Topics.APOLLO_RELEASE_TOPIC);
 
     assertTrue(watchedKeys2CacheKey.isEmpty());
     assertTrue(cacheKey2WatchedKeys.isEmpty());
   }
+
+  @Test
+  public void testQueryConfigWithIfNoneMatch() throws Exception {
+    Map<String, String> configurations = ImmutableMap.of("someKey", "someValue");
+    ApolloConfig someApolloConfig = mock(ApolloConfig.class);
+    when(someApolloConfig.getConfigurations()).thenReturn(configurations);
+    when(configController
+        .queryConfig(eq(someAppId), eq(someClusterName), eq(someNamespace), eq(someDataCenter), eq("-1"),
+            eq(someClientIp), isNull(), eq(someRequest), any(HttpServletResponse.class)))
+        .thenReturn(someApolloConfig);
+    when(watchKeysUtil
+        .assembleAllWatchKeys(someAppId, someClusterName, someNamespace, someDataCenter))
+        .thenReturn(Sets.newHashSet("someWatchKey"));
+
+    configFileController
+        .queryConfigAsProperties(someAppId, someClusterName, someNamespace, someDataCenter,
+            someClientIp, someRequest, someResponse);
+
+    String eTag = someResponse.getHeader(HttpHeaders.ETAG);
+
+    MockHttpServletRequest anotherRequest = new MockHttpServletRequest();
+    anotherRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"someOtherTag\", " + eTag);
+    MockHttpServletResponse anotherResponse = new MockHttpServletResponse();
+
+    configFileController
+        .queryConfigAsProperties(someAppId, someClusterName, someNamespace, someDataCenter,
+            someClientIp, anotherRequest, anotherResponse);
+
+    assertEquals(HttpServletResponse.SC_NOT_MODIFIED, anotherResponse.getStatus());
+    assertEquals(eTag, anotherResponse.getHeader(HttpHeaders.ETAG));
+    assertEquals(0, anotherResponse.getContentAsByteArray().length);
+  }
+
+  @Test
+  public void testQueryConfigWithGzip() throws Exception {
+    String someLargeValue = Strings.repeat("someValue", 1000);
+    Map<String, String> configurations = ImmutableMap.of("someKey", someLargeValue);
+    ApolloConfig someApolloConfig = mock(ApolloConfig.class);
+    when(someApolloConfig.getConfigurations()).thenReturn(configurations);
+    when(configController
+        .queryConfig(someAppId, someClusterName, someNamespace, someDataCenter, "-1", someClientIp, null,
+            someRequest, someResponse)).thenReturn(someApolloConfig);
+    when(watchKeysUtil
+        .assembleAllWatchKeys(someAppId, someClusterName, someNamespace, someDataCenter))
+        .thenReturn(Sets.newHashSet("someWatchKey"));
+
+    someRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+    configFileController
+        .queryConfigAsJson(someAppId, someClusterName, someNamespace, someDataCenter,
+            someClientIp, someRequest, someResponse);
+
+    byte[] compressed = someResponse.getContentAsByteArray();
+
+    assertEquals("gzip", someResponse.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertTrue(compressed.length < someLargeValue.length());
+    assertTrue(someResponse.getHeader(HttpHeaders.ETAG).endsWith("-gzip\""));
+
+    byte[] expected = new Gson().toJson(configurations).getBytes(StandardCharsets.UTF_8);
+    byte[] actual = new byte[expected.length];
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      int offset = 0;
+      int read;
+      while (offset < actual.length && (read = in.read(actual, offset, actual.length - offset)) > 0) {
+        offset += read;
+      }
+      assertEquals(-1, in.read());
+    }
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testQueryConfigNotFound() throws Exception {
+    configFileController
+        .queryConfigAsProperties(someAppId, someClusterName, someNamespace, someDataCenter,
+            someClientIp, someRequest, someResponse);
+
+    assertEquals(HttpServletResponse.SC_NOT_FOUND, someResponse.getStatus());
+    assertTrue(watchedKeys2CacheKey.isEmpty());
+    assertFalse(someResponse.containsHeader(HttpHeaders.ETAG));
+  }
 }
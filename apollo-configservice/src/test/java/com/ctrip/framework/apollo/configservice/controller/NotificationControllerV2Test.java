@@ -4,6 +4,7 @@ import com.ctrip.framework.apollo.biz.config.BizConfig;
 import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
 import com.ctrip.framework.apollo.biz.message.Topics;
 import com.ctrip.framework.apollo.biz.utils.EntityManagerUtil;
+import com.ctrip.framework.apollo.common.exception.BadRequestException;
 import com.ctrip.framework.apollo.configservice.service.ReleaseMessageServiceWithCache;
 import com.ctrip.framework.apollo.configservice.util.NamespaceUtil;
 import com.ctrip.framework.apollo.configservice.util.WatchKeysUtil;
@@ -14,6 +15,7 @@ import com.ctrip.framework.apollo.core.dto.ApolloNotificationMessages;
 import com.google.common.base.Joiner;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.gson.Gson;
@@ -29,6 +31,7 @@ import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -389,6 +392,103 @@ public class NotificationControllerV2Test {
 
   }
 
+  @Test
+  public void testPollNotificationsOfAppsAndHandleMessage() throws Exception {
+    String anotherAppId = "anotherAppId";
+    String someWatchKey = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR)
+        .join(someAppId, someCluster, defaultNamespace);
+    String somePublicWatchKey = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR)
+        .join("somePublicAppId", someCluster, somePublicNamespace);
+    String anotherPublicNamespace = somePublicNamespace.toLowerCase();
+
+    when(namespaceUtil.filterNamespaceName(anotherPublicNamespace)).thenReturn(anotherPublicNamespace);
+    when(namespaceUtil.normalizeNamespace(anotherAppId, anotherPublicNamespace)).thenReturn(somePublicNamespace);
+    when(watchKeysUtil.assembleAllWatchKeys(someAppId, someCluster, Sets.newHashSet(defaultNamespace),
+        someDataCenter)).thenReturn(assembleMultiMap(defaultNamespace, Lists.newArrayList(someWatchKey)));
+    when(watchKeysUtil.assembleAllWatchKeys(anotherAppId, someCluster, Sets.newHashSet(somePublicNamespace),
+        someDataCenter)).thenReturn(assembleMultiMap(somePublicNamespace, Lists.newArrayList(somePublicWatchKey)));
+
+    Map<String, List<ApolloConfigNotification>> appNotifications = Maps.newHashMap();
+    appNotifications.put(someAppId,
+        Lists.newArrayList(assembleApolloConfigNotification(defaultNamespace, someNotificationId)));
+    appNotifications.put(anotherAppId,
+        Lists.newArrayList(assembleApolloConfigNotification(anotherPublicNamespace, someNotificationId)));
+
+    DeferredResult<ResponseEntity<List<ApolloConfigNotification>>> deferredResult = controller
+        .pollNotifications(someAppId + "," + anotherAppId, someCluster, gson.toJson(appNotifications),
+            someDataCenter, someClientIp);
+
+    assertEquals(2, deferredResults.size());
+
+    long someId = 10;
+    ReleaseMessage someReleaseMessage = new ReleaseMessage(somePublicWatchKey);
+    someReleaseMessage.setId(someId);
+
+    controller.handleMessage(someReleaseMessage, Topics.APOLLO_RELEASE_TOPIC);
+
+    ResponseEntity<List<ApolloConfigNotification>> response =
+        (ResponseEntity<List<ApolloConfigNotification>>) deferredResult.getResult();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(1, response.getBody().size());
+    ApolloConfigNotification notification = response.getBody().get(0);
+    assertEquals(anotherAppId, notification.getAppId());
+    assertEquals(anotherPublicNamespace, notification.getNamespaceName());
+    assertEquals(someId, notification.getNotificationId());
+    assertEquals(someId, notification.getMessages().get(somePublicWatchKey).longValue());
+  }
+
+  @Test
+  public void testPollNotificationsOfAppsWithNewRelease() throws Exception {
+    String anotherAppId = "anotherAppId";
+    String someWatchKey = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR)
+        .join(someAppId, someCluster, defaultNamespace);
+    String anotherWatchKey = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR)
+        .join(anotherAppId, someCluster, defaultNamespace);
+
+    when(namespaceUtil.normalizeNamespace(anotherAppId, defaultNamespace)).thenReturn(defaultNamespace);
+    when(watchKeysUtil.assembleAllWatchKeys(someAppId, someCluster, Sets.newHashSet(defaultNamespace),
+        someDataCenter)).thenReturn(assembleMultiMap(defaultNamespace, Lists.newArrayList(someWatchKey)));
+    when(watchKeysUtil.assembleAllWatchKeys(anotherAppId, someCluster, Sets.newHashSet(defaultNamespace),
+        someDataCenter)).thenReturn(assembleMultiMap(defaultNamespace, Lists.newArrayList(anotherWatchKey)));
+
+    long newNotificationId = someNotificationId + 1;
+    ReleaseMessage someReleaseMessage = new ReleaseMessage(anotherWatchKey);
+    someReleaseMessage.setId(newNotificationId);
+    when(releaseMessageService.findLatestReleaseMessagesGroupByMessages(Sets.newHashSet(someWatchKey,
+        anotherWatchKey))).thenReturn(Lists.newArrayList(someReleaseMessage));
+
+    Map<String, List<ApolloConfigNotification>> appNotifications = Maps.newHashMap();
+    appNotifications.put(someAppId,
+        Lists.newArrayList(assembleApolloConfigNotification(defaultNamespace, someNotificationId)));
+    appNotifications.put(anotherAppId,
+        Lists.newArrayList(assembleApolloConfigNotification(defaultNamespace, someNotificationId)));
+
+    DeferredResult<ResponseEntity<List<ApolloConfigNotification>>> deferredResult = controller
+        .pollNotifications(someAppId + "," + anotherAppId, someCluster, gson.toJson(appNotifications),
+            someDataCenter, someClientIp);
+
+    ResponseEntity<List<ApolloConfigNotification>> response =
+        (ResponseEntity<List<ApolloConfigNotification>>) deferredResult.getResult();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(1, response.getBody().size());
+    ApolloConfigNotification notification = response.getBody().get(0);
+    assertEquals(anotherAppId, notification.getAppId());
+    assertEquals(defaultNamespace, notification.getNamespaceName());
+    assertEquals(newNotificationId, notification.getNotificationId());
+  }
+
+  @Test(expected = BadRequestException.class)
+  public void testPollNotificationsOfAppsNotAuthenticated() throws Exception {
+    Map<String, List<ApolloConfigNotification>> appNotifications = Maps.newHashMap();
+    appNotifications.put("anotherAppId",
+        Lists.newArrayList(assembleApolloConfigNotification(defaultNamespace, someNotificationId)));
+
+    controller.pollNotifications(someAppId, someCluster, gson.toJson(appNotifications), someDataCenter,
+        someClientIp);
+  }
+
   private String transformApolloConfigNotificationsToString(
       String namespace, long notificationId) {
     List<ApolloConfigNotification> notifications =
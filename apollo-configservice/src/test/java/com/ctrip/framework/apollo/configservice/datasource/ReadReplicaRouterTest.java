@@ -0,0 +1,85 @@
+package com.ctrip.framework.apollo.configservice.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.ctrip.framework.apollo.biz.utils.EntityManagerUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReadReplicaRouterTest {
+  private ReadReplicaRouter readReplicaRouter;
+  private SimpleMeterRegistry meterRegistry;
+
+  @Before
+  public void setUp() throws Exception {
+    meterRegistry = new SimpleMeterRegistry();
+    readReplicaRouter = new ReadReplicaRouter(meterRegistry, new EntityManagerUtil());
+  }
+
+  @Test
+  public void testReadFromPrimaryWithoutReplica() throws Exception {
+    assertFalse(readReplicaRouter.read(0, ReplicaRoutingDataSource::isReadFromReplica));
+    assertEquals(0, meterRegistry.getMeters().size());
+  }
+
+  @Test
+  public void testReadFromReplicaWhenApplied() throws Exception {
+    readReplicaRouter.replicaApplied(10);
+
+    assertTrue(readReplicaRouter.read(0, ReplicaRoutingDataSource::isReadFromReplica));
+    assertTrue(readReplicaRouter.read(10, ReplicaRoutingDataSource::isReadFromReplica));
+    assertFalse(ReplicaRoutingDataSource.isReadFromReplica());
+    assertEquals(2, readCount("replica"), 0);
+  }
+
+  @Test
+  public void testFallbackToPrimaryWhenReplicaIsBehind() throws Exception {
+    readReplicaRouter.replicaApplied(10);
+
+    assertFalse(readReplicaRouter.read(11, ReplicaRoutingDataSource::isReadFromReplica));
+    assertEquals(1, readCount("primary"), 0);
+  }
+
+  @Test
+  public void testReadFromPrimaryWhenReplicaUnavailable() throws Exception {
+    readReplicaRouter.replicaApplied(10);
+    readReplicaRouter.replicaUnavailable();
+
+    assertFalse(readReplicaRouter.read(0, ReplicaRoutingDataSource::isReadFromReplica));
+  }
+
+  @Test
+  public void testReadFromPrimaryInsideTransaction() throws Exception {
+    readReplicaRouter.replicaApplied(10);
+
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    try {
+      //the connection is already got by the transaction from the primary
+      assertFalse(readReplicaRouter.read(0, ReplicaRoutingDataSource::isReadFromReplica));
+    } finally {
+      TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+    assertEquals(1, readCount("primary"), 0);
+  }
+
+  @Test
+  public void testNestedReadRestoresOuterTarget() throws Exception {
+    readReplicaRouter.replicaApplied(10);
+
+    boolean outerAfterNested = readReplicaRouter.read(0, () -> {
+      assertFalse(readReplicaRouter.read(11, ReplicaRoutingDataSource::isReadFromReplica));
+      return ReplicaRoutingDataSource.isReadFromReplica();
+    });
+
+    assertTrue(outerAfterNested);
+    assertFalse(ReplicaRoutingDataSource.isReadFromReplica());
+  }
+
+  private double readCount(String target) {
+    return meterRegistry.counter("apollo.config-service.replica.reads", "target", target).count();
+  }
+}
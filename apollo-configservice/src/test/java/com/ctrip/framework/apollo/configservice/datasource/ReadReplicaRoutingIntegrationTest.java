@@ -0,0 +1,107 @@
+package com.ctrip.framework.apollo.configservice.datasource;
+
+import static org.junit.Assert.assertEquals;
+
+import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
+import com.ctrip.framework.apollo.biz.repository.ReleaseMessageRepository;
+import com.ctrip.framework.apollo.configservice.integration.AbstractBaseIntegrationTest;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs against two H2 databases standing for the primary and the replica, each holding a release message of its own,
+ * so the message read tells which database the read went to.
+ */
+@TestPropertySource(properties = {
+    "spring.datasource.replica.url = jdbc:h2:mem:~/apolloconfigdb-replica;mode=mysql;DB_CLOSE_ON_EXIT=FALSE;DB_CLOSE_DELAY=-1"
+})
+public class ReadReplicaRoutingIntegrationTest extends AbstractBaseIntegrationTest {
+  private static final String PRIMARY_MESSAGE = "primary+default+application";
+  private static final String REPLICA_MESSAGE = "replica+default+application";
+
+  @Autowired
+  private ReadReplicaRouter readReplicaRouter;
+  @Autowired
+  private ReleaseMessageRepository releaseMessageRepository;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  @Qualifier("replicaDataSource")
+  private DataSource replicaDataSource;
+  //checked by hand instead
+  @MockBean
+  private ReplicaLagTracker replicaLagTracker;
+
+  private JdbcTemplate replicaJdbcTemplate;
+  private ReleaseMessage primaryReleaseMessage;
+
+  @Before
+  public void setUp() throws Exception {
+    replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+    replicaJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS ReleaseMessage (Id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+        + "Message VARCHAR(1024) NOT NULL, DataChange_LastTime TIMESTAMP)");
+    replicaJdbcTemplate.update("INSERT INTO ReleaseMessage (Message, DataChange_LastTime) VALUES (?, NOW())",
+        REPLICA_MESSAGE);
+    primaryReleaseMessage = releaseMessageRepository.save(new ReleaseMessage(PRIMARY_MESSAGE));
+
+    readReplicaRouter.replicaApplied(Long.MAX_VALUE - 1);
+    openEntityManagerInView();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    closeEntityManagerInView();
+    readReplicaRouter.replicaUnavailable();
+    replicaJdbcTemplate.execute("DROP TABLE ReleaseMessage");
+    releaseMessageRepository.delete(primaryReleaseMessage);
+  }
+
+  @Test
+  public void testRouteEachReadInTheSameRequest() throws Exception {
+    assertEquals(REPLICA_MESSAGE, readLatestMessage(0));
+    //the replica has not applied the required notification yet, so it must not be served by the replica connection
+    assertEquals(PRIMARY_MESSAGE, readLatestMessage(Long.MAX_VALUE));
+    assertEquals(REPLICA_MESSAGE, readLatestMessage(0));
+  }
+
+  @Test
+  public void testUnroutedReadStaysOnPrimaryAfterReplicaRead() throws Exception {
+    assertEquals(REPLICA_MESSAGE, readLatestMessage(0));
+    assertEquals(PRIMARY_MESSAGE, releaseMessageRepository.findTopByOrderByIdDesc().getMessage());
+  }
+
+  @Test
+  public void testRoutedReadGoesToReplicaAfterUnroutedRead() throws Exception {
+    assertEquals(PRIMARY_MESSAGE, releaseMessageRepository.findTopByOrderByIdDesc().getMessage());
+    assertEquals(REPLICA_MESSAGE, readLatestMessage(0));
+  }
+
+  private String readLatestMessage(long requiredNotificationId) {
+    return readReplicaRouter.read(requiredNotificationId,
+        () -> releaseMessageRepository.findTopByOrderByIdDesc().getMessage());
+  }
+
+  /**
+   * The same as OpenEntityManagerInViewInterceptor does for a request
+   */
+  private void openEntityManagerInView() {
+    TransactionSynchronizationManager.bindResource(entityManagerFactory,
+        new EntityManagerHolder(entityManagerFactory.createEntityManager()));
+  }
+
+  private void closeEntityManagerInView() {
+    EntityManagerHolder emHolder =
+        (EntityManagerHolder) TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+    emHolder.getEntityManager().close();
+  }
+}
@@ -0,0 +1,85 @@
+package com.ctrip.framework.apollo.configservice.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.biz.utils.EntityManagerUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReplicaLagTrackerTest {
+  private static final String SQL = "SELECT MAX(Id) FROM ReleaseMessage";
+
+  @Mock
+  private JdbcTemplate primaryJdbcTemplate;
+  @Mock
+  private JdbcTemplate replicaJdbcTemplate;
+  @Mock
+  private BizConfig bizConfig;
+  private ReadReplicaRouter readReplicaRouter;
+  private ReplicaLagTracker replicaLagTracker;
+
+  @Before
+  public void setUp() throws Exception {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    readReplicaRouter = new ReadReplicaRouter(meterRegistry, new EntityManagerUtil());
+    replicaLagTracker = new ReplicaLagTracker(primaryJdbcTemplate, replicaJdbcTemplate, readReplicaRouter,
+        bizConfig, meterRegistry);
+  }
+
+  @Test
+  public void testUpdateLag() throws Exception {
+    assertEquals(0, replicaLagTracker.updateLag(10, 10, 1000));
+    assertEquals(0, replicaLagTracker.updateLag(10, 12, 2000));
+    assertEquals(1000, replicaLagTracker.updateLag(10, 15, 3000));
+    //applied 12 but not 15
+    assertEquals(1000, replicaLagTracker.updateLag(12, 15, 4000));
+    assertEquals(0, replicaLagTracker.updateLag(15, 15, 5000));
+  }
+
+  @Test
+  public void testReplicaAvailableWhenCaughtUp() throws Exception {
+    when(bizConfig.replicaMaxLagInMilli()).thenReturn(10000);
+    when(replicaJdbcTemplate.queryForObject(SQL, Long.class)).thenReturn(10L);
+    when(primaryJdbcTemplate.queryForObject(SQL, Long.class)).thenReturn(10L);
+
+    replicaLagTracker.check();
+
+    assertTrue(readReplicaRouter.read(10, ReplicaRoutingDataSource::isReadFromReplica));
+    assertFalse(readReplicaRouter.read(11, ReplicaRoutingDataSource::isReadFromReplica));
+  }
+
+  @Test
+  public void testReplicaUnavailableWhenLaggingTooMuch() throws Exception {
+    when(bizConfig.replicaMaxLagInMilli()).thenReturn(0);
+    when(replicaJdbcTemplate.queryForObject(SQL, Long.class)).thenReturn(10L);
+    when(primaryJdbcTemplate.queryForObject(SQL, Long.class)).thenReturn(11L);
+
+    replicaLagTracker.check();
+    Thread.sleep(10);
+    replicaLagTracker.check();
+
+    assertFalse(readReplicaRouter.isReplicaAvailable());
+  }
+
+  @Test
+  public void testReplicaUnavailableWhenCheckFailed() throws Exception {
+    readReplicaRouter.replicaApplied(10);
+    when(replicaJdbcTemplate.queryForObject(SQL, Long.class))
+        .thenThrow(new DataAccessResourceFailureException("replica down"));
+
+    replicaLagTracker.check();
+
+    assertFalse(readReplicaRouter.isReplicaAvailable());
+  }
+}
@@ -0,0 +1,74 @@
+package com.ctrip.framework.apollo.configservice.filter;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ctrip.framework.apollo.configservice.util.AccessKeyUtil;
+import com.ctrip.framework.apollo.configservice.util.AdmissionControlUtil;
+import com.google.common.collect.Lists;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ClientAppRateLimitFilterTest {
+
+  private ClientAppRateLimitFilter clientAppRateLimitFilter;
+
+  @Mock
+  private AdmissionControlUtil admissionControlUtil;
+  @Mock
+  private AccessKeyUtil accessKeyUtil;
+  @Mock
+  private HttpServletRequest request;
+  @Mock
+  private HttpServletResponse response;
+  @Mock
+  private FilterChain filterChain;
+
+  private String someAppId;
+
+  @Before
+  public void setUp() {
+    clientAppRateLimitFilter = new ClientAppRateLimitFilter(admissionControlUtil, accessKeyUtil);
+
+    someAppId = "someAppId";
+  }
+
+  @Test
+  public void testAdmitted() throws Exception {
+    when(accessKeyUtil.extractAppIdFromRequest(any())).thenReturn(someAppId);
+    when(admissionControlUtil.tryAcquireApp(someAppId)).thenReturn(true);
+
+    clientAppRateLimitFilter.doFilter(request, response, filterChain);
+
+    verify(filterChain).doFilter(request, response);
+    verify(response, never()).sendError(429, "TooManyRequests");
+  }
+
+  @Test
+  public void testAppsRequestRateLimited() throws Exception {
+    String anotherAppId = "anotherAppId";
+    long someRetryAfter = 5;
+
+    when(accessKeyUtil.isAppsRequest(request)).thenReturn(true);
+    when(accessKeyUtil.extractAppIdsFromRequest(request)).thenReturn(Lists.newArrayList(someAppId, anotherAppId));
+    when(admissionControlUtil.tryAcquireApp(someAppId)).thenReturn(true);
+    when(admissionControlUtil.tryAcquireApp(anotherAppId)).thenReturn(false);
+    when(admissionControlUtil.retryAfterInSeconds()).thenReturn(someRetryAfter);
+
+    clientAppRateLimitFilter.doFilter(request, response, filterChain);
+
+    verify(response).setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(someRetryAfter));
+    verify(response).sendError(429, "TooManyRequests");
+    verify(filterChain, never()).doFilter(request, response);
+  }
+}
@@ -1,6 +1,9 @@
 package com.ctrip.framework.apollo.configservice.filter;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -108,4 +111,52 @@ public class ClientAuthenticationFilterTest {
     verify(response, never()).sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
     verify(filterChain, times(1)).doFilter(request, response);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testAppsAuthorizedSuccessfully() throws Exception {
+    String someAppId = "someAppId";
+    String anotherAppId = "anotherAppId";
+    String yetAnotherAppId = "yetAnotherAppId";
+    String timestamp = Long.toString(System.currentTimeMillis());
+
+    when(accessKeyUtil.isAppsRequest(request)).thenReturn(true);
+    when(accessKeyUtil.extractAppIdsFromRequest(request))
+        .thenReturn(Lists.newArrayList(someAppId, anotherAppId, yetAnotherAppId));
+    when(accessKeyUtil.findAvailableSecret(someAppId)).thenReturn(Lists.newArrayList("someSecret"));
+    when(accessKeyUtil.findAvailableSecret(anotherAppId)).thenReturn(Lists.<String>newArrayList());
+    when(accessKeyUtil.findAvailableSecret(yetAnotherAppId)).thenReturn(Lists.newArrayList("yetAnotherSecret"));
+    when(accessKeyUtil.buildSignature(any(), any(), eq(timestamp), eq("someSecret"))).thenReturn("someSignature");
+    when(accessKeyUtil.buildSignature(any(), any(), eq(timestamp), eq("yetAnotherSecret")))
+        .thenReturn("yetAnotherSignature");
+    when(request.getHeader(Signature.HTTP_HEADER_TIMESTAMP)).thenReturn(timestamp);
+    when(request.getHeader(Signature.HTTP_HEADER_AUTHORIZATION))
+        .thenReturn("Apollo someAppId:someSignature,Apollo yetAnotherAppId:yetAnotherSignature");
+
+    clientAuthenticationFilter.doFilter(request, response, filterChain);
+
+    verify(response, never()).sendError(anyInt(), anyString());
+    verify(filterChain, times(1)).doFilter(request, response);
+  }
+
+  @Test
+  public void testAppsUnauthorized() throws Exception {
+    String someAppId = "someAppId";
+    String anotherAppId = "anotherAppId";
+    String timestamp = Long.toString(System.currentTimeMillis());
+
+    when(accessKeyUtil.isAppsRequest(request)).thenReturn(true);
+    when(accessKeyUtil.extractAppIdsFromRequest(request)).thenReturn(Lists.newArrayList(someAppId, anotherAppId));
+    when(accessKeyUtil.findAvailableSecret(someAppId)).thenReturn(Lists.<String>newArrayList());
+    when(accessKeyUtil.findAvailableSecret(anotherAppId)).thenReturn(Lists.newArrayList("anotherSecret"));
+    when(accessKeyUtil.buildSignature(any(), any(), eq(timestamp), eq("anotherSecret")))
+        .thenReturn("anotherSignature");
+    when(request.getHeader(Signature.HTTP_HEADER_TIMESTAMP)).thenReturn(timestamp);
+    //the signature of another app is sent as the one of some app
+    when(request.getHeader(Signature.HTTP_HEADER_AUTHORIZATION)).thenReturn("Apollo someAppId:anotherSignature");
+
+    clientAuthenticationFilter.doFilter(request, response, filterChain);
+
+    verify(response).sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
+    verify(filterChain, never()).doFilter(request, response);
+  }
+}
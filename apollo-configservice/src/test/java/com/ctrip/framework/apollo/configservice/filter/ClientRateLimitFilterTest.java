@@ -0,0 +1,66 @@
+package com.ctrip.framework.apollo.configservice.filter;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ctrip.framework.apollo.configservice.util.AdmissionControlUtil;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ClientRateLimitFilterTest {
+
+  private ClientRateLimitFilter clientRateLimitFilter;
+
+  @Mock
+  private AdmissionControlUtil admissionControlUtil;
+  @Mock
+  private HttpServletRequest request;
+  @Mock
+  private HttpServletResponse response;
+  @Mock
+  private FilterChain filterChain;
+
+  private String someIp;
+
+  @Before
+  public void setUp() {
+    clientRateLimitFilter = new ClientRateLimitFilter(admissionControlUtil);
+
+    someIp = "someIp";
+  }
+
+  @Test
+  public void testAdmitted() throws Exception {
+    when(admissionControlUtil.resolveClientIp(request)).thenReturn(someIp);
+    when(admissionControlUtil.tryAcquireIp(someIp)).thenReturn(true);
+
+    clientRateLimitFilter.doFilter(request, response, filterChain);
+
+    verify(filterChain).doFilter(request, response);
+    verify(response, never()).sendError(429, "TooManyRequests");
+  }
+
+  @Test
+  public void testIpRateLimited() throws Exception {
+    long someRetryAfter = 5;
+
+    when(admissionControlUtil.resolveClientIp(request)).thenReturn(someIp);
+    when(admissionControlUtil.tryAcquireIp(someIp)).thenReturn(false);
+    when(admissionControlUtil.retryAfterInSeconds()).thenReturn(someRetryAfter);
+
+    clientRateLimitFilter.doFilter(request, response, filterChain);
+
+    verify(response).setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(someRetryAfter));
+    verify(response).sendError(429, "TooManyRequests");
+    verify(filterChain, never()).doFilter(request, response);
+  }
+}
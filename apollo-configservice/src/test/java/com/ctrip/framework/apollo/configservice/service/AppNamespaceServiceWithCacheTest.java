@@ -2,9 +2,12 @@ package com.ctrip.framework.apollo.configservice.service;
 
 import com.ctrip.framework.apollo.biz.config.BizConfig;
 import com.ctrip.framework.apollo.biz.repository.AppNamespaceRepository;
+import com.ctrip.framework.apollo.biz.utils.EntityManagerUtil;
 import com.ctrip.framework.apollo.common.entity.AppNamespace;
+import com.ctrip.framework.apollo.configservice.datasource.ReadReplicaRouter;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -41,7 +44,8 @@ public class AppNamespaceServiceWithCacheTest {
 
   @Before
   public void setUp() throws Exception {
-    appNamespaceServiceWithCache = new AppNamespaceServiceWithCache(appNamespaceRepository, bizConfig);
+    appNamespaceServiceWithCache = new AppNamespaceServiceWithCache(appNamespaceRepository, bizConfig,
+        new ReadReplicaRouter(new SimpleMeterRegistry(), new EntityManagerUtil()));
 
     scanInterval = 50;
     scanIntervalTimeUnit = TimeUnit.MILLISECONDS;
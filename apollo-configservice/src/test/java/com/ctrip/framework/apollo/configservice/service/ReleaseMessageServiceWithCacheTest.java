@@ -4,8 +4,11 @@ import com.ctrip.framework.apollo.biz.config.BizConfig;
 import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
 import com.ctrip.framework.apollo.biz.message.Topics;
 import com.ctrip.framework.apollo.biz.repository.ReleaseMessageRepository;
+import com.ctrip.framework.apollo.biz.utils.EntityManagerUtil;
+import com.ctrip.framework.apollo.configservice.datasource.ReadReplicaRouter;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -44,7 +47,7 @@ public class ReleaseMessageServiceWithCacheTest {
 
   public void setUp() throws Exception {
     releaseMessageServiceWithCache = new ReleaseMessageServiceWithCache(
-        releaseMessageRepository, bizConfig
+        releaseMessageRepository, bizConfig, new ReadReplicaRouter(new SimpleMeterRegistry(), new EntityManagerUtil())
     );
 
     scanInterval = 10;
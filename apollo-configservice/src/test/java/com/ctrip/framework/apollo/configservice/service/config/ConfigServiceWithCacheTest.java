@@ -1,8 +1,15 @@
 package com.ctrip.framework.apollo.configservice.service.config;
 
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.biz.utils.EntityManagerUtil;
+import com.ctrip.framework.apollo.common.exception.TooManyRequestsException;
+import com.ctrip.framework.apollo.configservice.datasource.ReadReplicaRouter;
+import com.ctrip.framework.apollo.configservice.util.AdmissionControlUtil;
 import com.ctrip.framework.apollo.core.dto.ApolloNotificationMessages;
 import com.google.common.collect.Lists;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import com.ctrip.framework.apollo.biz.entity.Release;
 import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
 import com.ctrip.framework.apollo.biz.message.Topics;
@@ -17,8 +24,13 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.function.Supplier;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -39,6 +51,8 @@ public class ConfigServiceWithCacheTest {
   private Release someRelease;
   @Mock
   private ReleaseMessage someReleaseMessage;
+  @Mock
+  private BizConfig bizConfig;
 
   private String someAppId;
   private String someClusterName;
@@ -52,6 +66,10 @@ public class ConfigServiceWithCacheTest {
     configServiceWithCache = new ConfigServiceWithCache();
     ReflectionTestUtils.setField(configServiceWithCache, "releaseService", releaseService);
     ReflectionTestUtils.setField(configServiceWithCache, "releaseMessageService", releaseMessageService);
+    ReflectionTestUtils.setField(configServiceWithCache, "admissionControlUtil",
+        new AdmissionControlUtil(bizConfig, new SimpleMeterRegistry()));
+    ReflectionTestUtils.setField(configServiceWithCache, "readReplicaRouter",
+        new ReadReplicaRouter(new SimpleMeterRegistry(), new EntityManagerUtil()));
 
     configServiceWithCache.initialize();
 
@@ -276,4 +294,41 @@ public class ConfigServiceWithCacheTest {
     verify(releaseMessageService, times(1)).findLatestReleaseMessageForMessages(Lists.newArrayList(someKey));
     verify(releaseService, times(1)).findLatestActiveRelease(someAppId, someClusterName, someNamespaceName);
   }
+
+  @Test(expected = TooManyRequestsException.class)
+  public void testFindLatestActiveReleaseWithTooManyLoads() throws Exception {
+    AdmissionControlUtil admissionControlUtil = mock(AdmissionControlUtil.class);
+    ReflectionTestUtils.setField(configServiceWithCache, "admissionControlUtil", admissionControlUtil);
+
+    when(admissionControlUtil.loadFromDb(any())).thenThrow(new TooManyRequestsException("too many", 1));
+
+    configServiceWithCache.findLatestActiveRelease(someAppId, someClusterName, someNamespaceName,
+        someNotificationMessages);
+  }
+
+  @Test
+  public void testFindLatestActiveReleaseWithOutdatedCacheRequiresClientNotificationId() throws Exception {
+    long someNewNotificationId = someNotificationId + 1;
+    ReadReplicaRouter readReplicaRouter = mock(ReadReplicaRouter.class);
+    ReflectionTestUtils.setField(configServiceWithCache, "readReplicaRouter", readReplicaRouter);
+
+    when(readReplicaRouter.read(anyLong(), any())).thenAnswer(invocation ->
+        invocation.<Supplier<?>>getArgument(1).get());
+    when(releaseMessageService.findLatestReleaseMessageForMessages(Lists.newArrayList(someKey))).thenReturn
+        (someReleaseMessage);
+    when(releaseService.findLatestActiveRelease(someAppId, someClusterName, someNamespaceName)).thenReturn
+        (someRelease);
+    when(someReleaseMessage.getId()).thenReturn(someNotificationId);
+
+    configServiceWithCache.findLatestActiveRelease(someAppId, someClusterName, someNamespaceName,
+        someNotificationMessages);
+
+    someNotificationMessages.put(someKey, someNewNotificationId);
+
+    configServiceWithCache.findLatestActiveRelease(someAppId, someClusterName, someNamespaceName,
+        someNotificationMessages);
+
+    verify(readReplicaRouter, times(1)).read(eq(0L), any());
+    verify(readReplicaRouter, times(1)).read(eq(someNewNotificationId), any());
+  }
 }
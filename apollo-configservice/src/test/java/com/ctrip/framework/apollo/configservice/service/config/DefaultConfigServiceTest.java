@@ -8,11 +8,16 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.ctrip.framework.apollo.biz.config.BizConfig;
 import com.ctrip.framework.apollo.biz.entity.Release;
 import com.ctrip.framework.apollo.biz.grayReleaseRule.GrayReleaseRulesHolder;
 import com.ctrip.framework.apollo.biz.service.ReleaseService;
+import com.ctrip.framework.apollo.biz.utils.EntityManagerUtil;
+import com.ctrip.framework.apollo.configservice.datasource.ReadReplicaRouter;
+import com.ctrip.framework.apollo.configservice.util.AdmissionControlUtil;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.ctrip.framework.apollo.core.dto.ApolloNotificationMessages;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,6 +44,8 @@ public class DefaultConfigServiceTest {
   private ReleaseService releaseService;
   @Mock
   private GrayReleaseRulesHolder grayReleaseRulesHolder;
+  @Mock
+  private BizConfig bizConfig;
 
   @Mock
   private Release someRelease;
@@ -48,6 +55,10 @@ public class DefaultConfigServiceTest {
     configService = new DefaultConfigService();
     ReflectionTestUtils.setField(configService, "releaseService", releaseService);
     ReflectionTestUtils.setField(configService, "grayReleaseRulesHolder", grayReleaseRulesHolder);
+    ReflectionTestUtils.setField(configService, "admissionControlUtil",
+        new AdmissionControlUtil(bizConfig, new SimpleMeterRegistry()));
+    ReflectionTestUtils.setField(configService, "readReplicaRouter",
+        new ReadReplicaRouter(new SimpleMeterRegistry(), new EntityManagerUtil()));
 
     someClientAppId = "1234";
     someConfigAppId = "1";
@@ -82,6 +82,15 @@ public class AccessKeyUtilTest {
     assertThat(appId).isEqualTo("someAppId");
   }
 
+  @Test
+  public void testExtractAppIdsFromRequest() {
+    when(request.getServletPath()).thenReturn("/notifications/v2/apps");
+    when(request.getParameter("appIds")).thenReturn("someAppId,anotherAppId");
+
+    assertThat(accessKeyUtil.isAppsRequest(request)).isTrue();
+    assertThat(accessKeyUtil.extractAppIdsFromRequest(request)).containsExactly("someAppId", "anotherAppId");
+  }
+
   @Test
   public void buildSignature() {
     String path = "/configs/someAppId/default/application";
@@ -0,0 +1,145 @@
+package com.ctrip.framework.apollo.configservice.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdmissionControlUtilTest {
+  private AdmissionControlUtil admissionControlUtil;
+
+  @Mock
+  private BizConfig bizConfig;
+  private SimpleMeterRegistry meterRegistry;
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() throws Exception {
+    meterRegistry = new SimpleMeterRegistry();
+    admissionControlUtil = new AdmissionControlUtil(bizConfig, meterRegistry);
+    executorService = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testAdmittedWhenDisabled() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      assertTrue(admissionControlUtil.tryAcquireApp("someAppId"));
+      assertTrue(admissionControlUtil.tryAcquireIp("someIp"));
+    }
+    assertEquals("someResult", admissionControlUtil.loadFromDb(() -> "someResult"));
+  }
+
+  @Test
+  public void testAppRateLimited() throws Exception {
+    String someAppId = "someAppId";
+    String anotherAppId = "anotherAppId";
+
+    when(bizConfig.admissionAppQps()).thenReturn(1);
+
+    assertTrue(admissionControlUtil.tryAcquireApp(someAppId));
+    assertFalse(admissionControlUtil.tryAcquireApp(someAppId));
+    assertTrue(admissionControlUtil.tryAcquireApp(anotherAppId));
+
+    assertEquals(1, shedCount(AdmissionControlUtil.REASON_APP), 0);
+  }
+
+  @Test
+  public void testIpRateLimited() throws Exception {
+    String someIp = "someIp";
+
+    when(bizConfig.admissionIpQps()).thenReturn(1);
+
+    assertTrue(admissionControlUtil.tryAcquireIp(someIp));
+    assertFalse(admissionControlUtil.tryAcquireIp(someIp));
+
+    assertEquals(1, shedCount(AdmissionControlUtil.REASON_IP), 0);
+  }
+
+  @Test
+  public void testDbLoadShedWhenTooManyConcurrentLoads() throws Exception {
+    long someRetryAfter = 3;
+
+    when(bizConfig.admissionDbConcurrency()).thenReturn(1);
+    when(bizConfig.admissionDbWaitInMilli()).thenReturn(10);
+    when(bizConfig.admissionRetryAfterInSeconds()).thenReturn((int) someRetryAfter);
+
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch blocked = new CountDownLatch(1);
+    Future<String> slowLoad = executorService.submit(() -> admissionControlUtil.loadFromDb(() -> {
+      loading.countDown();
+      try {
+        blocked.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return "slowResult";
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+    try {
+      admissionControlUtil.loadFromDb(() -> "someResult");
+      fail("the load should be shed");
+    } catch (TooManyRequestsException ex) {
+      assertEquals(someRetryAfter, ex.getRetryAfterInSeconds());
+    }
+    assertEquals(1, shedCount(AdmissionControlUtil.REASON_DB), 0);
+
+    blocked.countDown();
+    assertEquals("slowResult", slowLoad.get(5, TimeUnit.SECONDS));
+    assertEquals("someResult", admissionControlUtil.loadFromDb(() -> "someResult"));
+  }
+
+  @Test
+  public void testResolveClientIp() throws Exception {
+    String someProxy = "10.0.0.1";
+    String anotherProxy = "10.0.0.2";
+    String someClientIp = "192.168.0.1";
+    String someForgedIp = "1.1.1.1";
+    when(bizConfig.admissionTrustedProxies()).thenReturn(Arrays.asList(someProxy, anotherProxy));
+
+    //the ip reported by the client is ignored
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setRemoteAddr(someClientIp);
+    request.setParameter("ip", someForgedIp);
+    request.addHeader("X-Forwarded-For", someForgedIp);
+    assertEquals(someClientIp, admissionControlUtil.resolveClientIp(request));
+
+    //the address forwarded by the trusted proxies, not the one prepended by the client
+    request = new MockHttpServletRequest();
+    request.setRemoteAddr(someProxy);
+    request.addHeader("X-Forwarded-For", someForgedIp + ", " + someClientIp + ", " + anotherProxy);
+    assertEquals(someClientIp, admissionControlUtil.resolveClientIp(request));
+
+    request = new MockHttpServletRequest();
+    request.setRemoteAddr(someProxy);
+    assertEquals(someProxy, admissionControlUtil.resolveClientIp(request));
+  }
+
+  private double shedCount(String reason) {
+    return meterRegistry.counter("apollo.config-service.admission.shed", "reason", reason).count();
+  }
+}
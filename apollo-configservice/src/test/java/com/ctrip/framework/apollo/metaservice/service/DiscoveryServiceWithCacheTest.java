@@ -0,0 +1,121 @@
+package com.ctrip.framework.apollo.metaservice.service;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.core.ServiceNameConsts;
+import com.ctrip.framework.apollo.core.dto.ServiceListDTO;
+import com.google.common.collect.Lists;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.EurekaClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DiscoveryServiceWithCacheTest {
+  private DiscoveryServiceWithCache discoveryServiceWithCache;
+
+  @Mock
+  private DiscoveryService discoveryService;
+  @Mock
+  private EurekaClient eurekaClient;
+  @Mock
+  private BizConfig bizConfig;
+
+  private InstanceInfo someInstance;
+  private InstanceInfo anotherInstance;
+
+  @Before
+  public void setUp() throws Exception {
+    someInstance = mockInstance("someInstance", "http://someInstance");
+    anotherInstance = mockInstance("anotherInstance", "http://anotherInstance");
+
+    when(discoveryService.getConfigServiceInstances()).thenReturn(Lists.newArrayList(someInstance));
+    when(discoveryService.getMetaServiceInstances()).thenReturn(Collections.emptyList());
+    when(discoveryService.getAdminServiceInstances()).thenReturn(Collections.emptyList());
+    when(bizConfig.longPollingTimeoutInMilli()).thenReturn(60000L);
+
+    discoveryServiceWithCache = new DiscoveryServiceWithCache(discoveryService, eurekaClient, bizConfig);
+    discoveryServiceWithCache.refresh();
+  }
+
+  @Test
+  public void testWatchWithStaleVersion() throws Exception {
+    ServiceListDTO services = discoveryServiceWithCache.getServices(ServiceNameConsts.APOLLO_CONFIGSERVICE);
+
+    DeferredResult<ResponseEntity<ServiceListDTO>> result =
+        discoveryServiceWithCache.watchServices(ServiceNameConsts.APOLLO_CONFIGSERVICE, services.getVersion() - 1);
+
+    ResponseEntity<ServiceListDTO> response = getResponse(result);
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(services.getVersion(), response.getBody().getVersion());
+    assertEquals("http://someInstance", response.getBody().getServices().get(0).getHomepageUrl());
+  }
+
+  @Test
+  public void testWatchUntilMembershipChanged() throws Exception {
+    long version = discoveryServiceWithCache.getServices(ServiceNameConsts.APOLLO_CONFIGSERVICE).getVersion();
+
+    DeferredResult<ResponseEntity<ServiceListDTO>> result =
+        discoveryServiceWithCache.watchServices(ServiceNameConsts.APOLLO_CONFIGSERVICE, version);
+
+    discoveryServiceWithCache.refresh();
+
+    assertFalse(result.hasResult());
+
+    when(discoveryService.getConfigServiceInstances()).thenReturn(Lists.newArrayList(someInstance, anotherInstance));
+    discoveryServiceWithCache.refresh();
+
+    ResponseEntity<ServiceListDTO> response = getResponse(result);
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertNotEquals(version, response.getBody().getVersion());
+    assertEquals(2, response.getBody().getServices().size());
+  }
+
+  @Test
+  public void testVersionAgreedAcrossNodes() throws Exception {
+    DiscoveryServiceWithCache anotherNode = new DiscoveryServiceWithCache(discoveryService, eurekaClient, bizConfig);
+    anotherNode.refresh();
+
+    long version = discoveryServiceWithCache.getServices(ServiceNameConsts.APOLLO_CONFIGSERVICE).getVersion();
+    assertEquals(version, anotherNode.getServices(ServiceNameConsts.APOLLO_CONFIGSERVICE).getVersion());
+
+    //a watch reaching another node with the same membership is not answered right away
+    DeferredResult<ResponseEntity<ServiceListDTO>> result =
+        anotherNode.watchServices(ServiceNameConsts.APOLLO_CONFIGSERVICE, version);
+    assertFalse(result.hasResult());
+
+    //the version goes back once the membership goes back
+    when(discoveryService.getConfigServiceInstances()).thenReturn(Lists.newArrayList(someInstance, anotherInstance));
+    discoveryServiceWithCache.refresh();
+    assertNotEquals(version, discoveryServiceWithCache.getServices(ServiceNameConsts.APOLLO_CONFIGSERVICE).getVersion());
+
+    when(discoveryService.getConfigServiceInstances()).thenReturn(Lists.newArrayList(someInstance));
+    discoveryServiceWithCache.refresh();
+    assertEquals(version, discoveryServiceWithCache.getServices(ServiceNameConsts.APOLLO_CONFIGSERVICE).getVersion());
+  }
+
+  @SuppressWarnings("unchecked")
+  private ResponseEntity<ServiceListDTO> getResponse(DeferredResult<ResponseEntity<ServiceListDTO>> result) {
+    assertTrue(result.hasResult());
+    return (ResponseEntity<ServiceListDTO>) result.getResult();
+  }
+
+  private InstanceInfo mockInstance(String instanceId, String homepageUrl) {
+    InstanceInfo instance = mock(InstanceInfo.class);
+    when(instance.getAppName()).thenReturn(ServiceNameConsts.APOLLO_CONFIGSERVICE);
+    when(instance.getInstanceId()).thenReturn(instanceId);
+    when(instance.getHomePageUrl()).thenReturn(homepageUrl);
+    return instance;
+  }
+}
@@ -6,7 +6,14 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -46,10 +53,14 @@ public class MetaDomainConsts {
   private static volatile List<MetaServerProvider> metaServerProviders = null;
 
   private static final long REFRESH_INTERVAL_IN_SECOND = 60;// 1 min
+  // long enough for the connect and the read timeouts of a ping
+  private static final long PROBE_TIMEOUT_IN_SECOND = 10;
   private static final Logger logger = LoggerFactory.getLogger(MetaDomainConsts.class);
   // comma separated meta server address -> selected single meta server address cache
-  private static final Map<String, String> selectedMetaServerAddressCache = Maps.newConcurrentMap();
+  private static final ConcurrentMap<String, String> selectedMetaServerAddressCache = Maps.newConcurrentMap();
   private static final AtomicBoolean periodicRefreshStarted = new AtomicBoolean(false);
+  private static final ExecutorService probeExecutorService =
+      Executors.newCachedThreadPool(ApolloThreadFactory.create("MetaServiceProbe", true));
 
   private static final Object LOCK = new Object();
 
@@ -146,6 +157,47 @@ public class MetaDomainConsts {
     return metaAddressSelected;
   }
 
+  /**
+   * Use the meta server selected before, e.g. the one persisted by the client in its last run, so the config could be
+   * loaded without waiting for the meta servers to be probed. The meta servers are then probed in the background.
+   *
+   * @param metaServerAddresses the comma separated meta server addresses configured
+   * @param selectedMetaServerAddress the meta server selected before, ignored if it's no longer configured
+   */
+  public static void restoreSelectedMetaServerAddress(final String metaServerAddresses,
+      String selectedMetaServerAddress) {
+    if (Strings.isNullOrEmpty(selectedMetaServerAddress) || !metaServerAddresses.contains(",")
+        || selectedMetaServerAddressCache.containsKey(metaServerAddresses)) {
+      return;
+    }
+    boolean configured = false;
+    for (String address : metaServerAddresses.split(",")) {
+      if (address.trim().equals(selectedMetaServerAddress)) {
+        configured = true;
+        break;
+      }
+    }
+    if (!configured || selectedMetaServerAddressCache.putIfAbsent(metaServerAddresses,
+        selectedMetaServerAddress) != null) {
+      return;
+    }
+
+    logger.debug("Restored meta server address {} for {}", selectedMetaServerAddress, metaServerAddresses);
+    if (periodicRefreshStarted.compareAndSet(false, true)) {
+      schedulePeriodicRefresh();
+    }
+    probeExecutorService.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          updateMetaServerAddresses(metaServerAddresses);
+        } catch (Throwable ex) {
+          logger.warn("Refreshing meta server address failed", ex);
+        }
+      }
+    });
+  }
+
   private static void updateMetaServerAddresses(String metaServerAddresses) {
     logger.debug("Selecting meta server address for: {}", metaServerAddresses);
 
@@ -154,21 +206,17 @@ public class MetaDomainConsts {
 
     try {
       List<String> metaServers = Lists.newArrayList(metaServerAddresses.split(","));
-      // random load balancing
+      // random load balancing among the meta servers responding equally fast
       Collections.shuffle(metaServers);
 
       boolean serverAvailable = false;
 
-      for (String address : metaServers) {
-        address = address.trim();
-        //check whether /services/config is accessible
-        if (NetUtil.pingUrl(address + "/services/config")) {
-          // select the first available meta server
-          selectedMetaServerAddressCache.put(metaServerAddresses, address);
-          serverAvailable = true;
-          logger.debug("Selected meta server address {} for {}", address, metaServerAddresses);
-          break;
-        }
+      String address = probeMetaServers(metaServers);
+      if (address != null) {
+        // select the fastest available meta server
+        selectedMetaServerAddressCache.put(metaServerAddresses, address);
+        serverAvailable = true;
+        logger.debug("Selected meta server address {} for {}", address, metaServerAddresses);
       }
 
       // we need to make sure the map is not empty, e.g. the first update might be failed
@@ -190,6 +238,55 @@ public class MetaDomainConsts {
     }
   }
 
+  /**
+   * Ping the meta servers concurrently, so a dead one doesn't delay the others by its timeouts
+   *
+   * @return the first meta server whose /services/config is accessible, or null if none is
+   */
+  private static String probeMetaServers(List<String> metaServers) {
+    CompletionService<String> completionService = new ExecutorCompletionService<>(probeExecutorService);
+    List<Future<String>> futures = Lists.newArrayListWithCapacity(metaServers.size());
+    for (String metaServer : metaServers) {
+      final String address = metaServer.trim();
+      futures.add(completionService.submit(new Callable<String>() {
+        @Override
+        public String call() {
+          //check whether /services/config is accessible
+          return NetUtil.pingUrl(address + "/services/config") ? address : null;
+        }
+      }));
+    }
+
+    try {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(PROBE_TIMEOUT_IN_SECOND);
+      for (int i = 0; i < futures.size(); i++) {
+        Future<String> future = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (future == null) {
+          break;
+        }
+        String address = getQuietly(future);
+        if (address != null) {
+          return address;
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      for (Future<String> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return null;
+  }
+
+  private static String getQuietly(Future<String> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException ex) {
+      return null;
+    }
+  }
+
   private static void schedulePeriodicRefresh() {
     ScheduledExecutorService scheduledExecutorService =
         Executors.newScheduledThreadPool(1, ApolloThreadFactory.create("MetaServiceLocator", true));
@@ -4,6 +4,8 @@ package com.ctrip.framework.apollo.core.dto;
  * @author Jason Song(song_s@ctrip.com)
  */
 public class ApolloConfigNotification {
+  //only set in the notifications of the apps polled together
+  private String appId;
   private String namespaceName;
   private long notificationId;
   private volatile ApolloNotificationMessages messages;
@@ -17,6 +19,14 @@ public class ApolloConfigNotification {
     this.notificationId = notificationId;
   }
 
+  public String getAppId() {
+    return appId;
+  }
+
+  public void setAppId(String appId) {
+    this.appId = appId;
+  }
+
   public String getNamespaceName() {
     return namespaceName;
   }
@@ -51,6 +61,7 @@ public class ApolloConfigNotification {
   @Override
   public String toString() {
     return "ApolloConfigNotification{" +
+        (appId == null ? "" : "appId='" + appId + "', ") +
         "namespaceName='" + namespaceName + '\'' +
         ", notificationId=" + notificationId +
         '}';
@@ -0,0 +1,46 @@
+package com.ctrip.framework.apollo.core.dto;
+
+import java.util.List;
+
+/**
+ * The instances of a service, with the version of the membership, which changes whenever an instance joins or leaves.
+ */
+public class ServiceListDTO {
+
+  private long version;
+
+  private List<ServiceDTO> services;
+
+  public ServiceListDTO() {
+  }
+
+  public ServiceListDTO(long version, List<ServiceDTO> services) {
+    this.version = version;
+    this.services = services;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public List<ServiceDTO> getServices() {
+    return services;
+  }
+
+  public void setServices(List<ServiceDTO> services) {
+    this.services = services;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("ServiceListDTO{");
+    sb.append("version=").append(version);
+    sb.append(", services=").append(services);
+    sb.append('}');
+    return sb.toString();
+  }
+}
@@ -1,8 +1,11 @@
 package com.ctrip.framework.apollo.core.signature;
 
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,6 +21,11 @@ public class Signature {
 
   public static final String HTTP_HEADER_AUTHORIZATION = "Authorization";
   public static final String HTTP_HEADER_TIMESTAMP = "Timestamp";
+  /**
+   * The separator of the authorizations of the apps requested together
+   */
+  public static final String AUTHORIZATION_SEPARATOR = ",";
+  private static final Joiner AUTHORIZATION_JOINER = Joiner.on(AUTHORIZATION_SEPARATOR);
 
   public static String signature(String timestamp, String pathWithQuery, String secret) {
     String stringToSign = timestamp + DELIMITER + pathWithQuery;
@@ -37,6 +45,36 @@ public class Signature {
     return headers;
   }
 
+  /**
+   * Build the headers of a request for several apps, the authorizations of the apps with secrets are joined by commas,
+   * i.e. Authorization=Apollo {appId1}:{sign1},Apollo {appId2}:{sign2}
+   *
+   * @param appSecrets the secrets of the apps, the apps without secrets are skipped
+   * @return the headers, empty if none of the apps has a secret
+   */
+  public static Map<String, String> buildHttpHeaders(String url, Map<String, String> appSecrets) {
+    long currentTimeMillis = System.currentTimeMillis();
+    String timestamp = String.valueOf(currentTimeMillis);
+
+    String pathWithQuery = url2PathWithQuery(url);
+    List<String> authorizations = Lists.newArrayList();
+    for (Map.Entry<String, String> appSecret : appSecrets.entrySet()) {
+      if (appSecret.getValue() == null || appSecret.getValue().isEmpty()) {
+        continue;
+      }
+      String signature = signature(timestamp, pathWithQuery, appSecret.getValue());
+      authorizations.add(String.format(AUTHORIZATION_FORMAT, appSecret.getKey(), signature));
+    }
+
+    Map<String, String> headers = Maps.newHashMap();
+    if (authorizations.isEmpty()) {
+      return headers;
+    }
+    headers.put(HTTP_HEADER_AUTHORIZATION, AUTHORIZATION_JOINER.join(authorizations));
+    headers.put(HTTP_HEADER_TIMESTAMP, timestamp);
+    return headers;
+  }
+
   private static String url2PathWithQuery(String urlString) {
     try {
       URL url = new URL(urlString);
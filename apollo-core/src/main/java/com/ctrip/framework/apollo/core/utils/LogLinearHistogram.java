@@ -0,0 +1,146 @@
+package com.ctrip.framework.apollo.core.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values, e.g. latencies, with log-linear buckets: each power of 2 is split into
+ * 2^subBucketBits buckets, so the upper bound of the bucket a value falls in is at most 1/2^subBucketBits higher than
+ * the value, and the memory is fixed no matter how many values are recorded. The values larger than the max value are
+ * counted in the last bucket, whose upper bound is {@link Long#MAX_VALUE}.
+ *
+ * <p>It's thread safe, and recording a value doesn't lock.
+ */
+public class LogLinearHistogram {
+
+  private final int subBucketBits;
+  private final int subBuckets;
+  private final long maxValue;
+  private final AtomicLongArray buckets;
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * @param subBucketBits e.g. 2 for 4 buckets per power of 2, i.e. at most 25% higher
+   * @param maxValue      the largest value counted in its own bucket
+   */
+  public LogLinearHistogram(int subBucketBits, long maxValue) {
+    this.subBucketBits = subBucketBits;
+    this.subBuckets = 1 << subBucketBits;
+    this.maxValue = maxValue;
+    //plus the bucket of the values larger than the max value
+    this.buckets = new AtomicLongArray(bucketOf(maxValue, subBucketBits) + 2);
+  }
+
+  public void record(long value) {
+    record(value, 1);
+  }
+
+  /**
+   * Record the value as many times as the weight, e.g. a sampled value
+   */
+  public void record(long value, long weight) {
+    long normalized = Math.max(value, 0);
+    buckets.addAndGet(bucketOf(normalized), weight);
+    count.addAndGet(weight);
+    sum.addAndGet(normalized * weight);
+    long current;
+    while (normalized > (current = max.get()) && !max.compareAndSet(current, normalized)) {
+      //retry until it's updated or another thread records a larger one
+    }
+  }
+
+  public long count() {
+    return count.get();
+  }
+
+  public long sum() {
+    return sum.get();
+  }
+
+  public long max() {
+    return max.get();
+  }
+
+  public double mean() {
+    long count = count();
+    return count == 0 ? 0 : (double) sum() / count;
+  }
+
+  public int bucketCount() {
+    return buckets.length();
+  }
+
+  /**
+   * @return the count of each bucket, which could be added up with the snapshots of the histograms of the same
+   * sub bucket bits and max value
+   */
+  public long[] snapshot() {
+    long[] counts = new long[buckets.length()];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return counts;
+  }
+
+  /**
+   * @param percentile between 0 and 100, e.g. 99.9 for p999
+   * @return the upper bound of the bucket the percentile falls in, or -1 if nothing is recorded
+   */
+  public long percentile(double percentile) {
+    return percentile(snapshot(), percentile);
+  }
+
+  /**
+   * @param counts the bucket counts, e.g. the snapshots of several histograms added up
+   * @see #percentile(double)
+   */
+  public long percentile(long[] counts, double percentile) {
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    if (total == 0) {
+      return -1;
+    }
+    long rank = (long) Math.ceil(total * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return upperBoundOf(i);
+      }
+    }
+    return upperBoundOf(counts.length - 1);
+  }
+
+  public int bucketOf(long value) {
+    return value > maxValue ? buckets.length() - 1 : bucketOf(value, subBucketBits);
+  }
+
+  /**
+   * @return the largest value of the bucket
+   */
+  public long upperBoundOf(int bucket) {
+    if (bucket >= buckets.length() - 1) {
+      return Long.MAX_VALUE;
+    }
+    if (bucket < subBuckets) {
+      return bucket;
+    }
+    int exponent = bucket / subBuckets + subBucketBits - 1;
+    long lowerBound = (long) (subBuckets + bucket % subBuckets) << (exponent - subBucketBits);
+    return lowerBound + (1L << (exponent - subBucketBits)) - 1;
+  }
+
+  private static int bucketOf(long value, int subBucketBits) {
+    int subBuckets = 1 << subBucketBits;
+    if (value < subBuckets) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - subBucketBits)) & (subBuckets - 1);
+    return (exponent - subBucketBits + 1) * subBuckets + subBucket;
+  }
+}
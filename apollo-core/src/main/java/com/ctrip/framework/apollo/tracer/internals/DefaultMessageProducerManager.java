@@ -1,22 +1,47 @@
 package com.ctrip.framework.apollo.tracer.internals;
 
 import com.ctrip.framework.apollo.core.utils.ClassLoaderUtil;
+import com.ctrip.framework.apollo.tracer.internals.aggregate.AggregatingMessageProducerManager;
 import com.ctrip.framework.apollo.tracer.internals.cat.CatMessageProducer;
 import com.ctrip.framework.apollo.tracer.internals.cat.CatNames;
 import com.ctrip.framework.apollo.tracer.spi.MessageProducer;
 import com.ctrip.framework.apollo.tracer.spi.MessageProducerManager;
+import com.google.common.base.Strings;
 
 /**
+ * Uses Cat if it's present, otherwise aggregates the messages in memory. The producer could also be specified by the
+ * system property {@code apollo.tracer.producer} or the environment variable {@code APOLLO_TRACER_PRODUCER}, whose
+ * value is one of {@code cat}, {@code aggregating} and {@code null}.
+ *
  * @author Jason Song(song_s@ctrip.com)
  */
 public class DefaultMessageProducerManager implements MessageProducerManager {
+  static final String PRODUCER_PROPERTY = "apollo.tracer.producer";
+  static final String PRODUCER_ENVIRONMENT_VARIABLE = "APOLLO_TRACER_PRODUCER";
+  static final String CAT_PRODUCER = "cat";
+  static final String AGGREGATING_PRODUCER = "aggregating";
+  static final String NULL_PRODUCER = "null";
+
   private static MessageProducer producer;
 
   public DefaultMessageProducerManager() {
-    if (ClassLoaderUtil.isClassPresent(CatNames.CAT_CLASS)) {
-      producer = new CatMessageProducer();
-    } else {
-      producer = new NullMessageProducerManager().getProducer();
+    String name = System.getProperty(PRODUCER_PROPERTY);
+    if (Strings.isNullOrEmpty(name)) {
+      name = System.getenv(PRODUCER_ENVIRONMENT_VARIABLE);
+    }
+    if (Strings.isNullOrEmpty(name)) {
+      name = ClassLoaderUtil.isClassPresent(CatNames.CAT_CLASS) ? CAT_PRODUCER : AGGREGATING_PRODUCER;
+    }
+
+    switch (name.trim().toLowerCase()) {
+      case CAT_PRODUCER:
+        producer = new CatMessageProducer();
+        break;
+      case AGGREGATING_PRODUCER:
+        producer = new AggregatingMessageProducerManager().getProducer();
+        break;
+      default:
+        producer = new NullMessageProducerManager().getProducer();
     }
   }
 
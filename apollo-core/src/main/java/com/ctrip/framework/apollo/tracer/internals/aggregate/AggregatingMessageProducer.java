@@ -0,0 +1,74 @@
+package com.ctrip.framework.apollo.tracer.internals.aggregate;
+
+import com.ctrip.framework.apollo.tracer.spi.MessageProducer;
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+
+import java.util.List;
+
+/**
+ * Aggregates the messages in memory instead of sending them to a tracing system: the transactions into the latency
+ * histograms and the events and the errors into the counters, by type and name.
+ *
+ * <p>The memory is bounded, at most {@link #MAX_TYPES} types with {@link #MAX_NAMES_PER_TYPE} names each are kept for
+ * the events and the transactions respectively, and the messages of the other types or names are sampled 1 in
+ * {@link #SAMPLE_RATE}.
+ */
+public class AggregatingMessageProducer implements MessageProducer {
+  static final String ERROR_TYPE = "Error";
+  static final int MAX_TYPES = 100;
+  static final int MAX_NAMES_PER_TYPE = 100;
+  static final int SAMPLE_RATE = 10;
+
+  private final MessageMetricsRegistry events;
+  private final MessageMetricsRegistry transactions;
+
+  public AggregatingMessageProducer() {
+    this(MAX_TYPES, MAX_NAMES_PER_TYPE, SAMPLE_RATE);
+  }
+
+  AggregatingMessageProducer(int maxTypes, int maxNamesPerType, int sampleRate) {
+    events = new MessageMetricsRegistry(false, maxTypes, maxNamesPerType, sampleRate);
+    transactions = new MessageMetricsRegistry(true, maxTypes, maxNamesPerType, sampleRate);
+  }
+
+  @Override
+  public void logError(Throwable cause) {
+    events.recordEvent(ERROR_TYPE, cause == null ? null : cause.getClass().getName(), false);
+  }
+
+  @Override
+  public void logError(String message, Throwable cause) {
+    logError(cause);
+  }
+
+  @Override
+  public void logEvent(String type, String name) {
+    events.recordEvent(type, name, true);
+  }
+
+  @Override
+  public void logEvent(String type, String name, String status, String nameValuePairs) {
+    events.recordEvent(type, name, Transaction.SUCCESS.equals(status));
+  }
+
+  @Override
+  public Transaction newTransaction(String type, String name) {
+    return new AggregatingTransaction(transactions, type, name);
+  }
+
+  public List<MessageStats> getEvents() {
+    return events.snapshot();
+  }
+
+  public List<MessageStats> getTransactions() {
+    return transactions.snapshot();
+  }
+
+  /**
+   * Clear the metrics aggregated so far
+   */
+  public void reset() {
+    events.clear();
+    transactions.clear();
+  }
+}
@@ -0,0 +1,68 @@
+package com.ctrip.framework.apollo.tracer.internals.aggregate;
+
+import com.ctrip.framework.apollo.tracer.spi.MessageProducer;
+import com.ctrip.framework.apollo.tracer.spi.MessageProducerManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Provides the {@link AggregatingMessageProducer}, whose metrics are exposed through JMX as
+ * {@value #OBJECT_NAME}.
+ */
+public class AggregatingMessageProducerManager implements MessageProducerManager {
+  private static final Logger logger = LoggerFactory.getLogger(AggregatingMessageProducerManager.class);
+  static final String OBJECT_NAME = "com.ctrip.framework.apollo:type=Tracer";
+
+  private static final AggregatingMessageProducer producer = new AggregatingMessageProducer();
+
+  static {
+    registerMBean();
+  }
+
+  @Override
+  public MessageProducer getProducer() {
+    return producer;
+  }
+
+  /**
+   * @return the producer aggregating the messages, shared by the whole class loader
+   */
+  public static AggregatingMessageProducer getAggregatingProducer() {
+    return producer;
+  }
+
+  private static void registerMBean() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName objectName = new ObjectName(OBJECT_NAME);
+      if (!server.isRegistered(objectName)) {
+        server.registerMBean(new TracerMetrics(), objectName);
+      }
+    } catch (Throwable ex) {
+      //e.g. the jmx is not permitted, the metrics are still available from the producer
+      logger.warn("Register the tracer metrics mbean {} failed", OBJECT_NAME, ex);
+    }
+  }
+
+  private static class TracerMetrics implements TracerMetricsMXBean {
+    @Override
+    public List<MessageStats> getTransactions() {
+      return producer.getTransactions();
+    }
+
+    @Override
+    public List<MessageStats> getEvents() {
+      return producer.getEvents();
+    }
+
+    @Override
+    public void reset() {
+      producer.reset();
+    }
+  }
+}
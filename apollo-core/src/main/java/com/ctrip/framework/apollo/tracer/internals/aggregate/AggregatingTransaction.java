@@ -0,0 +1,46 @@
+package com.ctrip.framework.apollo.tracer.internals.aggregate;
+
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+
+/**
+ * Records the latency and the status of the transaction in the aggregated metrics when it's completed. The data added
+ * is not kept.
+ */
+public class AggregatingTransaction implements Transaction {
+  private final MessageMetricsRegistry registry;
+  private final String type;
+  private final String name;
+  private final long startNanos;
+  private boolean success = true;
+  private boolean completed;
+
+  AggregatingTransaction(MessageMetricsRegistry registry, String type, String name) {
+    this.registry = registry;
+    this.type = type;
+    this.name = name;
+    this.startNanos = System.nanoTime();
+  }
+
+  @Override
+  public void setStatus(String status) {
+    success = SUCCESS.equals(status);
+  }
+
+  @Override
+  public void setStatus(Throwable e) {
+    success = false;
+  }
+
+  @Override
+  public void addData(String key, Object value) {
+  }
+
+  @Override
+  public void complete() {
+    if (completed) {
+      return;
+    }
+    completed = true;
+    registry.recordTransaction(type, name, success, System.nanoTime() - startNanos);
+  }
+}
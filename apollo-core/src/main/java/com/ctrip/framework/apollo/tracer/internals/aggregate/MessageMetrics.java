@@ -0,0 +1,75 @@
+package com.ctrip.framework.apollo.tracer.internals.aggregate;
+
+import com.ctrip.framework.apollo.core.utils.LogLinearHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The counters of the messages of a type and name, and the latency histogram if they are transactions.
+ *
+ * <p>The histogram is log-linear in microseconds, each power of 2 split into 4 buckets, so a percentile is at most 25%
+ * higher than the actual latency, and the memory is fixed no matter how many transactions are recorded.
+ */
+class MessageMetrics {
+
+  private static final int SUB_BUCKET_BITS = 2;
+  //2^40 microseconds, about 12 days
+  private static final long MAX_MICROS = 1L << 40;
+
+  private final String type;
+  private final String name;
+  private final boolean sampled;
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final LogLinearHistogram histogram;
+
+  MessageMetrics(String type, String name, boolean transaction, boolean sampled) {
+    this.type = type;
+    this.name = name;
+    this.sampled = sampled;
+    this.histogram = transaction ? new LogLinearHistogram(SUB_BUCKET_BITS, MAX_MICROS) : null;
+  }
+
+  boolean isSampled() {
+    return sampled;
+  }
+
+  void record(boolean success, long weight) {
+    count.addAndGet(weight);
+    if (!success) {
+      failures.addAndGet(weight);
+    }
+  }
+
+  void record(boolean success, long durationInNanos, long weight) {
+    record(success, weight);
+    histogram.record(TimeUnit.NANOSECONDS.toMicros(durationInNanos), weight);
+  }
+
+  MessageStats snapshot() {
+    MessageStats stats = new MessageStats();
+    stats.setType(type);
+    stats.setName(name);
+    stats.setSampled(sampled);
+    stats.setCount(count.get());
+    stats.setFailures(failures.get());
+    if (histogram == null) {
+      return stats;
+    }
+
+    long[] counts = histogram.snapshot();
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    if (total > 0) {
+      stats.setMeanMillis(histogram.sum() / 1000.0 / histogram.count());
+      stats.setP50Millis(histogram.percentile(counts, 50) / 1000.0);
+      stats.setP90Millis(histogram.percentile(counts, 90) / 1000.0);
+      stats.setP99Millis(histogram.percentile(counts, 99) / 1000.0);
+      stats.setMaxMillis(histogram.max() / 1000.0);
+    }
+    return stats;
+  }
+}
@@ -0,0 +1,135 @@
+package com.ctrip.framework.apollo.tracer.internals.aggregate;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The metrics of the events or the transactions by type and name, with the numbers of the types and the names bounded.
+ *
+ * <p>Once a type has too many names, e.g. an event logged for each watched key, the messages of its new names are
+ * sampled and counted in the {@link #OTHERS} name of the type, and so are the messages of the new types once there are
+ * too many types.
+ */
+class MessageMetricsRegistry {
+
+  static final String OTHERS = "[others]";
+
+  private final boolean transaction;
+  private final int maxTypes;
+  private final int maxNamesPerType;
+  private final int sampleRate;
+  private final ConcurrentMap<String, TypeMetrics> types = Maps.newConcurrentMap();
+  private final AtomicInteger typeCount = new AtomicInteger();
+
+  MessageMetricsRegistry(boolean transaction, int maxTypes, int maxNamesPerType, int sampleRate) {
+    this.transaction = transaction;
+    this.maxTypes = maxTypes;
+    this.maxNamesPerType = maxNamesPerType;
+    this.sampleRate = sampleRate;
+  }
+
+  void recordEvent(String type, String name, boolean success) {
+    MessageMetrics metrics = find(type, name);
+    if (metrics != null) {
+      metrics.record(success, weight(metrics));
+    }
+  }
+
+  void recordTransaction(String type, String name, boolean success, long durationInNanos) {
+    MessageMetrics metrics = find(type, name);
+    if (metrics != null) {
+      metrics.record(success, durationInNanos, weight(metrics));
+    }
+  }
+
+  List<MessageStats> snapshot() {
+    List<MessageStats> stats = Lists.newArrayList();
+    for (TypeMetrics typeMetrics : types.values()) {
+      for (MessageMetrics metrics : typeMetrics.names.values()) {
+        stats.add(metrics.snapshot());
+      }
+    }
+    return stats;
+  }
+
+  void clear() {
+    types.clear();
+    typeCount.set(0);
+  }
+
+  /**
+   * @return the metrics to record the message in, or null if the message is not sampled
+   */
+  private MessageMetrics find(String type, String name) {
+    type = String.valueOf(type);
+    name = String.valueOf(name);
+
+    TypeMetrics typeMetrics = types.get(type);
+    if (typeMetrics == null) {
+      if (typeCount.get() >= maxTypes) {
+        return sampled() ? putIfAbsent(OTHERS).others() : null;
+      }
+      typeMetrics = putIfAbsent(type);
+    }
+
+    MessageMetrics metrics = typeMetrics.names.get(name);
+    if (metrics != null) {
+      return metrics.isSampled() && !sampled() ? null : metrics;
+    }
+    if (typeMetrics.nameCount.get() >= maxNamesPerType) {
+      return sampled() ? typeMetrics.others() : null;
+    }
+    MessageMetrics created = new MessageMetrics(type, name, transaction, false);
+    metrics = typeMetrics.names.putIfAbsent(name, created);
+    if (metrics == null) {
+      typeMetrics.nameCount.incrementAndGet();
+      metrics = created;
+    }
+    return metrics;
+  }
+
+  private TypeMetrics putIfAbsent(String type) {
+    TypeMetrics created = new TypeMetrics(type);
+    TypeMetrics typeMetrics = types.putIfAbsent(type, created);
+    if (typeMetrics == null) {
+      typeCount.incrementAndGet();
+      typeMetrics = created;
+    }
+    return typeMetrics;
+  }
+
+  private boolean sampled() {
+    return ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+  }
+
+  private long weight(MessageMetrics metrics) {
+    return metrics.isSampled() ? sampleRate : 1;
+  }
+
+  private class TypeMetrics {
+    private final String type;
+    private final ConcurrentMap<String, MessageMetrics> names = Maps.newConcurrentMap();
+    private final AtomicInteger nameCount = new AtomicInteger();
+
+    private TypeMetrics(String type) {
+      this.type = type;
+    }
+
+    private MessageMetrics others() {
+      MessageMetrics others = names.get(OTHERS);
+      if (others == null) {
+        MessageMetrics created = new MessageMetrics(type, OTHERS, transaction, true);
+        others = names.putIfAbsent(OTHERS, created);
+        if (others == null) {
+          others = created;
+        }
+      }
+      return others;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.ctrip.framework.apollo.tracer.internals.aggregate;
+
+/**
+ * The snapshot of the messages of a type and name. The latencies are only set for transactions.
+ */
+public class MessageStats {
+  private String type;
+  private String name;
+  private boolean sampled;
+  private long count;
+  private long failures;
+  private double meanMillis;
+  private double p50Millis;
+  private double p90Millis;
+  private double p99Millis;
+  private double maxMillis;
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @return whether the messages are sampled, then the counts are estimated
+   */
+  public boolean isSampled() {
+    return sampled;
+  }
+
+  public void setSampled(boolean sampled) {
+    this.sampled = sampled;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public long getFailures() {
+    return failures;
+  }
+
+  public void setFailures(long failures) {
+    this.failures = failures;
+  }
+
+  public double getMeanMillis() {
+    return meanMillis;
+  }
+
+  public void setMeanMillis(double meanMillis) {
+    this.meanMillis = meanMillis;
+  }
+
+  public double getP50Millis() {
+    return p50Millis;
+  }
+
+  public void setP50Millis(double p50Millis) {
+    this.p50Millis = p50Millis;
+  }
+
+  public double getP90Millis() {
+    return p90Millis;
+  }
+
+  public void setP90Millis(double p90Millis) {
+    this.p90Millis = p90Millis;
+  }
+
+  public double getP99Millis() {
+    return p99Millis;
+  }
+
+  public void setP99Millis(double p99Millis) {
+    this.p99Millis = p99Millis;
+  }
+
+  public double getMaxMillis() {
+    return maxMillis;
+  }
+
+  public void setMaxMillis(double maxMillis) {
+    this.maxMillis = maxMillis;
+  }
+
+  @Override
+  public String toString() {
+    return "MessageStats{" +
+        "type='" + type + '\'' +
+        ", name='" + name + '\'' +
+        ", sampled=" + sampled +
+        ", count=" + count +
+        ", failures=" + failures +
+        ", meanMillis=" + meanMillis +
+        ", p50Millis=" + p50Millis +
+        ", p90Millis=" + p90Millis +
+        ", p99Millis=" + p99Millis +
+        ", maxMillis=" + maxMillis +
+        '}';
+  }
+}
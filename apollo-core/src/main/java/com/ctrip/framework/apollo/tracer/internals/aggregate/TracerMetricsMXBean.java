@@ -0,0 +1,16 @@
+package com.ctrip.framework.apollo.tracer.internals.aggregate;
+
+import java.util.List;
+
+/**
+ * The metrics aggregated by {@link AggregatingMessageProducer}, registered as
+ * {@value AggregatingMessageProducerManager#OBJECT_NAME}
+ */
+public interface TracerMetricsMXBean {
+
+  List<MessageStats> getTransactions();
+
+  List<MessageStats> getEvents();
+
+  void reset();
+}
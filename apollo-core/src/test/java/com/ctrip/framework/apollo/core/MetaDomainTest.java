@@ -56,6 +56,33 @@ public class MetaDomainTest extends BaseIntegrationTest {
     assertTrue(metaServer.equals(invalidServer.trim()) || metaServer.equals(anotherInvalidServer.trim()));
   }
 
+  @Test
+  public void testRestoreSelectedMetaServerAddress() throws Exception {
+    String someServer = "http://localhost:" + findFreePort();
+    String anotherServer = "http://localhost:" + findFreePort();
+    String metaServerAddresses = someServer + "," + anotherServer;
+
+    MockMetaServerProvider.mock(Env.FWS, metaServerAddresses);
+    MetaDomainConsts.restoreSelectedMetaServerAddress(metaServerAddresses, anotherServer);
+
+    assertEquals(anotherServer, MetaDomainConsts.getDomain(Env.FWS));
+  }
+
+  @Test
+  public void testRestoreSelectedMetaServerAddressNoLongerConfigured() throws Exception {
+    String someResponse = "some response";
+    startServerWithHandlers(mockServerHandler(HttpServletResponse.SC_OK, someResponse));
+
+    String validServer = "http://localhost:" + PORT;
+    String invalidServer = "http://localhost:" + findFreePort();
+    String metaServerAddresses = validServer + "," + invalidServer;
+
+    MockMetaServerProvider.mock(Env.TOOLS, metaServerAddresses);
+    MetaDomainConsts.restoreSelectedMetaServerAddress(metaServerAddresses, "http://localhost:" + findFreePort());
+
+    assertEquals(validServer, MetaDomainConsts.getDomain(Env.TOOLS));
+  }
+
   public static class MockMetaServerProvider implements MetaServerProvider {
 
     private static Map<Env, String> mockMetaServerAddress = Maps.newHashMap();
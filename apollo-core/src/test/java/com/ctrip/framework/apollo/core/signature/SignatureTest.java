@@ -3,6 +3,7 @@ package com.ctrip.framework.apollo.core.signature;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.Maps;
 import java.util.Map;
 import org.junit.Test;
 
@@ -34,4 +35,34 @@ public class SignatureTest {
     assertTrue(actualHttpHeaders.containsKey(Signature.HTTP_HEADER_AUTHORIZATION));
     assertTrue(actualHttpHeaders.containsKey(Signature.HTTP_HEADER_TIMESTAMP));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testBuildHttpHeadersForApps() {
+    String url = "http://10.0.0.1:8080/notifications/v2/apps?appIds=100004458,100004459,100004460";
+    String secret = "df23df3f59884980844ff3dada30fa97";
+    String anotherSecret = "df23df3f59884980844ff3dada30fa98";
+    Map<String, String> appSecrets = Maps.newLinkedHashMap();
+    appSecrets.put("100004458", secret);
+    appSecrets.put("100004459", null);
+    appSecrets.put("100004460", anotherSecret);
+
+    Map<String, String> actualHttpHeaders = Signature.buildHttpHeaders(url, appSecrets);
+
+    String timestamp = actualHttpHeaders.get(Signature.HTTP_HEADER_TIMESTAMP);
+    String pathWithQuery = "/notifications/v2/apps?appIds=100004458,100004459,100004460";
+    assertEquals(String.format("Apollo 100004458:%s,Apollo 100004460:%s",
+        Signature.signature(timestamp, pathWithQuery, secret),
+        Signature.signature(timestamp, pathWithQuery, anotherSecret)),
+        actualHttpHeaders.get(Signature.HTTP_HEADER_AUTHORIZATION));
+  }
+
+  @Test
+  public void testBuildHttpHeadersForAppsWithoutSecrets() {
+    String url = "http://10.0.0.1:8080/notifications/v2/apps?appIds=100004458,100004459";
+    Map<String, String> appSecrets = Maps.newHashMap();
+    appSecrets.put("100004458", null);
+    appSecrets.put("100004459", "");
+
+    assertTrue(Signature.buildHttpHeaders(url, appSecrets).isEmpty());
+  }
+}
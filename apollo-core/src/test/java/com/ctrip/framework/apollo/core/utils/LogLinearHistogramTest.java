@@ -0,0 +1,86 @@
+package com.ctrip.framework.apollo.core.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LogLinearHistogramTest {
+
+  @Test
+  public void testBucket() throws Exception {
+    LogLinearHistogram histogram = new LogLinearHistogram(2, 1L << 40);
+    for (long value = 0; value < 100000; value++) {
+      int bucket = histogram.bucketOf(value);
+      long upperBound = histogram.upperBoundOf(bucket);
+
+      assertTrue(value <= upperBound);
+      assertTrue(bucket == 0 || value > histogram.upperBoundOf(bucket - 1));
+      assertTrue(upperBound <= Math.max(value * 1.25, value + 1));
+    }
+  }
+
+  @Test
+  public void testPercentile() throws Exception {
+    LogLinearHistogram histogram = new LogLinearHistogram(2, 1000);
+    assertEquals(-1, histogram.percentile(50));
+
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+
+    assertEquals(100, histogram.count());
+    assertEquals(50.5, histogram.mean(), 0.01);
+    assertEquals(100, histogram.max());
+    assertPercentile(50, histogram.percentile(50));
+    assertPercentile(90, histogram.percentile(90));
+    assertPercentile(99, histogram.percentile(99));
+  }
+
+  @Test
+  public void testRecordWeighted() throws Exception {
+    LogLinearHistogram histogram = new LogLinearHistogram(2, 1000);
+    histogram.record(10, 99);
+    histogram.record(-1, 1);
+
+    assertEquals(100, histogram.count());
+    assertEquals(990, histogram.sum());
+    assertEquals(0, histogram.percentile(1));
+    assertPercentile(10, histogram.percentile(50));
+  }
+
+  @Test
+  public void testValueLargerThanMax() throws Exception {
+    LogLinearHistogram histogram = new LogLinearHistogram(2, 1000);
+    histogram.record(1000);
+
+    assertPercentile(1000, histogram.percentile(100));
+
+    histogram.record(1001);
+
+    assertEquals(histogram.bucketCount() - 1, histogram.bucketOf(Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+    assertEquals(1001, histogram.max());
+  }
+
+  @Test
+  public void testPercentileOfSnapshots() throws Exception {
+    LogLinearHistogram histogram = new LogLinearHistogram(2, 1000);
+    LogLinearHistogram anotherHistogram = new LogLinearHistogram(2, 1000);
+    histogram.record(1, 50);
+    anotherHistogram.record(100, 50);
+
+    long[] counts = histogram.snapshot();
+    long[] anotherCounts = anotherHistogram.snapshot();
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += anotherCounts[i];
+    }
+
+    assertEquals(1, histogram.percentile(counts, 50));
+    assertPercentile(100, histogram.percentile(counts, 51));
+  }
+
+  private void assertPercentile(long expected, long actual) {
+    assertTrue(actual >= expected && actual <= expected * 1.25);
+  }
+}
@@ -1,7 +1,9 @@
 package com.ctrip.framework.apollo.tracer.internals;
 
+import com.ctrip.framework.apollo.tracer.internals.aggregate.AggregatingMessageProducer;
 import com.ctrip.framework.apollo.tracer.spi.MessageProducerManager;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -18,9 +20,21 @@ public class DefaultMessageProducerManagerTest {
     messageProducerManager = new DefaultMessageProducerManager();
   }
 
+  @After
+  public void tearDown() throws Exception {
+    System.clearProperty(DefaultMessageProducerManager.PRODUCER_PROPERTY);
+  }
+
   @Test
   public void testGetProducer() throws Exception {
-    assertTrue(messageProducerManager.getProducer() instanceof NullMessageProducer);
+    assertTrue(messageProducerManager.getProducer() instanceof AggregatingMessageProducer);
+  }
+
+  @Test
+  public void testGetProducerSpecified() throws Exception {
+    System.setProperty(DefaultMessageProducerManager.PRODUCER_PROPERTY, DefaultMessageProducerManager.NULL_PRODUCER);
+
+    assertTrue(new DefaultMessageProducerManager().getProducer() instanceof NullMessageProducer);
   }
 
-}
\ No newline at end of file
+}
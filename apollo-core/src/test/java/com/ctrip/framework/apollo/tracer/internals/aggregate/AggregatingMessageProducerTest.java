@@ -0,0 +1,138 @@
+package com.ctrip.framework.apollo.tracer.internals.aggregate;
+
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AggregatingMessageProducerTest {
+  private AggregatingMessageProducer producer;
+
+  private int maxTypes;
+  private int maxNamesPerType;
+  private int sampleRate;
+
+  @Before
+  public void setUp() throws Exception {
+    maxTypes = 3;
+    maxNamesPerType = 2;
+    sampleRate = 10;
+    producer = new AggregatingMessageProducer(maxTypes, maxNamesPerType, sampleRate);
+  }
+
+  @Test
+  public void testLogEvent() throws Exception {
+    producer.logEvent("someType", "someName");
+    producer.logEvent("someType", "someName", "someErrorCode", null);
+    producer.logEvent("someType", "anotherName", Transaction.SUCCESS, null);
+    producer.logError(new IllegalStateException());
+
+    List<MessageStats> events = producer.getEvents();
+
+    assertStats(events, "someType", "someName", 2, 1);
+    assertStats(events, "someType", "anotherName", 1, 0);
+    assertStats(events, AggregatingMessageProducer.ERROR_TYPE, IllegalStateException.class.getName(), 1, 1);
+    assertTrue(producer.getTransactions().isEmpty());
+  }
+
+  @Test
+  public void testTransaction() throws Exception {
+    Transaction transaction = producer.newTransaction("someType", "someName");
+    transaction.setStatus(Transaction.SUCCESS);
+    transaction.complete();
+    transaction.complete();
+
+    transaction = producer.newTransaction("someType", "someName");
+    transaction.setStatus(new IllegalStateException());
+    transaction.complete();
+
+    List<MessageStats> transactions = producer.getTransactions();
+
+    MessageStats stats = assertStats(transactions, "someType", "someName", 2, 1);
+    assertTrue(stats.getMaxMillis() >= stats.getP50Millis());
+    assertTrue(producer.getEvents().isEmpty());
+  }
+
+  @Test
+  public void testHighCardinalityNamesSampled() throws Exception {
+    int times = 10000;
+    for (int i = 0; i < times; i++) {
+      producer.logEvent("someType", "someName" + i);
+    }
+
+    List<MessageStats> events = producer.getEvents();
+
+    assertEquals(maxNamesPerType + 1, events.size());
+    MessageStats others = find(events, "someType", MessageMetricsRegistry.OTHERS);
+    assertTrue(others.isSampled());
+    //sampled 1 in 10, so the count is estimated
+    long expected = times - maxNamesPerType;
+    assertTrue(others.getCount() > expected * 0.8 && others.getCount() < expected * 1.2);
+  }
+
+  @Test
+  public void testHighCardinalityTypesSampled() throws Exception {
+    for (int i = 0; i < 1000; i++) {
+      producer.logEvent("someType" + i, "someName");
+    }
+
+    List<MessageStats> events = producer.getEvents();
+
+    assertEquals(maxTypes + 1, events.size());
+    assertTrue(find(events, MessageMetricsRegistry.OTHERS, MessageMetricsRegistry.OTHERS).isSampled());
+  }
+
+  @Test
+  public void testReset() throws Exception {
+    producer.logEvent("someType", "someName");
+    producer.newTransaction("someType", "someName").complete();
+
+    producer.reset();
+
+    assertTrue(producer.getEvents().isEmpty());
+    assertTrue(producer.getTransactions().isEmpty());
+  }
+
+  @Test
+  public void testRecordConcurrently() throws Exception {
+    final int threads = 4;
+    final int times = 10000;
+    Thread[] workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 0; j < times; j++) {
+            producer.newTransaction("someType", "someName").complete();
+          }
+        }
+      });
+      workers[i].start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    assertStats(producer.getTransactions(), "someType", "someName", threads * times, 0);
+  }
+
+  private MessageStats assertStats(List<MessageStats> stats, String type, String name, long count, long failures) {
+    MessageStats found = find(stats, type, name);
+    assertEquals(count, found.getCount());
+    assertEquals(failures, found.getFailures());
+    assertFalse(found.isSampled());
+    return found;
+  }
+
+  private MessageStats find(List<MessageStats> stats, String type, String name) {
+    for (MessageStats stat : stats) {
+      if (stat.getType().equals(type) && stat.getName().equals(name)) {
+        return stat;
+      }
+    }
+    throw new AssertionError(String.format("No stats of %s %s in %s", type, name, stats));
+  }
+}
@@ -0,0 +1,48 @@
+package com.ctrip.framework.apollo.tracer.internals.aggregate;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MessageMetricsTest {
+
+  @Test
+  public void testSnapshot() throws Exception {
+    MessageMetrics metrics = new MessageMetrics("someType", "someName", true, false);
+    for (int i = 1; i <= 100; i++) {
+      metrics.record(i % 10 != 0, TimeUnit.MILLISECONDS.toNanos(i), 1);
+    }
+
+    MessageStats stats = metrics.snapshot();
+
+    assertEquals("someType", stats.getType());
+    assertEquals("someName", stats.getName());
+    assertEquals(100, stats.getCount());
+    assertEquals(10, stats.getFailures());
+    assertEquals(50.5, stats.getMeanMillis(), 0.01);
+    assertEquals(100, stats.getMaxMillis(), 0.01);
+    assertPercentile(50, stats.getP50Millis());
+    assertPercentile(90, stats.getP90Millis());
+    assertPercentile(99, stats.getP99Millis());
+  }
+
+  @Test
+  public void testSnapshotOfEvents() throws Exception {
+    MessageMetrics metrics = new MessageMetrics("someType", "someName", false, true);
+    metrics.record(true, 10);
+    metrics.record(false, 10);
+
+    MessageStats stats = metrics.snapshot();
+
+    assertTrue(stats.isSampled());
+    assertEquals(20, stats.getCount());
+    assertEquals(10, stats.getFailures());
+    assertEquals(0, stats.getP99Millis(), 0);
+  }
+
+  private void assertPercentile(double expected, double actual) {
+    assertTrue(actual >= expected && actual <= expected * 1.25);
+  }
+}
@@ -2,13 +2,14 @@ package com.ctrip.framework.apollo.openapi.service;
 
 import com.ctrip.framework.apollo.openapi.entity.ConsumerRole;
 import com.ctrip.framework.apollo.openapi.repository.ConsumerRoleRepository;
-import com.ctrip.framework.apollo.portal.entity.po.Permission;
+import com.ctrip.framework.apollo.portal.component.AuthorizationCache;
 import com.ctrip.framework.apollo.portal.entity.po.RolePermission;
 import com.ctrip.framework.apollo.portal.repository.PermissionRepository;
 import com.ctrip.framework.apollo.portal.repository.RolePermissionRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -21,44 +22,46 @@ public class ConsumerRolePermissionService {
   private final PermissionRepository permissionRepository;
   private final ConsumerRoleRepository consumerRoleRepository;
   private final RolePermissionRepository rolePermissionRepository;
+  private final AuthorizationCache authorizationCache;
 
   public ConsumerRolePermissionService(
       final PermissionRepository permissionRepository,
       final ConsumerRoleRepository consumerRoleRepository,
-      final RolePermissionRepository rolePermissionRepository) {
+      final RolePermissionRepository rolePermissionRepository,
+      final AuthorizationCache authorizationCache) {
     this.permissionRepository = permissionRepository;
     this.consumerRoleRepository = consumerRoleRepository;
     this.rolePermissionRepository = rolePermissionRepository;
+    this.authorizationCache = authorizationCache;
   }
 
   /**
    * Check whether user has the permission
    */
   public boolean consumerHasPermission(long consumerId, String permissionType, String targetId) {
-    Permission permission =
-        permissionRepository.findTopByPermissionTypeAndTargetId(permissionType, targetId);
-    if (permission == null) {
+    long permissionId = authorizationCache.getPermissionId(permissionType, targetId,
+        () -> permissionRepository.findTopByPermissionTypeAndTargetId(permissionType, targetId));
+    if (permissionId < 0) {
       return false;
     }
 
+    return authorizationCache.getConsumerPermissionIds(consumerId, () -> findConsumerPermissionIds(consumerId))
+        .contains(permissionId);
+  }
+
+  private Set<Long> findConsumerPermissionIds(long consumerId) {
     List<ConsumerRole> consumerRoles = consumerRoleRepository.findByConsumerId(consumerId);
     if (CollectionUtils.isEmpty(consumerRoles)) {
-      return false;
+      return Collections.emptySet();
     }
 
     Set<Long> roleIds =
         consumerRoles.stream().map(ConsumerRole::getRoleId).collect(Collectors.toSet());
     List<RolePermission> rolePermissions = rolePermissionRepository.findByRoleIdIn(roleIds);
     if (CollectionUtils.isEmpty(rolePermissions)) {
-      return false;
-    }
-
-    for (RolePermission rolePermission : rolePermissions) {
-      if (rolePermission.getPermissionId() == permission.getId()) {
-        return true;
-      }
+      return Collections.emptySet();
     }
 
-    return false;
+    return rolePermissions.stream().map(RolePermission::getPermissionId).collect(Collectors.toSet());
   }
 }
@@ -9,6 +9,7 @@ import com.ctrip.framework.apollo.openapi.repository.ConsumerAuditRepository;
 import com.ctrip.framework.apollo.openapi.repository.ConsumerRepository;
 import com.ctrip.framework.apollo.openapi.repository.ConsumerRoleRepository;
 import com.ctrip.framework.apollo.openapi.repository.ConsumerTokenRepository;
+import com.ctrip.framework.apollo.portal.component.AuthorizationCache;
 import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
 import com.ctrip.framework.apollo.portal.entity.bo.UserInfo;
 import com.ctrip.framework.apollo.portal.entity.po.Role;
@@ -46,6 +47,7 @@ public class ConsumerService {
   private final PortalConfig portalConfig;
   private final RolePermissionService rolePermissionService;
   private final UserService userService;
+  private final AuthorizationCache authorizationCache;
 
   public ConsumerService(
       final UserInfoHolder userInfoHolder,
@@ -55,7 +57,8 @@ public class ConsumerService {
       final ConsumerRoleRepository consumerRoleRepository,
       final PortalConfig portalConfig,
       final RolePermissionService rolePermissionService,
-      final UserService userService) {
+      final UserService userService,
+      final AuthorizationCache authorizationCache) {
     this.userInfoHolder = userInfoHolder;
     this.consumerTokenRepository = consumerTokenRepository;
     this.consumerRepository = consumerRepository;
@@ -64,6 +67,7 @@ public class ConsumerService {
     this.portalConfig = portalConfig;
     this.rolePermissionService = rolePermissionService;
     this.userService = userService;
+    this.authorizationCache = authorizationCache;
   }
 
 
@@ -111,8 +115,8 @@ public class ConsumerService {
     if (Strings.isNullOrEmpty(token)) {
       return null;
     }
-    ConsumerToken consumerToken = consumerTokenRepository.findTopByTokenAndExpiresAfter(token,
-                                                                                        new Date());
+    ConsumerToken consumerToken = authorizationCache.getConsumerToken(token,
+        () -> consumerTokenRepository.findTopByTokenAndExpiresAfter(token, new Date()));
     return consumerToken == null ? null : consumerToken.getConsumerId();
   }
 
@@ -156,6 +160,7 @@ public class ConsumerService {
 
     ConsumerRole createdModifyConsumerRole = consumerRoleRepository.save(namespaceModifyConsumerRole);
     ConsumerRole createdReleaseConsumerRole = consumerRoleRepository.save(namespaceReleaseConsumerRole);
+    authorizationCache.invalidateConsumer(consumerId);
 
     return Arrays.asList(createdModifyConsumerRole, createdReleaseConsumerRole);
   }
@@ -180,7 +185,9 @@ public class ConsumerService {
 
     String operator = userInfoHolder.getUser().getUserId();
     ConsumerRole consumerRole = createConsumerRole(consumerId, roleId, operator);
-    return consumerRoleRepository.save(consumerRole);
+    ConsumerRole createdConsumerRole = consumerRoleRepository.save(consumerRole);
+    authorizationCache.invalidateConsumer(consumerId);
+    return createdConsumerRole;
   }
 
   @Transactional
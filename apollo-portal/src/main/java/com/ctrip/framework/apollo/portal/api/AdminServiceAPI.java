@@ -7,12 +7,14 @@ import org.springframework.boot.actuate.health.Health;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
 
 import java.util.*;
 
@@ -63,6 +65,23 @@ public class AdminServiceAPI {
       return Arrays.asList(namespaceDTOs);
     }
 
+    /**
+     * @return the namespaces of the cluster with items and latest releases, or null if the admin service doesn't
+     * support it yet
+     */
+    public List<NamespaceDetailDTO> findNamespaceDetailsByCluster(String appId, Env env, String clusterName) {
+      try {
+        NamespaceDetailDTO[] details = restTemplate.get(env, "apps/{appId}/clusters/{clusterName}/namespace-details",
+            NamespaceDetailDTO[].class, appId, clusterName);
+        return Arrays.asList(details);
+      } catch (HttpClientErrorException ex) {
+        if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+          return null;
+        }
+        throw ex;
+      }
+    }
+
     public NamespaceDTO loadNamespace(String appId, Env env, String clusterName,
         String namespaceName) {
       return
@@ -265,6 +284,23 @@ public class AdminServiceAPI {
 
     }
 
+    /**
+     * @return the diffs between the releases paired by position, or null if the admin service doesn't support it yet
+     */
+    public List<ReleaseDiffDTO> findReleaseDiffs(Env env, List<Long> baseReleaseIds, List<Long> toCompareReleaseIds) {
+      try {
+        ReleaseDiffDTO[] diffs = restTemplate.get(env,
+            "release-diffs?baseReleaseIds={baseReleaseIds}&toCompareReleaseIds={toCompareReleaseIds}",
+            ReleaseDiffDTO[].class, JOINER.join(baseReleaseIds), JOINER.join(toCompareReleaseIds));
+        return Arrays.asList(diffs);
+      } catch (HttpClientErrorException ex) {
+        if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+          return null;
+        }
+        throw ex;
+      }
+    }
+
     public List<ReleaseDTO> findAllReleases(String appId, Env env, String clusterName, String namespaceName, int page,
         int size) {
       ReleaseDTO[] releaseDTOs = restTemplate.get(
@@ -405,6 +441,17 @@ public class AdminServiceAPI {
       return Arrays.asList(instanceDTOs);
     }
 
+    public PageDTO<InstanceDTO> getByReleasesNotIn(String appId, Env env, String clusterName, String namespaceName,
+        Set<Long> releaseIds, int page, int size) {
+      ResponseEntity<PageDTO<InstanceDTO>>
+          entity =
+          restTemplate.get(env,
+              "/instances/by-namespace-and-releases-not-in/page?appId={appId}&clusterName={clusterName}"
+                  + "&namespaceName={namespaceName}&releaseIds={releaseIds}&page={page}&size={size}",
+              pageInstanceDtoType, appId, clusterName, namespaceName, joiner.join(releaseIds), page, size);
+      return entity.getBody();
+    }
+
     public PageDTO<InstanceDTO> getByNamespace(String appId, Env env, String clusterName, String namespaceName,
         String instanceAppId,
         int page, int size) {
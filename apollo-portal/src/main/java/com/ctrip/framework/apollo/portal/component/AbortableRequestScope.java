@@ -0,0 +1,60 @@
+package com.ctrip.framework.apollo.portal.component;
+
+import com.google.common.collect.Lists;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The http requests sent by a call in the scope, so that they could be aborted from another thread, e.g. the losing
+ * request of a hedged call, as interrupting the thread doesn't stop the blocking read of the response.
+ */
+class AbortableRequestScope {
+  private static final ThreadLocal<AbortableRequestScope> CURRENT = new ThreadLocal<>();
+
+  private final List<HttpUriRequest> requests = Lists.newArrayListWithCapacity(1);
+  private boolean aborted;
+
+  /**
+   * Register the request to the scope of the current thread, if any, called before the request is sent
+   */
+  static void register(HttpUriRequest request) {
+    AbortableRequestScope scope = CURRENT.get();
+    if (scope != null) {
+      scope.add(request);
+    }
+  }
+
+  <T> T run(Supplier<T> call) {
+    CURRENT.set(this);
+    try {
+      return call.get();
+    } finally {
+      CURRENT.remove();
+    }
+  }
+
+  /**
+   * Abort the requests sent, and the ones to be sent in the scope
+   */
+  synchronized void abort() {
+    aborted = true;
+    for (HttpUriRequest request : requests) {
+      request.abort();
+    }
+    requests.clear();
+  }
+
+  synchronized boolean isAborted() {
+    return aborted;
+  }
+
+  private synchronized void add(HttpUriRequest request) {
+    if (aborted) {
+      request.abort();
+    } else {
+      requests.add(request);
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package com.ctrip.framework.apollo.portal.component;
+
+import com.ctrip.framework.apollo.core.dto.ServiceDTO;
+import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
+import com.ctrip.framework.apollo.portal.constant.TracerEventType;
+import com.ctrip.framework.apollo.portal.environment.Env;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the latency and errors of the calls to admin services.
+ *
+ * <p>An admin service is skipped for <code>admin-service.circuit.openSeconds</code> once it fails
+ * <code>admin-service.circuit.failureThreshold</code> times in a row with connection errors or timeouts. After
+ * that it is tried again, and a single failure opens the circuit again until it succeeds.
+ */
+public class AdminServiceHealth {
+  private static final long HISTOGRAM_WINDOW_IN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  //too few samples make the percentile meaningless
+  private static final int MIN_SAMPLES_TO_HEDGE = 100;
+
+  private final PortalConfig portalConfig;
+  private final ConcurrentMap<Env, LatencyHistogram> envHistograms = Maps.newConcurrentMap();
+  private final ConcurrentMap<String, NodeHealth> nodes = Maps.newConcurrentMap();
+
+  public AdminServiceHealth(PortalConfig portalConfig) {
+    this.portalConfig = portalConfig;
+  }
+
+  /**
+   * @return the services with open circuits moved to the end, so they are only tried when others have failed
+   */
+  public List<ServiceDTO> sort(List<ServiceDTO> services) {
+    List<ServiceDTO> available = Lists.newArrayListWithCapacity(services.size());
+    List<ServiceDTO> unavailable = Lists.newArrayList();
+    long now = System.currentTimeMillis();
+    for (ServiceDTO service : services) {
+      NodeHealth node = nodes.get(service.getHomepageUrl());
+      if (node != null && node.isCircuitOpen(now)) {
+        unavailable.add(service);
+      } else {
+        available.add(service);
+      }
+    }
+    available.addAll(unavailable);
+    return available;
+  }
+
+  public void onSuccess(Env env, ServiceDTO service, long latencyInMillis) {
+    histogramOf(env).record(latencyInMillis);
+    nodeOf(service).onSuccess(latencyInMillis);
+  }
+
+  /**
+   * @param nodeFailure whether the failure is caused by the admin service, e.g. connection refused or timeout,
+   *                    rather than rejected by the business logic
+   */
+  public void onFailure(ServiceDTO service, long latencyInMillis, boolean nodeFailure) {
+    NodeHealth node = nodeOf(service);
+    if (!nodeFailure) {
+      node.onSuccess(latencyInMillis);
+      return;
+    }
+    if (node.onFailure(latencyInMillis, portalConfig.adminServiceCircuitFailureThreshold(),
+        TimeUnit.SECONDS.toMillis(portalConfig.adminServiceCircuitOpenSeconds()))) {
+      Tracer.logEvent(TracerEventType.API_CIRCUIT_OPEN, service.getHomepageUrl());
+    }
+  }
+
+  /**
+   * @return how long to wait before sending a hedged request to another admin service, or -1 if not to hedge
+   */
+  public long hedgeDelayInMillis(Env env) {
+    if (!portalConfig.isAdminServiceHedgeEnabled()) {
+      return -1;
+    }
+    LatencyHistogram histogram = envHistograms.get(env);
+    if (histogram == null || histogram.count() < MIN_SAMPLES_TO_HEDGE) {
+      return -1;
+    }
+    long delay = histogram.percentile(portalConfig.adminServiceHedgePercentile());
+    return delay == Long.MAX_VALUE ? -1 : delay;
+  }
+
+  public Map<String, EnvStats> getStats() {
+    Map<String, EnvStats> stats = Maps.newTreeMap();
+    for (Map.Entry<Env, LatencyHistogram> entry : envHistograms.entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+      EnvStats envStats = new EnvStats();
+      envStats.count = histogram.count();
+      envStats.p50 = histogram.percentile(50);
+      envStats.p95 = histogram.percentile(95);
+      envStats.p99 = histogram.percentile(99);
+      envStats.buckets = histogram.buckets();
+      stats.put(entry.getKey().name(), envStats);
+    }
+    return stats;
+  }
+
+  public Map<String, NodeStats> getNodeStats() {
+    Map<String, NodeStats> stats = Maps.newTreeMap();
+    long now = System.currentTimeMillis();
+    for (Map.Entry<String, NodeHealth> entry : nodes.entrySet()) {
+      NodeHealth node = entry.getValue();
+      NodeStats nodeStats = new NodeStats();
+      nodeStats.calls = node.calls.get();
+      nodeStats.failures = node.failures.get();
+      nodeStats.averageLatency = nodeStats.calls == 0 ? 0 : node.totalLatency.get() / nodeStats.calls;
+      nodeStats.circuitOpen = node.isCircuitOpen(now);
+      stats.put(entry.getKey(), nodeStats);
+    }
+    return stats;
+  }
+
+  private LatencyHistogram histogramOf(Env env) {
+    return envHistograms.computeIfAbsent(env, e -> new LatencyHistogram(HISTOGRAM_WINDOW_IN_MILLIS));
+  }
+
+  private NodeHealth nodeOf(ServiceDTO service) {
+    return nodes.computeIfAbsent(service.getHomepageUrl(), url -> new NodeHealth());
+  }
+
+  private static class NodeHealth {
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long circuitOpenUntil = 0;
+
+    private boolean isCircuitOpen(long now) {
+      return now < circuitOpenUntil;
+    }
+
+    private void onSuccess(long latencyInMillis) {
+      calls.incrementAndGet();
+      totalLatency.addAndGet(latencyInMillis);
+      consecutiveFailures.set(0);
+      circuitOpenUntil = 0;
+    }
+
+    /**
+     * @return whether the circuit is opened by this failure
+     */
+    private boolean onFailure(long latencyInMillis, int threshold, long openInMillis) {
+      calls.incrementAndGet();
+      failures.incrementAndGet();
+      totalLatency.addAndGet(latencyInMillis);
+      if (threshold <= 0 || consecutiveFailures.incrementAndGet() < threshold) {
+        return false;
+      }
+      circuitOpenUntil = System.currentTimeMillis() + openInMillis;
+      return true;
+    }
+  }
+
+  public static class EnvStats {
+    private long count;
+    private long p50;
+    private long p95;
+    private long p99;
+    private Map<String, Long> buckets;
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getP50() {
+      return p50;
+    }
+
+    public long getP95() {
+      return p95;
+    }
+
+    public long getP99() {
+      return p99;
+    }
+
+    public Map<String, Long> getBuckets() {
+      return buckets;
+    }
+  }
+
+  public static class NodeStats {
+    private long calls;
+    private long failures;
+    private long averageLatency;
+    private boolean circuitOpen;
+
+    public long getCalls() {
+      return calls;
+    }
+
+    public long getFailures() {
+      return failures;
+    }
+
+    public long getAverageLatency() {
+      return averageLatency;
+    }
+
+    public boolean isCircuitOpen() {
+      return circuitOpen;
+    }
+  }
+}
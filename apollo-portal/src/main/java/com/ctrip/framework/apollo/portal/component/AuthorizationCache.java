@@ -0,0 +1,162 @@
+package com.ctrip.framework.apollo.portal.component;
+
+import com.ctrip.framework.apollo.openapi.entity.ConsumerToken;
+import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
+import com.ctrip.framework.apollo.portal.entity.po.Permission;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In memory index of the authorization data, so that permission checks and open api authentication don't have to
+ * query the database for each request.
+ *
+ * <p>The entries are invalidated once the roles, permissions or consumer roles are changed by this portal instance,
+ * and expire after <code>authorization.cache.expireSeconds</code>, which bounds how long changes made by other portal
+ * instances take effect here. Setting it to 0 disables the cache.
+ */
+@Component
+public class AuthorizationCache {
+  private static final long NO_PERMISSION = -1;
+
+  private final Cache<String, Long> permissionIds;
+  private final Cache<String, Set<Long>> userPermissionIds;
+  private final Cache<Long, Set<Long>> consumerPermissionIds;
+  private final Cache<String, ConsumerToken> consumerTokens;
+  //bumped on each invalidation, so that values loaded before the invalidation are not cached afterwards
+  private final AtomicLong version = new AtomicLong();
+
+  public AuthorizationCache(final PortalConfig portalConfig) {
+    int expireSeconds = Math.max(0, portalConfig.authorizationCacheExpireSeconds());
+    long maximumSize = expireSeconds == 0 ? 0 : Math.max(0, portalConfig.authorizationCacheSize());
+
+    permissionIds = buildCache(maximumSize, expireSeconds);
+    userPermissionIds = buildCache(maximumSize, expireSeconds);
+    consumerPermissionIds = buildCache(maximumSize, expireSeconds);
+    consumerTokens = buildCache(maximumSize, expireSeconds);
+  }
+
+  private static <K, V> Cache<K, V> buildCache(long maximumSize, int expireSeconds) {
+    return CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * @return the id of the permission, or -1 if the permission doesn't exist
+   */
+  public long getPermissionId(String permissionType, String targetId, Supplier<Permission> loader) {
+    return get(permissionIds, permissionKey(permissionType, targetId), () -> {
+      Permission permission = loader.get();
+      return permission == null ? NO_PERMISSION : permission.getId();
+    });
+  }
+
+  /**
+   * @return the ids of the permissions granted to the user's roles
+   */
+  public Set<Long> getUserPermissionIds(String userId, Supplier<Set<Long>> loader) {
+    return get(userPermissionIds, userId, loader);
+  }
+
+  /**
+   * @return the ids of the permissions granted to the consumer's roles
+   */
+  public Set<Long> getConsumerPermissionIds(long consumerId, Supplier<Set<Long>> loader) {
+    return get(consumerPermissionIds, consumerId, loader);
+  }
+
+  /**
+   * @return the unexpired consumer token, or null if not found
+   */
+  public ConsumerToken getConsumerToken(String token, Supplier<ConsumerToken> loader) {
+    ConsumerToken consumerToken = consumerTokens.getIfPresent(token);
+    if (consumerToken == null) {
+      long currentVersion = version.get();
+      consumerToken = loader.get();
+      //unknown tokens are not cached, otherwise anyone could fill the cache with random tokens
+      if (consumerToken == null) {
+        return null;
+      }
+      putIfNotInvalidated(consumerTokens, token, consumerToken, currentVersion);
+    }
+    if (consumerToken.getExpires() != null && !consumerToken.getExpires().after(new Date())) {
+      consumerTokens.invalidate(token);
+      return null;
+    }
+    return consumerToken;
+  }
+
+  public void invalidatePermission(String permissionType, String targetId) {
+    invalidateAfterCommit(() -> permissionIds.invalidate(permissionKey(permissionType, targetId)));
+  }
+
+  public void invalidateUsers(Collection<String> userIds) {
+    invalidateAfterCommit(() -> userPermissionIds.invalidateAll(userIds));
+  }
+
+  public void invalidateConsumer(long consumerId) {
+    invalidateAfterCommit(() -> consumerPermissionIds.invalidate(consumerId));
+  }
+
+  public void invalidateAll() {
+    invalidateAfterCommit(() -> {
+      permissionIds.invalidateAll();
+      userPermissionIds.invalidateAll();
+      consumerPermissionIds.invalidateAll();
+      consumerTokens.invalidateAll();
+    });
+  }
+
+  private <K, V> V get(Cache<K, V> cache, K key, Supplier<V> loader) {
+    V value = cache.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    long currentVersion = version.get();
+    value = loader.get();
+    putIfNotInvalidated(cache, key, value, currentVersion);
+    return value;
+  }
+
+  private <K, V> void putIfNotInvalidated(Cache<K, V> cache, K key, V value, long loadedVersion) {
+    cache.put(key, value);
+    //the value might be loaded before an invalidation which happened during the loading
+    if (version.get() != loadedVersion) {
+      cache.invalidate(key);
+    }
+  }
+
+  /**
+   * Invalidate once the current transaction is committed, otherwise concurrent readers could cache the data which is
+   * about to be changed
+   */
+  private void invalidateAfterCommit(Runnable invalidation) {
+    Runnable action = () -> {
+      version.incrementAndGet();
+      invalidation.run();
+    };
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private static String permissionKey(String permissionType, String targetId) {
+    return permissionType + "+" + targetId;
+  }
+}
@@ -0,0 +1,94 @@
+package com.ctrip.framework.apollo.portal.component;
+
+import com.ctrip.framework.apollo.core.utils.LogLinearHistogram;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+/**
+ * Latency histogram in milliseconds, with the log-linear buckets of {@link LogLinearHistogram}, each power of 2 split
+ * into 4 buckets, up to 32768 milliseconds and above.
+ *
+ * <p>The samples are kept in two windows, the current one and the previous one, which are swapped every
+ * <code>windowInMillis</code>, so the percentiles reflect the recent calls only.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 2;
+  private static final long MAX_LATENCY_IN_MILLIS = 32768;
+
+  private final long windowInMillis;
+  private volatile LogLinearHistogram current = newHistogram();
+  private volatile LogLinearHistogram previous = newHistogram();
+  private volatile long windowStartTime;
+
+  public LatencyHistogram(long windowInMillis) {
+    this.windowInMillis = windowInMillis;
+    this.windowStartTime = System.currentTimeMillis();
+  }
+
+  public void record(long latencyInMillis) {
+    rotateIfNecessary();
+    current.record(latencyInMillis);
+  }
+
+  /**
+   * @return the number of samples in the current and the previous window
+   */
+  public long count() {
+    rotateIfNecessary();
+    return current.count() + previous.count();
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return the upper bound of the bucket the percentile falls in, {@link Long#MAX_VALUE} if it's above the largest
+   * bucket, or -1 if there is no sample
+   */
+  public long percentile(double percentile) {
+    rotateIfNecessary();
+    return current.percentile(snapshot(), percentile);
+  }
+
+  /**
+   * @return the sample count of each bucket, keyed by the bucket's upper bound in milliseconds
+   */
+  public Map<String, Long> buckets() {
+    rotateIfNecessary();
+    long[] counts = snapshot();
+    Map<String, Long> buckets = Maps.newLinkedHashMap();
+    for (int i = 0; i < counts.length; i++) {
+      long upperBound = current.upperBoundOf(i);
+      buckets.put(upperBound == Long.MAX_VALUE ? "+Inf" : String.valueOf(upperBound), counts[i]);
+    }
+    return buckets;
+  }
+
+  private long[] snapshot() {
+    long[] counts = current.snapshot();
+    long[] previousCounts = previous.snapshot();
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += previousCounts[i];
+    }
+    return counts;
+  }
+
+  private void rotateIfNecessary() {
+    long now = System.currentTimeMillis();
+    if (now - windowStartTime < windowInMillis) {
+      return;
+    }
+    synchronized (this) {
+      if (now - windowStartTime < windowInMillis) {
+        return;
+      }
+      //the previous window is dropped if no sample is recorded for two windows
+      previous = now - windowStartTime < windowInMillis * 2 ? current : newHistogram();
+      current = newHistogram();
+      windowStartTime = now;
+    }
+  }
+
+  private static LogLinearHistogram newHistogram() {
+    return new LogLinearHistogram(SUB_BUCKET_BITS, MAX_LATENCY_IN_MILLIS);
+  }
+}
@@ -19,9 +19,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Component
 public class PortalSettings {
@@ -94,6 +98,10 @@ public class PortalSettings {
 
     private AdminServiceAPI.HealthAPI healthAPI;
 
+    //envs are checked concurrently, so an unreachable env does not delay the others
+    private final ExecutorService healthCheckExecutorService =
+        Executors.newCachedThreadPool(ApolloThreadFactory.create("EnvHealthCheckTask", true));
+
     public HealthCheckTask(ApplicationContext context) {
       healthAPI = context.getBean(AdminServiceAPI.HealthAPI.class);
       for (Env env : allEnvs) {
@@ -103,9 +111,16 @@ public class PortalSettings {
 
     public void run() {
 
+      Map<Env, Future<Boolean>> results = new HashMap<>();
+      for (Env env : allEnvs) {
+        results.put(env, healthCheckExecutorService.submit(() -> isUp(env)));
+      }
+
+      long deadline = System.currentTimeMillis() + portalConfig.envHealthCheckTimeout();
       for (Env env : allEnvs) {
+        Future<Boolean> result = results.get(env);
         try {
-          if (isUp(env)) {
+          if (awaitResult(result, deadline)) {
             //revive
             if (!envStatusMark.get(env)) {
               envStatusMark.put(env, true);
@@ -118,6 +133,11 @@ public class PortalSettings {
             handleEnvDown(env);
           }
 
+        } catch (TimeoutException e) {
+          result.cancel(true);
+          logger.error("Env health check timeout, maybe because of admin server or meta server not responding. "
+                       + "env: {}, meta server address: {}", env, portalMetaDomainService.getDomain(env));
+          handleEnvDown(env);
         } catch (Exception e) {
           logger.error("Env health check failed, maybe because of meta server down "
                        + "or configure wrong meta server address. env: {}, meta server address: {}", env,
@@ -128,6 +148,15 @@ public class PortalSettings {
 
     }
 
+    private boolean awaitResult(Future<Boolean> result, long deadline) throws Exception {
+      try {
+        return result.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        throw cause instanceof Exception ? (Exception) cause : e;
+      }
+    }
+
     private boolean isUp(Env env) {
       Health health = healthAPI.health(env);
       return "UP".equals(health.getStatus().getCode());
@@ -1,6 +1,7 @@
 package com.ctrip.framework.apollo.portal.component;
 
 import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.springframework.beans.factory.FactoryBean;
@@ -36,11 +37,20 @@ public class RestTemplateFactory implements FactoryBean<RestTemplate>, Initializ
   }
 
   public void afterPropertiesSet() throws UnsupportedEncodingException {
-    CloseableHttpClient httpClient = HttpClientBuilder.create().build();
+    //the connections are pooled by route, i.e. each admin service instance of each env has its own share
+    CloseableHttpClient httpClient = HttpClientBuilder.create()
+        .setMaxConnPerRoute(portalConfig.maxConnectionsPerRoute())
+        .setMaxConnTotal(portalConfig.maxConnectionsTotal())
+        .build();
 
     restTemplate = new RestTemplate(httpMessageConverters.getConverters());
-    HttpComponentsClientHttpRequestFactory requestFactory =
-        new HttpComponentsClientHttpRequestFactory(httpClient);
+    HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient) {
+      @Override
+      protected void postProcessHttpRequest(HttpUriRequest request) {
+        //so the losing request of a hedged call could be aborted
+        AbortableRequestScope.register(request);
+      }
+    };
     requestFactory.setConnectTimeout(portalConfig.connectTimeout());
     requestFactory.setReadTimeout(portalConfig.readTimeout());
 
@@ -1,12 +1,15 @@
 package com.ctrip.framework.apollo.portal.component;
 
 import com.ctrip.framework.apollo.common.exception.ServiceException;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
 import com.ctrip.framework.apollo.portal.environment.PortalMetaDomainService;
 import com.ctrip.framework.apollo.core.dto.ServiceDTO;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.portal.constant.TracerEventType;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import com.google.common.collect.Lists;
 import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.conn.HttpHostConnectException;
 import org.slf4j.Logger;
@@ -23,14 +26,32 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import org.springframework.web.util.UriTemplateHandler;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 封装RestTemplate. admin server集群在某些机器宕机或者超时的情况下轮询重试
+ *
+ * <p>Admin services failing continuously are skipped for a while, and if enabled, GET requests slower than most of the
+ * recent ones are hedged by a duplicate request to another admin service.
  */
 @Component
 public class RetryableRestTemplate {
+  private static final int HEDGE_THREADS = 50;
 
   private Logger logger = LoggerFactory.getLogger(RetryableRestTemplate.class);
 
@@ -41,15 +62,25 @@ public class RetryableRestTemplate {
   private final RestTemplateFactory restTemplateFactory;
   private final AdminServiceAddressLocator adminServiceAddressLocator;
   private final PortalMetaDomainService portalMetaDomainService;
+  private final AdminServiceHealth adminServiceHealth;
+  private final ExecutorService hedgeExecutorService;
 
   public RetryableRestTemplate(
       final @Lazy RestTemplateFactory restTemplateFactory,
       final @Lazy AdminServiceAddressLocator adminServiceAddressLocator,
-      final PortalMetaDomainService portalMetaDomainService
+      final PortalMetaDomainService portalMetaDomainService,
+      final PortalConfig portalConfig
   ) {
     this.restTemplateFactory = restTemplateFactory;
     this.adminServiceAddressLocator = adminServiceAddressLocator;
     this.portalMetaDomainService = portalMetaDomainService;
+    this.adminServiceHealth = new AdminServiceHealth(portalConfig);
+    //requests are sent in the caller's thread, i.e. not hedged, when all the threads are busy
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(HEDGE_THREADS, HEDGE_THREADS, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), ApolloThreadFactory.create("AdminServiceHedge", true),
+        new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    this.hedgeExecutorService = executor;
   }
 
 
@@ -58,6 +89,11 @@ public class RetryableRestTemplate {
     restTemplate = restTemplateFactory.getObject();
   }
 
+  @PreDestroy
+  void stop() {
+    hedgeExecutorService.shutdownNow();
+  }
+
   public <T> T get(Env env, String path, Class<T> responseType, Object... urlVariables)
       throws RestClientException {
     return execute(HttpMethod.GET, env, path, null, responseType, urlVariables);
@@ -85,21 +121,36 @@ public class RetryableRestTemplate {
 
   private <T> T execute(HttpMethod method, Env env, String path, Object request, Class<T> responseType,
                         Object... uriVariables) {
+    String relativePath = path.startsWith("/") ? path.substring(1) : path;
+    return execute(method, env, relativePath, uriVariables,
+        service -> doExecute(method, service, relativePath, request, responseType, uriVariables));
+  }
 
-    if (path.startsWith("/")) {
-      path = path.substring(1, path.length());
-    }
+  private <T> ResponseEntity<T> exchangeGet(Env env, String path, ParameterizedTypeReference<T> reference,
+                                            Object... uriVariables) {
+    String relativePath = path.startsWith("/") ? path.substring(1) : path;
+    return execute(HttpMethod.GET, env, relativePath, uriVariables,
+        service -> restTemplate.exchange(parseHost(service) + relativePath, HttpMethod.GET, null, reference,
+            uriVariables));
+  }
 
+  private <T> T execute(HttpMethod method, Env env, String path, Object[] uriVariables,
+                        Function<ServiceDTO, T> call) {
     String uri = uriTemplateHandler.expand(path, uriVariables).getPath();
     Transaction ct = Tracer.newTransaction("AdminAPI", uri);
     ct.addData("Env", env);
 
     List<ServiceDTO> services = getAdminServices(env, ct);
+    Deque<ServiceDTO> candidates = new ArrayDeque<>(adminServiceHealth.sort(services));
 
-    for (ServiceDTO serviceDTO : services) {
+    while (!candidates.isEmpty()) {
+      ServiceDTO serviceDTO = candidates.poll();
       try {
-
-        T result = doExecute(method, serviceDTO, path, request, responseType, uriVariables);
+        //only the idempotent requests are hedged, as both the requests could be handled
+        long hedgeDelay = isIdempotent(method) && !candidates.isEmpty() ? adminServiceHealth.hedgeDelayInMillis(env)
+            : -1;
+        T result = hedgeDelay < 0 ? call(env, serviceDTO, call)
+            : callHedged(env, method, serviceDTO, candidates, hedgeDelay, uri, call);
 
         ct.setStatus(Transaction.SUCCESS);
         ct.complete();
@@ -126,49 +177,113 @@ public class RetryableRestTemplate {
     throw e;
   }
 
-  private <T> ResponseEntity<T> exchangeGet(Env env, String path, ParameterizedTypeReference<T> reference,
-                                            Object... uriVariables) {
-    if (path.startsWith("/")) {
-      path = path.substring(1, path.length());
+  /**
+   * Send the request to the service, and send a duplicate to the next candidate if no response is received after
+   * the delay, the first successful response wins and the other request is aborted.
+   */
+  private <T> T callHedged(Env env, HttpMethod method, ServiceDTO service, Deque<ServiceDTO> candidates,
+                           long delayInMillis, String uri, Function<ServiceDTO, T> call) {
+    CompletionService<T> completionService = new ExecutorCompletionService<>(hedgeExecutorService);
+    List<Future<T>> futures = Lists.newArrayListWithCapacity(2);
+    List<AbortableRequestScope> scopes = Lists.newArrayListWithCapacity(2);
+    if (!submit(completionService, env, service, call, futures, scopes)) {
+      //all the threads are busy
+      return call(env, service, call);
     }
+    int pending = 1;
+
+    try {
+      Future<T> completed = completionService.poll(delayInMillis, TimeUnit.MILLISECONDS);
+      if (completed == null) {
+        ServiceDTO hedgedService = candidates.peek();
+        if (submit(completionService, env, hedgedService, call, futures, scopes)) {
+          candidates.poll();
+          Tracer.logEvent(TracerEventType.API_HEDGE, uri);
+          pending++;
+        }
+      }
 
-    String uri = uriTemplateHandler.expand(path, uriVariables).getPath();
-    Transaction ct = Tracer.newTransaction("AdminAPI", uri);
-    ct.addData("Env", env);
-
-    List<ServiceDTO> services = getAdminServices(env, ct);
-
-    for (ServiceDTO serviceDTO : services) {
-      try {
+      RuntimeException lastFailure = null;
+      while (pending-- > 0) {
+        if (completed == null) {
+          completed = completionService.take();
+        }
+        try {
+          return completed.get();
+        } catch (ExecutionException ex) {
+          RuntimeException failure = ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause()
+              : new ServiceException("Http request failed", ex);
+          //the other request would fail the same way if it's not a retryable failure
+          if (!canRetry(failure, method)) {
+            throw failure;
+          }
+          logger.error("Http request failed, uri: {}, method: {}", uri, method, failure);
+          lastFailure = failure;
+          completed = null;
+        }
+      }
+      throw lastFailure;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ServiceException("Http request interrupted", ex);
+    } finally {
+      //the blocking read of the response is not interrupted by cancelling the future, so the request is aborted
+      for (int i = 0; i < futures.size(); i++) {
+        if (!futures.get(i).isDone()) {
+          scopes.get(i).abort();
+          futures.get(i).cancel(true);
+        }
+      }
+    }
+  }
 
-        ResponseEntity<T> result =
-            restTemplate.exchange(parseHost(serviceDTO) + path, HttpMethod.GET, null, reference, uriVariables);
+  /**
+   * @return false if the call is not submitted as all the threads are busy
+   */
+  private <T> boolean submit(CompletionService<T> completionService, Env env, ServiceDTO service,
+                             Function<ServiceDTO, T> call, List<Future<T>> futures,
+                             List<AbortableRequestScope> scopes) {
+    AbortableRequestScope scope = new AbortableRequestScope();
+    try {
+      futures.add(completionService.submit(() -> scope.run(() -> call(env, service, call, scope))));
+    } catch (RejectedExecutionException ex) {
+      return false;
+    }
+    scopes.add(scope);
+    return true;
+  }
 
-        ct.setStatus(Transaction.SUCCESS);
-        ct.complete();
-        return result;
-      } catch (Throwable t) {
-        logger.error("Http request failed, uri: {}, method: {}", uri, HttpMethod.GET, t);
-        Tracer.logError(t);
-        if (canRetry(t, HttpMethod.GET)) {
-          Tracer.logEvent(TracerEventType.API_RETRY, uri);
-        } else {// biz exception rethrow
-          ct.setStatus(t);
-          ct.complete();
-          throw t;
-        }
+  private <T> T call(Env env, ServiceDTO service, Function<ServiceDTO, T> call) {
+    return call(env, service, call, null);
+  }
 
+  private <T> T call(Env env, ServiceDTO service, Function<ServiceDTO, T> call, AbortableRequestScope scope) {
+    long start = System.currentTimeMillis();
+    try {
+      T result = call.apply(service);
+      adminServiceHealth.onSuccess(env, service, System.currentTimeMillis() - start);
+      return result;
+    } catch (RuntimeException ex) {
+      //the losing request of a hedged call is aborted, which is not a failure of the service
+      if (scope == null || !scope.isAborted()) {
+        adminServiceHealth.onFailure(service, System.currentTimeMillis() - start, isNodeFailure(ex));
       }
+      throw ex;
     }
+  }
 
-    //all admin server down
-    ServiceException e =
-        new ServiceException(String.format("Admin servers are unresponsive. meta server address: %s, admin servers: %s",
-                portalMetaDomainService.getDomain(env), services));
-    ct.setStatus(e);
-    ct.complete();
-    throw e;
+  /**
+   * @return the latency histogram of each env
+   */
+  public Map<String, AdminServiceHealth.EnvStats> getEnvStats() {
+    return adminServiceHealth.getStats();
+  }
 
+  /**
+   * @return the calls, failures and circuit state of each admin service
+   */
+  public Map<String, AdminServiceHealth.NodeStats> getAdminServiceStats() {
+    return adminServiceHealth.getNodeStats();
   }
 
   private List<ServiceDTO> getAdminServices(Env env, Transaction ct) {
@@ -219,13 +334,26 @@ public class RetryableRestTemplate {
   //post,delete,put请求在admin server处理超时情况下不重试
   private boolean canRetry(Throwable e, HttpMethod method) {
     Throwable nestedException = e.getCause();
-    if (method == HttpMethod.GET) {
-      return nestedException instanceof SocketTimeoutException
-             || nestedException instanceof HttpHostConnectException
-             || nestedException instanceof ConnectTimeoutException;
+    if (isIdempotent(method)) {
+      return isNodeFailure(e);
     }
+    //the request is not sent yet only if the connection failed
     return nestedException instanceof HttpHostConnectException
            || nestedException instanceof ConnectTimeoutException;
   }
 
+  /**
+   * @return whether the failure is caused by the admin service, no matter the request could be retried or not
+   */
+  private boolean isNodeFailure(Throwable e) {
+    Throwable nestedException = e.getCause();
+    return nestedException instanceof SocketTimeoutException
+           || nestedException instanceof HttpHostConnectException
+           || nestedException instanceof ConnectTimeoutException;
+  }
+
+  private boolean isIdempotent(HttpMethod method) {
+    return method == HttpMethod.GET;
+  }
+
 }
@@ -126,6 +126,93 @@ public class PortalConfig extends RefreshableConfig {
     return getIntProperty("api.readTimeout", 10000);
   }
 
+  /**
+   * The deadline of loading all the namespaces of a cluster concurrently
+   */
+  public int loadNamespacesTimeout() {
+    return getIntProperty("api.loadNamespacesTimeout", 30000);
+  }
+
+  /**
+   * The deadline of checking the health of each env, envs are checked concurrently
+   */
+  public int envHealthCheckTimeout() {
+    return getIntProperty("env.healthCheckTimeout", 5000);
+  }
+
+  /**
+   * max connections to each admin service instance, namespaces in one env are synced concurrently through them
+   */
+  public int maxConnectionsPerRoute() {
+    return getIntProperty("api.maxConnectionsPerRoute", 20);
+  }
+
+  public int maxConnectionsTotal() {
+    return getIntProperty("api.maxConnectionsTotal", 200);
+  }
+
+  /**
+   * an admin service is skipped once it fails with connection errors or timeouts for the times in a row, 0 means never
+   */
+  public int adminServiceCircuitFailureThreshold() {
+    return getIntProperty("admin-service.circuit.failureThreshold", 5);
+  }
+
+  public int adminServiceCircuitOpenSeconds() {
+    return getIntProperty("admin-service.circuit.openSeconds", 30);
+  }
+
+  /**
+   * whether to send a duplicate GET request to another admin service if the first one is slower than the percentile
+   * of the recent calls of the env, disabled by default as it adds load to the admin services
+   */
+  public boolean isAdminServiceHedgeEnabled() {
+    return getBooleanProperty("admin-service.hedge.enabled", false);
+  }
+
+  public int adminServiceHedgePercentile() {
+    int percentile = getIntProperty("admin-service.hedge.percentile", 95);
+    return percentile < 50 || percentile >= 100 ? 95 : percentile;
+  }
+
+  /**
+   * how long the cached permissions and consumer tokens live, i.e. the delay of the changes made by other portal
+   * instances, 0 means no cache
+   */
+  public int authorizationCacheExpireSeconds() {
+    return getIntProperty("authorization.cache.expireSeconds", 30);
+  }
+
+  public int authorizationCacheSize() {
+    return getIntProperty("authorization.cache.size", 10000);
+  }
+
+  /**
+   * the in memory search index of apps and users is rebuilt periodically to include the changes made by other portal
+   * instances
+   */
+  public int searchIndexRebuildIntervalInSeconds() {
+    return Math.max(10, getIntProperty("search.index.rebuildInterval", 60));
+  }
+
+  /**
+   * the max number of publish events claimed by a portal instance at a time to send emails and messages
+   */
+  public int publishNotifyBatchSize() {
+    return Math.max(1, getIntProperty("publish.notify.batchSize", 100));
+  }
+
+  public int publishNotifyThreads() {
+    return Math.max(1, getIntProperty("publish.notify.threads", 5));
+  }
+
+  /**
+   * the publish event is given up after failed so many times, with the interval doubled after each failure
+   */
+  public int publishNotifyMaxRetryTimes() {
+    return getIntProperty("publish.notify.maxRetryTimes", 10);
+  }
+
   public List<Organization> organizations() {
 
     String organizations = getValue("organizations");
@@ -10,6 +10,10 @@ public interface TracerEventType {
 
   String SYNC_NAMESPACE = "Namespace.Sync";
 
+  String EXPORT_CONFIGS = "Configs.Export";
+
+  String IMPORT_CONFIGS = "Configs.Import";
+
   String CREATE_APP = "App.Create";
 
   String CREATE_CLUSTER = "Cluster.Create";
@@ -20,6 +24,10 @@ public interface TracerEventType {
 
   String API_RETRY = "API.Retry";
 
+  String API_HEDGE = "API.Hedge";
+
+  String API_CIRCUIT_OPEN = "API.CircuitOpen";
+
   String USER_ACCESS = "User.Access";
 
   String CREATE_GRAY_RELEASE = "GrayRelease.Create";
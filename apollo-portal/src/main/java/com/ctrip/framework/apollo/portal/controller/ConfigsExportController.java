@@ -3,11 +3,14 @@ package com.ctrip.framework.apollo.portal.controller;
 import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
 import com.ctrip.framework.apollo.common.exception.BadRequestException;
 import com.ctrip.framework.apollo.common.exception.ServiceException;
-import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
+import com.ctrip.framework.apollo.core.utils.StringUtils;
+import com.ctrip.framework.apollo.portal.component.PortalSettings;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.portal.entity.bo.NamespaceBO;
 import com.ctrip.framework.apollo.portal.entity.model.NamespaceTextModel;
+import com.ctrip.framework.apollo.portal.entity.vo.ConfigsImportResult;
+import com.ctrip.framework.apollo.portal.service.ConfigsExportService;
 import com.ctrip.framework.apollo.portal.service.ItemService;
 import com.ctrip.framework.apollo.portal.service.NamespaceService;
 import com.ctrip.framework.apollo.portal.util.ConfigToFileUtils;
@@ -39,11 +42,19 @@ public class ConfigsExportController {
 
   private final NamespaceService namespaceService;
 
+  private final ConfigsExportService configsExportService;
+
+  private final PortalSettings portalSettings;
+
   public ConfigsExportController(
       final ItemService configService,
-      final @Lazy NamespaceService namespaceService) {
+      final @Lazy NamespaceService namespaceService,
+      final ConfigsExportService configsExportService,
+      final PortalSettings portalSettings) {
     this.configService = configService;
     this.namespaceService = namespaceService;
+    this.configsExportService = configsExportService;
+    this.portalSettings = portalSettings;
   }
 
   @PreAuthorize(value = "@permissionValidator.hasModifyNamespacePermission(#appId, #namespaceName, #env)")
@@ -100,19 +111,8 @@ public class ConfigsExportController {
     //generate a file.
     res.setHeader("Content-Disposition", "attachment;filename=" + fileName);
 
-    List<String> fileItems = namespaceBO.getItems().stream().map(itemBO -> {
-      String key = itemBO.getItem().getKey();
-      String value = itemBO.getItem().getValue();
-      if (ConfigConsts.CONFIG_FILE_CONTENT_KEY.equals(key)) {
-        return value;
-      }
-
-      if ("".equals(key)) {
-        return Joiner.on("").join(itemBO.getItem().getKey(), itemBO.getItem().getValue());
-      }
-
-      return Joiner.on(" = ").join(itemBO.getItem().getKey(), itemBO.getItem().getValue());
-    }).collect(Collectors.toList());
+    List<String> fileItems = namespaceBO.getItems().stream()
+        .map(itemBO -> ConfigToFileUtils.itemToLine(itemBO.getItem())).collect(Collectors.toList());
 
     try {
       ConfigToFileUtils.itemsToFile(res.getOutputStream(), fileItems);
@@ -120,4 +120,41 @@ public class ConfigsExportController {
       throw new ServiceException("export items failed:{}", e);
     }
   }
+
+  /**
+   * Export the configs of all the apps as a zip file
+   *
+   * @param envs the envs to export, separated by comma, or all the active envs if not specified
+   */
+  @PreAuthorize(value = "@permissionValidator.isSuperAdmin()")
+  @GetMapping("/configs/export")
+  public void exportAll(@RequestParam(value = "envs", required = false) String envs, HttpServletResponse res) {
+    List<Env> exportEnvs = StringUtils.isEmpty(envs) ? portalSettings.getActiveEnvs() :
+        Splitter.on(",").omitEmptyStrings().trimResults().splitToList(envs).stream().map(Env::fromString)
+            .collect(Collectors.toList());
+
+    res.setContentType("application/zip");
+    res.setHeader("Content-Disposition", "attachment;filename=apollo_configs_" + System.currentTimeMillis() + ".zip");
+
+    try {
+      configsExportService.exportData(res.getOutputStream(), exportEnvs);
+    } catch (IOException e) {
+      throw new ServiceException("export configs failed", e);
+    }
+  }
+
+  /**
+   * Import the zip file exported by {@link #exportAll(String, HttpServletResponse)}
+   *
+   * @return the namespaces imported and failed, while nothing is imported if the file is invalid
+   */
+  @PreAuthorize(value = "@permissionValidator.isSuperAdmin()")
+  @PostMapping("/configs/import")
+  public ConfigsImportResult importAll(@RequestParam("file") MultipartFile file) {
+    if (file.isEmpty()) {
+      throw new BadRequestException("The file is empty.");
+    }
+
+    return configsExportService.importData(file);
+  }
 }
@@ -62,6 +62,22 @@ public class InstanceController {
                                                 @RequestParam String clusterName, @RequestParam String namespaceName,
                                                 @RequestParam String releaseIds) {
 
+        return instanceService.getByReleasesNotIn(Env.valueOf(env), appId, clusterName, namespaceName,
+            parseReleaseIds(releaseIds));
+    }
+
+    @GetMapping("/envs/{env}/instances/by-namespace-and-releases-not-in/page")
+    public PageDTO<InstanceDTO> getByReleasesNotIn(@PathVariable String env, @RequestParam String appId,
+                                                   @RequestParam String clusterName, @RequestParam String namespaceName,
+                                                   @RequestParam String releaseIds,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "20") int size) {
+
+        return instanceService.getByReleasesNotIn(Env.valueOf(env), appId, clusterName, namespaceName,
+            parseReleaseIds(releaseIds), page, size);
+    }
+
+    private Set<Long> parseReleaseIds(String releaseIds) {
         Set<Long> releaseIdSet = RELEASES_SPLITTER.splitToList(releaseIds).stream().map(Long::parseLong)
             .collect(Collectors.toSet());
 
@@ -69,7 +85,7 @@ public class InstanceController {
             throw new BadRequestException("release ids can not be empty");
         }
 
-        return instanceService.getByReleasesNotIn(Env.valueOf(env), appId, clusterName, namespaceName, releaseIdSet);
+        return releaseIdSet;
     }
 
 
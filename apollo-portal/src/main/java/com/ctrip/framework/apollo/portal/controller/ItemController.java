@@ -15,6 +15,7 @@ import com.ctrip.framework.apollo.portal.entity.vo.NamespaceIdentifier;
 import com.ctrip.framework.apollo.portal.service.ItemService;
 import com.ctrip.framework.apollo.portal.service.NamespaceService;
 import com.ctrip.framework.apollo.portal.spi.UserInfoHolder;
+import com.google.gson.Gson;
 import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpStatus;
@@ -30,15 +31,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import javax.servlet.http.HttpServletResponse;
+
 import static com.ctrip.framework.apollo.common.utils.RequestPrecondition.checkModel;
 
 @RestController
 public class ItemController {
 
+  private final Gson gson = new Gson();
+
   private final ItemService configService;
   private final NamespaceService namespaceService;
   private final UserInfoHolder userInfoHolder;
@@ -156,21 +163,42 @@ public class ItemController {
     List<ItemDiffs> itemDiffs = configService.compare(model.getSyncToNamespaces(), model.getSyncItems());
 
     for (ItemDiffs diff : itemDiffs) {
-      NamespaceIdentifier namespace = diff.getNamespace();
-      if (namespace == null) {
-        continue;
-      }
-
-      if (permissionValidator
-          .shouldHideConfigToCurrentUser(namespace.getAppId(), namespace.getEnv().name(), namespace.getNamespaceName())) {
-        diff.setDiffs(new ItemChangeSets());
-        diff.setExtInfo("You are not this project's administrator, nor you have edit or release permission for the namespace in environment: " + namespace.getEnv());
-      }
+      hideDiffsIfNecessary(diff);
     }
 
     return itemDiffs;
   }
 
+  /**
+   * Same as {@link #diff(NamespaceSyncModel)}, but each namespace's diffs are written as one json line once compared,
+   * so the page could render the results incrementally when there are lots of namespaces to sync to.
+   */
+  @PostMapping(value = "/namespaces/{namespaceName}/diff/stream", consumes = {"application/json"})
+  public void diffInStream(@RequestBody NamespaceSyncModel model, HttpServletResponse response) throws IOException {
+    checkModel(!model.isInvalid());
+
+    response.setContentType("application/x-ndjson;charset=UTF-8");
+    PrintWriter writer = response.getWriter();
+    configService.compare(model.getSyncToNamespaces(), model.getSyncItems(), diff -> {
+      hideDiffsIfNecessary(diff);
+      writer.println(gson.toJson(diff));
+      writer.flush();
+    });
+  }
+
+  private void hideDiffsIfNecessary(ItemDiffs diff) {
+    NamespaceIdentifier namespace = diff.getNamespace();
+    if (namespace == null) {
+      return;
+    }
+
+    if (permissionValidator
+        .shouldHideConfigToCurrentUser(namespace.getAppId(), namespace.getEnv().name(), namespace.getNamespaceName())) {
+      diff.setDiffs(new ItemChangeSets());
+      diff.setExtInfo("You are not this project's administrator, nor you have edit or release permission for the namespace in environment: " + namespace.getEnv());
+    }
+  }
+
   @PutMapping(value = "/apps/{appId}/namespaces/{namespaceName}/items", consumes = {"application/json"})
   public ResponseEntity<Void> update(@PathVariable String appId, @PathVariable String namespaceName,
                                      @RequestBody NamespaceSyncModel model) {
@@ -6,8 +6,11 @@ import com.ctrip.framework.apollo.core.dto.ServiceDTO;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.portal.component.PortalSettings;
 import com.ctrip.framework.apollo.portal.component.RestTemplateFactory;
+import com.ctrip.framework.apollo.portal.component.RetryableRestTemplate;
 import com.ctrip.framework.apollo.portal.entity.vo.EnvironmentInfo;
 import com.ctrip.framework.apollo.portal.entity.vo.SystemInfo;
+import com.ctrip.framework.apollo.portal.listener.ConfigPublishListener;
+import com.google.common.collect.ImmutableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.health.Health;
@@ -20,6 +23,7 @@ import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PostConstruct;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/system-info")
@@ -33,15 +37,21 @@ public class SystemInfoController {
   private final PortalSettings portalSettings;
   private final RestTemplateFactory restTemplateFactory;
   private final PortalMetaDomainService portalMetaDomainService;
+  private final RetryableRestTemplate retryableRestTemplate;
+  private final ConfigPublishListener configPublishListener;
 
   public SystemInfoController(
       final PortalSettings portalSettings,
       final RestTemplateFactory restTemplateFactory,
-      final PortalMetaDomainService portalMetaDomainService
+      final PortalMetaDomainService portalMetaDomainService,
+      final RetryableRestTemplate retryableRestTemplate,
+      final ConfigPublishListener configPublishListener
   ) {
     this.portalSettings = portalSettings;
     this.restTemplateFactory = restTemplateFactory;
     this.portalMetaDomainService = portalMetaDomainService;
+    this.retryableRestTemplate = retryableRestTemplate;
+    this.configPublishListener = configPublishListener;
   }
 
   @PostConstruct
@@ -103,6 +113,25 @@ public class SystemInfoController {
     return restTemplate.getForObject(service.getHomepageUrl() + "/health", Health.class);
   }
 
+  /**
+   * The latency of the calls to admin services in each env, and the calls and circuit state of each admin service
+   */
+  @PreAuthorize(value = "@permissionValidator.isSuperAdmin()")
+  @GetMapping(value = "/admin-service-stats")
+  public Map<String, Object> getAdminServiceStats() {
+    return ImmutableMap.of("envs", retryableRestTemplate.getEnvStats(),
+        "adminServices", retryableRestTemplate.getAdminServiceStats());
+  }
+
+  /**
+   * The backlog and the delay of the publish emails and messages
+   */
+  @PreAuthorize(value = "@permissionValidator.isSuperAdmin()")
+  @GetMapping(value = "/publish-notify-stats")
+  public Map<String, Object> getPublishNotifyStats() {
+    return configPublishListener.getStats();
+  }
+
   private EnvironmentInfo adaptEnv2EnvironmentInfo(final Env env) {
     EnvironmentInfo environmentInfo = new EnvironmentInfo();
     String metaServerAddresses = portalMetaDomainService.getMetaServerAddress(env);
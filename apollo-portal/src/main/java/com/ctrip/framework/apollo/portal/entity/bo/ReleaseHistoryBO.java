@@ -1,6 +1,7 @@
 package com.ctrip.framework.apollo.portal.entity.bo;
 
 import com.ctrip.framework.apollo.common.entity.EntityPair;
+import com.ctrip.framework.apollo.portal.entity.vo.Change;
 
 import java.util.Date;
 import java.util.List;
@@ -38,6 +39,7 @@ public class ReleaseHistoryBO {
 
   private Map<String, Object> operationContext;
 
+  private List<Change> changes;
 
   public long getId() {
     return id;
@@ -159,4 +161,12 @@ public class ReleaseHistoryBO {
       List<EntityPair<String>> configuration) {
     this.configuration = configuration;
   }
+
+  public List<Change> getChanges() {
+    return changes;
+  }
+
+  public void setChanges(List<Change> changes) {
+    this.changes = changes;
+  }
 }
@@ -0,0 +1,235 @@
+package com.ctrip.framework.apollo.portal.entity.po;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
+
+/**
+ * A config publish waiting for the email and the message to be sent. It's deleted once both are sent, or given up
+ * after retried too many times.
+ *
+ * <p>The portal that claims the event sets itself as the owner and pushes the next retry time forward as a lease, so
+ * the event is picked up by the others if the portal is shut down before sending.
+ */
+@Entity
+@Table(name = "PublishEvent")
+public class PublishEvent {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "Id")
+  private long id;
+
+  @Column(name = "Env", nullable = false)
+  private String env;
+
+  @Column(name = "AppId", nullable = false)
+  private String appId;
+
+  @Column(name = "ClusterName", nullable = false)
+  private String clusterName;
+
+  @Column(name = "NamespaceName", nullable = false)
+  private String namespaceName;
+
+  @Column(name = "ReleaseId", nullable = false)
+  private long releaseId;
+
+  @Column(name = "PreviousReleaseId", nullable = false)
+  private long previousReleaseId;
+
+  @Column(name = "Operation", nullable = false)
+  private int operation;
+
+  @Column(name = "EmailSent", nullable = false)
+  private boolean emailSent;
+
+  @Column(name = "MessageSent", nullable = false)
+  private boolean messageSent;
+
+  @Column(name = "RetryTimes", nullable = false)
+  private int retryTimes;
+
+  @Column(name = "NextRetryTime", nullable = false)
+  private Date nextRetryTime;
+
+  @Column(name = "Owner", nullable = false)
+  private String owner;
+
+  @Column(name = "DataChange_CreatedTime", nullable = false)
+  private Date dataChangeCreatedTime;
+
+  @Column(name = "DataChange_LastTime")
+  private Date dataChangeLastModifiedTime;
+
+  @PrePersist
+  protected void prePersist() {
+    if (this.dataChangeCreatedTime == null) {
+      dataChangeCreatedTime = new Date();
+    }
+    if (this.dataChangeLastModifiedTime == null) {
+      dataChangeLastModifiedTime = dataChangeCreatedTime;
+    }
+    if (this.nextRetryTime == null) {
+      nextRetryTime = dataChangeCreatedTime;
+    }
+    if (this.owner == null) {
+      owner = "";
+    }
+  }
+
+  @PreUpdate
+  protected void preUpdate() {
+    this.dataChangeLastModifiedTime = new Date();
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  public String getEnv() {
+    return env;
+  }
+
+  public void setEnv(String env) {
+    this.env = env;
+  }
+
+  public String getAppId() {
+    return appId;
+  }
+
+  public void setAppId(String appId) {
+    this.appId = appId;
+  }
+
+  public String getClusterName() {
+    return clusterName;
+  }
+
+  public void setClusterName(String clusterName) {
+    this.clusterName = clusterName;
+  }
+
+  public String getNamespaceName() {
+    return namespaceName;
+  }
+
+  public void setNamespaceName(String namespaceName) {
+    this.namespaceName = namespaceName;
+  }
+
+  public long getReleaseId() {
+    return releaseId;
+  }
+
+  public void setReleaseId(long releaseId) {
+    this.releaseId = releaseId;
+  }
+
+  public long getPreviousReleaseId() {
+    return previousReleaseId;
+  }
+
+  public void setPreviousReleaseId(long previousReleaseId) {
+    this.previousReleaseId = previousReleaseId;
+  }
+
+  public int getOperation() {
+    return operation;
+  }
+
+  public void setOperation(int operation) {
+    this.operation = operation;
+  }
+
+  public boolean isEmailSent() {
+    return emailSent;
+  }
+
+  public void setEmailSent(boolean emailSent) {
+    this.emailSent = emailSent;
+  }
+
+  public boolean isMessageSent() {
+    return messageSent;
+  }
+
+  public void setMessageSent(boolean messageSent) {
+    this.messageSent = messageSent;
+  }
+
+  public int getRetryTimes() {
+    return retryTimes;
+  }
+
+  public void setRetryTimes(int retryTimes) {
+    this.retryTimes = retryTimes;
+  }
+
+  public Date getNextRetryTime() {
+    return nextRetryTime;
+  }
+
+  public void setNextRetryTime(Date nextRetryTime) {
+    this.nextRetryTime = nextRetryTime;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public void setOwner(String owner) {
+    this.owner = owner;
+  }
+
+  public Date getDataChangeCreatedTime() {
+    return dataChangeCreatedTime;
+  }
+
+  public void setDataChangeCreatedTime(Date dataChangeCreatedTime) {
+    this.dataChangeCreatedTime = dataChangeCreatedTime;
+  }
+
+  public Date getDataChangeLastModifiedTime() {
+    return dataChangeLastModifiedTime;
+  }
+
+  public void setDataChangeLastModifiedTime(Date dataChangeLastModifiedTime) {
+    this.dataChangeLastModifiedTime = dataChangeLastModifiedTime;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .omitNullValues()
+        .add("id", id)
+        .add("env", env)
+        .add("appId", appId)
+        .add("clusterName", clusterName)
+        .add("namespaceName", namespaceName)
+        .add("releaseId", releaseId)
+        .add("previousReleaseId", previousReleaseId)
+        .add("operation", operation)
+        .add("emailSent", emailSent)
+        .add("messageSent", messageSent)
+        .add("retryTimes", retryTimes)
+        .add("nextRetryTime", nextRetryTime)
+        .add("owner", owner)
+        .add("dataChangeCreatedTime", dataChangeCreatedTime)
+        .add("dataChangeLastModifiedTime", dataChangeLastModifiedTime)
+        .toString();
+  }
+}
@@ -0,0 +1,41 @@
+package com.ctrip.framework.apollo.portal.entity.vo;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The namespaces applied and failed when importing configs, by their entries in the zip file, i.e.
+ * <code>{env}/{appId}/{clusterName}/{namespace file name}</code>
+ */
+public class ConfigsImportResult {
+
+  private List<String> importedNamespaces = new LinkedList<>();
+
+  private Map<String, String> failedNamespaces = new LinkedHashMap<>();
+
+  public void addImportedNamespace(String entry) {
+    importedNamespaces.add(entry);
+  }
+
+  public void addFailedNamespace(String entry, String message) {
+    failedNamespaces.put(entry, message);
+  }
+
+  public List<String> getImportedNamespaces() {
+    return importedNamespaces;
+  }
+
+  public void setImportedNamespaces(List<String> importedNamespaces) {
+    this.importedNamespaces = importedNamespaces;
+  }
+
+  public Map<String, String> getFailedNamespaces() {
+    return failedNamespaces;
+  }
+
+  public void setFailedNamespaces(Map<String, String> failedNamespaces) {
+    this.failedNamespaces = failedNamespaces;
+  }
+}
@@ -0,0 +1,46 @@
+package com.ctrip.framework.apollo.portal.filter;
+
+import com.ctrip.framework.apollo.portal.component.PermissionValidator;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Lets only the super admins through, e.g. to the tracer endpoint which lists the app ids, clusters and namespaces
+ * in the transaction names. The user is authenticated by the filters of the login profile before this one.
+ */
+public class SuperAdminFilter implements Filter {
+  private final PermissionValidator permissionValidator;
+
+  public SuperAdminFilter(PermissionValidator permissionValidator) {
+    this.permissionValidator = permissionValidator;
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) throws ServletException {
+    //nothing
+  }
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    if (!permissionValidator.isSuperAdmin()) {
+      ((HttpServletResponse) response).sendError(HttpServletResponse.SC_FORBIDDEN, "Only super admins are allowed");
+      return;
+    }
+
+    chain.doFilter(request, response);
+  }
+
+  @Override
+  public void destroy() {
+    //nothing
+  }
+}
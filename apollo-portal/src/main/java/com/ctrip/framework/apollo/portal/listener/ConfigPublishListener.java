@@ -1,6 +1,8 @@
 package com.ctrip.framework.apollo.portal.listener;
 
 import com.ctrip.framework.apollo.common.constants.ReleaseOperation;
+import com.ctrip.framework.apollo.portal.component.LatencyHistogram;
+import com.ctrip.framework.apollo.portal.entity.po.PublishEvent;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
@@ -10,20 +12,46 @@ import com.ctrip.framework.apollo.portal.component.emailbuilder.NormalPublishEma
 import com.ctrip.framework.apollo.portal.component.emailbuilder.RollbackEmailBuilder;
 import com.ctrip.framework.apollo.portal.entity.bo.Email;
 import com.ctrip.framework.apollo.portal.entity.bo.ReleaseHistoryBO;
+import com.ctrip.framework.apollo.portal.service.PublishEventService;
 import com.ctrip.framework.apollo.portal.service.ReleaseHistoryService;
 import com.ctrip.framework.apollo.portal.spi.EmailService;
 import com.ctrip.framework.apollo.portal.spi.MQService;
 import com.ctrip.framework.apollo.tracer.Tracer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Saves each config publish into the outbox, i.e. the PublishEvent table, and sends the emails and messages of the
+ * events in the outbox in batches.
+ *
+ * <p>The events are saved in the request thread so they survive a portal restart, and are claimed by one of the
+ * portals to send. Release histories are loaded and emails are built concurrently, then the emails and the messages
+ * of a batch are sent together. Whether the email and the message are sent is tracked for each event, and failed events
+ * are retried with backoff, so an email or message that is already sent is not sent again.
+ */
 @Component
 public class ConfigPublishListener {
 
+  private static final Logger logger = LoggerFactory.getLogger(ConfigPublishListener.class);
+  private static final long POLL_INTERVAL_IN_MILLIS = TimeUnit.SECONDS.toMillis(1);
+  private static final long LAG_HISTOGRAM_WINDOW_IN_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
   private final ReleaseHistoryService releaseHistoryService;
   private final EmailService emailService;
   private final NormalPublishEmailBuilder normalPublishEmailBuilder;
@@ -32,8 +60,13 @@ public class ConfigPublishListener {
   private final MergeEmailBuilder mergeEmailBuilder;
   private final PortalConfig portalConfig;
   private final MQService mqService;
+  private final PublishEventService publishEventService;
+
+  private final LatencyHistogram lagHistogram = new LatencyHistogram(LAG_HISTOGRAM_WINDOW_IN_MILLIS);
+  private final AtomicBoolean sendScheduled = new AtomicBoolean();
 
   private ExecutorService executorService;
+  private ScheduledExecutorService scheduledExecutorService;
 
   public ConfigPublishListener(
       final ReleaseHistoryService releaseHistoryService,
@@ -43,7 +76,8 @@ public class ConfigPublishListener {
       final RollbackEmailBuilder rollbackEmailBuilder,
       final MergeEmailBuilder mergeEmailBuilder,
       final PortalConfig portalConfig,
-      final MQService mqService) {
+      final MQService mqService,
+      final PublishEventService publishEventService) {
     this.releaseHistoryService = releaseHistoryService;
     this.emailService = emailService;
     this.normalPublishEmailBuilder = normalPublishEmailBuilder;
@@ -52,103 +86,245 @@ public class ConfigPublishListener {
     this.mergeEmailBuilder = mergeEmailBuilder;
     this.portalConfig = portalConfig;
     this.mqService = mqService;
+    this.publishEventService = publishEventService;
   }
 
   @PostConstruct
   public void init() {
-    executorService = Executors.newSingleThreadExecutor(ApolloThreadFactory.create("ConfigPublishNotify", true));
+    executorService = Executors.newFixedThreadPool(portalConfig.publishNotifyThreads(),
+        ApolloThreadFactory.create("ConfigPublishNotify", true));
+    scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(
+        ApolloThreadFactory.create("ConfigPublishNotifyScheduler", true));
+    //pick up the events of other portals, the failed ones and the ones left by the last shutdown
+    scheduledExecutorService.scheduleWithFixedDelay(this::sendPendingEvents, POLL_INTERVAL_IN_MILLIS,
+        POLL_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
   }
 
   @EventListener
   public void onConfigPublish(ConfigPublishEvent event) {
-    executorService.submit(new ConfigPublishNotifyTask(event.getConfigPublishInfo()));
-  }
+    try {
+      if (publishEventService.save(event.getConfigPublishInfo()) == null) {
+        return;
+      }
+    } catch (Throwable ex) {
+      logger.error("Save publish event failed. {}", event.getConfigPublishInfo(), ex);
+      Tracer.logError("Save publish event failed", ex);
+      return;
+    }
 
+    //send at once, and a burst of publishes only triggers one more round
+    if (sendScheduled.compareAndSet(false, true)) {
+      scheduledExecutorService.execute(() -> {
+        sendScheduled.set(false);
+        sendPendingEvents();
+      });
+    }
+  }
 
-  private class ConfigPublishNotifyTask implements Runnable {
+  /**
+   * @return the number of events not sent yet, how long the earliest one has waited, and the delay between the
+   * publishes and the notifications sent in the last 10 minutes
+   */
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = Maps.newLinkedHashMap();
+    Date earliestPendingTime = publishEventService.findEarliestPendingTime();
+    stats.put("pendingEvents", publishEventService.countPendingEvents());
+    stats.put("earliestPendingAge",
+        earliestPendingTime == null ? 0 : System.currentTimeMillis() - earliestPendingTime.getTime());
+    stats.put("sentEvents", lagHistogram.count());
+    stats.put("lagP50", lagHistogram.percentile(50));
+    stats.put("lagP95", lagHistogram.percentile(95));
+    stats.put("lagP99", lagHistogram.percentile(99));
+    return stats;
+  }
 
-    private ConfigPublishEvent.ConfigPublishInfo publishInfo;
+  void sendPendingEvents() {
+    try {
+      int batchSize = portalConfig.publishNotifyBatchSize();
+      List<PublishEvent> publishEvents;
+      do {
+        publishEvents = publishEventService.claim(batchSize);
+        if (!publishEvents.isEmpty()) {
+          send(publishEvents);
+        }
+      } while (publishEvents.size() >= batchSize);
+    } catch (Throwable ex) {
+      logger.error("Send publish notifications failed", ex);
+      Tracer.logError("Send publish notifications failed", ex);
+    }
+  }
 
-    ConfigPublishNotifyTask(ConfigPublishEvent.ConfigPublishInfo publishInfo) {
-      this.publishInfo = publishInfo;
+  private void send(List<PublishEvent> publishEvents) {
+    List<Future<Notification>> futures = Lists.newArrayListWithCapacity(publishEvents.size());
+    for (PublishEvent publishEvent : publishEvents) {
+      futures.add(executorService.submit(() -> prepare(publishEvent)));
     }
 
-    @Override
-    public void run() {
-      ReleaseHistoryBO releaseHistory = getReleaseHistory();
-      if (releaseHistory == null) {
-        Tracer.logError("Load release history failed", null);
+    List<Notification> notifications = Lists.newArrayListWithCapacity(publishEvents.size());
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        notifications.add(futures.get(i).get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
         return;
+      } catch (ExecutionException e) {
+        PublishEvent publishEvent = publishEvents.get(i);
+        logger.error("Prepare publish notification failed. {}", publishEvent, e.getCause());
+        markFailed(publishEvent);
       }
+    }
 
-      sendPublishEmail(releaseHistory);
+    sendEmails(notifications);
+    sendMessages(notifications);
 
-      sendPublishMsg(releaseHistory);
+    List<PublishEvent> sentEvents = Lists.newArrayListWithCapacity(notifications.size());
+    long now = System.currentTimeMillis();
+    for (Notification notification : notifications) {
+      PublishEvent publishEvent = notification.publishEvent;
+      if (publishEvent.isEmailSent() && publishEvent.isMessageSent()) {
+        sentEvents.add(publishEvent);
+        lagHistogram.record(now - publishEvent.getDataChangeCreatedTime().getTime());
+      } else {
+        markFailed(publishEvent);
+      }
     }
+    publishEventService.markSent(sentEvents);
+  }
 
-    private ReleaseHistoryBO getReleaseHistory() {
-      Env env = publishInfo.getEnv();
-
-      int operation = publishInfo.isMergeEvent() ? ReleaseOperation.GRAY_RELEASE_MERGE_TO_MASTER :
-                      publishInfo.isRollbackEvent() ? ReleaseOperation.ROLLBACK :
-                      publishInfo.isNormalPublishEvent() ? ReleaseOperation.NORMAL_RELEASE :
-                      publishInfo.isGrayPublishEvent() ? ReleaseOperation.GRAY_RELEASE : -1;
+  private Notification prepare(PublishEvent publishEvent) {
+    Env env = Env.fromString(publishEvent.getEnv());
+    ReleaseHistoryBO releaseHistory = getReleaseHistory(env, publishEvent);
+    if (releaseHistory == null) {
+      throw new IllegalStateException("Load release history failed");
+    }
 
-      if (operation == -1) {
-        return null;
+    Email email = null;
+    if (!portalConfig.emailSupportedEnvs().contains(env)) {
+      publishEvent.setEmailSent(true);
+    } else if (!publishEvent.isEmailSent()) {
+      email = buildEmail(env, releaseHistory, releaseHistory.getOperation());
+      if (email == null) {
+        publishEvent.setEmailSent(true);
       }
+    }
 
-      if (publishInfo.isRollbackEvent()) {
-        return releaseHistoryService
-            .findLatestByPreviousReleaseIdAndOperation(env, publishInfo.getPreviousReleaseId(), operation);
-      }
-      return releaseHistoryService.findLatestByReleaseIdAndOperation(env, publishInfo.getReleaseId(), operation);
+    return new Notification(publishEvent, env, releaseHistory, email);
+  }
 
+  private void sendEmails(List<Notification> notifications) {
+    List<Notification> toSend = Lists.newArrayList();
+    for (Notification notification : notifications) {
+      if (notification.email != null) {
+        toSend.add(notification);
+      }
+    }
+    if (toSend.isEmpty()) {
+      return;
     }
 
-    private void sendPublishEmail(ReleaseHistoryBO releaseHistory) {
-      Env env = publishInfo.getEnv();
-
-      if (!portalConfig.emailSupportedEnvs().contains(env)) {
-        return;
+    Map<Integer, Throwable> failures;
+    try {
+      failures = emailService.send(Lists.transform(toSend, notification -> notification.email));
+    } catch (Throwable ex) {
+      logger.error("Send publish emails failed", ex);
+      Tracer.logError("Send publish emails failed", ex);
+      return;
+    }
+    //only the emails sent are marked, so the others are sent again when retried
+    for (int i = 0; i < toSend.size(); i++) {
+      Throwable failure = failures.get(i);
+      if (failure == null) {
+        toSend.get(i).publishEvent.setEmailSent(true);
+      } else {
+        logger.error("Send publish email failed. {}", toSend.get(i).publishEvent, failure);
+        Tracer.logError("Send publish email failed", failure);
       }
+    }
+  }
 
-      int realOperation = releaseHistory.getOperation();
+  private void sendMessages(List<Notification> notifications) {
+    Map<Env, List<Notification>> toSend = Maps.newLinkedHashMap();
+    for (Notification notification : notifications) {
+      if (!notification.publishEvent.isMessageSent()) {
+        toSend.computeIfAbsent(notification.env, env -> Lists.newArrayList()).add(notification);
+      }
+    }
 
-      Email email = null;
+    for (Map.Entry<Env, List<Notification>> entry : toSend.entrySet()) {
+      List<Notification> envNotifications = entry.getValue();
+      Map<Integer, Throwable> failures;
       try {
-        email = buildEmail(env, releaseHistory, realOperation);
-      } catch (Throwable e) {
-        Tracer.logError("build email failed.", e);
+        failures = mqService.sendPublishMsgs(entry.getKey(),
+            Lists.transform(envNotifications, notification -> notification.releaseHistory));
+      } catch (Throwable ex) {
+        logger.error("Send publish messages failed. env: {}", entry.getKey(), ex);
+        Tracer.logError("Send publish messages failed", ex);
+        continue;
+      }
+      for (int i = 0; i < envNotifications.size(); i++) {
+        Throwable failure = failures.get(i);
+        if (failure == null) {
+          envNotifications.get(i).publishEvent.setMessageSent(true);
+        } else {
+          logger.error("Send publish message failed. {}", envNotifications.get(i).publishEvent, failure);
+          Tracer.logError("Send publish message failed", failure);
+        }
       }
+    }
+  }
 
-      if (email != null) {
-        emailService.send(email);
+  private void markFailed(PublishEvent publishEvent) {
+    try {
+      if (!publishEventService.markFailed(publishEvent, portalConfig.publishNotifyMaxRetryTimes())) {
+        logger.error("Give up publish notification after retried {} times. {}", publishEvent.getRetryTimes(),
+            publishEvent);
+        Tracer.logError("Give up publish notification", null);
       }
+    } catch (Throwable ex) {
+      //the event is retried after the claim expires
+      logger.error("Mark publish event failed. {}", publishEvent, ex);
     }
+  }
 
-    private void sendPublishMsg(ReleaseHistoryBO releaseHistory) {
-      mqService.sendPublishMsg(publishInfo.getEnv(), releaseHistory);
+  private ReleaseHistoryBO getReleaseHistory(Env env, PublishEvent publishEvent) {
+    int operation = publishEvent.getOperation();
+    if (operation == ReleaseOperation.ROLLBACK) {
+      return releaseHistoryService
+          .findLatestByPreviousReleaseIdAndOperation(env, publishEvent.getPreviousReleaseId(), operation);
     }
+    return releaseHistoryService.findLatestByReleaseIdAndOperation(env, publishEvent.getReleaseId(), operation);
+  }
 
-    private Email buildEmail(Env env, ReleaseHistoryBO releaseHistory, int operation) {
-      switch (operation) {
-        case ReleaseOperation.GRAY_RELEASE: {
-          return grayPublishEmailBuilder.build(env, releaseHistory);
-        }
-        case ReleaseOperation.NORMAL_RELEASE: {
-          return normalPublishEmailBuilder.build(env, releaseHistory);
-        }
-        case ReleaseOperation.ROLLBACK: {
-          return rollbackEmailBuilder.build(env, releaseHistory);
-        }
-        case ReleaseOperation.GRAY_RELEASE_MERGE_TO_MASTER: {
-          return mergeEmailBuilder.build(env, releaseHistory);
-        }
-        default:
-          return null;
+  private Email buildEmail(Env env, ReleaseHistoryBO releaseHistory, int operation) {
+    switch (operation) {
+      case ReleaseOperation.GRAY_RELEASE: {
+        return grayPublishEmailBuilder.build(env, releaseHistory);
+      }
+      case ReleaseOperation.NORMAL_RELEASE: {
+        return normalPublishEmailBuilder.build(env, releaseHistory);
       }
+      case ReleaseOperation.ROLLBACK: {
+        return rollbackEmailBuilder.build(env, releaseHistory);
+      }
+      case ReleaseOperation.GRAY_RELEASE_MERGE_TO_MASTER: {
+        return mergeEmailBuilder.build(env, releaseHistory);
+      }
+      default:
+        return null;
     }
   }
 
+  private static class Notification {
+    private final PublishEvent publishEvent;
+    private final Env env;
+    private final ReleaseHistoryBO releaseHistory;
+    private final Email email;
+
+    private Notification(PublishEvent publishEvent, Env env, ReleaseHistoryBO releaseHistory, Email email) {
+      this.publishEvent = publishEvent;
+      this.env = env;
+      this.releaseHistory = releaseHistory;
+      this.email = email;
+    }
+  }
 }
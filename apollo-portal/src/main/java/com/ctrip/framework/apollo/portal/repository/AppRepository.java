@@ -2,7 +2,6 @@ package com.ctrip.framework.apollo.portal.repository;
 
 import com.ctrip.framework.apollo.common.entity.App;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -22,8 +21,6 @@ public interface AppRepository extends PagingAndSortingRepository<App, Long> {
 
   List<App> findByAppIdIn(Set<String> appIds, Pageable pageable);
 
-  Page<App> findByAppIdContainingOrNameContaining(String appId, String name, Pageable pageable);
-
   @Modifying
   @Query("UPDATE App SET IsDeleted=1,DataChange_LastModifiedBy = ?2 WHERE AppId=?1")
   int deleteApp(String appId, String operator);
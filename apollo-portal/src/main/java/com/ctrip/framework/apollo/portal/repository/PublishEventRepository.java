@@ -0,0 +1,43 @@
+package com.ctrip.framework.apollo.portal.repository;
+
+import com.ctrip.framework.apollo.portal.entity.po.PublishEvent;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface PublishEventRepository extends PagingAndSortingRepository<PublishEvent, Long> {
+
+  @Query("select id from PublishEvent where nextRetryTime <= ?1 order by id")
+  List<Long> findIdsToSend(Date now, Pageable pageable);
+
+  /**
+   * Claim the events not claimed by others, or whose claims are expired
+   */
+  @Transactional
+  @Modifying
+  @Query("update PublishEvent set owner = ?2, nextRetryTime = ?3, dataChangeLastModifiedTime = ?4 "
+      + "where id in ?1 and nextRetryTime <= ?4")
+  int claim(Collection<Long> ids, String owner, Date leaseExpireTime, Date now);
+
+  List<PublishEvent> findByOwnerOrderByIdAsc(String owner);
+
+  @Transactional
+  @Modifying
+  @Query("update PublishEvent set emailSent = ?2, messageSent = ?3, retryTimes = ?4, nextRetryTime = ?5, owner = '', "
+      + "dataChangeLastModifiedTime = ?6 where id = ?1")
+  int scheduleRetry(long id, boolean emailSent, boolean messageSent, int retryTimes, Date nextRetryTime, Date now);
+
+  @Transactional
+  @Modifying
+  @Query("delete from PublishEvent where id in ?1")
+  int batchDelete(Collection<Long> ids);
+
+  PublishEvent findFirstByOrderByIdAsc();
+}
@@ -13,8 +13,6 @@ public interface UserRepository extends PagingAndSortingRepository<UserPO, Long>
 
   List<UserPO> findFirst20ByEnabled(int enabled);
 
-  List<UserPO> findByUsernameLikeAndEnabled(String username, int enabled);
-
   UserPO findByUsername(String username);
 
   List<UserPO> findByUsernameIn(List<String> userNames);
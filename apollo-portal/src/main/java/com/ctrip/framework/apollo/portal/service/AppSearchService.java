@@ -0,0 +1,89 @@
+package com.ctrip.framework.apollo.portal.service;
+
+import com.ctrip.framework.apollo.common.dto.PageDTO;
+import com.ctrip.framework.apollo.common.entity.App;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
+import com.ctrip.framework.apollo.portal.listener.AppCreationEvent;
+import com.ctrip.framework.apollo.portal.listener.AppDeletionEvent;
+import com.ctrip.framework.apollo.portal.listener.AppInfoChangedEvent;
+import com.ctrip.framework.apollo.portal.repository.AppRepository;
+import com.ctrip.framework.apollo.portal.util.SearchIndex;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Searches apps by app id or name in memory.
+ *
+ * <p>The index is updated by the app events of this portal instance, and rebuilt from the database periodically to
+ * catch up with the changes made by other portal instances. The events received while the apps are being loaded are
+ * applied again after the rebuild, so they are not overwritten by the loaded apps.
+ */
+@Service
+public class AppSearchService {
+  private static final Logger logger = LoggerFactory.getLogger(AppSearchService.class);
+
+  private final AppRepository appRepository;
+  private final PortalConfig portalConfig;
+  private final SearchIndex<App> searchIndex = new SearchIndex<>(App::getAppId, App::getName);
+  private final ScheduledExecutorService executorService;
+
+  public AppSearchService(final AppRepository appRepository, final PortalConfig portalConfig) {
+    this.appRepository = appRepository;
+    this.portalConfig = portalConfig;
+    executorService = Executors.newScheduledThreadPool(1, ApolloThreadFactory.create("AppSearchService", true));
+  }
+
+  @PostConstruct
+  void initialize() {
+    rebuild();
+    int interval = portalConfig.searchIndexRebuildIntervalInSeconds();
+    executorService.scheduleWithFixedDelay(() -> {
+      try {
+        rebuild();
+      } catch (Throwable ex) {
+        logger.error("Rebuild app search index failed", ex);
+        Tracer.logError(ex);
+      }
+    }, interval, interval, TimeUnit.SECONDS);
+  }
+
+  void rebuild() {
+    searchIndex.rebuild(() -> Lists.newArrayList(appRepository.findAll()));
+  }
+
+  public PageDTO<App> search(String query, Pageable pageable) {
+    List<App> apps = searchIndex.search(query);
+
+    int fromIndex = (int) Math.min(pageable.getOffset(), apps.size());
+    int toIndex = Math.min(fromIndex + pageable.getPageSize(), apps.size());
+    return new PageDTO<>(Lists.newArrayList(apps.subList(fromIndex, toIndex)), pageable, apps.size());
+  }
+
+  @EventListener
+  public void onAppCreation(AppCreationEvent event) {
+    searchIndex.put(event.getApp());
+  }
+
+  @EventListener
+  public void onAppInfoChange(AppInfoChangedEvent event) {
+    searchIndex.put(event.getApp());
+  }
+
+  @EventListener
+  public void onAppDeletion(AppDeletionEvent event) {
+    searchIndex.remove(event.getApp().getAppId());
+  }
+}
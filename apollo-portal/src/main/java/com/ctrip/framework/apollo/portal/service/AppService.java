@@ -36,6 +36,7 @@ public class AppService {
   private final RolePermissionService rolePermissionService;
   private final FavoriteService favoriteService;
   private final UserService userService;
+  private final AppSearchService appSearchService;
 
   public AppService(
       final UserInfoHolder userInfoHolder,
@@ -46,7 +47,8 @@ public class AppService {
       final RoleInitializationService roleInitializationService,
       final RolePermissionService rolePermissionService,
       final FavoriteService favoriteService,
-      final UserService userService) {
+      final UserService userService,
+      final AppSearchService appSearchService) {
     this.userInfoHolder = userInfoHolder;
     this.appAPI = appAPI;
     this.appRepository = appRepository;
@@ -56,6 +58,7 @@ public class AppService {
     this.rolePermissionService = rolePermissionService;
     this.favoriteService = favoriteService;
     this.userService = userService;
+    this.appSearchService = appSearchService;
   }
 
 
@@ -74,9 +77,7 @@ public class AppService {
   }
 
   public PageDTO<App> searchByAppIdOrAppName(String query, Pageable pageable) {
-    Page<App> apps = appRepository.findByAppIdContainingOrNameContaining(query, query, pageable);
-
-    return new PageDTO<>(apps.getContent(), pageable, apps.getTotalElements());
+    return appSearchService.search(query, pageable);
   }
 
   public List<App> findByAppIds(Set<String> appIds) {
@@ -0,0 +1,380 @@
+package com.ctrip.framework.apollo.portal.service;
+
+import com.ctrip.framework.apollo.common.dto.ClusterDTO;
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
+import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
+import com.ctrip.framework.apollo.common.dto.NamespaceDetailDTO;
+import com.ctrip.framework.apollo.common.dto.PageDTO;
+import com.ctrip.framework.apollo.common.entity.App;
+import com.ctrip.framework.apollo.common.entity.AppNamespace;
+import com.ctrip.framework.apollo.common.exception.BadRequestException;
+import com.ctrip.framework.apollo.common.exception.ServiceException;
+import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.portal.api.AdminServiceAPI;
+import com.ctrip.framework.apollo.portal.constant.TracerEventType;
+import com.ctrip.framework.apollo.portal.entity.model.NamespaceTextModel;
+import com.ctrip.framework.apollo.portal.entity.vo.ConfigsImportResult;
+import com.ctrip.framework.apollo.portal.environment.Env;
+import com.ctrip.framework.apollo.portal.spi.UserInfoHolder;
+import com.ctrip.framework.apollo.portal.util.ConfigToFileUtils;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Exports the configs of all the apps into a zip file and imports them back, e.g. to back up or migrate the configs.
+ *
+ * <p>Each namespace is an entry named <code>{env}/{appId}/{clusterName}/{namespace file name}</code>, in the same
+ * format as exporting a single namespace, and encoded in UTF-8. Apps are exported page by page, and namespaces are
+ * imported in batches, both sent to admin services concurrently, so only a page of apps or a batch of namespaces is
+ * kept in memory.
+ *
+ * <p>An app failed to export in some env is skipped, and listed in the {@value #EXPORT_FAILURES_ENTRY} entry of the
+ * zip file. The whole zip file is validated before importing any namespace, and a namespace failed to import doesn't
+ * stop the others, so that exactly the namespaces imported and failed are reported.
+ */
+@Service
+public class ConfigsExportService {
+
+  static final String EXPORT_FAILURES_ENTRY = "export_failures.txt";
+
+  private static final Logger logger = LoggerFactory.getLogger(ConfigsExportService.class);
+  private static final int EXPORT_APP_PAGE_SIZE = 50;
+  private static final int IMPORT_BATCH_SIZE = 50;
+  private static final int THREADS = 20;
+  private static final int QUEUE_SIZE = 1000;
+  private static final String PROPERTIES_SUFFIX = "." + ConfigFileFormat.Properties.getValue();
+  private static final Joiner PATH_JOINER = Joiner.on("/");
+  private static final Splitter PATH_SPLITTER = Splitter.on("/");
+  private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+  private final ExecutorService executorService;
+
+  private final UserInfoHolder userInfoHolder;
+  private final AppService appService;
+  private final AppNamespaceService appNamespaceService;
+  private final ClusterService clusterService;
+  private final ItemService itemService;
+  private final AdminServiceAPI.NamespaceAPI namespaceAPI;
+
+  public ConfigsExportService(
+      final UserInfoHolder userInfoHolder,
+      final AppService appService,
+      final AppNamespaceService appNamespaceService,
+      final ClusterService clusterService,
+      final ItemService itemService,
+      final AdminServiceAPI.NamespaceAPI namespaceAPI) {
+    this.userInfoHolder = userInfoHolder;
+    this.appService = appService;
+    this.appNamespaceService = appNamespaceService;
+    this.clusterService = clusterService;
+    this.itemService = itemService;
+    this.namespaceAPI = namespaceAPI;
+    //bounded, and the caller does the work itself when the queue is full
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(QUEUE_SIZE), ApolloThreadFactory.create("ConfigsExportService", true),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    this.executorService = executor;
+  }
+
+  @PreDestroy
+  void stop() {
+    executorService.shutdown();
+  }
+
+  /**
+   * Write the configs of all the apps in the envs to the output stream as a zip file
+   */
+  public void exportData(OutputStream outputStream, List<Env> envs) {
+    ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+    Map<String, ConfigFileFormat> publicNamespaceFormats = toFormats(appNamespaceService.findPublicAppNamespaces());
+    List<String> failures = Lists.newArrayList();
+    int exportedNamespaces = 0;
+    try {
+      int page = 0;
+      PageDTO<App> apps;
+      do {
+        apps = appService.findAll(PageRequest.of(page++, EXPORT_APP_PAGE_SIZE, Sort.by("id")));
+
+        List<String> appEnvs = Lists.newArrayList();
+        List<Future<List<ConfigFile>>> futures = Lists.newArrayList();
+        for (App app : apps.getContent()) {
+          for (Env env : envs) {
+            appEnvs.add(PATH_JOINER.join(env, app.getAppId()));
+            futures.add(executorService.submit(() -> loadConfigFiles(env, app.getAppId(), publicNamespaceFormats)));
+          }
+        }
+
+        //write in the order of submission, so the entries are ordered by app and env
+        for (int i = 0; i < futures.size(); i++) {
+          List<ConfigFile> configFiles;
+          try {
+            configFiles = getResult(futures.get(i), "Export configs failed");
+          } catch (RuntimeException e) {
+            logger.error("Export configs failed, skipped. env/app id:{}", appEnvs.get(i), e);
+            failures.add(appEnvs.get(i) + ": " + e.getMessage());
+            continue;
+          }
+          for (ConfigFile configFile : configFiles) {
+            writeConfigFile(zipOutputStream, configFile);
+            exportedNamespaces++;
+          }
+        }
+      } while (apps.getContent().size() == EXPORT_APP_PAGE_SIZE);
+
+      if (!failures.isEmpty()) {
+        writeConfigFile(zipOutputStream, new ConfigFile(EXPORT_FAILURES_ENTRY, failures));
+      }
+
+      zipOutputStream.finish();
+      zipOutputStream.flush();
+    } catch (IOException e) {
+      throw new ServiceException("Export configs failed", e);
+    }
+
+    Tracer.logEvent(TracerEventType.EXPORT_CONFIGS,
+        String.format("%s+%d+failures:%d", envs, exportedNamespaces, failures.size()));
+  }
+
+  /**
+   * Update the namespaces in the zip file exported by {@link #exportData(OutputStream, List)}. The namespaces should
+   * already exist.
+   *
+   * <p>The zip file is read twice, first to validate all the entries, so nothing is imported from an invalid file.
+   *
+   * @return the namespaces imported and failed
+   */
+  public ConfigsImportResult importData(InputStreamSource inputStreamSource) {
+    String operator = userInfoHolder.getUser().getUserId();
+    readImportFile(inputStreamSource, (path, model) -> {
+    });
+
+    ConfigsImportResult result = new ConfigsImportResult();
+    List<String> paths = Lists.newArrayListWithCapacity(IMPORT_BATCH_SIZE);
+    List<NamespaceTextModel> batch = Lists.newArrayListWithCapacity(IMPORT_BATCH_SIZE);
+    readImportFile(inputStreamSource, (path, model) -> {
+      paths.add(path);
+      batch.add(model);
+      if (batch.size() == IMPORT_BATCH_SIZE) {
+        importBatch(paths, batch, operator, result);
+        paths.clear();
+        batch.clear();
+      }
+    });
+    importBatch(paths, batch, operator, result);
+
+    Tracer.logEvent(TracerEventType.IMPORT_CONFIGS, String.format("%d+failures:%d",
+        result.getImportedNamespaces().size(), result.getFailedNamespaces().size()));
+    return result;
+  }
+
+  private void readImportFile(InputStreamSource inputStreamSource, BiConsumer<String, NamespaceTextModel> consumer) {
+    try (ZipInputStream zipInputStream = new ZipInputStream(inputStreamSource.getInputStream())) {
+      ZipEntry entry;
+      while ((entry = zipInputStream.getNextEntry()) != null) {
+        if (entry.isDirectory() || EXPORT_FAILURES_ENTRY.equals(entry.getName())) {
+          continue;
+        }
+        NamespaceTextModel model = toNamespaceTextModel(entry.getName());
+        model.setConfigText(readConfigText(entry.getName(), zipInputStream));
+        consumer.accept(entry.getName(), model);
+      }
+    } catch (IOException e) {
+      throw new ServiceException("Read import file failed", e);
+    }
+  }
+
+  private String readConfigText(String path, InputStream inputStream) {
+    try {
+      return ConfigToFileUtils.fileToString(inputStream, StandardCharsets.UTF_8);
+    } catch (UncheckedIOException e) {
+      if (e.getCause() instanceof CharacterCodingException) {
+        throw new BadRequestException(String.format("Invalid entry: %s, should be encoded in UTF-8", path));
+      }
+      throw e;
+    }
+  }
+
+  private List<ConfigFile> loadConfigFiles(Env env, String appId, Map<String, ConfigFileFormat> publicNamespaceFormats) {
+    Map<String, ConfigFileFormat> appNamespaceFormats = toFormats(appNamespaceService.findByAppId(appId));
+    List<ConfigFile> configFiles = Lists.newArrayList();
+    for (ClusterDTO cluster : clusterService.findClusters(env, appId)) {
+      String clusterName = cluster.getName();
+      List<NamespaceDetailDTO> namespaceDetails = namespaceAPI.findNamespaceDetailsByCluster(appId, env, clusterName);
+      if (namespaceDetails != null) {
+        for (NamespaceDetailDTO namespaceDetail : namespaceDetails) {
+          NamespaceDTO namespace = namespaceDetail.getBaseInfo();
+          configFiles.add(toConfigFile(env, namespace, namespaceDetail.getItems(),
+              formatOf(namespace.getNamespaceName(), appNamespaceFormats, publicNamespaceFormats)));
+        }
+        continue;
+      }
+      //admin service without the batch api
+      for (NamespaceDTO namespace : namespaceAPI.findNamespaceByCluster(appId, env, clusterName)) {
+        configFiles.add(toConfigFile(env, namespace,
+            itemService.findItems(appId, env, clusterName, namespace.getNamespaceName()),
+            formatOf(namespace.getNamespaceName(), appNamespaceFormats, publicNamespaceFormats)));
+      }
+    }
+    return configFiles;
+  }
+
+  private void importBatch(List<String> paths, List<NamespaceTextModel> batch, String operator,
+      ConfigsImportResult result) {
+    List<Future<?>> futures = Lists.newArrayListWithCapacity(batch.size());
+    for (NamespaceTextModel model : batch) {
+      futures.add(executorService.submit(() -> itemService.updateConfigItemByText(model, operator)));
+    }
+
+    for (int i = 0; i < futures.size(); i++) {
+      NamespaceTextModel model = batch.get(i);
+      String path = paths.get(i);
+      try {
+        getResult(futures.get(i), "Import configs failed");
+        result.addImportedNamespace(path);
+      } catch (RuntimeException e) {
+        logger.error("Import namespace failed. app id:{}, env:{}, clusterName:{}, namespace:{}", model.getAppId(),
+            model.getEnv(), model.getClusterName(), model.getNamespaceName(), e);
+        result.addFailedNamespace(path, e.getMessage());
+      }
+    }
+  }
+
+  private <T> T getResult(Future<T> future, String errorMessage) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServiceException(errorMessage, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ServiceException(errorMessage, e);
+    }
+  }
+
+  private Map<String, ConfigFileFormat> toFormats(List<AppNamespace> appNamespaces) {
+    Map<String, ConfigFileFormat> formats = Maps.newHashMapWithExpectedSize(appNamespaces.size());
+    for (AppNamespace appNamespace : appNamespaces) {
+      if (ConfigFileFormat.isValidFormat(appNamespace.getFormat())) {
+        formats.put(appNamespace.getName(), appNamespace.formatAsEnum());
+      }
+    }
+    return formats;
+  }
+
+  /**
+   * The format of the app's own namespace, or the public namespace associated, or guessed by the namespace name if
+   * the app namespace is missing, as the names of the non-properties namespaces end with their formats
+   */
+  private ConfigFileFormat formatOf(String namespaceName, Map<String, ConfigFileFormat> appNamespaceFormats,
+      Map<String, ConfigFileFormat> publicNamespaceFormats) {
+    ConfigFileFormat format = appNamespaceFormats.get(namespaceName);
+    if (format == null) {
+      format = publicNamespaceFormats.get(namespaceName);
+    }
+    if (format != null) {
+      return format;
+    }
+    String suffix = namespaceName.substring(namespaceName.lastIndexOf('.') + 1);
+    return ConfigFileFormat.isValidFormat(suffix) ? ConfigFileFormat.fromString(suffix) : ConfigFileFormat.Properties;
+  }
+
+  /**
+   * The same file name as exporting a single namespace, i.e. properties namespaces are suffixed with the format, and
+   * the names of the other namespaces already end with their formats
+   */
+  private String toFileName(String namespaceName, ConfigFileFormat format) {
+    return format == ConfigFileFormat.Properties ? namespaceName + PROPERTIES_SUFFIX : namespaceName;
+  }
+
+  private ConfigFile toConfigFile(Env env, NamespaceDTO namespace, List<ItemDTO> items, ConfigFileFormat format) {
+    String fileName = toFileName(namespace.getNamespaceName(), format);
+    String path = PATH_JOINER.join(env, namespace.getAppId(), namespace.getClusterName(), fileName);
+    List<String> lines = Lists.newArrayListWithCapacity(items.size());
+    for (ItemDTO item : items) {
+      lines.add(ConfigToFileUtils.itemToLine(item));
+    }
+    return new ConfigFile(path, lines);
+  }
+
+  private void writeConfigFile(ZipOutputStream zipOutputStream, ConfigFile configFile) throws IOException {
+    zipOutputStream.putNextEntry(new ZipEntry(configFile.path));
+    for (String line : configFile.lines) {
+      zipOutputStream.write(line.getBytes(StandardCharsets.UTF_8));
+      zipOutputStream.write(LINE_SEPARATOR);
+    }
+    zipOutputStream.closeEntry();
+  }
+
+  private NamespaceTextModel toNamespaceTextModel(String path) {
+    List<String> parts = PATH_SPLITTER.splitToList(path);
+    if (parts.size() != 4) {
+      throw new BadRequestException(
+          String.format("Invalid entry: %s, should be {env}/{appId}/{clusterName}/{namespace}", path));
+    }
+    String env = parts.get(0);
+    String fileName = parts.get(3);
+    try {
+      Env.fromString(env);
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException(String.format("Invalid entry: %s, %s", path, e.getMessage()));
+    }
+    int formatIndex = fileName.lastIndexOf('.');
+    if (formatIndex <= 0 || !ConfigFileFormat.isValidFormat(fileName.substring(formatIndex + 1))) {
+      throw new BadRequestException(String.format("Invalid entry: %s, the file format is invalid", path));
+    }
+
+    NamespaceTextModel model = new NamespaceTextModel();
+    model.setEnv(env);
+    model.setAppId(parts.get(1));
+    model.setClusterName(parts.get(2));
+    //properties namespaces are named without the suffix
+    model.setNamespaceName(fileName.endsWith(PROPERTIES_SUFFIX) ? fileName.substring(0, formatIndex) : fileName);
+    model.setFormat(fileName.substring(formatIndex + 1));
+    return model;
+  }
+
+  private static class ConfigFile {
+    private final String path;
+    private final List<String> lines;
+
+    private ConfigFile(String path, List<String> lines) {
+      this.path = path;
+      this.lines = lines;
+    }
+  }
+}
@@ -36,6 +36,11 @@ public class InstanceService {
     return instanceAPI.getByReleasesNotIn(appId, env, clusterName, namespaceName, releaseIds);
   }
 
+  public PageDTO<InstanceDTO> getByReleasesNotIn(Env env, String appId, String clusterName, String namespaceName,
+                                                 Set<Long> releaseIds, int page, int size){
+    return instanceAPI.getByReleasesNotIn(appId, env, clusterName, namespaceName, releaseIds, page, size);
+  }
+
 
 
 }
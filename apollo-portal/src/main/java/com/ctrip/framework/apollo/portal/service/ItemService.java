@@ -7,12 +7,14 @@ import com.ctrip.framework.apollo.common.dto.ItemDTO;
 import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
 import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.common.exception.BadRequestException;
+import com.ctrip.framework.apollo.common.exception.ServiceException;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
 import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
 import com.ctrip.framework.apollo.portal.api.AdminServiceAPI.ItemAPI;
 import com.ctrip.framework.apollo.portal.api.AdminServiceAPI.NamespaceAPI;
 import com.ctrip.framework.apollo.portal.api.AdminServiceAPI.ReleaseAPI;
 import com.ctrip.framework.apollo.portal.environment.Env;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
 import com.ctrip.framework.apollo.portal.api.AdminServiceAPI;
 import com.ctrip.framework.apollo.portal.component.txtresolver.ConfigTextResolver;
@@ -22,9 +24,24 @@ import com.ctrip.framework.apollo.portal.entity.vo.ItemDiffs;
 import com.ctrip.framework.apollo.portal.entity.vo.NamespaceIdentifier;
 import com.ctrip.framework.apollo.portal.spi.UserInfoHolder;
 import com.ctrip.framework.apollo.tracer.Tracer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.gson.Gson;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -35,9 +52,15 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.PreDestroy;
+
 @Service
 public class ItemService {
+  private static final int SYNC_THREADS = 20;
+  private static final int SYNC_QUEUE_SIZE = 1000;
+
   private Gson gson = new Gson();
+  private final ExecutorService syncExecutorService;
 
   private final UserInfoHolder userInfoHolder;
   private final AdminServiceAPI.NamespaceAPI namespaceAPI;
@@ -59,6 +82,18 @@ public class ItemService {
     this.releaseAPI = releaseAPI;
     this.fileTextResolver = fileTextResolver;
     this.propertyResolver = propertyResolver;
+    //bounded, and the caller handles the namespace itself when the queue is full
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(SYNC_THREADS, SYNC_THREADS,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(SYNC_QUEUE_SIZE),
+        ApolloThreadFactory.create("ItemService", true), new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    this.syncExecutorService = executor;
+  }
+
+  @PreDestroy
+  void stop() {
+    //let the submitted syncs finish, as they write to the admin services
+    syncExecutorService.shutdown();
   }
 
 
@@ -68,6 +103,13 @@ public class ItemService {
    * @return parse result
    */
   public void updateConfigItemByText(NamespaceTextModel model) {
+    updateConfigItemByText(model, userInfoHolder.getUser().getUserId());
+  }
+
+  /**
+   * @param operator passed in explicitly when updating from threads without the login user, e.g. importing configs
+   */
+  public void updateConfigItemByText(NamespaceTextModel model, String operator) {
     String appId = model.getAppId();
     Env env = model.getEnv();
     String clusterName = model.getClusterName();
@@ -93,7 +135,7 @@ public class ItemService {
       return;
     }
     //配置更改集合对象中设置更新者，以便adminService获取更新者
-    changeSets.setDataChangeLastModifiedBy(userInfoHolder.getUser().getUserId());
+    changeSets.setDataChangeLastModifiedBy(operator);
     //调用接口传递配置更改集合对象
     updateItems(appId, env, clusterName, namespaceName, changeSets);
 
@@ -150,20 +192,30 @@ public class ItemService {
 
   public void syncItems(List<NamespaceIdentifier> comparedNamespaces, List<ItemDTO> sourceItems) {
     List<ItemDiffs> itemDiffs = compare(comparedNamespaces, sourceItems);
+    String operator = userInfoHolder.getUser().getUserId();
+
+    //each namespace is updated with one batch call, and the namespaces are updated concurrently
+    List<ItemDiffs> toSync = Lists.newArrayList();
     for (ItemDiffs itemDiff : itemDiffs) {
-      NamespaceIdentifier namespaceIdentifier = itemDiff.getNamespace();
-      ItemChangeSets changeSets = itemDiff.getDiffs();
-      changeSets.setDataChangeLastModifiedBy(userInfoHolder.getUser().getUserId());
+      if (!itemDiff.getDiffs().isEmpty()) {
+        itemDiff.getDiffs().setDataChangeLastModifiedBy(operator);
+        toSync.add(itemDiff);
+      }
+    }
 
+    executeConcurrently(toSync, ItemDiffs::getNamespace, itemDiff -> {
+      NamespaceIdentifier namespaceIdentifier = itemDiff.getNamespace();
       String appId = namespaceIdentifier.getAppId();
       Env env = namespaceIdentifier.getEnv();
       String clusterName = namespaceIdentifier.getClusterName();
       String namespaceName = namespaceIdentifier.getNamespaceName();
 
-      itemAPI.updateItemsByChangeSet(appId, env, clusterName, namespaceName, changeSets);
+      itemAPI.updateItemsByChangeSet(appId, env, clusterName, namespaceName, itemDiff.getDiffs());
 
       Tracer.logEvent(TracerEventType.SYNC_NAMESPACE, String.format("%s+%s+%s+%s", appId, env, clusterName, namespaceName));
-    }
+      return itemDiff;
+    }, itemDiff -> {
+    });
   }
 
 
@@ -216,11 +268,23 @@ public class ItemService {
   }
 
   public List<ItemDiffs> compare(List<NamespaceIdentifier> comparedNamespaces, List<ItemDTO> sourceItems) {
+    Map<NamespaceIdentifier, ItemDiffs> diffs = Maps.newIdentityHashMap();
+    compare(comparedNamespaces, sourceItems, itemDiffs -> diffs.put(itemDiffs.getNamespace(), itemDiffs));
 
     List<ItemDiffs> result = new LinkedList<>();
-
     for (NamespaceIdentifier namespace : comparedNamespaces) {
+      result.add(diffs.get(namespace));
+    }
+    return result;
+  }
 
+  /**
+   * Compare the namespaces concurrently, the consumer is called in the caller's thread as soon as each namespace is
+   * compared, so the results could be sent back incrementally
+   */
+  public void compare(List<NamespaceIdentifier> comparedNamespaces, List<ItemDTO> sourceItems,
+      Consumer<ItemDiffs> consumer) {
+    executeConcurrently(comparedNamespaces, Function.identity(), namespace -> {
       ItemDiffs itemDiffs = new ItemDiffs(namespace);
       try {
         itemDiffs.setDiffs(parseChangeSets(namespace, sourceItems));
@@ -228,10 +292,58 @@ public class ItemService {
         itemDiffs.setDiffs(new ItemChangeSets());
         itemDiffs.setExtInfo("该集群下没有名为 " + namespace.getNamespaceName() + " 的namespace");
       }
-      result.add(itemDiffs);
+      return itemDiffs;
+    }, consumer);
+  }
+
+  /**
+   * Run the task for each element on the bounded executor and hand over the results in completion order.
+   *
+   * <p>Elements are submitted in turns of their envs, so that one env with many clusters doesn't hold all the
+   * threads while the others wait. Failures are thrown after all the tasks are done.
+   */
+  private <T, R> void executeConcurrently(List<T> elements, Function<T, NamespaceIdentifier> namespaceFunction,
+      Function<T, R> task, Consumer<R> consumer) {
+    Map<Env, Iterator<T>> elementsByEnv = new LinkedHashMap<>();
+    Map<Env, List<T>> groups = new LinkedHashMap<>();
+    for (T element : elements) {
+      groups.computeIfAbsent(namespaceFunction.apply(element).getEnv(), env -> new ArrayList<>()).add(element);
+    }
+    groups.forEach((env, group) -> elementsByEnv.put(env, group.iterator()));
+
+    CompletionService<R> completionService = new ExecutorCompletionService<>(syncExecutorService);
+    int submitted = 0;
+    while (!elementsByEnv.isEmpty()) {
+      Iterator<Map.Entry<Env, Iterator<T>>> envIterator = elementsByEnv.entrySet().iterator();
+      while (envIterator.hasNext()) {
+        Iterator<T> iterator = envIterator.next().getValue();
+        T element = iterator.next();
+        completionService.submit(() -> task.apply(element));
+        submitted++;
+        if (!iterator.hasNext()) {
+          envIterator.remove();
+        }
+      }
     }
 
-    return result;
+    RuntimeException failure = null;
+    for (int i = 0; i < submitted; i++) {
+      try {
+        Future<R> future = completionService.take();
+        consumer.accept(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ServiceException("Process namespaces interrupted", e);
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+              : new ServiceException("Process namespaces failed", e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
   }
 
   private long getNamespaceId(NamespaceIdentifier namespaceIdentifier) {
@@ -260,15 +372,19 @@ public class ItemService {
         itemAPI.findItems(namespace.getAppId(), namespace.getEnv(),
             namespace.getClusterName(), namespace.getNamespaceName());
 
-    long namespaceId = getNamespaceId(namespace);
-
     if (CollectionUtils.isEmpty(targetItems)) {//all source items is added
+      long namespaceId = getNamespaceId(namespace);
       int lineNum = 1;
       for (ItemDTO sourceItem : sourceItems) {
         changeSets.addCreateItem(buildItem(namespaceId, lineNum++, sourceItem));
       }
     } else {
-      Map<String, ItemDTO> targetItemMap = BeanUtils.mapByKey("key", targetItems);
+      //the namespace exists as it has items
+      long namespaceId = targetItems.get(0).getNamespaceId();
+      Map<String, ItemDTO> targetItemMap = Maps.newHashMapWithExpectedSize(targetItems.size());
+      for (ItemDTO targetItem : targetItems) {
+        targetItemMap.put(targetItem.getKey(), targetItem);
+      }
       String key, sourceValue, sourceComment;
       ItemDTO targetItem = null;
       int maxLineNum = targetItems.size();//append to last
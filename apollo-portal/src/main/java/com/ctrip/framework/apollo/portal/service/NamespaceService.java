@@ -3,11 +3,14 @@ package com.ctrip.framework.apollo.portal.service;
 import com.ctrip.framework.apollo.common.constants.GsonType;
 import com.ctrip.framework.apollo.common.dto.ItemDTO;
 import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
+import com.ctrip.framework.apollo.common.dto.NamespaceDetailDTO;
 import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.common.entity.AppNamespace;
 import com.ctrip.framework.apollo.common.exception.BadRequestException;
+import com.ctrip.framework.apollo.common.exception.ServiceException;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
 import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
 import com.ctrip.framework.apollo.portal.api.AdminServiceAPI;
 import com.ctrip.framework.apollo.portal.component.PortalSettings;
@@ -30,12 +33,27 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
 
 @Service
 public class NamespaceService {
 
+  private static final int LOAD_NAMESPACE_THREADS = 20;
+  private static final int LOAD_NAMESPACE_QUEUE_SIZE = 1000;
+
   private Logger logger = LoggerFactory.getLogger(NamespaceService.class);
   private Gson gson = new Gson();
+  private final ExecutorService loadNamespaceExecutorService;
 
   private final PortalConfig portalConfig;
   private final PortalSettings portalSettings;
@@ -69,8 +87,18 @@ public class NamespaceService {
     this.instanceService = instanceService;
     this.branchService = branchService;
     this.rolePermissionService = rolePermissionService;
+    //bounded, and the caller loads the namespace itself when the queue is full
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(LOAD_NAMESPACE_THREADS, LOAD_NAMESPACE_THREADS,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(LOAD_NAMESPACE_QUEUE_SIZE),
+        ApolloThreadFactory.create("NamespaceService", true), new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    this.loadNamespaceExecutorService = executor;
   }
 
+  @PreDestroy
+  void stop() {
+    loadNamespaceExecutorService.shutdownNow();
+  }
 
   public NamespaceDTO createNamespace(Env env, NamespaceDTO namespace) {
     if (StringUtils.isEmpty(namespace.getDataChangeCreatedBy())) {
@@ -131,19 +159,22 @@ public class NamespaceService {
    * load cluster all namespace info with items
    */
   public List<NamespaceBO> findNamespaceBOs(String appId, Env env, String clusterName) {
-
-    List<NamespaceDTO> namespaces = namespaceAPI.findNamespaceByCluster(appId, env, clusterName);
-    if (namespaces == null || namespaces.size() == 0) {
+    List<NamespaceDetailDTO> details = namespaceAPI.findNamespaceDetailsByCluster(appId, env, clusterName);
+    if (details == null) {
+      //the admin service is not upgraded yet, load the namespaces one by one concurrently
+      return loadNamespaceBOs(appId, env, clusterName);
+    }
+    if (details.isEmpty()) {
       throw new BadRequestException("namespaces not exist");
     }
 
     List<NamespaceBO> namespaceBOs = new LinkedList<>();
-    for (NamespaceDTO namespace : namespaces) {
-
-      NamespaceBO namespaceBO;
+    for (NamespaceDetailDTO detail : details) {
+      NamespaceDTO namespace = detail.getBaseInfo();
       try {
-        namespaceBO = transformNamespace2BO(env, namespace);
-        namespaceBOs.add(namespaceBO);
+        namespaceBOs.add(assembleNamespaceBO(namespace, detail.getLatestRelease(),
+            detail.getItems() == null ? Collections.emptyList() : detail.getItems(),
+            detail.getDeletedItems() == null ? Collections.emptyList() : detail.getDeletedItems()));
       } catch (Exception e) {
         logger.error("parse namespace error. app id:{}, env:{}, clusterName:{}, namespace:{}",
             appId, env, clusterName, namespace.getNamespaceName(), e);
@@ -154,6 +185,49 @@ public class NamespaceService {
     return namespaceBOs;
   }
 
+  private List<NamespaceBO> loadNamespaceBOs(String appId, Env env, String clusterName) {
+    List<NamespaceDTO> namespaces = namespaceAPI.findNamespaceByCluster(appId, env, clusterName);
+    if (namespaces == null || namespaces.size() == 0) {
+      throw new BadRequestException("namespaces not exist");
+    }
+
+    List<Callable<NamespaceBO>> tasks = namespaces.stream()
+        .map(namespace -> (Callable<NamespaceBO>) () -> transformNamespace2BO(env, namespace))
+        .collect(Collectors.toList());
+
+    List<Future<NamespaceBO>> futures;
+    try {
+      futures = loadNamespaceExecutorService.invokeAll(tasks, portalConfig.loadNamespacesTimeout(),
+          TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServiceException("Load namespaces interrupted", e);
+    }
+
+    List<NamespaceBO> namespaceBOs = new LinkedList<>();
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        namespaceBOs.add(futures.get(i).get());
+      } catch (CancellationException e) {
+        throw new ServiceException(String.format("Load namespaces timeout. app id:%s, env:%s, clusterName:%s",
+            appId, env, clusterName));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ServiceException("Load namespaces interrupted", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        logger.error("parse namespace error. app id:{}, env:{}, clusterName:{}, namespace:{}",
+            appId, env, clusterName, namespaces.get(i).getNamespaceName(), cause);
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new ServiceException("Load namespaces failed", e);
+      }
+    }
+
+    return namespaceBOs;
+  }
+
   public List<NamespaceDTO> findNamespaces(String appId, Env env, String clusterName) {
     return namespaceAPI.findNamespaceByCluster(appId, env, clusterName);
   }
@@ -192,12 +266,38 @@ public class NamespaceService {
   }
 
   public Map<String, Map<String, Boolean>> getNamespacesPublishInfo(String appId) {
-    Map<String, Map<String, Boolean>> result = Maps.newHashMap();
+    List<Env> envs = portalConfig.publishTipsSupportedEnvs().stream().filter(portalSettings::isEnvActive)
+        .collect(Collectors.toList());
+    List<Callable<Map<String, Boolean>>> tasks = envs.stream()
+        .map(env -> (Callable<Map<String, Boolean>>) () -> namespaceAPI.getNamespacePublishInfo(env, appId))
+        .collect(Collectors.toList());
+
+    List<Future<Map<String, Boolean>>> futures;
+    try {
+      futures = loadNamespaceExecutorService.invokeAll(tasks, portalConfig.loadNamespacesTimeout(),
+          TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServiceException("Load namespaces publish info interrupted", e);
+    }
 
-    Set<Env> envs = portalConfig.publishTipsSupportedEnvs();
-    for (Env env : envs) {
-      if (portalSettings.isEnvActive(env)) {
-        result.put(env.toString(), namespaceAPI.getNamespacePublishInfo(env, appId));
+    Map<String, Map<String, Boolean>> result = Maps.newHashMap();
+    for (int i = 0; i < futures.size(); i++) {
+      Env env = envs.get(i);
+      try {
+        result.put(env.toString(), futures.get(i).get());
+      } catch (CancellationException e) {
+        throw new ServiceException(String.format("Load namespaces publish info timeout. app id:%s, env:%s", appId,
+            env));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ServiceException("Load namespaces publish info interrupted", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new ServiceException("Load namespaces publish info failed", e);
       }
     }
 
@@ -205,29 +305,35 @@ public class NamespaceService {
   }
 
   private NamespaceBO transformNamespace2BO(Env env, NamespaceDTO namespace) {
-    NamespaceBO namespaceBO = new NamespaceBO();
-    namespaceBO.setBaseInfo(namespace);
-
     String appId = namespace.getAppId();
     String clusterName = namespace.getClusterName();
     String namespaceName = namespace.getNamespaceName();
 
+    ReleaseDTO latestRelease = releaseService.loadLatestRelease(appId, env, clusterName, namespaceName);
+    List<ItemDTO> items = itemService.findItems(appId, env, clusterName, namespaceName);
+    List<ItemDTO> deletedItems = itemService.findDeletedItems(appId, env, clusterName, namespaceName);
+
+    return assembleNamespaceBO(namespace, latestRelease, items, deletedItems);
+  }
+
+  private NamespaceBO assembleNamespaceBO(NamespaceDTO namespace, ReleaseDTO latestRelease, List<ItemDTO> items,
+      List<ItemDTO> deletedItems) {
+    NamespaceBO namespaceBO = new NamespaceBO();
+    namespaceBO.setBaseInfo(namespace);
+
     fillAppNamespaceProperties(namespaceBO);
 
     List<ItemBO> itemBOs = new LinkedList<>();
     namespaceBO.setItems(itemBOs);
 
     //latest Release
-    ReleaseDTO latestRelease;
     Map<String, String> releaseItems = new HashMap<>();
     Map<String, ItemDTO> deletedItemDTOs = new HashMap<>();
-    latestRelease = releaseService.loadLatestRelease(appId, env, clusterName, namespaceName);
     if (latestRelease != null) {
       releaseItems = gson.fromJson(latestRelease.getConfigurations(), GsonType.CONFIG);
     }
 
     //not Release config items
-    List<ItemDTO> items = itemService.findItems(appId, env, clusterName, namespaceName);
     int modifiedItemCnt = 0;
     for (ItemDTO itemDTO : items) {
 
@@ -241,13 +347,13 @@ public class NamespaceService {
     }
 
     //deleted items
-    itemService.findDeletedItems(appId, env, clusterName, namespaceName).forEach(item -> {
+    deletedItems.forEach(item -> {
       deletedItemDTOs.put(item.getKey(),item);
     });
 
-    List<ItemBO> deletedItems = parseDeletedItems(items, releaseItems, deletedItemDTOs);
-    itemBOs.addAll(deletedItems);
-    modifiedItemCnt += deletedItems.size();
+    List<ItemBO> deletedItemBOs = parseDeletedItems(items, releaseItems, deletedItemDTOs);
+    itemBOs.addAll(deletedItemBOs);
+    modifiedItemCnt += deletedItemBOs.size();
 
     namespaceBO.setItemModifiedCnt(modifiedItemCnt);
 
@@ -0,0 +1,116 @@
+package com.ctrip.framework.apollo.portal.service;
+
+import com.ctrip.framework.apollo.common.constants.ReleaseOperation;
+import com.ctrip.framework.apollo.portal.entity.po.PublishEvent;
+import com.ctrip.framework.apollo.portal.listener.ConfigPublishEvent;
+import com.ctrip.framework.apollo.portal.repository.PublishEventRepository;
+import com.google.common.collect.Lists;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The outbox of the config publishes, from which the emails and messages are sent
+ */
+@Service
+public class PublishEventService {
+
+  private static final long LEASE_IN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  private static final long MIN_RETRY_INTERVAL_IN_MILLIS = TimeUnit.SECONDS.toMillis(10);
+  private static final long MAX_RETRY_INTERVAL_IN_MILLIS = TimeUnit.MINUTES.toMillis(30);
+  private static final int MAX_IN_CLAUSE_SIZE = 500;
+
+  private final PublishEventRepository publishEventRepository;
+
+  public PublishEventService(final PublishEventRepository publishEventRepository) {
+    this.publishEventRepository = publishEventRepository;
+  }
+
+  /**
+   * @return the saved event, or null if it's not a publish to notify
+   */
+  public PublishEvent save(ConfigPublishEvent.ConfigPublishInfo publishInfo) {
+    int operation = publishInfo.isMergeEvent() ? ReleaseOperation.GRAY_RELEASE_MERGE_TO_MASTER :
+                    publishInfo.isRollbackEvent() ? ReleaseOperation.ROLLBACK :
+                    publishInfo.isNormalPublishEvent() ? ReleaseOperation.NORMAL_RELEASE :
+                    publishInfo.isGrayPublishEvent() ? ReleaseOperation.GRAY_RELEASE : -1;
+
+    if (operation == -1) {
+      return null;
+    }
+
+    PublishEvent publishEvent = new PublishEvent();
+    publishEvent.setEnv(publishInfo.getEnv().toString());
+    publishEvent.setAppId(publishInfo.getAppId());
+    publishEvent.setClusterName(publishInfo.getClusterName());
+    publishEvent.setNamespaceName(publishInfo.getNamespaceName());
+    publishEvent.setReleaseId(publishInfo.getReleaseId());
+    publishEvent.setPreviousReleaseId(publishInfo.getPreviousReleaseId());
+    publishEvent.setOperation(operation);
+
+    return publishEventRepository.save(publishEvent);
+  }
+
+  /**
+   * Claim the events to send, which are not claimed by other portals, or their claims are expired
+   */
+  public List<PublishEvent> claim(int batchSize) {
+    Date now = new Date();
+    List<Long> ids = publishEventRepository.findIdsToSend(now, PageRequest.of(0, batchSize));
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    String owner = UUID.randomUUID().toString();
+    if (publishEventRepository.claim(ids, owner, new Date(now.getTime() + LEASE_IN_MILLIS), now) == 0) {
+      return Collections.emptyList();
+    }
+    return publishEventRepository.findByOwnerOrderByIdAsc(owner);
+  }
+
+  public void markSent(Collection<PublishEvent> publishEvents) {
+    List<Long> ids = publishEvents.stream().map(PublishEvent::getId).collect(Collectors.toList());
+    for (List<Long> partition : Lists.partition(ids, MAX_IN_CLAUSE_SIZE)) {
+      publishEventRepository.batchDelete(partition);
+    }
+  }
+
+  /**
+   * Release the claim of the event and retry it later, with the interval doubled after each failure
+   *
+   * @return false if the event is given up as it has been retried too many times
+   */
+  public boolean markFailed(PublishEvent publishEvent, int maxRetryTimes) {
+    int retryTimes = publishEvent.getRetryTimes() + 1;
+    if (retryTimes > maxRetryTimes) {
+      publishEventRepository.batchDelete(Collections.singleton(publishEvent.getId()));
+      return false;
+    }
+
+    long retryInterval = MIN_RETRY_INTERVAL_IN_MILLIS << Math.min(retryTimes - 1, 20);
+    Date now = new Date();
+    publishEventRepository.scheduleRetry(publishEvent.getId(), publishEvent.isEmailSent(),
+        publishEvent.isMessageSent(), retryTimes,
+        new Date(now.getTime() + Math.min(retryInterval, MAX_RETRY_INTERVAL_IN_MILLIS)), now);
+    return true;
+  }
+
+  public long countPendingEvents() {
+    return publishEventRepository.count();
+  }
+
+  /**
+   * @return the creation time of the earliest event not sent yet, or null if there is none
+   */
+  public Date findEarliestPendingTime() {
+    PublishEvent publishEvent = publishEventRepository.findFirstByOrderByIdAsc();
+    return publishEvent == null ? null : publishEvent.getDataChangeCreatedTime();
+  }
+}
@@ -1,6 +1,8 @@
 package com.ctrip.framework.apollo.portal.service;
 
 import com.ctrip.framework.apollo.common.constants.GsonType;
+import com.ctrip.framework.apollo.common.constants.ReleaseOperation;
+import com.ctrip.framework.apollo.common.constants.ReleaseOperationContext;
 import com.ctrip.framework.apollo.common.dto.PageDTO;
 import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.common.dto.ReleaseHistoryDTO;
@@ -9,8 +11,12 @@ import com.ctrip.framework.apollo.common.utils.BeanUtils;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.portal.api.AdminServiceAPI;
 import com.ctrip.framework.apollo.portal.entity.bo.ReleaseHistoryBO;
+import com.ctrip.framework.apollo.portal.entity.vo.ReleaseCompareResult;
 import com.ctrip.framework.apollo.portal.util.RelativeDateFormat;
+import com.ctrip.framework.apollo.tracer.Tracer;
 import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -24,6 +30,8 @@ import java.util.Set;
 @Service
 public class ReleaseHistoryService {
 
+  private static final Logger logger = LoggerFactory.getLogger(ReleaseHistoryService.class);
+
   private Gson gson = new Gson();
 
 
@@ -77,7 +85,44 @@ public class ReleaseHistoryService {
 
     List<ReleaseDTO> releases = releaseService.findReleaseByIds(env, releaseIds);
 
-    return transformReleaseHistoryDTO2BO(content, releases);
+    List<ReleaseHistoryBO> releaseHistories = transformReleaseHistoryDTO2BO(content, releases);
+    setChangesToReleaseHistoryBOs(env, releaseHistories);
+    return releaseHistories;
+  }
+
+  /**
+   * Load the changes of the page of release histories in one batch, and the page loads them one by one on demand if
+   * it fails
+   */
+  private void setChangesToReleaseHistoryBOs(Env env, List<ReleaseHistoryBO> releaseHistories) {
+    List<Long> baseReleaseIds = new ArrayList<>(releaseHistories.size());
+    List<Long> toCompareReleaseIds = new ArrayList<>(releaseHistories.size());
+    for (ReleaseHistoryBO releaseHistory : releaseHistories) {
+      baseReleaseIds.add(getBaseReleaseId(releaseHistory));
+      toCompareReleaseIds.add(releaseHistory.getReleaseId());
+    }
+
+    try {
+      List<ReleaseCompareResult> compareResults = releaseService.compare(env, baseReleaseIds, toCompareReleaseIds);
+      for (int i = 0; i < releaseHistories.size(); i++) {
+        releaseHistories.get(i).setChanges(compareResults.get(i).getChanges());
+      }
+    } catch (Throwable ex) {
+      logger.warn("Load changes of release histories failed", ex);
+      Tracer.logError("Load changes of release histories failed", ex);
+    }
+  }
+
+  private long getBaseReleaseId(ReleaseHistoryBO releaseHistory) {
+    //the first gray release of a branch is compared with the master release it's based on
+    if (releaseHistory.getOperation() == ReleaseOperation.GRAY_RELEASE && releaseHistory.getPreviousReleaseId() == 0
+        && releaseHistory.getOperationContext() != null) {
+      Object baseReleaseId = releaseHistory.getOperationContext().get(ReleaseOperationContext.BASE_RELEASE_ID);
+      if (baseReleaseId instanceof Number) {
+        return ((Number) baseReleaseId).longValue();
+      }
+    }
+    return releaseHistory.getPreviousReleaseId();
   }
 
   private List<ReleaseHistoryBO> transformReleaseHistoryDTO2BO(List<ReleaseHistoryDTO> source,
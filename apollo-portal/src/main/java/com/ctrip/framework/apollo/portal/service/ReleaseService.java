@@ -3,6 +3,7 @@ package com.ctrip.framework.apollo.portal.service;
 import com.ctrip.framework.apollo.common.constants.GsonType;
 import com.ctrip.framework.apollo.common.dto.ItemChangeSets;
 import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
+import com.ctrip.framework.apollo.common.dto.ReleaseDiffDTO;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
 import com.ctrip.framework.apollo.portal.api.AdminServiceAPI;
@@ -16,10 +17,14 @@ import com.ctrip.framework.apollo.portal.enums.ChangeType;
 import com.ctrip.framework.apollo.portal.spi.UserInfoHolder;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,18 +33,26 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class ReleaseService {
 
   private static final Gson gson = new Gson();
+  private static final int COMPARE_RESULT_CACHE_SIZE = 1000;
+  private static final int MAX_DIFFS_PER_BATCH = 100;
 
   private final UserInfoHolder userInfoHolder;
   private final AdminServiceAPI.ReleaseAPI releaseAPI;
+  private final Cache<String, ReleaseCompareResult> compareResultCache;
 
   public ReleaseService(final UserInfoHolder userInfoHolder, final AdminServiceAPI.ReleaseAPI releaseAPI) {
     this.userInfoHolder = userInfoHolder;
     this.releaseAPI = releaseAPI;
+    //releases are immutable, so are the compare results, which are shared by the history page, the email and the
+    //message of a publish
+    this.compareResultCache = CacheBuilder.newBuilder().maximumSize(COMPARE_RESULT_CACHE_SIZE)
+        .expireAfterAccess(10, TimeUnit.MINUTES).build();
   }
 
   public ReleaseDTO publish(NamespaceReleaseModel model) {
@@ -144,18 +157,75 @@ public class ReleaseService {
   }
 
   public ReleaseCompareResult compare(Env env, long baseReleaseId, long toCompareReleaseId) {
+    return compare(env, Collections.singletonList(baseReleaseId), Collections.singletonList(toCompareReleaseId))
+        .get(0);
+  }
 
-    ReleaseDTO baseRelease = null;
-    ReleaseDTO toCompareRelease = null;
-    if (baseReleaseId != 0) {
-      baseRelease = releaseAPI.loadRelease(env, baseReleaseId);
+  /**
+   * Compare the releases paired by position. The diffs are computed by the admin service, so the full configurations
+   * are not transferred, and the ones not cached are fetched in batches.
+   *
+   * @return the compare results in the order of the pairs
+   */
+  public List<ReleaseCompareResult> compare(Env env, List<Long> baseReleaseIds, List<Long> toCompareReleaseIds) {
+    int size = baseReleaseIds.size();
+    List<ReleaseCompareResult> compareResults = new ArrayList<>(size);
+    List<Integer> toLoad = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      ReleaseCompareResult compareResult = compareResultCache.getIfPresent(
+          cacheKey(env, baseReleaseIds.get(i), toCompareReleaseIds.get(i)));
+      compareResults.add(compareResult);
+      if (compareResult == null) {
+        toLoad.add(i);
+      }
     }
 
-    if (toCompareReleaseId != 0) {
-      toCompareRelease = releaseAPI.loadRelease(env, toCompareReleaseId);
+    for (List<Integer> batch : Lists.partition(toLoad, MAX_DIFFS_PER_BATCH)) {
+      List<Long> batchBaseReleaseIds = Lists.transform(batch, baseReleaseIds::get);
+      List<Long> batchToCompareReleaseIds = Lists.transform(batch, toCompareReleaseIds::get);
+      List<ReleaseDiffDTO> diffs = releaseAPI.findReleaseDiffs(env, batchBaseReleaseIds, batchToCompareReleaseIds);
+      for (int i = 0; i < batch.size(); i++) {
+        long baseReleaseId = batchBaseReleaseIds.get(i);
+        long toCompareReleaseId = batchToCompareReleaseIds.get(i);
+        ReleaseCompareResult compareResult;
+        boolean releasesFound;
+        if (diffs == null) {
+          //admin service without the diff api
+          ReleaseDTO baseRelease = baseReleaseId == 0 ? null : releaseAPI.loadRelease(env, baseReleaseId);
+          ReleaseDTO toCompareRelease = toCompareReleaseId == 0 ? null :
+                                        releaseAPI.loadRelease(env, toCompareReleaseId);
+          compareResult = compare(baseRelease, toCompareRelease);
+          releasesFound = (baseReleaseId == 0 || baseRelease != null)
+                          && (toCompareReleaseId == 0 || toCompareRelease != null);
+        } else {
+          compareResult = transformDiff(diffs.get(i));
+          releasesFound = diffs.get(i).isReleasesFound();
+        }
+        //a release not found might be found later, e.g. once replicated, so the diff against nothing isn't cached
+        if (releasesFound) {
+          compareResultCache.put(cacheKey(env, baseReleaseId, toCompareReleaseId), compareResult);
+        }
+        compareResults.set(batch.get(i), compareResult);
+      }
     }
 
-    return compare(baseRelease, toCompareRelease);
+    return compareResults;
+  }
+
+  private String cacheKey(Env env, long baseReleaseId, long toCompareReleaseId) {
+    return String.format("%s+%d+%d", env, baseReleaseId, toCompareReleaseId);
+  }
+
+  private ReleaseCompareResult transformDiff(ReleaseDiffDTO diff) {
+    ReleaseCompareResult compareResult = new ReleaseCompareResult();
+    for (ReleaseDiffDTO.Change change : diff.getChanges()) {
+      String key = change.getKey();
+      ChangeType changeType = ChangeType.valueOf(change.getType());
+      //the same as comparing the releases locally
+      String oldValue = changeType == ChangeType.ADDED ? "" : change.getOldValue();
+      compareResult.addEntityPair(changeType, new KVEntity(key, oldValue), new KVEntity(key, change.getNewValue()));
+    }
+    return compareResult;
   }
 
   public ReleaseCompareResult compare(ReleaseDTO baseRelease, ReleaseDTO toCompareRelease) {
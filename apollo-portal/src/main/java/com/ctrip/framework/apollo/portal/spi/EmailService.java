@@ -1,9 +1,31 @@
 package com.ctrip.framework.apollo.portal.spi;
 
 import com.ctrip.framework.apollo.portal.entity.bo.Email;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
 
 public interface EmailService {
 
   void send(Email email);
 
+  /**
+   * Send the emails of several publishes, implementations could override it to send them in one request
+   *
+   * @return the failures by the indexes of the emails not sent, empty if all of them are sent, so that only the
+   * emails not sent are retried
+   */
+  default Map<Integer, Throwable> send(List<Email> emails) {
+    Map<Integer, Throwable> failures = Maps.newHashMap();
+    for (int i = 0; i < emails.size(); i++) {
+      try {
+        send(emails.get(i));
+      } catch (Throwable ex) {
+        failures.put(i, ex);
+      }
+    }
+    return failures;
+  }
+
 }
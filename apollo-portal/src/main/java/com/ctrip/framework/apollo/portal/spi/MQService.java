@@ -2,9 +2,31 @@ package com.ctrip.framework.apollo.portal.spi;
 
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.portal.entity.bo.ReleaseHistoryBO;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
 
 public interface MQService {
 
   void sendPublishMsg(Env env, ReleaseHistoryBO releaseHistory);
 
+  /**
+   * Send the messages of several publishes in the env, implementations could override it to send them in one request
+   *
+   * @return the failures by the indexes of the release histories whose messages are not sent, empty if all of them
+   * are sent, so that only the messages not sent are retried
+   */
+  default Map<Integer, Throwable> sendPublishMsgs(Env env, List<ReleaseHistoryBO> releaseHistories) {
+    Map<Integer, Throwable> failures = Maps.newHashMap();
+    for (int i = 0; i < releaseHistories.size(); i++) {
+      try {
+        sendPublishMsg(env, releaseHistories.get(i));
+      } catch (Throwable ex) {
+        failures.put(i, ex);
+      }
+    }
+    return failures;
+  }
+
 }
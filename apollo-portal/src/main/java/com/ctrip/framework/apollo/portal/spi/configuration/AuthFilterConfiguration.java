@@ -3,6 +3,8 @@ package com.ctrip.framework.apollo.portal.spi.configuration;
 import com.ctrip.framework.apollo.openapi.filter.ConsumerAuthenticationFilter;
 import com.ctrip.framework.apollo.openapi.util.ConsumerAuditUtil;
 import com.ctrip.framework.apollo.openapi.util.ConsumerAuthUtil;
+import com.ctrip.framework.apollo.portal.component.PermissionValidator;
+import com.ctrip.framework.apollo.portal.filter.SuperAdminFilter;
 
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -22,5 +24,14 @@ public class AuthFilterConfiguration {
     return openApiFilter;
   }
 
+  @Bean
+  public FilterRegistrationBean tracerAuthorizationFilter(PermissionValidator permissionValidator) {
+    FilterRegistrationBean tracerFilter = new FilterRegistrationBean();
+
+    tracerFilter.setFilter(new SuperAdminFilter(permissionValidator));
+    tracerFilter.addUrlPatterns("/tracer", "/tracer/*");
+
+    return tracerFilter;
+  }
 
 }
@@ -1,6 +1,7 @@
 package com.ctrip.framework.apollo.portal.spi.defaultimpl;
 
 import com.ctrip.framework.apollo.openapi.repository.ConsumerRoleRepository;
+import com.ctrip.framework.apollo.portal.component.AuthorizationCache;
 import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
 import com.ctrip.framework.apollo.portal.entity.bo.UserInfo;
 import com.ctrip.framework.apollo.portal.entity.po.Permission;
@@ -45,6 +46,8 @@ public class DefaultRolePermissionService implements RolePermissionService {
     private PortalConfig portalConfig;
     @Autowired
     private ConsumerRoleRepository consumerRoleRepository;
+    @Autowired
+    private AuthorizationCache authorizationCache;
 
     /**
      * Create role with permissions, note that role name should be unique
@@ -99,6 +102,7 @@ public class DefaultRolePermissionService implements RolePermissionService {
         }).collect(Collectors.toList());
 
         userRoleRepository.saveAll(toCreate);
+        authorizationCache.invalidateUsers(toAssignUserIds);
         return toAssignUserIds;
     }
 
@@ -120,6 +124,7 @@ public class DefaultRolePermissionService implements RolePermissionService {
         }
 
         userRoleRepository.saveAll(existedUserRoles);
+        authorizationCache.invalidateUsers(userIds);
     }
 
     /**
@@ -154,9 +159,9 @@ public class DefaultRolePermissionService implements RolePermissionService {
      * Check whether user has the permission
      */
     public boolean userHasPermission(String userId, String permissionType, String targetId) {
-        Permission permission =
-                permissionRepository.findTopByPermissionTypeAndTargetId(permissionType, targetId);
-        if (permission == null) {
+        long permissionId = authorizationCache.getPermissionId(permissionType, targetId,
+                () -> permissionRepository.findTopByPermissionTypeAndTargetId(permissionType, targetId));
+        if (permissionId < 0) {
             return false;
         }
 
@@ -164,25 +169,24 @@ public class DefaultRolePermissionService implements RolePermissionService {
             return true;
         }
 
+        return authorizationCache.getUserPermissionIds(userId, () -> findUserPermissionIds(userId))
+                .contains(permissionId);
+    }
+
+    private Set<Long> findUserPermissionIds(String userId) {
         List<UserRole> userRoles = userRoleRepository.findByUserId(userId);
         if (CollectionUtils.isEmpty(userRoles)) {
-            return false;
+            return Collections.emptySet();
         }
 
         Set<Long> roleIds =
             userRoles.stream().map(UserRole::getRoleId).collect(Collectors.toSet());
         List<RolePermission> rolePermissions = rolePermissionRepository.findByRoleIdIn(roleIds);
         if (CollectionUtils.isEmpty(rolePermissions)) {
-            return false;
-        }
-
-        for (RolePermission rolePermission : rolePermissions) {
-            if (rolePermission.getPermissionId() == permission.getId()) {
-                return true;
-            }
+            return Collections.emptySet();
         }
 
-        return false;
+        return rolePermissions.stream().map(RolePermission::getPermissionId).collect(Collectors.toSet());
     }
 
     @Override
@@ -213,6 +217,7 @@ public class DefaultRolePermissionService implements RolePermissionService {
         Preconditions.checkState(current == null,
                 "Permission with permissionType %s targetId %s already exists!", permissionType, targetId);
 
+        authorizationCache.invalidatePermission(permissionType, targetId);
         return permissionRepository.save(permission);
     }
 
@@ -235,6 +240,9 @@ public class DefaultRolePermissionService implements RolePermissionService {
                     targetId);
         }
 
+        for (Permission permission : permissions) {
+            authorizationCache.invalidatePermission(permission.getPermissionType(), permission.getTargetId());
+        }
         Iterable<Permission> results = permissionRepository.saveAll(permissions);
         return StreamSupport.stream(results.spliterator(), false).collect(Collectors.toSet());
     }
@@ -264,6 +272,8 @@ public class DefaultRolePermissionService implements RolePermissionService {
             // 5. delete Consumer Role
             consumerRoleRepository.batchDeleteByRoleIds(roleIds, operator);
         }
+
+        authorizationCache.invalidateAll();
     }
 
     @Transactional
@@ -291,5 +301,7 @@ public class DefaultRolePermissionService implements RolePermissionService {
             // 5. delete Consumer Role
             consumerRoleRepository.batchDeleteByRoleIds(roleIds, operator);
         }
+
+        authorizationCache.invalidateAll();
     }
 }
@@ -2,13 +2,22 @@ package com.ctrip.framework.apollo.portal.spi.springsecurity;
 
 import com.google.common.collect.Lists;
 
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
+import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
 import com.ctrip.framework.apollo.portal.entity.bo.UserInfo;
 import com.ctrip.framework.apollo.portal.entity.po.UserPO;
 import com.ctrip.framework.apollo.portal.repository.UserRepository;
 import com.ctrip.framework.apollo.portal.spi.UserService;
+import com.ctrip.framework.apollo.portal.util.SearchIndex;
+import com.ctrip.framework.apollo.tracer.Tracer;
 
 import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -29,6 +38,7 @@ import javax.annotation.PostConstruct;
  * @author lepdou 2017-03-10
  */
 public class SpringSecurityUserService implements UserService {
+  private static final Logger logger = LoggerFactory.getLogger(SpringSecurityUserService.class);
 
   private PasswordEncoder encoder = new BCryptPasswordEncoder();
   private List<GrantedAuthority> authorities;
@@ -37,11 +47,41 @@ public class SpringSecurityUserService implements UserService {
   private JdbcUserDetailsManager userDetailsManager;
   @Autowired
   private UserRepository userRepository;
+  @Autowired
+  private PortalConfig portalConfig;
+
+  private final SearchIndex<UserPO> searchIndex = new SearchIndex<>(UserPO::getUsername);
+  private final ScheduledExecutorService executorService =
+      Executors.newScheduledThreadPool(1, ApolloThreadFactory.create("UserSearchIndex", true));
 
   @PostConstruct
   public void init() {
     authorities = new ArrayList<>();
     authorities.add(new SimpleGrantedAuthority("ROLE_user"));
+
+    //users are searched in memory, and the index is rebuilt periodically to catch up with other portal instances
+    rebuildSearchIndex();
+    int interval = portalConfig.searchIndexRebuildIntervalInSeconds();
+    executorService.scheduleWithFixedDelay(() -> {
+      try {
+        rebuildSearchIndex();
+      } catch (Throwable ex) {
+        logger.error("Rebuild user search index failed", ex);
+        Tracer.logError(ex);
+      }
+    }, interval, interval, TimeUnit.SECONDS);
+  }
+
+  private void rebuildSearchIndex() {
+    searchIndex.rebuild(() -> {
+      List<UserPO> users = Lists.newArrayList();
+      for (UserPO user : userRepository.findAll()) {
+        if (user.getEnabled() == 1) {
+          users.add(user);
+        }
+      }
+      return users;
+    });
   }
 
   @Transactional
@@ -60,25 +100,20 @@ public class SpringSecurityUserService implements UserService {
     managedUser.setEmail(user.getEmail());
 
     userRepository.save(managedUser);
+    searchIndex.put(managedUser);
   }
 
   @Override
   public List<UserInfo> searchUsers(String keyword, int offset, int limit) {
-    List<UserPO> users;
     if (StringUtils.isEmpty(keyword)) {
-      users = userRepository.findFirst20ByEnabled(1);
-    } else {
-      users = userRepository.findByUsernameLikeAndEnabled("%" + keyword + "%", 1);
+      return userRepository.findFirst20ByEnabled(1).stream().map(UserPO::toUserInfo).collect(Collectors.toList());
     }
 
-    List<UserInfo> result = Lists.newArrayList();
-    if (CollectionUtils.isEmpty(users)) {
-      return result;
-    }
+    List<UserPO> users = searchIndex.search(keyword);
 
-    result.addAll(users.stream().map(UserPO::toUserInfo).collect(Collectors.toList()));
-
-    return result;
+    int fromIndex = Math.min(Math.max(offset, 0), users.size());
+    int toIndex = Math.min(fromIndex + Math.max(limit, 0), users.size());
+    return users.subList(fromIndex, toIndex).stream().map(UserPO::toUserInfo).collect(Collectors.toList());
   }
 
   @Override
@@ -1,10 +1,15 @@
 package com.ctrip.framework.apollo.portal.util;
 
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.google.common.base.Joiner;
+
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,8 +28,35 @@ public class ConfigToFileUtils {
     }
   }
 
+  /**
+   * @return the line of the item in the exported file, i.e. the content of a non-properties namespace, a comment or
+   * blank line, or <code>key = value</code>
+   */
+  public static String itemToLine(ItemDTO item) {
+    String key = item.getKey();
+    String value = item.getValue();
+    if (ConfigConsts.CONFIG_FILE_CONTENT_KEY.equals(key)) {
+      return value;
+    }
+
+    if ("".equals(key)) {
+      return Joiner.on("").join(key, value);
+    }
+
+    return Joiner.on(" = ").join(key, value);
+  }
+
   public static String fileToString(InputStream inputStream) {
     BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream));
     return bufferedReader.lines().collect(Collectors.joining(System.lineSeparator()));
   }
+
+  /**
+   * @throws java.io.UncheckedIOException caused by {@link java.nio.charset.CharacterCodingException} if the file is
+   * not encoded in the charset
+   */
+  public static String fileToString(InputStream inputStream, Charset charset) {
+    BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, charset.newDecoder()));
+    return bufferedReader.lines().collect(Collectors.joining(System.lineSeparator()));
+  }
 }
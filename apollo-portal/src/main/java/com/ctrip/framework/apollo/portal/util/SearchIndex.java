@@ -0,0 +1,309 @@
+package com.ctrip.framework.apollo.portal.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In memory index for the case insensitive "contains" search, e.g. searching apps by app id or name.
+ *
+ * <p>Each field is split into trigrams, and a query is answered by verifying the values listed under its rarest
+ * trigram. Queries shorter than a trigram scan all the values. Results are ranked by where the query matches: exact
+ * match first, then prefix match, then the rest, with earlier fields ahead of later ones.
+ *
+ * @param <T> the indexed value, identified by its key
+ */
+public class SearchIndex<T> {
+  private static final int GRAM_LENGTH = 3;
+  private static final int MIN_REMOVED_DOCUMENTS_TO_COMPACT = 1000;
+
+  private final Function<T, String> keyFunction;
+  private final List<Function<T, String>> fieldFunctions;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Object rebuildLock = new Object();
+
+  private List<Document<T>> documents;
+  private Map<String, Integer> documentIds;
+  private Map<String, Postings> postings;
+  private int removedDocuments;
+  //the puts and removes since the rebuild started loading, guarded by the lock
+  private List<Runnable> changesDuringRebuild;
+
+  /**
+   * @param keyFunction    the unique key of the value, which is searched as the first field
+   * @param fieldFunctions the other fields to search, in the order of their weights
+   */
+  @SafeVarargs
+  public SearchIndex(Function<T, String> keyFunction, Function<T, String>... fieldFunctions) {
+    this.keyFunction = keyFunction;
+    this.fieldFunctions = Lists.newArrayList(keyFunction);
+    this.fieldFunctions.addAll(Arrays.asList(fieldFunctions));
+    reset(0);
+  }
+
+  /**
+   * Replace all the values in the index
+   */
+  public void rebuild(Collection<T> values) {
+    rebuild(() -> values);
+  }
+
+  /**
+   * Replace all the values in the index with the loaded ones. The values put or removed while loading are applied
+   * again on top of them, as the loaded ones may be older.
+   */
+  public void rebuild(Supplier<Collection<T>> loader) {
+    synchronized (rebuildLock) {
+      lock.writeLock().lock();
+      try {
+        changesDuringRebuild = Lists.newArrayList();
+      } finally {
+        lock.writeLock().unlock();
+      }
+
+      try {
+        Collection<T> values = loader.get();
+
+        lock.writeLock().lock();
+        try {
+          reset(values.size());
+          for (T value : values) {
+            doPut(value);
+          }
+          for (Runnable change : changesDuringRebuild) {
+            change.run();
+          }
+          compactIfNecessary();
+        } finally {
+          lock.writeLock().unlock();
+        }
+      } finally {
+        lock.writeLock().lock();
+        try {
+          changesDuringRebuild = null;
+        } finally {
+          lock.writeLock().unlock();
+        }
+      }
+    }
+  }
+
+  /**
+   * Add or replace the value with the same key
+   */
+  public void put(T value) {
+    lock.writeLock().lock();
+    try {
+      doPut(value);
+      if (changesDuringRebuild != null) {
+        changesDuringRebuild.add(() -> doPut(value));
+      }
+      compactIfNecessary();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(String key) {
+    lock.writeLock().lock();
+    try {
+      doRemove(key);
+      if (changesDuringRebuild != null) {
+        changesDuringRebuild.add(() -> doRemove(key));
+      }
+      compactIfNecessary();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documentIds.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return all the values matching the query, ranked, or all the values ordered by key if the query is empty
+   */
+  public List<T> search(String query) {
+    String normalizedQuery = normalize(query);
+    List<ScoredDocument<T>> matched = Lists.newArrayList();
+
+    lock.readLock().lock();
+    try {
+      if (normalizedQuery.length() < GRAM_LENGTH) {
+        for (Document<T> document : documents) {
+          score(document, normalizedQuery, matched);
+        }
+      } else {
+        Postings candidates = findRarestPostings(normalizedQuery);
+        for (int i = 0; candidates != null && i < candidates.size; i++) {
+          score(documents.get(candidates.ids[i]), normalizedQuery, matched);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    Comparator<ScoredDocument<T>> byKey = Comparator.comparing(scored -> scored.document.fields[0]);
+    if (normalizedQuery.isEmpty()) {
+      matched.sort(byKey);
+    } else {
+      //shorter keys are closer matches
+      matched.sort(Comparator.<ScoredDocument<T>>comparingInt(scored -> scored.score)
+          .thenComparingInt(scored -> scored.document.fields[0].length()).thenComparing(byKey));
+    }
+
+    List<T> result = new ArrayList<>(matched.size());
+    for (ScoredDocument<T> scored : matched) {
+      result.add(scored.document.value);
+    }
+    return result;
+  }
+
+  private Postings findRarestPostings(String normalizedQuery) {
+    Postings rarest = null;
+    for (int i = 0; i + GRAM_LENGTH <= normalizedQuery.length(); i++) {
+      Postings current = postings.get(normalizedQuery.substring(i, i + GRAM_LENGTH));
+      if (current == null) {
+        return null;
+      }
+      if (rarest == null || current.size < rarest.size) {
+        rarest = current;
+      }
+    }
+    return rarest;
+  }
+
+  private void score(Document<T> document, String normalizedQuery, List<ScoredDocument<T>> matched) {
+    if (document == null) {
+      return;
+    }
+    int fieldCount = document.fields.length;
+    int score = -1;
+    for (int i = 0; i < fieldCount && score < 0; i++) {
+      String field = document.fields[i];
+      if (field.equals(normalizedQuery)) {
+        score = i;
+      } else if (field.startsWith(normalizedQuery)) {
+        score = fieldCount + i;
+      }
+    }
+    for (int i = 0; i < fieldCount && score < 0; i++) {
+      if (document.fields[i].contains(normalizedQuery)) {
+        score = fieldCount * 2 + i;
+      }
+    }
+    if (score >= 0) {
+      matched.add(new ScoredDocument<>(document, score));
+    }
+  }
+
+  private void doPut(T value) {
+    String key = keyFunction.apply(value);
+    doRemove(key);
+
+    String[] fields = new String[fieldFunctions.size()];
+    Set<String> grams = Sets.newHashSet();
+    for (int i = 0; i < fields.length; i++) {
+      fields[i] = normalize(fieldFunctions.get(i).apply(value));
+      for (int j = 0; j + GRAM_LENGTH <= fields[i].length(); j++) {
+        grams.add(fields[i].substring(j, j + GRAM_LENGTH));
+      }
+    }
+
+    //documents are only appended, so the ids in each postings are in ascending order
+    int id = documents.size();
+    documents.add(new Document<>(value, fields));
+    documentIds.put(key, id);
+    for (String gram : grams) {
+      postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+    }
+  }
+
+  private void doRemove(String key) {
+    Integer id = documentIds.remove(key);
+    if (id != null) {
+      //the postings are left as they are, and skipped when searching
+      documents.set(id, null);
+      removedDocuments++;
+    }
+  }
+
+  private void compactIfNecessary() {
+    //removed documents are kept until they outnumber the live ones
+    if (removedDocuments < MIN_REMOVED_DOCUMENTS_TO_COMPACT || removedDocuments < documentIds.size()) {
+      return;
+    }
+    List<T> values = Lists.newArrayListWithCapacity(documentIds.size());
+    for (Document<T> document : documents) {
+      if (document != null) {
+        values.add(document.value);
+      }
+    }
+    reset(values.size());
+    for (T value : values) {
+      doPut(value);
+    }
+  }
+
+  private void reset(int expectedSize) {
+    documents = Lists.newArrayListWithCapacity(expectedSize);
+    documentIds = Maps.newHashMapWithExpectedSize(expectedSize);
+    postings = Maps.newHashMap();
+    removedDocuments = 0;
+  }
+
+  private static String normalize(String text) {
+    return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static class Document<T> {
+    private final T value;
+    private final String[] fields;
+
+    private Document(T value, String[] fields) {
+      this.value = value;
+      this.fields = fields;
+    }
+  }
+
+  private static class ScoredDocument<T> {
+    private final Document<T> document;
+    private final int score;
+
+    private ScoredDocument(Document<T> document, int score) {
+      this.document = document;
+      this.score = score;
+    }
+  }
+
+  private static class Postings {
+    private int[] ids = new int[4];
+    private int size;
+
+    private void add(int id) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      ids[size++] = id;
+    }
+  }
+}
@@ -436,6 +436,11 @@ function directive($window, $translate, toastr, AppUtil, EventManager, Permissio
 
             function switchInstanceViewType(namespace, type) {
                 namespace.instanceViewType = type;
+                //not latest release instances are paged, more pages are loaded by the load more button
+                if (namespace_instance_view_type.NOT_LATEST_RELEASE == type
+                    && namespace.notLatestReleaseInstancesPage > 0) {
+                    return;
+                }
                 loadInstanceInfo(namespace);
             }
 
@@ -522,20 +527,32 @@ function directive($window, $translate, toastr, AppUtil, EventManager, Permissio
                     if (!namespace.latestRelease) {
                         return;
                     }
-                    InstanceService.findByReleasesNotIn(scope.appId,
+                    if (!namespace.notLatestReleaseInstancesPage) {
+                        namespace.notLatestReleaseInstancesPage = 0;
+                        namespace.notLatestReleases = [];
+                        namespace.notLatestReleaseInstances = {};
+                        namespace.notLatestReleaseInstancesLoaded = 0;
+                    }
+                    InstanceService.findByReleasesNotInWithPage(scope.appId,
                         scope.env,
                         scope.cluster,
                         namespace.baseInfo.namespaceName,
-                        namespace.latestRelease.id)
+                        namespace.latestRelease.id,
+                        namespace.notLatestReleaseInstancesPage,
+                        size)
                         .then(function (result) {
-                            if (!result || result.length == 0) {
+                            if (!result || !result.content || result.content.length == 0) {
                                 return
                             }
 
-                            var groupedInstances = {},
-                                notLatestReleases = [];
+                            namespace.notLatestReleaseInstancesPage++;
+                            namespace.notLatestReleaseInstancesTotal = result.total;
+                            namespace.notLatestReleaseInstancesLoaded += result.content.length;
 
-                            result.forEach(function (instance) {
+                            var groupedInstances = namespace.notLatestReleaseInstances,
+                                notLatestReleases = namespace.notLatestReleases;
+
+                            result.content.forEach(function (instance) {
                                 var configs = instance.configs;
                                 if (configs && configs.length > 0) {
                                     configs.forEach(function (instanceConfig) {
@@ -552,9 +569,6 @@ function directive($window, $translate, toastr, AppUtil, EventManager, Permissio
                                     })
                                 }
                             });
-
-                            namespace.notLatestReleases = notLatestReleases;
-                            namespace.notLatestReleaseInstances = groupedInstances;
                         })
 
                 } else {
@@ -586,7 +600,11 @@ function directive($window, $translate, toastr, AppUtil, EventManager, Permissio
 
                 if (!namespace.isBranch) {
                     namespace.notLatestReleaseNames = [];
+                    namespace.notLatestReleases = [];
                     namespace.notLatestReleaseInstances = {};
+                    namespace.notLatestReleaseInstancesPage = 0;
+                    namespace.notLatestReleaseInstancesLoaded = 0;
+                    namespace.notLatestReleaseInstancesTotal = 0;
 
                     namespace.allInstancesPage = 0;
                     namespace.allInstances = [];
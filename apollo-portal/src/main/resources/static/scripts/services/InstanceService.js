@@ -14,6 +14,11 @@ appService.service('InstanceService', ['$resource', '$q', 'AppUtil', function ($
             isArray: true,
             url: AppUtil.prefixPath() + '/envs/:env/instances/by-namespace-and-releases-not-in'
         },
+        find_by_releases_not_in_page: {
+            method: 'GET',
+            isArray: false,
+            url: AppUtil.prefixPath() + '/envs/:env/instances/by-namespace-and-releases-not-in/page'
+        },
         get_instance_count_by_namespace: {
             method: 'GET',
             isArray: false,
@@ -86,6 +91,27 @@ appService.service('InstanceService', ['$resource', '$q', 'AppUtil', function ($
                 });
             return d.promise;
         },
+        findByReleasesNotInWithPage: function (appId, env, clusterName, namespaceName, releaseIds, page, size) {
+            if (!size) {
+                size = 20;
+            }
+            var d = $q.defer();
+            resource.find_by_releases_not_in_page({
+                                                      env: env,
+                                                      appId: appId,
+                                                      clusterName: clusterName,
+                                                      namespaceName: namespaceName,
+                                                      releaseIds: releaseIds,
+                                                      page: page,
+                                                      size: size
+                                                  },
+                                                  function (result) {
+                                                      d.resolve(result);
+                                                  }, function (result) {
+                    d.reject(result);
+                });
+            return d.promise;
+        },
         getInstanceCountByNamespace: function (appId, env, clusterName, namespaceName) {
             var d = $q.defer();
             resource.get_instance_count_by_namespace({
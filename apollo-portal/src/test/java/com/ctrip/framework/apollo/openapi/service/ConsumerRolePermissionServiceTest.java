@@ -1,6 +1,7 @@
 package com.ctrip.framework.apollo.openapi.service;
 
 import com.ctrip.framework.apollo.portal.AbstractIntegrationTest;
+import com.ctrip.framework.apollo.portal.component.AuthorizationCache;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -16,10 +17,13 @@ import static org.junit.Assert.assertTrue;
 public class ConsumerRolePermissionServiceTest extends AbstractIntegrationTest {
   @Autowired
   private ConsumerRolePermissionService consumerRolePermissionService;
+  @Autowired
+  private AuthorizationCache authorizationCache;
 
   @Before
   public void setUp() throws Exception {
-
+    //the test data is inserted by sql scripts
+    authorizationCache.invalidateAll();
   }
 
   @Test
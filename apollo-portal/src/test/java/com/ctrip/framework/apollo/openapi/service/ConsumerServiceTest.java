@@ -7,6 +7,7 @@ import com.ctrip.framework.apollo.openapi.repository.ConsumerRepository;
 import com.ctrip.framework.apollo.openapi.repository.ConsumerRoleRepository;
 import com.ctrip.framework.apollo.openapi.repository.ConsumerTokenRepository;
 import com.ctrip.framework.apollo.portal.AbstractUnitTest;
+import com.ctrip.framework.apollo.portal.component.AuthorizationCache;
 import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
 import com.ctrip.framework.apollo.portal.entity.bo.UserInfo;
 import com.ctrip.framework.apollo.portal.entity.po.Role;
@@ -48,6 +49,8 @@ public class ConsumerServiceTest extends AbstractUnitTest {
   @Mock
   private RolePermissionService rolePermissionService;
   @Spy
+  private AuthorizationCache authorizationCache = new AuthorizationCache(mock(PortalConfig.class));
+  @Spy
   @InjectMocks
   private ConsumerService consumerService;
 
@@ -1,6 +1,7 @@
 package com.ctrip.framework.apollo.portal;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -9,11 +10,14 @@ import com.ctrip.framework.apollo.common.exception.ServiceException;
 import com.ctrip.framework.apollo.core.dto.ServiceDTO;
 import com.ctrip.framework.apollo.portal.component.AdminServiceAddressLocator;
 import com.ctrip.framework.apollo.portal.component.RetryableRestTemplate;
+import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.portal.environment.PortalMetaDomainService;
 import java.net.SocketTimeoutException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.apache.http.HttpHost;
 import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.conn.HttpHostConnectException;
@@ -35,6 +39,8 @@ public class RetryableRestTemplateTest extends AbstractUnitTest {
   private RestTemplate restTemplate;
   @Mock
   private PortalMetaDomainService portalMetaDomainService;
+  @Mock
+  private PortalConfig portalConfig;
   @InjectMocks
   private RetryableRestTemplate retryableRestTemplate;
 
@@ -116,6 +122,35 @@ public class RetryableRestTemplateTest extends AbstractUnitTest {
     verify(restTemplate, times(0)).postForEntity(serviceTwo + "/" + path, request, Object.class);
   }
 
+  @Test(expected = ResourceAccessException.class)
+  public void testPutSocketTimeoutNotRetry() {
+    when(serviceAddressLocator.getServiceList(any()))
+        .thenReturn(Arrays.asList(mockService(serviceOne), mockService(serviceTwo)));
+
+    doThrow(socketTimeoutException).when(restTemplate).put(serviceOne + "/" + path, request);
+
+    try {
+      retryableRestTemplate.put(Env.DEV, path, request);
+    } finally {
+      verify(restTemplate, times(0)).put(serviceTwo + "/" + path, request);
+      //the timeout is still counted as a failure of the admin service
+      Assert.assertEquals(1, retryableRestTemplate.getAdminServiceStats().get(serviceOne).getFailures());
+    }
+  }
+
+  @Test
+  public void testPostConnectFailureRetry() {
+    when(serviceAddressLocator.getServiceList(any()))
+        .thenReturn(Arrays.asList(mockService(serviceOne), mockService(serviceTwo)));
+
+    when(restTemplate.postForEntity(serviceOne + "/" + path, request, Object.class))
+        .thenThrow(httpHostConnectException);
+    when(restTemplate.postForEntity(serviceTwo + "/" + path, request, Object.class)).thenReturn(entity);
+
+    retryableRestTemplate.post(Env.DEV, path, request, Object.class);
+
+    verify(restTemplate).postForEntity(serviceTwo + "/" + path, request, Object.class);
+  }
 
   @Test
   public void testDelete(){
@@ -138,6 +173,71 @@ public class RetryableRestTemplateTest extends AbstractUnitTest {
     verify(restTemplate).put(serviceOne + "/" + path, request);
   }
 
+  @Test
+  public void testSkipServerWithCircuitOpen() {
+    when(portalConfig.adminServiceCircuitFailureThreshold()).thenReturn(2);
+    when(portalConfig.adminServiceCircuitOpenSeconds()).thenReturn(60);
+
+    Object result = new Object();
+    when(serviceAddressLocator.getServiceList(any()))
+        .thenReturn(Arrays.asList(mockService(serviceOne), mockService(serviceTwo)));
+    when(restTemplate.getForObject(serviceOne + "/" + path, Object.class)).thenThrow(socketTimeoutException);
+    when(restTemplate.getForObject(serviceTwo + "/" + path, Object.class)).thenReturn(result);
+
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals(result, retryableRestTemplate.get(Env.DEV, path, Object.class));
+    }
+
+    //service one is skipped after failed twice in a row
+    verify(restTemplate, times(2)).getForObject(serviceOne + "/" + path, Object.class);
+    verify(restTemplate, times(5)).getForObject(serviceTwo + "/" + path, Object.class);
+    Assert.assertTrue(retryableRestTemplate.getAdminServiceStats().get(serviceOne).isCircuitOpen());
+    Assert.assertEquals(2, retryableRestTemplate.getAdminServiceStats().get(serviceOne).getFailures());
+  }
+
+  @Test
+  public void testHedgeSlowGet() {
+    when(portalConfig.isAdminServiceHedgeEnabled()).thenReturn(true);
+    when(portalConfig.adminServiceHedgePercentile()).thenReturn(95);
+
+    Object slowResult = new Object();
+    Object fastResult = new Object();
+    when(serviceAddressLocator.getServiceList(any()))
+        .thenReturn(Arrays.asList(mockService(serviceOne), mockService(serviceTwo)));
+    when(restTemplate.getForObject(serviceTwo + "/" + path, Object.class)).thenReturn(fastResult);
+
+    //no hedge until there are enough samples
+    when(restTemplate.getForObject(serviceOne + "/" + path, Object.class)).thenReturn(fastResult);
+    for (int i = 0; i < 100; i++) {
+      retryableRestTemplate.get(Env.DEV, path, Object.class);
+    }
+    verify(restTemplate, times(0)).getForObject(serviceTwo + "/" + path, Object.class);
+
+    CountDownLatch slowRequestStopped = new CountDownLatch(1);
+    when(restTemplate.getForObject(serviceOne + "/" + path, Object.class)).thenAnswer(invocation -> {
+      try {
+        TimeUnit.SECONDS.sleep(5);
+        return slowResult;
+      } catch (InterruptedException ex) {
+        //as an aborted request fails
+        throw new ResourceAccessException("aborted");
+      } finally {
+        slowRequestStopped.countDown();
+      }
+    });
+
+    long start = System.currentTimeMillis();
+    Object o = retryableRestTemplate.get(Env.DEV, path, Object.class);
+
+    Assert.assertEquals(fastResult, o);
+    Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+    verify(restTemplate, times(1)).getForObject(serviceTwo + "/" + path, Object.class);
+    Assert.assertEquals(101, retryableRestTemplate.getEnvStats().get(Env.DEV.name()).getCount());
+    //the losing request is stopped, and not counted as a failure
+    Assert.assertTrue(slowRequestStopped.await(1, TimeUnit.SECONDS));
+    Assert.assertEquals(0, retryableRestTemplate.getAdminServiceStats().get(serviceOne).getFailures());
+  }
+
   private ServiceDTO mockService(String homeUrl) {
     ServiceDTO serviceDTO = new ServiceDTO();
     serviceDTO.setHomepageUrl(homeUrl);
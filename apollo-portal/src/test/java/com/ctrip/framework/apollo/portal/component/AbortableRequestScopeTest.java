@@ -0,0 +1,43 @@
+package com.ctrip.framework.apollo.portal.component;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AbortableRequestScopeTest {
+
+  @Test
+  public void testAbort() throws Exception {
+    AbortableRequestScope scope = new AbortableRequestScope();
+    HttpGet someRequest = new HttpGet("http://10.0.0.1/apps");
+    HttpGet anotherRequest = new HttpGet("http://10.0.0.2/apps");
+
+    scope.run(() -> {
+      AbortableRequestScope.register(someRequest);
+      return null;
+    });
+    //not in the scope
+    AbortableRequestScope.register(anotherRequest);
+    scope.abort();
+
+    assertTrue(scope.isAborted());
+    assertTrue(someRequest.isAborted());
+    assertFalse(anotherRequest.isAborted());
+  }
+
+  @Test
+  public void testRegisterAfterAbort() throws Exception {
+    AbortableRequestScope scope = new AbortableRequestScope();
+    HttpGet someRequest = new HttpGet("http://10.0.0.1/apps");
+
+    scope.abort();
+    scope.run(() -> {
+      AbortableRequestScope.register(someRequest);
+      return null;
+    });
+
+    assertTrue(someRequest.isAborted());
+  }
+}
@@ -0,0 +1,137 @@
+package com.ctrip.framework.apollo.portal.component;
+
+import com.ctrip.framework.apollo.openapi.entity.ConsumerToken;
+import com.ctrip.framework.apollo.portal.AbstractUnitTest;
+import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
+import com.ctrip.framework.apollo.portal.entity.po.Permission;
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.when;
+
+public class AuthorizationCacheTest extends AbstractUnitTest {
+
+  @Mock
+  private PortalConfig portalConfig;
+
+  private AuthorizationCache authorizationCache;
+
+  private String somePermissionType = "somePermissionType";
+  private String someTargetId = "someTargetId";
+  private String someUser = "someUser";
+
+  @Before
+  public void setUp() throws Exception {
+    when(portalConfig.authorizationCacheExpireSeconds()).thenReturn(60);
+    when(portalConfig.authorizationCacheSize()).thenReturn(100);
+
+    authorizationCache = new AuthorizationCache(portalConfig);
+  }
+
+  @Test
+  public void testGetPermissionId() throws Exception {
+    long somePermissionId = 1;
+    Permission permission = new Permission();
+    permission.setId(somePermissionId);
+    AtomicInteger loadTimes = new AtomicInteger();
+    Supplier<Permission> loader = () -> {
+      loadTimes.incrementAndGet();
+      return permission;
+    };
+
+    assertEquals(somePermissionId, authorizationCache.getPermissionId(somePermissionType, someTargetId, loader));
+    assertEquals(somePermissionId, authorizationCache.getPermissionId(somePermissionType, someTargetId, loader));
+    assertEquals(1, loadTimes.get());
+
+    authorizationCache.invalidatePermission(somePermissionType, someTargetId);
+
+    assertEquals(somePermissionId, authorizationCache.getPermissionId(somePermissionType, someTargetId, loader));
+    assertEquals(2, loadTimes.get());
+  }
+
+  @Test
+  public void testGetNonExistingPermissionId() throws Exception {
+    AtomicInteger loadTimes = new AtomicInteger();
+    Supplier<Permission> loader = () -> {
+      loadTimes.incrementAndGet();
+      return null;
+    };
+
+    assertEquals(-1, authorizationCache.getPermissionId(somePermissionType, someTargetId, loader));
+    assertEquals(-1, authorizationCache.getPermissionId(somePermissionType, someTargetId, loader));
+    assertEquals(1, loadTimes.get());
+  }
+
+  @Test
+  public void testGetUserPermissionIds() throws Exception {
+    Set<Long> somePermissionIds = Sets.newHashSet(1L, 2L);
+    Set<Long> anotherPermissionIds = Collections.singleton(1L);
+
+    assertSame(somePermissionIds, authorizationCache.getUserPermissionIds(someUser, () -> somePermissionIds));
+    assertSame(somePermissionIds, authorizationCache.getUserPermissionIds(someUser, () -> anotherPermissionIds));
+
+    authorizationCache.invalidateUsers(Collections.singleton(someUser));
+
+    assertSame(anotherPermissionIds, authorizationCache.getUserPermissionIds(someUser, () -> anotherPermissionIds));
+  }
+
+  @Test
+  public void testInvalidatedWhileLoading() throws Exception {
+    Set<Long> somePermissionIds = Sets.newHashSet(1L, 2L);
+    Set<Long> anotherPermissionIds = Collections.singleton(1L);
+
+    assertSame(somePermissionIds, authorizationCache.getUserPermissionIds(someUser, () -> {
+      authorizationCache.invalidateUsers(Collections.singleton(someUser));
+      return somePermissionIds;
+    }));
+
+    //the value loaded before the invalidation is not cached
+    assertSame(anotherPermissionIds, authorizationCache.getUserPermissionIds(someUser, () -> anotherPermissionIds));
+  }
+
+  @Test
+  public void testGetConsumerToken() throws Exception {
+    String someToken = "someToken";
+    String expiredToken = "expiredToken";
+    String unknownToken = "unknownToken";
+    ConsumerToken consumerToken = assembleConsumerToken(new Date(System.currentTimeMillis() + 60000));
+    ConsumerToken expiredConsumerToken = assembleConsumerToken(new Date(System.currentTimeMillis() - 1));
+
+    assertSame(consumerToken, authorizationCache.getConsumerToken(someToken, () -> consumerToken));
+    assertSame(consumerToken, authorizationCache.getConsumerToken(someToken, () -> null));
+
+    assertNull(authorizationCache.getConsumerToken(expiredToken, () -> expiredConsumerToken));
+    assertNull(authorizationCache.getConsumerToken(unknownToken, () -> null));
+    assertSame(consumerToken, authorizationCache.getConsumerToken(unknownToken, () -> consumerToken));
+  }
+
+  @Test
+  public void testCacheDisabled() throws Exception {
+    when(portalConfig.authorizationCacheExpireSeconds()).thenReturn(0);
+    authorizationCache = new AuthorizationCache(portalConfig);
+
+    Set<Long> somePermissionIds = Sets.newHashSet(1L, 2L);
+    Set<Long> anotherPermissionIds = Collections.singleton(1L);
+
+    assertSame(somePermissionIds, authorizationCache.getUserPermissionIds(someUser, () -> somePermissionIds));
+    assertSame(anotherPermissionIds, authorizationCache.getUserPermissionIds(someUser, () -> anotherPermissionIds));
+  }
+
+  private ConsumerToken assembleConsumerToken(Date expires) {
+    ConsumerToken consumerToken = new ConsumerToken();
+    consumerToken.setConsumerId(1);
+    consumerToken.setExpires(expires);
+    return consumerToken;
+  }
+}
@@ -0,0 +1,59 @@
+package com.ctrip.framework.apollo.portal.component;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testPercentile() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram(60000);
+    assertEquals(-1, histogram.percentile(50));
+
+    for (int i = 0; i < 90; i++) {
+      histogram.record(3);
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(100);
+    }
+
+    assertEquals(100, histogram.count());
+    assertEquals(3, histogram.percentile(50));
+    assertEquals(3, histogram.percentile(90));
+    assertEquals(111, histogram.percentile(95));
+
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+  }
+
+  @Test
+  public void testBuckets() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram(60000);
+    histogram.record(0);
+    histogram.record(1);
+    histogram.record(2);
+    histogram.record(40000);
+
+    Map<String, Long> buckets = histogram.buckets();
+
+    assertEquals(58, buckets.size());
+    assertEquals(1, buckets.get("0").longValue());
+    assertEquals(1, buckets.get("1").longValue());
+    assertEquals(1, buckets.get("2").longValue());
+    assertEquals(0, buckets.get("3").longValue());
+    assertEquals(1, buckets.get("+Inf").longValue());
+  }
+
+  @Test
+  public void testOldSamplesDropped() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram(50);
+    histogram.record(1);
+
+    Thread.sleep(120);
+
+    assertEquals(0, histogram.count());
+  }
+}
@@ -0,0 +1,57 @@
+package com.ctrip.framework.apollo.portal.filter;
+
+import com.ctrip.framework.apollo.portal.component.PermissionValidator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SuperAdminFilterTest {
+  private SuperAdminFilter superAdminFilter;
+  @Mock
+  private PermissionValidator permissionValidator;
+  @Mock
+  private HttpServletRequest request;
+  @Mock
+  private HttpServletResponse response;
+  @Mock
+  private FilterChain filterChain;
+
+  @Before
+  public void setUp() throws Exception {
+    superAdminFilter = new SuperAdminFilter(permissionValidator);
+  }
+
+  @Test
+  public void testSuperAdmin() throws Exception {
+    when(permissionValidator.isSuperAdmin()).thenReturn(true);
+
+    superAdminFilter.doFilter(request, response, filterChain);
+
+    verify(filterChain, times(1)).doFilter(request, response);
+  }
+
+  @Test
+  public void testNotSuperAdmin() throws Exception {
+    when(permissionValidator.isSuperAdmin()).thenReturn(false);
+
+    superAdminFilter.doFilter(request, response, filterChain);
+
+    verify(response, times(1)).sendError(eq(HttpServletResponse.SC_FORBIDDEN), anyString());
+    verify(filterChain, never()).doFilter(request, response);
+  }
+}
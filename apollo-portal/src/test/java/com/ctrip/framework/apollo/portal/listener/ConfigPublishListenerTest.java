@@ -0,0 +1,197 @@
+package com.ctrip.framework.apollo.portal.listener;
+
+import com.ctrip.framework.apollo.common.constants.ReleaseOperation;
+import com.ctrip.framework.apollo.portal.AbstractUnitTest;
+import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
+import com.ctrip.framework.apollo.portal.component.emailbuilder.GrayPublishEmailBuilder;
+import com.ctrip.framework.apollo.portal.component.emailbuilder.MergeEmailBuilder;
+import com.ctrip.framework.apollo.portal.component.emailbuilder.NormalPublishEmailBuilder;
+import com.ctrip.framework.apollo.portal.component.emailbuilder.RollbackEmailBuilder;
+import com.ctrip.framework.apollo.portal.entity.bo.Email;
+import com.ctrip.framework.apollo.portal.entity.bo.ReleaseHistoryBO;
+import com.ctrip.framework.apollo.portal.entity.po.PublishEvent;
+import com.ctrip.framework.apollo.portal.environment.Env;
+import com.ctrip.framework.apollo.portal.service.PublishEventService;
+import com.ctrip.framework.apollo.portal.service.ReleaseHistoryService;
+import com.ctrip.framework.apollo.portal.spi.EmailService;
+import com.ctrip.framework.apollo.portal.spi.MQService;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConfigPublishListenerTest extends AbstractUnitTest {
+
+  @Mock
+  private ReleaseHistoryService releaseHistoryService;
+  @Mock
+  private EmailService emailService;
+  @Mock
+  private NormalPublishEmailBuilder normalPublishEmailBuilder;
+  @Mock
+  private GrayPublishEmailBuilder grayPublishEmailBuilder;
+  @Mock
+  private RollbackEmailBuilder rollbackEmailBuilder;
+  @Mock
+  private MergeEmailBuilder mergeEmailBuilder;
+  @Mock
+  private PortalConfig portalConfig;
+  @Mock
+  private MQService mqService;
+  @Mock
+  private PublishEventService publishEventService;
+
+  @InjectMocks
+  private ConfigPublishListener configPublishListener;
+
+  private int someMaxRetryTimes = 3;
+
+  @Before
+  public void setUp() throws Exception {
+    ReflectionTestUtils.setField(configPublishListener, "executorService", MoreExecutors.newDirectExecutorService());
+    when(portalConfig.publishNotifyBatchSize()).thenReturn(10);
+    when(portalConfig.publishNotifyMaxRetryTimes()).thenReturn(someMaxRetryTimes);
+    when(portalConfig.emailSupportedEnvs()).thenReturn(Sets.newHashSet(Env.DEV));
+    when(releaseHistoryService.findLatestByReleaseIdAndOperation(any(Env.class), anyLong(),
+        eq(ReleaseOperation.NORMAL_RELEASE))).thenAnswer(invocation -> assembleReleaseHistory(
+        ReleaseOperation.NORMAL_RELEASE));
+    when(normalPublishEmailBuilder.build(any(Env.class), any(ReleaseHistoryBO.class))).thenAnswer(
+        invocation -> new Email());
+  }
+
+  @Test
+  public void testSendInBatch() throws Exception {
+    PublishEvent someEvent = assembleEvent(1, Env.DEV);
+    PublishEvent anotherEvent = assembleEvent(2, Env.DEV);
+    PublishEvent yetAnotherEvent = assembleEvent(3, Env.PRO);
+    when(publishEventService.claim(10)).thenReturn(Arrays.asList(someEvent, anotherEvent, yetAnotherEvent));
+
+    configPublishListener.sendPendingEvents();
+
+    ArgumentCaptor<List<Email>> emails = ArgumentCaptor.forClass(List.class);
+    verify(emailService, times(1)).send(emails.capture());
+    assertEquals(2, emails.getValue().size());
+    verify(mqService, times(1)).sendPublishMsgs(eq(Env.DEV), anyList());
+    verify(mqService, times(1)).sendPublishMsgs(eq(Env.PRO), anyList());
+
+    ArgumentCaptor<Collection<PublishEvent>> sentEvents = ArgumentCaptor.forClass(Collection.class);
+    verify(publishEventService, times(1)).markSent(sentEvents.capture());
+    assertEquals(3, sentEvents.getValue().size());
+    verify(publishEventService, never()).markFailed(any(PublishEvent.class), anyInt());
+    assertEquals(3L, configPublishListener.getStats().get("sentEvents"));
+  }
+
+  @Test
+  public void testRetryWithoutResendingEmail() throws Exception {
+    PublishEvent someEvent = assembleEvent(1, Env.DEV);
+    when(publishEventService.claim(10)).thenReturn(Collections.singletonList(someEvent));
+    doThrow(new RuntimeException("some error")).when(mqService).sendPublishMsgs(eq(Env.DEV), anyList());
+
+    configPublishListener.sendPendingEvents();
+
+    verify(emailService, times(1)).send(anyList());
+    verify(publishEventService, times(1)).markFailed(someEvent, someMaxRetryTimes);
+    verify(publishEventService, times(1)).markSent(Collections.emptyList());
+    assertTrue(someEvent.isEmailSent());
+    assertFalse(someEvent.isMessageSent());
+  }
+
+  @Test
+  public void testRetryOnlyMessagesNotSent() throws Exception {
+    PublishEvent someEvent = assembleEvent(1, Env.DEV);
+    PublishEvent anotherEvent = assembleEvent(2, Env.DEV);
+    when(publishEventService.claim(10)).thenReturn(Arrays.asList(someEvent, anotherEvent))
+        .thenReturn(Collections.singletonList(anotherEvent));
+    when(mqService.sendPublishMsgs(eq(Env.DEV), anyList()))
+        .thenReturn(Collections.<Integer, Throwable>singletonMap(1, new RuntimeException("some error")))
+        .thenReturn(Collections.emptyMap());
+
+    configPublishListener.sendPendingEvents();
+
+    verify(publishEventService, times(1)).markSent(Collections.singletonList(someEvent));
+    verify(publishEventService, times(1)).markFailed(anotherEvent, someMaxRetryTimes);
+    assertTrue(anotherEvent.isEmailSent());
+    assertFalse(anotherEvent.isMessageSent());
+
+    configPublishListener.sendPendingEvents();
+
+    ArgumentCaptor<List<ReleaseHistoryBO>> releaseHistories = ArgumentCaptor.forClass(List.class);
+    verify(emailService, times(1)).send(anyList());
+    verify(mqService, times(2)).sendPublishMsgs(eq(Env.DEV), releaseHistories.capture());
+    assertEquals(1, releaseHistories.getAllValues().get(1).size());
+    verify(publishEventService, times(1)).markSent(Collections.singletonList(anotherEvent));
+  }
+
+  @Test
+  public void testSendOneByOneReportsFailures() throws Exception {
+    Email someEmail = new Email();
+    Email anotherEmail = new Email();
+    RuntimeException someError = new RuntimeException("some error");
+    EmailService oneByOneEmailService = email -> {
+      if (email == anotherEmail) {
+        throw someError;
+      }
+    };
+
+    Map<Integer, Throwable> failures = oneByOneEmailService.send(Arrays.asList(someEmail, anotherEmail));
+
+    assertEquals(Collections.singletonMap(1, someError), failures);
+  }
+
+  @Test
+  public void testReleaseHistoryNotFound() throws Exception {
+    PublishEvent someEvent = assembleEvent(1, Env.DEV);
+    someEvent.setOperation(ReleaseOperation.ROLLBACK);
+    when(publishEventService.claim(10)).thenReturn(Collections.singletonList(someEvent));
+
+    configPublishListener.sendPendingEvents();
+
+    verify(emailService, never()).send(anyList());
+    verify(mqService, never()).sendPublishMsgs(any(Env.class), anyList());
+    verify(publishEventService, times(1)).markFailed(someEvent, someMaxRetryTimes);
+  }
+
+  private PublishEvent assembleEvent(long id, Env env) {
+    PublishEvent publishEvent = new PublishEvent();
+    publishEvent.setId(id);
+    publishEvent.setEnv(env.toString());
+    publishEvent.setAppId("someAppId");
+    publishEvent.setClusterName("default");
+    publishEvent.setNamespaceName("application");
+    publishEvent.setReleaseId(id);
+    publishEvent.setOperation(ReleaseOperation.NORMAL_RELEASE);
+    publishEvent.setDataChangeCreatedTime(new Date());
+    return publishEvent;
+  }
+
+  private ReleaseHistoryBO assembleReleaseHistory(int operation) {
+    ReleaseHistoryBO releaseHistory = new ReleaseHistoryBO();
+    releaseHistory.setOperation(operation);
+    return releaseHistory;
+  }
+}
@@ -18,15 +18,23 @@ import com.ctrip.framework.apollo.portal.entity.vo.NamespaceIdentifier;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ConfigServiceTest extends AbstractUnitTest {
@@ -144,15 +152,14 @@ public class ConfigServiceTest extends AbstractUnitTest {
     ItemDTO targetItem2 = new ItemDTO("c", "oldValue", "comment", 2);
     ItemDTO targetItem3 = new ItemDTO("d", "b", "oldComment", 3);
     List<ItemDTO> targetItems = Arrays.asList(targetItem1, targetItem2, targetItem3);
+    targetItems.forEach(targetItem -> targetItem.setNamespaceId(1));
 
     String appId = "6666", env = "LOCAL", clusterName = ConfigConsts.CLUSTER_NAME_DEFAULT,
         namespaceName = ConfigConsts.NAMESPACE_APPLICATION;
     List<NamespaceIdentifier>
         namespaceIdentifiers =
         generateNamespaceIdentifier(appId, env, clusterName, namespaceName);
-    NamespaceDTO namespaceDTO = generateNamespaceDTO(appId, clusterName, namespaceName);
 
-    when(namespaceAPI.loadNamespace(appId, Env.valueOf(env), clusterName, namespaceName)).thenReturn(namespaceDTO);
     when(itemAPI.findItems(appId, Env.valueOf(env), clusterName, namespaceName)).thenReturn(targetItems);
 
     UserInfo userInfo = new UserInfo();
@@ -180,6 +187,9 @@ public class ConfigServiceTest extends AbstractUnitTest {
     assertEquals("c", createdItem.getValue());
     assertEquals("comment", createdItem.getComment());
     assertEquals(4, createdItem.getLineNum());
+    assertEquals(1, createdItem.getNamespaceId());
+    //the namespace id is taken from the target items
+    verify(namespaceAPI, never()).loadNamespace(appId, Env.valueOf(env), clusterName, namespaceName);
 
     List<ItemDTO> updateItems = changeSets.getUpdateItems();
     ItemDTO updateItem1 = updateItems.get(0);
@@ -197,6 +207,62 @@ public class ConfigServiceTest extends AbstractUnitTest {
 
   }
 
+  @Test
+  public void testCompareMultipleNamespaces() {
+    List<ItemDTO> sourceItems = Arrays.asList(new ItemDTO("a", "b", "comment", 1));
+    String appId = "6666", namespaceName = ConfigConsts.NAMESPACE_APPLICATION;
+
+    List<NamespaceIdentifier> namespaceIdentifiers = new ArrayList<>();
+    for (String env : Arrays.asList("DEV", "FAT", "UAT")) {
+      for (int i = 0; i < 10; i++) {
+        String clusterName = "cluster" + i;
+        namespaceIdentifiers.addAll(generateNamespaceIdentifier(appId, env, clusterName, namespaceName));
+        when(itemAPI.findItems(appId, Env.valueOf(env), clusterName, namespaceName))
+            .thenReturn(Arrays.asList(new ItemDTO("a", env + clusterName, "comment", 1)));
+      }
+    }
+
+    List<ItemDiffs> itemDiffses = configService.compare(namespaceIdentifiers, sourceItems);
+
+    //the results are in the same order as the compared namespaces
+    assertEquals(namespaceIdentifiers.size(), itemDiffses.size());
+    for (int i = 0; i < namespaceIdentifiers.size(); i++) {
+      ItemDiffs itemDiffs = itemDiffses.get(i);
+      assertSame(namespaceIdentifiers.get(i), itemDiffs.getNamespace());
+      assertEquals(1, itemDiffs.getDiffs().getUpdateItems().size());
+      assertEquals("b", itemDiffs.getDiffs().getUpdateItems().get(0).getValue());
+    }
+  }
+
+  @Test
+  public void testSyncItems() {
+    List<ItemDTO> sourceItems = Arrays.asList(new ItemDTO("a", "b", "comment", 1));
+    String appId = "6666", namespaceName = ConfigConsts.NAMESPACE_APPLICATION;
+    String changedCluster = "changedCluster", unchangedCluster = "unchangedCluster";
+
+    List<NamespaceIdentifier> namespaceIdentifiers = new ArrayList<>();
+    namespaceIdentifiers.addAll(generateNamespaceIdentifier(appId, "DEV", changedCluster, namespaceName));
+    namespaceIdentifiers.addAll(generateNamespaceIdentifier(appId, "DEV", unchangedCluster, namespaceName));
+    when(itemAPI.findItems(appId, Env.DEV, changedCluster, namespaceName))
+        .thenReturn(Arrays.asList(new ItemDTO("a", "oldValue", "comment", 1)));
+    when(itemAPI.findItems(appId, Env.DEV, unchangedCluster, namespaceName))
+        .thenReturn(Arrays.asList(new ItemDTO("a", "b", "comment", 1)));
+
+    UserInfo userInfo = new UserInfo();
+    userInfo.setUserId("test");
+    when(userInfoHolder.getUser()).thenReturn(userInfo);
+
+    configService.syncItems(namespaceIdentifiers, sourceItems);
+
+    ArgumentCaptor<ItemChangeSets> changeSetsCaptor = ArgumentCaptor.forClass(ItemChangeSets.class);
+    verify(itemAPI, times(1)).updateItemsByChangeSet(eq(appId), eq(Env.DEV), eq(changedCluster),
+        eq(namespaceName), changeSetsCaptor.capture());
+    verify(itemAPI, never()).updateItemsByChangeSet(eq(appId), eq(Env.DEV), eq(unchangedCluster),
+        eq(namespaceName), any(ItemChangeSets.class));
+    assertEquals("test", changeSetsCaptor.getValue().getDataChangeLastModifiedBy());
+    assertEquals(1, changeSetsCaptor.getValue().getUpdateItems().size());
+  }
+
   private NamespaceDTO generateNamespaceDTO(String appId, String clusterName, String namespaceName) {
     NamespaceDTO namespaceDTO = new NamespaceDTO();
     namespaceDTO.setAppId(appId);
@@ -0,0 +1,333 @@
+package com.ctrip.framework.apollo.portal.service;
+
+import com.ctrip.framework.apollo.common.dto.ClusterDTO;
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
+import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
+import com.ctrip.framework.apollo.common.dto.NamespaceDetailDTO;
+import com.ctrip.framework.apollo.common.dto.PageDTO;
+import com.ctrip.framework.apollo.common.entity.App;
+import com.ctrip.framework.apollo.common.entity.AppNamespace;
+import com.ctrip.framework.apollo.common.exception.BadRequestException;
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
+import com.ctrip.framework.apollo.portal.AbstractUnitTest;
+import com.ctrip.framework.apollo.portal.api.AdminServiceAPI;
+import com.ctrip.framework.apollo.portal.entity.bo.UserInfo;
+import com.ctrip.framework.apollo.portal.entity.model.NamespaceTextModel;
+import com.ctrip.framework.apollo.portal.entity.vo.ConfigsImportResult;
+import com.ctrip.framework.apollo.portal.environment.Env;
+import com.ctrip.framework.apollo.portal.spi.UserInfoHolder;
+import com.ctrip.framework.apollo.portal.util.ConfigToFileUtils;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConfigsExportServiceTest extends AbstractUnitTest {
+
+  @Mock
+  private UserInfoHolder userInfoHolder;
+  @Mock
+  private AppService appService;
+  @Mock
+  private AppNamespaceService appNamespaceService;
+  @Mock
+  private ClusterService clusterService;
+  @Mock
+  private ItemService itemService;
+  @Mock
+  private AdminServiceAPI.NamespaceAPI namespaceAPI;
+
+  @InjectMocks
+  private ConfigsExportService configsExportService;
+
+  private String someAppId = "someAppId";
+  private String anotherAppId = "anotherAppId";
+  private String someClusterName = "default";
+  private String someOperator = "someOperator";
+
+  @Before
+  public void setUp() throws Exception {
+    UserInfo userInfo = new UserInfo();
+    userInfo.setUserId(someOperator);
+    when(userInfoHolder.getUser()).thenReturn(userInfo);
+  }
+
+  @Test
+  public void testExportAndImport() throws Exception {
+    when(appService.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+      Pageable pageable = invocation.getArgument(0);
+      List<App> apps = pageable.getPageNumber() == 0 ? Arrays.asList(assembleApp(someAppId),
+          assembleApp(anotherAppId)) : Collections.emptyList();
+      return new PageDTO<>(apps, pageable, 2);
+    });
+    when(clusterService.findClusters(any(Env.class), any())).thenReturn(
+        Collections.singletonList(assembleCluster(someClusterName)));
+    when(namespaceAPI.findNamespaceDetailsByCluster(someAppId, Env.DEV, someClusterName)).thenReturn(Arrays.asList(
+        assembleNamespaceDetail(someAppId, ConfigConsts.NAMESPACE_APPLICATION, new ItemDTO("k1", "v1", "", 1),
+            new ItemDTO("", "", "#comment", 2)),
+        assembleNamespaceDetail(someAppId, "some.yml",
+            new ItemDTO(ConfigConsts.CONFIG_FILE_CONTENT_KEY, "a: b", "", 1))));
+    //admin service without the batch api
+    when(namespaceAPI.findNamespaceDetailsByCluster(anotherAppId, Env.DEV, someClusterName)).thenReturn(null);
+    when(namespaceAPI.findNamespaceByCluster(anotherAppId, Env.DEV, someClusterName)).thenReturn(
+        Collections.singletonList(assembleNamespace(anotherAppId, ConfigConsts.NAMESPACE_APPLICATION)));
+    when(itemService.findItems(anotherAppId, Env.DEV, someClusterName, ConfigConsts.NAMESPACE_APPLICATION))
+        .thenReturn(Collections.singletonList(new ItemDTO("k2", "v2", "", 1)));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    configsExportService.exportData(out, Collections.singletonList(Env.DEV));
+
+    List<String> entries = listEntries(out.toByteArray());
+    assertEquals(Arrays.asList("DEV/someAppId/default/application.properties", "DEV/someAppId/default/some.yml",
+        "DEV/anotherAppId/default/application.properties"), entries);
+
+    ConfigsImportResult result = configsExportService.importData(new ByteArrayResource(out.toByteArray()));
+
+    ArgumentCaptor<NamespaceTextModel> models = ArgumentCaptor.forClass(NamespaceTextModel.class);
+    verify(itemService, times(3)).updateConfigItemByText(models.capture(), eq(someOperator));
+    List<NamespaceTextModel> sortedModels = models.getAllValues().stream()
+        .sorted(Comparator.comparing(model -> model.getAppId() + model.getNamespaceName()))
+        .collect(Collectors.toList());
+
+    assertEquals(entries, result.getImportedNamespaces());
+    assertTrue(result.getFailedNamespaces().isEmpty());
+    assertNamespaceTextModel(sortedModels.get(0), anotherAppId, ConfigConsts.NAMESPACE_APPLICATION,
+        ConfigFileFormat.Properties, "k2 = v2");
+    assertNamespaceTextModel(sortedModels.get(1), someAppId, ConfigConsts.NAMESPACE_APPLICATION,
+        ConfigFileFormat.Properties, "k1 = v1" + System.lineSeparator());
+    assertNamespaceTextModel(sortedModels.get(2), someAppId, "some.yml", ConfigFileFormat.YML, "a: b");
+  }
+
+  @Test
+  public void testExportNamespaceFileNameByFormat() throws Exception {
+    String somePublicAppId = "somePublicAppId";
+    mockApps(someAppId);
+    when(clusterService.findClusters(any(Env.class), any())).thenReturn(
+        Collections.singletonList(assembleCluster(someClusterName)));
+    when(appNamespaceService.findByAppId(someAppId)).thenReturn(Arrays.asList(
+        assembleAppNamespace(someAppId, "FX.apollo", ConfigFileFormat.Properties),
+        assembleAppNamespace(someAppId, "some.json", ConfigFileFormat.JSON)));
+    when(appNamespaceService.findPublicAppNamespaces()).thenReturn(Collections.singletonList(
+        assembleAppNamespace(somePublicAppId, "TEST1.public", ConfigFileFormat.Properties)));
+    when(namespaceAPI.findNamespaceDetailsByCluster(someAppId, Env.DEV, someClusterName)).thenReturn(Arrays.asList(
+        assembleNamespaceDetail(someAppId, "FX.apollo", new ItemDTO("k1", "v1", "", 1)),
+        assembleNamespaceDetail(someAppId, "some.json", new ItemDTO(ConfigConsts.CONFIG_FILE_CONTENT_KEY, "{}", "", 1)),
+        assembleNamespaceDetail(someAppId, "TEST1.public", new ItemDTO("k2", "v2", "", 1)),
+        assembleNamespaceDetail(someAppId, "missing.xml", new ItemDTO(ConfigConsts.CONFIG_FILE_CONTENT_KEY, "<a/>", "", 1))));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    configsExportService.exportData(out, Collections.singletonList(Env.DEV));
+
+    assertEquals(Arrays.asList("DEV/someAppId/default/FX.apollo.properties", "DEV/someAppId/default/some.json",
+        "DEV/someAppId/default/TEST1.public.properties", "DEV/someAppId/default/missing.xml"),
+        listEntries(out.toByteArray()));
+
+    configsExportService.importData(new ByteArrayResource(out.toByteArray()));
+
+    ArgumentCaptor<NamespaceTextModel> models = ArgumentCaptor.forClass(NamespaceTextModel.class);
+    verify(itemService, times(4)).updateConfigItemByText(models.capture(), eq(someOperator));
+    List<String> namespaceNames = models.getAllValues().stream().map(NamespaceTextModel::getNamespaceName).sorted()
+        .collect(Collectors.toList());
+    assertEquals(Arrays.asList("FX.apollo", "TEST1.public", "missing.xml", "some.json"), namespaceNames);
+  }
+
+  @Test
+  public void testExportSkipsFailedApps() throws Exception {
+    mockApps(someAppId, anotherAppId);
+    when(clusterService.findClusters(any(Env.class), any())).thenReturn(
+        Collections.singletonList(assembleCluster(someClusterName)));
+    when(namespaceAPI.findNamespaceDetailsByCluster(someAppId, Env.DEV, someClusterName))
+        .thenThrow(new IllegalStateException("admin service unavailable"));
+    when(namespaceAPI.findNamespaceDetailsByCluster(anotherAppId, Env.DEV, someClusterName)).thenReturn(
+        Collections.singletonList(
+            assembleNamespaceDetail(anotherAppId, ConfigConsts.NAMESPACE_APPLICATION, new ItemDTO("k", "v", "", 1))));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    configsExportService.exportData(out, Collections.singletonList(Env.DEV));
+
+    Map<String, String> entries = readEntries(out.toByteArray());
+    assertEquals(Arrays.asList("DEV/anotherAppId/default/application.properties",
+        ConfigsExportService.EXPORT_FAILURES_ENTRY), Lists.newArrayList(entries.keySet()));
+    assertTrue(entries.get(ConfigsExportService.EXPORT_FAILURES_ENTRY)
+        .startsWith("DEV/someAppId: admin service unavailable"));
+
+    //the failures entry is not imported
+    ConfigsImportResult result = configsExportService.importData(new ByteArrayResource(out.toByteArray()));
+    assertEquals(Collections.singletonList("DEV/anotherAppId/default/application.properties"),
+        result.getImportedNamespaces());
+  }
+
+  @Test
+  public void testImportReportsFailedNamespaces() throws Exception {
+    byte[] zip = zip("DEV/someAppId/default/application.properties", "a = b",
+        "DEV/anotherAppId/default/application.properties", "c = d");
+    doThrow(new BadRequestException("namespace not exist")).when(itemService).updateConfigItemByText(
+        argThat(model -> anotherAppId.equals(model.getAppId())), eq(someOperator));
+
+    ConfigsImportResult result = configsExportService.importData(new ByteArrayResource(zip));
+
+    assertEquals(Collections.singletonList("DEV/someAppId/default/application.properties"),
+        result.getImportedNamespaces());
+    assertEquals(Collections.singletonMap("DEV/anotherAppId/default/application.properties", "namespace not exist"),
+        result.getFailedNamespaces());
+  }
+
+  @Test
+  public void testImportUtf8() throws Exception {
+    String configText = "greeting = \u4f60\u597d";
+    byte[] zip = zip("DEV/someAppId/default/application.properties", configText);
+
+    configsExportService.importData(new ByteArrayResource(zip));
+
+    ArgumentCaptor<NamespaceTextModel> model = ArgumentCaptor.forClass(NamespaceTextModel.class);
+    verify(itemService).updateConfigItemByText(model.capture(), eq(someOperator));
+    assertEquals(configText, model.getValue().getConfigText());
+  }
+
+  @Test(expected = BadRequestException.class)
+  public void testImportInvalidEntry() throws Exception {
+    //the invalid entry is after a valid one
+    byte[] zip = zip("DEV/someAppId/default/application.properties", "a = b",
+        "someAppId/default/application.properties", "a = b");
+
+    try {
+      configsExportService.importData(new ByteArrayResource(zip));
+    } finally {
+      verify(itemService, never()).updateConfigItemByText(any(), any());
+    }
+  }
+
+  @Test(expected = BadRequestException.class)
+  public void testImportNonUtf8Entry() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(out)) {
+      zipOutputStream.putNextEntry(new ZipEntry("DEV/someAppId/default/application.properties"));
+      zipOutputStream.write("greeting = \u4f60\u597d".getBytes("GBK"));
+      zipOutputStream.closeEntry();
+    }
+
+    try {
+      configsExportService.importData(new ByteArrayResource(out.toByteArray()));
+    } finally {
+      verify(itemService, never()).updateConfigItemByText(any(), any());
+    }
+  }
+
+  private void mockApps(String... appIds) {
+    when(appService.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+      Pageable pageable = invocation.getArgument(0);
+      List<App> apps = pageable.getPageNumber() == 0 ?
+          Arrays.stream(appIds).map(this::assembleApp).collect(Collectors.toList()) : Collections.emptyList();
+      return new PageDTO<>(apps, pageable, appIds.length);
+    });
+  }
+
+  private byte[] zip(String... entryAndContents) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(out)) {
+      for (int i = 0; i < entryAndContents.length; i += 2) {
+        zipOutputStream.putNextEntry(new ZipEntry(entryAndContents[i]));
+        zipOutputStream.write(entryAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+        zipOutputStream.closeEntry();
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private void assertNamespaceTextModel(NamespaceTextModel model, String appId, String namespaceName,
+      ConfigFileFormat format, String configText) {
+    assertEquals(Env.DEV, model.getEnv());
+    assertEquals(appId, model.getAppId());
+    assertEquals(someClusterName, model.getClusterName());
+    assertEquals(namespaceName, model.getNamespaceName());
+    assertEquals(format, model.getFormat());
+    assertEquals(configText, model.getConfigText());
+  }
+
+  private App assembleApp(String appId) {
+    App app = new App();
+    app.setAppId(appId);
+    return app;
+  }
+
+  private AppNamespace assembleAppNamespace(String appId, String name, ConfigFileFormat format) {
+    AppNamespace appNamespace = new AppNamespace();
+    appNamespace.setAppId(appId);
+    appNamespace.setName(name);
+    appNamespace.setFormat(format.getValue());
+    return appNamespace;
+  }
+
+  private ClusterDTO assembleCluster(String clusterName) {
+    ClusterDTO cluster = new ClusterDTO();
+    cluster.setName(clusterName);
+    return cluster;
+  }
+
+  private NamespaceDTO assembleNamespace(String appId, String namespaceName) {
+    NamespaceDTO namespace = new NamespaceDTO();
+    namespace.setAppId(appId);
+    namespace.setClusterName(someClusterName);
+    namespace.setNamespaceName(namespaceName);
+    return namespace;
+  }
+
+  private NamespaceDetailDTO assembleNamespaceDetail(String appId, String namespaceName, ItemDTO... items) {
+    NamespaceDetailDTO namespaceDetail = new NamespaceDetailDTO();
+    namespaceDetail.setBaseInfo(assembleNamespace(appId, namespaceName));
+    namespaceDetail.setItems(Arrays.asList(items));
+    return namespaceDetail;
+  }
+
+  private List<String> listEntries(byte[] zip) throws Exception {
+    List<String> entries = Lists.newArrayList();
+    try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+      ZipEntry entry;
+      while ((entry = zipInputStream.getNextEntry()) != null) {
+        entries.add(entry.getName());
+      }
+    }
+    return entries;
+  }
+
+  private Map<String, String> readEntries(byte[] zip) throws Exception {
+    Map<String, String> entries = Maps.newLinkedHashMap();
+    try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+      ZipEntry entry;
+      while ((entry = zipInputStream.getNextEntry()) != null) {
+        entries.put(entry.getName(), ConfigToFileUtils.fileToString(zipInputStream, StandardCharsets.UTF_8));
+      }
+    }
+    return entries;
+  }
+}
@@ -2,6 +2,7 @@ package com.ctrip.framework.apollo.portal.service;
 
 import com.ctrip.framework.apollo.common.dto.ItemDTO;
 import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
+import com.ctrip.framework.apollo.common.dto.NamespaceDetailDTO;
 import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.common.entity.AppNamespace;
 import com.ctrip.framework.apollo.common.exception.BadRequestException;
@@ -9,11 +10,14 @@ import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.portal.AbstractUnitTest;
 import com.ctrip.framework.apollo.portal.api.AdminServiceAPI;
+import com.ctrip.framework.apollo.portal.component.PortalSettings;
+import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
 import com.ctrip.framework.apollo.portal.component.txtresolver.PropertyResolver;
 import com.ctrip.framework.apollo.portal.entity.bo.NamespaceBO;
 import com.ctrip.framework.apollo.portal.entity.bo.UserInfo;
 import com.ctrip.framework.apollo.portal.spi.UserInfoHolder;
 
+import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -22,9 +26,15 @@ import org.mockito.Mock;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -47,6 +57,10 @@ public class NamespaceServiceTest extends AbstractUnitTest {
   private NamespaceBranchService branchService;
   @Mock
   private UserInfoHolder userInfoHolder;
+  @Mock
+  private PortalConfig portalConfig;
+  @Mock
+  private PortalSettings portalSettings;
 
   @InjectMocks
   private NamespaceService namespaceService;
@@ -93,7 +107,10 @@ public class NamespaceServiceTest extends AbstractUnitTest {
     when(appNamespaceService.findByAppIdAndName(testAppId, testNamespaceName))
         .thenReturn(applicationAppNamespace);
     when(appNamespaceService.findPublicAppNamespace("hermes")).thenReturn(hermesAppNamespace);
+    //admin service without the batch api
+    when(namespaceAPI.findNamespaceDetailsByCluster(testAppId, Env.DEV, testClusterName)).thenReturn(null);
     when(namespaceAPI.findNamespaceByCluster(testAppId, Env.DEV, testClusterName)).thenReturn(namespaces);
+    when(portalConfig.loadNamespacesTimeout()).thenReturn(10000);
     when(releaseService.loadLatestRelease(testAppId, Env.DEV, testClusterName,
                                           testNamespaceName)).thenReturn(someRelease);
     when(releaseService.loadLatestRelease(testAppId, Env.DEV, testClusterName, "hermes")).thenReturn(someRelease);
@@ -111,6 +128,45 @@ public class NamespaceServiceTest extends AbstractUnitTest {
 
   }
 
+  @Test
+  public void testFindNamespaceInBatch() {
+    AppNamespace applicationAppNamespace = mock(AppNamespace.class);
+    when(applicationAppNamespace.getFormat()).thenReturn(ConfigFileFormat.Properties.getValue());
+    when(appNamespaceService.findByAppIdAndName(testAppId, testNamespaceName)).thenReturn(applicationAppNamespace);
+
+    NamespaceDTO application = new NamespaceDTO();
+    application.setId(1);
+    application.setClusterName(testClusterName);
+    application.setAppId(testAppId);
+    application.setNamespaceName(testNamespaceName);
+
+    ReleaseDTO someRelease = new ReleaseDTO();
+    someRelease.setConfigurations("{\"a\":\"123\",\"b\":\"123\",\"d\":\"1\"}");
+
+    ItemDTO deletedItem = new ItemDTO("d", "1", "someComment", 5);
+
+    NamespaceDetailDTO detail = new NamespaceDetailDTO();
+    detail.setBaseInfo(application);
+    detail.setLatestRelease(someRelease);
+    detail.setItems(Arrays.asList(new ItemDTO("a", "123", "", 1), new ItemDTO("b", "1", "", 2),
+        new ItemDTO("c", "1", "", 3)));
+    detail.setDeletedItems(Collections.singletonList(deletedItem));
+
+    when(namespaceAPI.findNamespaceDetailsByCluster(testAppId, Env.DEV, testClusterName))
+        .thenReturn(Collections.singletonList(detail));
+
+    List<NamespaceBO> namespaceBOs = namespaceService.findNamespaceBOs(testAppId, Env.DEV, testClusterName);
+
+    assertEquals(1, namespaceBOs.size());
+    NamespaceBO namespaceBO = namespaceBOs.get(0);
+    assertEquals(4, namespaceBO.getItems().size());
+    assertEquals(3, namespaceBO.getItemModifiedCnt());
+    assertEquals("d", namespaceBO.getItems().get(3).getItem().getKey());
+    assertEquals("someComment", namespaceBO.getItems().get(3).getItem().getComment());
+    verify(namespaceAPI, never()).findNamespaceByCluster(testAppId, Env.DEV, testClusterName);
+    verify(releaseService, never()).loadLatestRelease(testAppId, Env.DEV, testClusterName, testNamespaceName);
+  }
+
   @Test
   public void testDeletePrivateNamespace() {
     String operator = "user";
@@ -198,6 +254,31 @@ public class NamespaceServiceTest extends AbstractUnitTest {
 
   }
 
+  @Test
+  public void testGetNamespacesPublishInfo() {
+    when(portalConfig.publishTipsSupportedEnvs()).thenReturn(Sets.newHashSet(Env.DEV, Env.FAT, Env.UAT));
+    when(portalConfig.loadNamespacesTimeout()).thenReturn(10000);
+    when(portalSettings.isEnvActive(Env.DEV)).thenReturn(true);
+    when(portalSettings.isEnvActive(Env.UAT)).thenReturn(true);
+    //envs are loaded concurrently, otherwise neither of the calls gets through the barrier
+    CyclicBarrier bothEnvsLoading = new CyclicBarrier(2);
+    when(namespaceAPI.getNamespacePublishInfo(Env.DEV, testAppId)).thenAnswer(invocation -> {
+      bothEnvsLoading.await(5, TimeUnit.SECONDS);
+      return Collections.singletonMap(testClusterName, true);
+    });
+    when(namespaceAPI.getNamespacePublishInfo(Env.UAT, testAppId)).thenAnswer(invocation -> {
+      bothEnvsLoading.await(5, TimeUnit.SECONDS);
+      return Collections.singletonMap(testClusterName, false);
+    });
+
+    Map<String, Map<String, Boolean>> publishInfo = namespaceService.getNamespacesPublishInfo(testAppId);
+
+    assertFalse(bothEnvsLoading.isBroken());
+    assertEquals(2, publishInfo.size());
+    assertTrue(publishInfo.get(Env.DEV.toString()).get(testClusterName));
+    assertFalse(publishInfo.get(Env.UAT.toString()).get(testClusterName));
+    verify(namespaceAPI, never()).getNamespacePublishInfo(Env.FAT, testAppId);
+  }
 
   private AppNamespace createAppNamespace(String appId, String name, boolean isPublic) {
     AppNamespace instance = new AppNamespace();
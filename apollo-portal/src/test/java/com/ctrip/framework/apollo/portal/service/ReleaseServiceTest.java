@@ -0,0 +1,128 @@
+package com.ctrip.framework.apollo.portal.service;
+
+import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
+import com.ctrip.framework.apollo.common.dto.ReleaseDiffDTO;
+import com.ctrip.framework.apollo.portal.AbstractUnitTest;
+import com.ctrip.framework.apollo.portal.api.AdminServiceAPI;
+import com.ctrip.framework.apollo.portal.entity.vo.Change;
+import com.ctrip.framework.apollo.portal.entity.vo.ReleaseCompareResult;
+import com.ctrip.framework.apollo.portal.enums.ChangeType;
+import com.ctrip.framework.apollo.portal.environment.Env;
+import com.ctrip.framework.apollo.portal.spi.UserInfoHolder;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReleaseServiceTest extends AbstractUnitTest {
+
+  @Mock
+  private UserInfoHolder userInfoHolder;
+  @Mock
+  private AdminServiceAPI.ReleaseAPI releaseAPI;
+
+  @InjectMocks
+  private ReleaseService releaseService;
+
+  @Test
+  public void testCompareInBatch() {
+    when(releaseAPI.findReleaseDiffs(Env.DEV, Arrays.asList(0L, 1L), Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(
+        assembleDiff(0, 1, new ReleaseDiffDTO.Change(ReleaseDiffDTO.ADDED, "k1", null, "v1")),
+        assembleDiff(1, 2, new ReleaseDiffDTO.Change(ReleaseDiffDTO.MODIFIED, "k1", "v1", "v2"),
+            new ReleaseDiffDTO.Change(ReleaseDiffDTO.DELETED, "k2", "v2", null))));
+
+    List<ReleaseCompareResult> compareResults = releaseService.compare(Env.DEV, Arrays.asList(0L, 1L),
+        Arrays.asList(1L, 2L));
+
+    assertEquals(2, compareResults.size());
+    assertChange(compareResults.get(0).getChanges().get(0), ChangeType.ADDED, "k1", "", "v1");
+    assertChange(compareResults.get(1).getChanges().get(0), ChangeType.MODIFIED, "k1", "v1", "v2");
+    assertChange(compareResults.get(1).getChanges().get(1), ChangeType.DELETED, "k2", "v2", null);
+
+    //served from the cache
+    assertSame(compareResults.get(1), releaseService.compare(Env.DEV, 1, 2));
+    verify(releaseAPI, times(1)).findReleaseDiffs(any(Env.class), anyList(), anyList());
+    verify(releaseAPI, never()).loadRelease(any(Env.class), anyLong());
+  }
+
+  @Test
+  public void testCompareWithAdminServiceWithoutDiffApi() {
+    when(releaseAPI.findReleaseDiffs(Env.DEV, Collections.singletonList(1L), Collections.singletonList(2L)))
+        .thenReturn(null);
+    when(releaseAPI.loadRelease(Env.DEV, 1)).thenReturn(assembleRelease("{\"k1\":\"v1\"}"));
+    when(releaseAPI.loadRelease(Env.DEV, 2)).thenReturn(assembleRelease("{\"k1\":\"v2\"}"));
+
+    ReleaseCompareResult compareResult = releaseService.compare(Env.DEV, 1, 2);
+
+    assertEquals(1, compareResult.getChanges().size());
+    assertChange(compareResult.getChanges().get(0), ChangeType.MODIFIED, "k1", "v1", "v2");
+    verify(releaseAPI, times(1)).loadRelease(eq(Env.DEV), eq(1L));
+
+    //served from the cache
+    assertSame(compareResult, releaseService.compare(Env.DEV, 1, 2));
+    verify(releaseAPI, times(1)).findReleaseDiffs(any(Env.class), anyList(), anyList());
+  }
+
+  @Test
+  public void testCompareWithReleaseNotFound() {
+    ReleaseDiffDTO diff = assembleDiff(1, 2, new ReleaseDiffDTO.Change(ReleaseDiffDTO.DELETED, "k1", "v1", null));
+    diff.setReleasesFound(false);
+    when(releaseAPI.findReleaseDiffs(Env.DEV, Collections.singletonList(1L), Collections.singletonList(2L)))
+        .thenReturn(Collections.singletonList(diff));
+
+    releaseService.compare(Env.DEV, 1, 2);
+    releaseService.compare(Env.DEV, 1, 2);
+
+    //not cached, as the release might be found later
+    verify(releaseAPI, times(2)).findReleaseDiffs(any(Env.class), anyList(), anyList());
+  }
+
+  @Test
+  public void testCompareWithReleaseNotFoundWithoutDiffApi() {
+    when(releaseAPI.findReleaseDiffs(Env.DEV, Collections.singletonList(1L), Collections.singletonList(2L)))
+        .thenReturn(null);
+    when(releaseAPI.loadRelease(Env.DEV, 1)).thenReturn(assembleRelease("{\"k1\":\"v1\"}"));
+
+    ReleaseCompareResult compareResult = releaseService.compare(Env.DEV, 1, 2);
+    releaseService.compare(Env.DEV, 1, 2);
+
+    assertChange(compareResult.getChanges().get(0), ChangeType.DELETED, "k1", "v1", null);
+    verify(releaseAPI, times(2)).loadRelease(eq(Env.DEV), eq(2L));
+  }
+
+  private void assertChange(Change change, ChangeType type, String key, String oldValue, String newValue) {
+    assertEquals(type, change.getType());
+    assertEquals(key, change.getEntity().getFirstEntity().getKey());
+    assertEquals(oldValue, change.getEntity().getFirstEntity().getValue());
+    assertEquals(newValue, change.getEntity().getSecondEntity().getValue());
+  }
+
+  private ReleaseDiffDTO assembleDiff(long baseReleaseId, long toCompareReleaseId, ReleaseDiffDTO.Change... changes) {
+    ReleaseDiffDTO diff = new ReleaseDiffDTO();
+    diff.setBaseReleaseId(baseReleaseId);
+    diff.setToCompareReleaseId(toCompareReleaseId);
+    diff.setChanges(Arrays.asList(changes));
+    diff.setReleasesFound(true);
+    return diff;
+  }
+
+  private ReleaseDTO assembleRelease(String configurations) {
+    ReleaseDTO release = new ReleaseDTO();
+    release.setConfigurations(configurations);
+    return release;
+  }
+}
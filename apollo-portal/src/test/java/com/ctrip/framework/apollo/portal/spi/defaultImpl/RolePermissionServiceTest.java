@@ -2,6 +2,7 @@ package com.ctrip.framework.apollo.portal.spi.defaultImpl;
 
 import com.ctrip.framework.apollo.common.entity.BaseEntity;
 import com.ctrip.framework.apollo.portal.AbstractIntegrationTest;
+import com.ctrip.framework.apollo.portal.component.AuthorizationCache;
 import com.ctrip.framework.apollo.portal.entity.bo.UserInfo;
 import com.ctrip.framework.apollo.portal.entity.po.Permission;
 import com.ctrip.framework.apollo.portal.entity.po.Role;
@@ -45,6 +46,9 @@ public class RolePermissionServiceTest extends AbstractIntegrationTest {
   @Autowired
   private PermissionRepository permissionRepository;
 
+  @Autowired
+  private AuthorizationCache authorizationCache;
+
   private String someCreatedBy;
 
   private String someLastModifiedBy;
@@ -53,6 +57,8 @@ public class RolePermissionServiceTest extends AbstractIntegrationTest {
   public void setUp() throws Exception {
     someCreatedBy = "someCreatedBy";
     someLastModifiedBy = "someLastModifiedBy";
+    //the test data is inserted by sql scripts
+    authorizationCache.invalidateAll();
   }
 
   @Test
@@ -303,6 +309,30 @@ public class RolePermissionServiceTest extends AbstractIntegrationTest {
 
   }
 
+  @Test
+  @Sql(scripts = "/sql/permission/insert-test-roles.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+  @Sql(scripts = "/sql/permission/insert-test-permissions.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+  @Sql(scripts = "/sql/permission/insert-test-userroles.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+  @Sql(scripts = "/sql/permission/insert-test-rolepermissions.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+  @Sql(scripts = "/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+  public void testUserHasPermissionAfterRoleChanged() throws Exception {
+    String someRoleName = "someRoleName";
+    String someTargetId = "someTargetId";
+    String somePermissionType = "somePermissionType";
+    String someUser = "someUser";
+    String someUserWithNoPermission = "someUserWithNoPermission";
+    String operator = "operator";
+
+    assertTrue(rolePermissionService.userHasPermission(someUser, somePermissionType, someTargetId));
+    assertFalse(rolePermissionService.userHasPermission(someUserWithNoPermission, somePermissionType, someTargetId));
+
+    rolePermissionService.assignRoleToUsers(someRoleName, Sets.newHashSet(someUserWithNoPermission), operator);
+    rolePermissionService.removeRoleFromUsers(someRoleName, Sets.newHashSet(someUser), operator);
+
+    assertFalse(rolePermissionService.userHasPermission(someUser, somePermissionType, someTargetId));
+    assertTrue(rolePermissionService.userHasPermission(someUserWithNoPermission, somePermissionType, someTargetId));
+  }
+
   private Role assembleRole(String roleName) {
     Role role = new Role();
     role.setRoleName(roleName);
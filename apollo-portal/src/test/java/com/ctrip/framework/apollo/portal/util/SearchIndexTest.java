@@ -0,0 +1,102 @@
+package com.ctrip.framework.apollo.portal.util;
+
+import com.ctrip.framework.apollo.common.entity.App;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchIndexTest {
+
+  private SearchIndex<App> searchIndex;
+
+  @Before
+  public void setUp() throws Exception {
+    searchIndex = new SearchIndex<>(App::getAppId, App::getName);
+    searchIndex.rebuild(Lists.newArrayList(
+        assembleApp("order-service", "Order Service"),
+        assembleApp("order", "Order"),
+        assembleApp("payment", "Payment for orders"),
+        assembleApp("user-service", "User Service")));
+  }
+
+  @Test
+  public void testSearchRanked() throws Exception {
+    //exact app id, prefix app id, then contained by name
+    assertEquals(Lists.newArrayList("order", "order-service", "payment"), search("ORDER"));
+    //shorter app id first when matched the same way
+    assertEquals(Lists.newArrayList("user-service", "order-service"), search("service"));
+    assertEquals(Lists.newArrayList("payment"), search("for ord"));
+    assertTrue(search("not-existed").isEmpty());
+  }
+
+  @Test
+  public void testSearchWithShortQuery() throws Exception {
+    assertEquals(Lists.newArrayList("user-service"), search("us"));
+    assertEquals(Lists.newArrayList("payment"), search("T"));
+    assertEquals(Lists.newArrayList("order", "order-service", "payment", "user-service"), search(""));
+  }
+
+  @Test
+  public void testPutAndRemove() throws Exception {
+    searchIndex.put(assembleApp("payment", "Payment"));
+    searchIndex.put(assembleApp("ordering", "Ordering"));
+    searchIndex.remove("order-service");
+
+    assertEquals(Lists.newArrayList("order", "ordering"), search("order"));
+    assertEquals(4, searchIndex.size());
+  }
+
+  @Test
+  public void testRebuildKeepsChangesWhileLoading() throws Exception {
+    List<App> loadedApps = Lists.newArrayList(
+        assembleApp("order", "Order"),
+        assembleApp("payment", "Payment"));
+
+    searchIndex.rebuild(() -> {
+      //the changes made after the apps are loaded
+      searchIndex.put(assembleApp("order", "Order for customers"));
+      searchIndex.put(assembleApp("ordering", "Ordering"));
+      searchIndex.remove("payment");
+      return loadedApps;
+    });
+
+    assertEquals(Lists.newArrayList("order", "ordering"), search("order"));
+    assertEquals(Lists.newArrayList("order"), search("customer"));
+    assertTrue(search("payment").isEmpty());
+    assertEquals(2, searchIndex.size());
+
+    //not recorded after the rebuild
+    searchIndex.rebuild(loadedApps);
+    assertEquals(Lists.newArrayList("order", "payment"), search(""));
+  }
+
+  @Test
+  public void testCompact() throws Exception {
+    searchIndex.rebuild(Collections.emptyList());
+    for (int i = 0; i < 3000; i++) {
+      searchIndex.put(assembleApp("app" + i, "name" + i));
+      searchIndex.remove("app" + (i - 1));
+    }
+
+    assertEquals(Lists.newArrayList("app2999"), search("app"));
+    assertEquals(1, searchIndex.size());
+  }
+
+  private List<String> search(String query) {
+    return searchIndex.search(query).stream().map(App::getAppId).collect(Collectors.toList());
+  }
+
+  private App assembleApp(String appId, String name) {
+    App app = new App();
+    app.setAppId(appId);
+    app.setName(name);
+    return app;
+  }
+}
@@ -0,0 +1,18 @@
+# Dump of table leaderlock
+# ------------------------------------------------------------
+
+Use ApolloConfigDB;
+
+DROP TABLE IF EXISTS `LeaderLock`;
+
+CREATE TABLE `LeaderLock` (
+  `Id` int(10) unsigned NOT NULL AUTO_INCREMENT COMMENT '自增主键',
+  `Name` varchar(64) NOT NULL DEFAULT '' COMMENT '锁名称',
+  `Owner` varchar(128) NOT NULL DEFAULT '' COMMENT '持有者',
+  `ExpireTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '过期时间',
+  `Checkpoint` varchar(1024) DEFAULT NULL COMMENT '任务进度',
+  `DataChange_CreatedTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `DataChange_LastTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '最后修改时间',
+  PRIMARY KEY (`Id`),
+  UNIQUE KEY `IX_Name` (`Name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='后台任务的主节点锁';
@@ -0,0 +1,27 @@
+# Dump of table publishevent
+# ------------------------------------------------------------
+
+Use ApolloPortalDB;
+
+DROP TABLE IF EXISTS `PublishEvent`;
+
+CREATE TABLE `PublishEvent` (
+  `Id` int(10) unsigned NOT NULL AUTO_INCREMENT COMMENT '自增Id',
+  `Env` varchar(32) NOT NULL DEFAULT '' COMMENT '环境',
+  `AppId` varchar(500) NOT NULL DEFAULT 'default' COMMENT 'AppID',
+  `ClusterName` varchar(500) NOT NULL DEFAULT 'default' COMMENT 'Cluster Name',
+  `NamespaceName` varchar(500) NOT NULL DEFAULT 'default' COMMENT 'Namespace Name',
+  `ReleaseId` int(11) unsigned NOT NULL DEFAULT '0' COMMENT '发布的Release Id',
+  `PreviousReleaseId` int(11) unsigned NOT NULL DEFAULT '0' COMMENT '前一次发布的Release Id',
+  `Operation` tinyint(3) unsigned NOT NULL DEFAULT '0' COMMENT '发布类型',
+  `EmailSent` bit(1) NOT NULL DEFAULT b'0' COMMENT '邮件是否已发送',
+  `MessageSent` bit(1) NOT NULL DEFAULT b'0' COMMENT '消息是否已发送',
+  `RetryTimes` int(10) unsigned NOT NULL DEFAULT '0' COMMENT '失败重试次数',
+  `NextRetryTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '下次发送时间',
+  `Owner` varchar(64) NOT NULL DEFAULT '' COMMENT '正在发送的Portal',
+  `DataChange_CreatedTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `DataChange_LastTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '最后修改时间',
+  PRIMARY KEY (`Id`),
+  KEY `IX_NextRetryTime` (`NextRetryTime`),
+  KEY `IX_Owner` (`Owner`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='待发送通知的发布事件';
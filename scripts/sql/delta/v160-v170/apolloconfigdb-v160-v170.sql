@@ -0,0 +1,39 @@
+# delta schema to upgrade apollo config db from v1.6.0 to v1.7.0
+
+Use ApolloConfigDB;
+
+CREATE TABLE `LeaderLock` (
+  `Id` int(10) unsigned NOT NULL AUTO_INCREMENT COMMENT '自增主键',
+  `Name` varchar(64) NOT NULL DEFAULT '' COMMENT '锁名称',
+  `Owner` varchar(128) NOT NULL DEFAULT '' COMMENT '持有者',
+  `ExpireTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '过期时间',
+  `Checkpoint` varchar(1024) DEFAULT NULL COMMENT '任务进度',
+  `DataChange_CreatedTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `DataChange_LastTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '最后修改时间',
+  PRIMARY KEY (`Id`),
+  UNIQUE KEY `IX_Name` (`Name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='后台任务的主节点锁';
+
+CREATE TABLE `InstanceReleaseCount` (
+  `Id` int(11) unsigned NOT NULL AUTO_INCREMENT COMMENT '自增Id',
+  `ConfigAppId` varchar(32) NOT NULL DEFAULT 'default' COMMENT 'Config App Id',
+  `ConfigClusterName` varchar(32) NOT NULL DEFAULT 'default' COMMENT 'Config Cluster Name',
+  `ConfigNamespaceName` varchar(32) NOT NULL DEFAULT 'default' COMMENT 'Config Namespace Name',
+  `ReleaseKey` varchar(64) NOT NULL DEFAULT '' COMMENT '发布的Key',
+  `ActiveHour` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '实例配置最后修改时间所在的小时',
+  `InstanceCount` int(11) unsigned NOT NULL DEFAULT '0' COMMENT '实例数量',
+  `DataChange_CreatedTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `DataChange_LastTime` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '最后修改时间',
+  PRIMARY KEY (`Id`),
+  UNIQUE KEY `IX_UNIQUE_KEY` (`ConfigAppId`,`ConfigClusterName`,`ConfigNamespaceName`,`ReleaseKey`,`ActiveHour`),
+  KEY `IX_Namespace_ActiveHour` (`ConfigAppId`,`ConfigClusterName`,`ConfigNamespaceName`,`ActiveHour`),
+  KEY `IX_ActiveHour` (`ActiveHour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='应用实例在各发布上的按小时计数';
+
+# backfill the counts of the instance configs active in the last day, truncated to the epoch hour as InstanceService does,
+# so that the buckets match in any time zone
+INSERT INTO `InstanceReleaseCount` (`ConfigAppId`, `ConfigClusterName`, `ConfigNamespaceName`, `ReleaseKey`, `ActiveHour`, `InstanceCount`)
+SELECT `ConfigAppId`, `ConfigClusterName`, `ConfigNamespaceName`, `ReleaseKey`, FROM_UNIXTIME(UNIX_TIMESTAMP(`DataChange_LastTime`) - UNIX_TIMESTAMP(`DataChange_LastTime`) % 3600), COUNT(*)
+FROM `InstanceConfig`
+WHERE `DataChange_LastTime` > DATE_SUB(NOW(), INTERVAL 25 HOUR)
+GROUP BY `ConfigAppId`, `ConfigClusterName`, `ConfigNamespaceName`, `ReleaseKey`, FROM_UNIXTIME(UNIX_TIMESTAMP(`DataChange_LastTime`) - UNIX_TIMESTAMP(`DataChange_LastTime`) % 3600);